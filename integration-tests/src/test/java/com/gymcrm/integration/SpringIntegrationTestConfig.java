@@ -86,6 +86,8 @@ public class SpringIntegrationTestConfig {
                         "--eureka.client.fetch-registry=false",
                         "--workload.jms.queue-name=trainer.workload.queue",
                         "--workload.jms.dlq-name=DLQ.trainer.workload.queue",
+                        "--workload.jms.bulk.queue-name=trainer.workload.bulk.queue",
+                        "--workload.jms.bulk.dlq-name=DLQ.trainer.workload.bulk.queue",
                         "--workload.jms.concurrency=1-1",
                         "--logging.level.com.gymcrm.workload=WARN",
                         "--logging.level.org.apache.activemq=WARN",
@@ -0,0 +1,209 @@
+package com.gymcrm.integration.benchmark;
+
+import com.gymcrm.service.WorkloadNotificationService;
+import com.gymcrm.workload.TrainerWorkloadApplication;
+import com.gymcrm.workload.document.DeadLetterDocument;
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.region.policy.IndividualDeadLetterStrategy;
+import org.apache.activemq.broker.region.policy.PolicyEntry;
+import org.apache.activemq.broker.region.policy.PolicyMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jms.core.JmsTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Measures optimistic-lock conflicts in the workload consumer with and without
+ * {@code JMSXGroupID} on the producer side.
+ *
+ * <p>Each run boots a fresh workload context against its own in-JVM broker, with five
+ * fixed consumers and the legacy {@code document} write mode (read, modify, {@code save()}
+ * against {@code @Version}) — the path that conflicts when two events of the same trainer
+ * are processed concurrently. A burst of ADD events for a handful of trainers is sent,
+ * and the {@code workload.events.failed} counter for {@code OptimisticLockingFailureException}
+ * is read once every event has been applied or dead-lettered (without grouping, an event
+ * can lose the race more often than the redelivery policy allows).
+ *
+ * <p>The broker dead-letters per queue, like the embedded one in JmsConfig, so exhausted events
+ * go to {@code workload.jms.dlq-name}; the service's DLQ listener stores them in
+ * {@code workload_dead_letters}, where they are counted.
+ *
+ * <p>Tagged {@code benchmark}, which {@code verify} excludes; run on demand:
+ * <pre>
+ * mvn -pl integration-tests verify -Dit.test=WorkloadGroupingContentionBenchmark -Dit.excludedGroups=
+ * </pre>
+ */
+@Tag("benchmark")
+class WorkloadGroupingContentionBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadGroupingContentionBenchmark.class);
+
+    private static final List<String> TRAINERS = List.of("bench.a", "bench.b", "bench.c", "bench.d");
+    private static final int EVENTS_PER_TRAINER = 200;
+    private static final int MINUTES_PER_EVENT = 30;
+    private static final int GROUP_PARTITIONS = 256;
+    private static final String QUEUE = "trainer.workload.queue";
+    private static final String DLQ_PREFIX = "DLQ.";
+    private static final String DLQ = DLQ_PREFIX + QUEUE;
+
+    private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @BeforeAll
+    static void startMongo() {
+        mongo.start();
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        mongo.stop();
+    }
+
+    private static final int TOTAL_EVENTS = TRAINERS.size() * EVENTS_PER_TRAINER;
+
+    private record Result(double conflicts, int deadLettered) {}
+
+    @Test
+    void versionConflictsWithAndWithoutMessageGroups() throws Exception {
+        Result ungrouped = run(false);
+        Result grouped = run(true);
+
+        log.info("[WORKLOAD-BENCH] {} trainers x {} events, 5 consumers", TRAINERS.size(), EVENTS_PER_TRAINER);
+        log.info("[WORKLOAD-BENCH] without JMSXGroupID: conflicts={} dead-lettered={}",
+                (long) ungrouped.conflicts(), ungrouped.deadLettered());
+        log.info("[WORKLOAD-BENCH] with JMSXGroupID:    conflicts={} dead-lettered={}",
+                (long) grouped.conflicts(), grouped.deadLettered());
+
+        assertThat(grouped.conflicts()).isZero();
+        assertThat(grouped.deadLettered()).isZero();
+    }
+
+    /** Sends the burst, waits until every event is applied or dead-lettered, and reports the conflicts. */
+    private Result run(boolean grouped) throws Exception {
+        BrokerService broker = startBroker("bench-" + UUID.randomUUID());
+        String brokerUrl = "vm://" + broker.getBrokerName() + "?create=false";
+        String database = "workload_bench_" + (grouped ? "grouped" : "ungrouped");
+
+        try (ConfigurableApplicationContext workload = startWorkload(brokerUrl, database)) {
+            JmsTemplate jmsTemplate = new JmsTemplate(new ActiveMQConnectionFactory(brokerUrl));
+            for (int i = 0; i < EVENTS_PER_TRAINER; i++) {
+                for (String trainer : TRAINERS) {
+                    send(jmsTemplate, trainer, grouped);
+                }
+            }
+
+            MongoTemplate mongoTemplate = workload.getBean(MongoTemplate.class);
+            await().atMost(Duration.ofMinutes(10)).pollInterval(Duration.ofSeconds(1)).until(() ->
+                    appliedEvents(mongoTemplate) + deadLettered(mongoTemplate) == TOTAL_EVENTS);
+
+            Counter conflicts = workload.getBean(MeterRegistry.class).find("workload.events.failed")
+                    .tag("exception", "OptimisticLockingFailureException")
+                    .counter();
+            return new Result(conflicts == null ? 0 : conflicts.count(), deadLettered(mongoTemplate));
+        } finally {
+            broker.stop();
+            broker.waitUntilStopped();
+        }
+    }
+
+    /** Non-persistent broker with per-queue DLQs ({@code DLQ.<queue>}), as configured in JmsConfig. */
+    private BrokerService startBroker(String brokerName) throws Exception {
+        IndividualDeadLetterStrategy dlqStrategy = new IndividualDeadLetterStrategy();
+        dlqStrategy.setQueuePrefix(DLQ_PREFIX);
+        dlqStrategy.setUseQueueForQueueMessages(true);
+
+        PolicyEntry policy = new PolicyEntry();
+        policy.setQueue(">");
+        policy.setDeadLetterStrategy(dlqStrategy);
+        PolicyMap policyMap = new PolicyMap();
+        policyMap.setPolicyEntries(List.of(policy));
+
+        BrokerService broker = new BrokerService();
+        broker.setBrokerName(brokerName);
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setDestinationPolicy(policyMap);
+        broker.start();
+        broker.waitUntilStarted();
+        return broker;
+    }
+
+    private int deadLettered(MongoTemplate mongoTemplate) {
+        return (int) mongoTemplate.count(new Query(), DeadLetterDocument.COLLECTION);
+    }
+
+    private int appliedEvents(MongoTemplate mongoTemplate) {
+        return TRAINERS.stream().mapToInt(trainer -> totalFor(mongoTemplate, trainer)).sum() / MINUTES_PER_EVENT;
+    }
+
+    private void send(JmsTemplate jmsTemplate, String trainer, boolean grouped) {
+        String payload = """
+                {"trainerUsername":"%s","firstName":"Bench","lastName":"Trainer","isActive":true,\
+                "trainingDate":"2025-03-10","trainingDuration":%d,"actionType":"ADD"}"""
+                .formatted(trainer, MINUTES_PER_EVENT);
+        jmsTemplate.send(QUEUE, session -> {
+            var message = session.createTextMessage(payload);
+            message.setStringProperty("_type", "workloadEvent");
+            if (grouped) {
+                message.setStringProperty("JMSXGroupID",
+                        WorkloadNotificationService.groupIdFor(trainer, GROUP_PARTITIONS));
+            }
+            return message;
+        });
+    }
+
+    private int totalFor(MongoTemplate mongoTemplate, String trainer) {
+        TrainerWorkloadDocument doc = mongoTemplate.findOne(
+                Query.query(where("trainerUsername").is(trainer)), TrainerWorkloadDocument.class);
+        if (doc == null) {
+            return 0;
+        }
+        return doc.getTotals().values().stream()
+                .flatMap(months -> months.values().stream())
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private ConfigurableApplicationContext startWorkload(String brokerUrl, String database) {
+        return new SpringApplicationBuilder(TrainerWorkloadApplication.class).run(
+                "--server.port=0",
+                "--spring.application.name=trainer-workload-service",
+                "--spring.data.mongodb.uri=" + mongo.getReplicaSetUrl(database),
+                "--spring.activemq.broker-url=" + brokerUrl,
+                "--jwt.secret=benchmark-jwt-secret-key-min-32-chars-long",
+                "--eureka.client.enabled=false",
+                "--eureka.client.register-with-eureka=false",
+                "--eureka.client.fetch-registry=false",
+                "--workload.jms.queue-name=" + QUEUE,
+                "--workload.jms.dlq-name=" + DLQ,
+                "--workload.jms.concurrency=5-5",
+                "--workload.write-mode=document",
+                "--logging.level.com.gymcrm.workload=ERROR",
+                "--logging.level.org.apache.activemq=WARN",
+                "--spring.autoconfigure.exclude="
+                        + "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration"
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package com.gymcrm.integration.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import com.gymcrm.workload.dto.WorkloadRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the JSON and binary wire formats of a single workload event: encoding with
+ * gym-crm's Jackson setup or {@code WorkloadEventCodec}, decoding with the workload
+ * service's, and the size of each payload.
+ *
+ * <p>The JMH run is started from a JUnit test so it uses the failsafe classpath; it runs
+ * in-process ({@code forks(0)}), which is enough to compare the two formats but not for
+ * absolute numbers. JMH's own output is silenced; the scores are logged.
+ *
+ * <p>Tagged {@code benchmark}, which {@code verify} excludes; run on demand:
+ * <pre>
+ * mvn -pl integration-tests verify -Dit.test=WorkloadWireCodecBenchmark -Dit.excludedGroups=
+ * </pre>
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WorkloadWireCodecBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadWireCodecBenchmark.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private TrainerWorkloadRequest event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        event = new TrainerWorkloadRequest();
+        event.setTrainerUsername("john.doe");
+        event.setFirstName("John");
+        event.setLastName("Doe");
+        event.setIsActive(true);
+        event.setTrainingDate(LocalDate.of(2026, 3, 1));
+        event.setTrainingDuration(60);
+        event.setActionType(TrainerWorkloadRequest.ActionType.ADD);
+        event.setEventId(UUID.randomUUID().toString());
+        json = objectMapper.writeValueAsBytes(event);
+        binary = com.gymcrm.messaging.WorkloadEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return com.gymcrm.messaging.WorkloadEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public WorkloadRequest decodeJson() throws Exception {
+        return objectMapper.readValue(json, WorkloadRequest.class);
+    }
+
+    @Benchmark
+    public WorkloadRequest decodeBinary() {
+        return com.gymcrm.workload.messaging.WorkloadEventCodec.decode(binary);
+    }
+
+    @Test
+    void compareWireFormats() throws Exception {
+        setUp();
+        WorkloadRequest fromJson = decodeJson();
+        WorkloadRequest fromBinary = decodeBinary();
+        assertThat(fromBinary).usingRecursiveComparison().isEqualTo(fromJson);
+        log.info("[WORKLOAD-BENCH] event size: json={} bytes, binary={} bytes", json.length, binary.length);
+
+        Options options = new OptionsBuilder()
+                .include(WorkloadWireCodecBenchmark.class.getName() + "\\.(encode|decode)")
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .verbosity(VerboseMode.SILENT)
+                .build();
+        for (RunResult run : new Runner(options).run()) {
+            Result<?> score = run.getPrimaryResult();
+            log.info("[WORKLOAD-BENCH] {}: {} ± {} {}", run.getParams().getBenchmark(),
+                    String.format("%.1f", score.getScore()), String.format("%.1f", score.getScoreError()),
+                    score.getScoreUnit());
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.gymcrm.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.dto.request.TrainerWorkloadDeltaBatch;
 import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import com.gymcrm.dto.request.WorkloadMessage;
+import com.gymcrm.messaging.WorkloadEventCodec;
+import com.gymcrm.messaging.WorkloadMessageConverter;
 import jakarta.jms.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.core.JmsTemplate;
@@ -23,23 +28,31 @@ import java.util.Map;
 @Configuration
 public class JmsConfig {
 
+    static final String BINARY_WIRE_FORMAT = "binary";
+
     /**
      * JSON message converter.
      *
      * - Uses TEXT messages for readable JSON payloads
      * - Stores type info in "_type" property for deserialization
-     * - Maps "workloadEvent" to {@link TrainerWorkloadRequest}
+     * - Maps "workloadEvent" to {@link TrainerWorkloadRequest}, "workloadDeltaBatch"
+     *   to {@link TrainerWorkloadDeltaBatch} and "trainerProfile" to
+     *   {@link com.gymcrm.dto.request.TrainerProfileEvent} (see {@link WorkloadMessage#TYPE_IDS})
+     *
+     * Reuses Spring's {@link ObjectMapper} for consistent serialization.
      *
-     * Reuses Spring's {@link ObjectMapper} for consistent serialization
+     * With {@code jms.workload.wire-format=binary} single events are sent as
+     * {@link WorkloadEventCodec} bytes instead (see {@link WorkloadMessageConverter}).
      */
     @Bean
-    public MessageConverter jacksonJmsMessageConverter(ObjectMapper objectMapper) {
+    public MessageConverter jacksonJmsMessageConverter(ObjectMapper objectMapper,
+                                                       @Value("${jms.workload.wire-format:json}") String wireFormat) {
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
         converter.setTargetType(MessageType.TEXT);
         converter.setTypeIdPropertyName("_type");
-        converter.setTypeIdMappings(Map.of("workloadEvent", TrainerWorkloadRequest.class));
+        converter.setTypeIdMappings(Map.<String, Class<?>>copyOf(WorkloadMessage.TYPE_IDS));
         converter.setObjectMapper(objectMapper);
-        return converter;
+        return BINARY_WIRE_FORMAT.equals(wireFormat) ? new WorkloadMessageConverter(converter) : converter;
     }
 
     /**
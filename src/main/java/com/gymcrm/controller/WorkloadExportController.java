@@ -0,0 +1,118 @@
+package com.gymcrm.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
+import com.gymcrm.facade.GymFacade;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Aggregated workload export read by the trainer workload service to rebuild its data
+ * from scratch. Totals are computed in SQL and streamed as newline-delimited JSON, so
+ * neither side holds the export in memory.
+ *
+ * <p>The digest endpoints let the workload service find drifted trainers without a full
+ * export: it compares range digests first and per-trainer digests only inside ranges that differ.
+ */
+@RestController
+@RequestMapping("/workload-export")
+@Tag(name = "Workload export")
+public class WorkloadExportController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final GymFacade facade;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public WorkloadExportController(GymFacade facade, ObjectMapper objectMapper) {
+        this.facade = facade;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/ranges")
+    @Operation(summary = "Trainer username ranges",
+            description = "Usernames splitting all trainers into at most `chunks` equal ranges for parallel export. "
+                    + "Requires Bearer token.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "chunks below 1"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized — missing or invalid Bearer token")
+    })
+    public ResponseEntity<List<String>> ranges(@RequestParam(defaultValue = "16") int chunks) {
+        return ResponseEntity.ok(facade.getWorkloadExportBoundaries(chunks));
+    }
+
+    /**
+     * Writes one JSON object per (trainer, year, month) of the trainers in [from, to), in
+     * trainer order, to the response as the query produces them.
+     */
+    @GetMapping(produces = NDJSON)
+    @Operation(summary = "Export monthly workload totals",
+            description = "Streams (trainer, year, month, minutes) rows for trainers in [from, to) as NDJSON. "
+                    + "Requires Bearer token.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized — missing or invalid Bearer token")
+    })
+    public void export(@RequestParam(defaultValue = "") String from,
+                       @RequestParam(required = false) String to,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE);
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            facade.exportWorkload(from, to, row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/digest")
+    @Operation(summary = "Workload digest of a trainer range",
+            description = "Trainer count and combined digest of the monthly totals of trainers in [from, to). "
+                    + "Requires Bearer token.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized — missing or invalid Bearer token")
+    })
+    public ResponseEntity<WorkloadRangeDigest> rangeDigest(@RequestParam(defaultValue = "") String from,
+                                                           @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(facade.getWorkloadRangeDigest(from, to));
+    }
+
+    @GetMapping("/digests")
+    @Operation(summary = "Per-trainer workload digests",
+            description = "Digest of each trainer in [from, to) with training minutes, in username order. "
+                    + "Requires Bearer token.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized — missing or invalid Bearer token")
+    })
+    public ResponseEntity<List<WorkloadDigest>> trainerDigests(@RequestParam(defaultValue = "") String from,
+                                                               @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(facade.getWorkloadDigests(from, to));
+    }
+}
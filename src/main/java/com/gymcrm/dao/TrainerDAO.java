@@ -20,4 +20,11 @@ public interface TrainerDAO {
     List<Trainer> findUnassignedTrainersByTraineeUsername(String traineeUsername);
 
     Optional<Trainer> findByUsernameWithTrainees(String username);
+
+    /**
+     * Usernames that split all trainers, in code point order of their usernames (as MongoDB
+     * orders them), into at most {@code chunks} ranges of equal size: range i starts at element
+     * i and ends before element i + 1.
+     */
+    List<String> findUsernameBoundaries(int chunks);
 }
@@ -109,4 +109,34 @@ public class TrainerDAOImpl implements TrainerDAO {
                 .getResultStream()
                 .findFirst();
     }
+
+    /**
+     * Numbers the trainers in username order in the database and keeps every step-th username,
+     * so only the boundaries leave the server. Comparisons against them use the same collation.
+     */
+    @Override
+    public List<String> findUsernameBoundaries(int chunks) {
+        long trainers = entityManager
+                .createQuery("select count(t) from Trainer t", Long.class)
+                .getSingleResult();
+        if (trainers == 0 || chunks < 1) {
+            return List.of();
+        }
+        long step = (trainers + chunks - 1) / chunks;
+        @SuppressWarnings("unchecked")
+        List<String> boundaries = entityManager
+                .createNativeQuery("""
+                        select username from (
+                            select u.username, row_number() over (order by u.username collate ucs_basic) as rn
+                            from trainers t
+                            join users u on u.id = t.user_id
+                        ) ranked
+                        where mod(rn - 1, :step) = 0
+                        order by username collate ucs_basic
+                        """, String.class)
+                .setParameter("step", step)
+                .getResultList();
+        logger.debug("Split {} trainers into {} username ranges", trainers, boundaries.size());
+        return boundaries;
+    }
 }
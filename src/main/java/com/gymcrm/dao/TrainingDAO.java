@@ -1,10 +1,14 @@
 package com.gymcrm.dao;
 
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadExportRow;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
 import com.gymcrm.model.Training;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TrainingDAO {
 
@@ -30,4 +34,22 @@ public interface TrainingDAO {
             LocalDate fromDate,
             LocalDate toDate,
             String traineeName);
+
+    /**
+     * Streams the monthly training totals of trainers whose username is in
+     * [{@code fromUsername}, {@code toUsername}) in code point order, ordered by trainer, year
+     * and month; a null {@code toUsername} has no upper bound. Aggregated in SQL, no entities
+     * are loaded.
+     * The stream must be consumed inside a transaction and closed.
+     */
+    Stream<WorkloadExportRow> streamMonthlyTotals(String fromUsername, String toUsername);
+
+    /**
+     * Workload digests of the trainers in [{@code fromUsername}, {@code toUsername}) with
+     * positive monthly totals, in username order; trainers without are left out.
+     */
+    List<WorkloadDigest> findTrainerDigests(String fromUsername, String toUsername);
+
+    /** Trainer count and combined digest of the same trainers as {@link #findTrainerDigests}. */
+    WorkloadRangeDigest findRangeDigest(String fromUsername, String toUsername);
 }
@@ -1,5 +1,8 @@
 package com.gymcrm.dao;
 
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadExportRow;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
 import com.gymcrm.model.Training;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,12 +10,14 @@ import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class TrainingDAOImpl implements TrainingDAO {
@@ -28,6 +33,56 @@ public class TrainingDAOImpl implements TrainingDAO {
                     "join t.trainingType tt " +
                     "where 1=1";
 
+    /**
+     * Trainer profile plus minutes per (year, month). The left join keeps trainers without
+     * trainings, as one row with null year, month and minutes.
+     */
+    private static final String MONTHLY_TOTALS_QUERY =
+            "select new com.gymcrm.dto.response.WorkloadExportRow(" +
+                    "u.username, u.firstName, u.lastName, u.isActive, " +
+                    "extract(year from t.trainingDate), extract(month from t.trainingDate), sum(t.trainingDuration)) " +
+                    "from Trainer te " +
+                    "join te.user u " +
+                    "left join te.trainings t " +
+                    "where collate(u.username as ucs_basic) >= :fromUsername";
+
+    private static final String MONTHLY_TOTALS_GROUPING =
+            " group by u.username, u.firstName, u.lastName, u.isActive, " +
+                    "extract(year from t.trainingDate), extract(month from t.trainingDate)" +
+                    " order by collate(u.username as ucs_basic), extract(year from t.trainingDate), extract(month from t.trainingDate)";
+
+    /**
+     * Per-trainer workload digest. With k = year * 12 + month, every month with a positive total
+     * contributes ((k * 1000003 + total) mod P) * ((k * 998244353 + total) mod P) mod P, and the
+     * contributions are summed mod P = 2^31 - 1. The trainer workload service computes the same
+     * digest over its documents, so keep both in step. Usernames compare in code point order
+     * (ucs_basic), as MongoDB compares strings.
+     */
+    private static final String TRAINER_DIGESTS_SQL = """
+            select username,
+                   cast(mod(sum(mod(mod(k * 1000003 + total, 2147483647)
+                                    * mod(k * 998244353 + total, 2147483647), 2147483647)), 2147483647) as bigint) as digest
+            from (
+                select u.username as username,
+                       cast(extract(year from t.training_date) as bigint) * 12
+                           + cast(extract(month from t.training_date) as bigint) as k,
+                       sum(cast(t.training_duration as bigint)) as total
+                from trainings t
+                join trainers te on te.id = t.trainer_id
+                join users u on u.id = te.user_id
+                where u.username collate ucs_basic >= :fromUsername
+                %s
+                group by u.username, k
+                having sum(t.training_duration) > 0
+            ) months
+            group by username
+            """;
+
+    private static final String DIGEST_UPPER_BOUND = "and u.username collate ucs_basic < :toUsername";
+
+    /** Rows fetched per round trip while streaming the export. */
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
 
 
     @PersistenceContext
@@ -127,6 +182,53 @@ public class TrainingDAOImpl implements TrainingDAO {
         return query.getResultList();
     }
 
+    @Override
+    public Stream<WorkloadExportRow> streamMonthlyTotals(String fromUsername, String toUsername) {
+        String jpql = MONTHLY_TOTALS_QUERY
+                + (toUsername != null ? " and collate(u.username as ucs_basic) < :toUsername" : "")
+                + MONTHLY_TOTALS_GROUPING;
+        TypedQuery<WorkloadExportRow> query = entityManager.createQuery(jpql, WorkloadExportRow.class)
+                .setParameter("fromUsername", fromUsername == null ? "" : fromUsername)
+                .setHint("org.hibernate.fetchSize", EXPORT_FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true);
+        if (toUsername != null) {
+            query.setParameter("toUsername", toUsername);
+        }
+        return query.getResultStream();
+    }
+
+    @Override
+    public List<WorkloadDigest> findTrainerDigests(String fromUsername, String toUsername) {
+        String sql = TRAINER_DIGESTS_SQL.formatted(toUsername != null ? DIGEST_UPPER_BOUND : "")
+                + "order by username collate ucs_basic";
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = digestQuery(sql, fromUsername, toUsername).getResultList();
+        return rows.stream()
+                .map(row -> new WorkloadDigest((String) row[0], ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    @Override
+    public WorkloadRangeDigest findRangeDigest(String fromUsername, String toUsername) {
+        String sql = "select count(*), coalesce(cast(mod(sum(digest), 2147483647) as bigint), 0) from ("
+                + TRAINER_DIGESTS_SQL.formatted(toUsername != null ? DIGEST_UPPER_BOUND : "")
+                + ") digests";
+        Object[] row = (Object[]) digestQuery(sql, fromUsername, toUsername).getSingleResult();
+        return new WorkloadRangeDigest(fromUsername, toUsername,
+                ((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+
+
+    private Query digestQuery(String sql, String fromUsername, String toUsername) {
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("fromUsername", fromUsername == null ? "" : fromUsername)
+                .setHint("org.hibernate.readOnly", true);
+        if (toUsername != null) {
+            query.setParameter("toUsername", toUsername);
+        }
+        logger.debug("Executing SQL: {}", sql);
+        return query;
+    }
 
     private void appendDateFilters(
             StringBuilder jpql,
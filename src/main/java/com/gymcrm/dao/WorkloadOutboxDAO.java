@@ -0,0 +1,23 @@
+package com.gymcrm.dao;
+
+import com.gymcrm.model.WorkloadOutboxEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface WorkloadOutboxDAO {
+
+    /** Stores an event in the caller's transaction; there must be one. */
+    WorkloadOutboxEvent create(WorkloadOutboxEvent event);
+
+    /**
+     * Locks up to {@code limit} unsent events, oldest first, skipping rows locked by another
+     * relay. The locks are held until the caller's transaction ends.
+     */
+    List<WorkloadOutboxEvent> lockPending(int limit);
+
+    int markSent(Collection<Long> ids, Instant sentAt);
+
+    int deleteSentBefore(Instant cutoff);
+}
@@ -0,0 +1,66 @@
+package com.gymcrm.dao;
+
+import com.gymcrm.model.WorkloadOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class WorkloadOutboxDAOImpl implements WorkloadOutboxDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadOutboxDAOImpl.class);
+
+    // Native: JPQL has no SKIP LOCKED. Served by idx_workload_outbox_pending.
+    private static final String LOCK_PENDING_SQL =
+            "select * from workload_outbox where sent_at is null " +
+                    "order by id limit :limit for update skip locked";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** MANDATORY: an outbox row written outside the training's transaction would defeat its purpose. */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public WorkloadOutboxEvent create(WorkloadOutboxEvent event) {
+        entityManager.persist(event);
+        logger.debug("Queued workload event {} for trainer {}", event.getEventId(), event.getTrainerUsername());
+        return event;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<WorkloadOutboxEvent> lockPending(int limit) {
+        return entityManager
+                .createNativeQuery(LOCK_PENDING_SQL, WorkloadOutboxEvent.class)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    public int markSent(Collection<Long> ids, Instant sentAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager
+                .createQuery("update WorkloadOutboxEvent e set e.sentAt = :sentAt where e.id in :ids")
+                .setParameter("sentAt", sentAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public int deleteSentBefore(Instant cutoff) {
+        return entityManager
+                .createQuery("delete from WorkloadOutboxEvent e where e.sentAt < :cutoff")
+                .setParameter("cutoff", cutoff)
+                .executeUpdate();
+    }
+}
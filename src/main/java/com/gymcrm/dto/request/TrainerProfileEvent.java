@@ -0,0 +1,34 @@
+package com.gymcrm.dto.request;
+
+/**
+ * Outbound DTO carrying a trainer's profile after it changed: on registration, on an update
+ * with different values, and on (de)activation. Workload events themselves leave the profile
+ * out when slim events are enabled, so this is how the workload service learns names and status.
+ */
+public class TrainerProfileEvent implements WorkloadMessage {
+
+    private String trainerUsername;
+    private String firstName;
+    private String lastName;
+    private Boolean isActive;
+
+    /** Unique per event; the workload service only uses it for tracing. */
+    private String eventId;
+
+    @Override
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    @Override
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+}
@@ -0,0 +1,74 @@
+package com.gymcrm.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbound DTO carrying the net workload changes of one trainer from a single unit of work,
+ * e.g. every training removed together with a trainee, as signed minutes per (year, month).
+ *
+ * Sent instead of one {@link TrainerWorkloadRequest} per training; months whose changes
+ * cancel out are left out. Like single events, the profile fields are null and left out of
+ * the JSON when slim events are enabled.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrainerWorkloadDeltaBatch implements WorkloadMessage {
+
+    private String trainerUsername;
+    private String firstName;
+    private String lastName;
+    private Boolean isActive;
+
+    /** Unique per batch and kept across redeliveries, so the workload service applies it once. */
+    private String eventId;
+
+    private List<MonthDelta> deltas = new ArrayList<>();
+
+    public static class MonthDelta {
+
+        private Integer year;
+        private Integer month;
+        /** Positive for added training time, negative for removed. */
+        private Integer minutes;
+
+        public MonthDelta() {
+        }
+
+        public MonthDelta(Integer year, Integer month, Integer minutes) {
+            this.year = year;
+            this.month = month;
+            this.minutes = minutes;
+        }
+
+        public Integer getYear() { return year; }
+        public void setYear(Integer year) { this.year = year; }
+
+        public Integer getMonth() { return month; }
+        public void setMonth(Integer month) { this.month = month; }
+
+        public Integer getMinutes() { return minutes; }
+        public void setMinutes(Integer minutes) { this.minutes = minutes; }
+    }
+
+    @Override
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    @Override
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public List<MonthDelta> getDeltas() { return deltas; }
+    public void setDeltas(List<MonthDelta> deltas) { this.deltas = deltas; }
+}
@@ -1,6 +1,7 @@
 package com.gymcrm.dto.request;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDate;
 
@@ -10,8 +11,12 @@ import java.time.LocalDate;
  *
  * @JsonFormat on trainingDate is required so Jackson serializes LocalDate as
  * "yyyy-MM-dd" string rather than a numeric array when Feign builds the request body.
+ *
+ * The profile fields are null in slim events ({@code jms.workload.slim-events.enabled}) and
+ * then left out of the JSON; profile changes travel as {@link TrainerProfileEvent}s instead.
  */
-public class TrainerWorkloadRequest {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrainerWorkloadRequest implements WorkloadMessage {
 
     private String trainerUsername;
     private String firstName;
@@ -24,10 +29,14 @@ public class TrainerWorkloadRequest {
     private Integer trainingDuration;
     private ActionType actionType;
 
+    /** Unique per event and kept across redeliveries, so the workload service applies it once. */
+    private String eventId;
+
     public enum ActionType {
         ADD, DELETE
     }
 
+    @Override
     public String getTrainerUsername() { return trainerUsername; }
     public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
 
@@ -48,4 +57,8 @@ public class TrainerWorkloadRequest {
 
     public ActionType getActionType() { return actionType; }
     public void setActionType(ActionType actionType) { this.actionType = actionType; }
+
+    @Override
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
 }
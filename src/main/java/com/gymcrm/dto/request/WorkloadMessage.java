@@ -0,0 +1,42 @@
+package com.gymcrm.dto.request;
+
+import java.util.Map;
+
+/**
+ * A message for the trainer-workload-service queue. Every message concerns one trainer,
+ * whose username drives the {@code JMSXGroupID}, and carries an event ID for deduplication.
+ *
+ * {@link #TYPE_IDS} are the {@code _type} aliases the workload service maps to its own DTOs.
+ */
+public interface WorkloadMessage {
+
+    /**
+     * Queue a message is routed to. Changes made by a live request go to the
+     * {@code INTERACTIVE} queue; mass changes (e.g. deleting a trainee with all its
+     * trainings) go to the {@code BULK} queue so they never delay interactive ones.
+     */
+    enum Lane {
+        INTERACTIVE,
+        BULK
+    }
+
+    String WORKLOAD_EVENT_TYPE = "workloadEvent";
+    String WORKLOAD_DELTA_BATCH_TYPE = "workloadDeltaBatch";
+    String TRAINER_PROFILE_TYPE = "trainerProfile";
+
+    Map<String, Class<? extends WorkloadMessage>> TYPE_IDS = Map.of(
+            WORKLOAD_EVENT_TYPE, TrainerWorkloadRequest.class,
+            WORKLOAD_DELTA_BATCH_TYPE, TrainerWorkloadDeltaBatch.class,
+            TRAINER_PROFILE_TYPE, TrainerProfileEvent.class);
+
+    String getTrainerUsername();
+
+    String getEventId();
+
+    static String typeIdOf(WorkloadMessage message) {
+        if (message instanceof TrainerWorkloadDeltaBatch) {
+            return WORKLOAD_DELTA_BATCH_TYPE;
+        }
+        return message instanceof TrainerProfileEvent ? TRAINER_PROFILE_TYPE : WORKLOAD_EVENT_TYPE;
+    }
+}
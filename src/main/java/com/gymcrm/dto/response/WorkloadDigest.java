@@ -0,0 +1,11 @@
+package com.gymcrm.dto.response;
+
+/**
+ * A trainer's workload digest: a hash of their positive (year, month, total minutes) tuples,
+ * computed the same way by the trainer workload service over its own data. Equal digests mean
+ * equal monthly totals.
+ */
+public record WorkloadDigest(
+        String trainerUsername,
+        long digest
+) {}
@@ -0,0 +1,16 @@
+package com.gymcrm.dto.response;
+
+/**
+ * One line of the workload export: a trainer's total training minutes in one calendar month,
+ * with the trainer's profile. A trainer without trainings appears once with null year, month
+ * and minutes.
+ */
+public record WorkloadExportRow(
+        String trainerUsername,
+        String firstName,
+        String lastName,
+        Boolean isActive,
+        Integer year,
+        Integer month,
+        Long minutes
+) {}
@@ -0,0 +1,13 @@
+package com.gymcrm.dto.response;
+
+/**
+ * Digest of all trainers with username in [from, to): how many have positive monthly totals,
+ * and the sum of their {@link WorkloadDigest}s modulo the digest prime. A null {@code to} has
+ * no upper bound.
+ */
+public record WorkloadRangeDigest(
+        String from,
+        String to,
+        long trainers,
+        long digest
+) {}
@@ -17,6 +17,9 @@ import com.gymcrm.dto.response.TrainerTrainingResponse;
 import com.gymcrm.dto.response.TrainingTypeResponse;
 import com.gymcrm.dto.response.UpdateTraineeResponse;
 import com.gymcrm.dto.response.UpdateTrainerResponse;
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadExportRow;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
 import com.gymcrm.exception.NotFoundException;
 import com.gymcrm.mapper.TraineeMapper;
 import com.gymcrm.mapper.TrainerMapper;
@@ -41,6 +44,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -157,7 +161,7 @@ public class GymFacade {
 
         traineeService.deleteTraineeByUsername(username);
 
-        trainingsToDelete.forEach(workloadNotificationService::notifyDelete);
+        workloadNotificationService.notifyDeleteAll(trainingsToDelete);
     }
 
     @Transactional(readOnly = true)
@@ -264,4 +268,20 @@ public class GymFacade {
                 .map(trainingTypeMapper::toResponse)
                 .collect(Collectors.toList());
     }
+
+    public List<String> getWorkloadExportBoundaries(int chunks) {
+        return trainerService.getUsernameBoundaries(chunks);
+    }
+
+    public void exportWorkload(String fromUsername, String toUsername, Consumer<WorkloadExportRow> sink) {
+        trainingService.exportMonthlyTotals(fromUsername, toUsername, sink);
+    }
+
+    public WorkloadRangeDigest getWorkloadRangeDigest(String fromUsername, String toUsername) {
+        return trainingService.getWorkloadRangeDigest(fromUsername, toUsername);
+    }
+
+    public List<WorkloadDigest> getWorkloadDigests(String fromUsername, String toUsername) {
+        return trainingService.getWorkloadDigests(fromUsername, toUsername);
+    }
 }
@@ -0,0 +1,45 @@
+package com.gymcrm.messaging;
+
+import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+/**
+ * Writes {@link TrainerWorkloadRequest}s with {@link WorkloadEventCodec} into a
+ * {@code BytesMessage} typed {@link WorkloadEventCodec#BINARY_TYPE_ID}
+ * ({@code jms.workload.wire-format=binary}). Delta batches and everything else, including
+ * reading, go through the JSON converter.
+ *
+ * Only switch the format once every workload service instance reads binary events.
+ */
+public class WorkloadMessageConverter implements MessageConverter {
+
+    /** Must match the type id property name of the JSON converter. */
+    static final String TYPE_ID_PROPERTY = "_type";
+
+    private final MessageConverter json;
+
+    public WorkloadMessageConverter(MessageConverter json) {
+        this.json = json;
+    }
+
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        if (!(object instanceof TrainerWorkloadRequest request)) {
+            return json.toMessage(object, session);
+        }
+        BytesMessage message = session.createBytesMessage();
+        message.writeBytes(WorkloadEventCodec.encode(request));
+        message.setStringProperty(TYPE_ID_PROPERTY, WorkloadEventCodec.BINARY_TYPE_ID);
+        return message;
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        return json.fromMessage(message);
+    }
+}
@@ -0,0 +1,156 @@
+package com.gymcrm.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A workload event waiting to be published to the trainer-workload-service.
+ *
+ * Written in the same transaction as the training change it describes and published
+ * afterwards by {@code WorkloadOutboxRelay}, so an event exists if and only if the change
+ * was committed. {@code sentAt} stays null until the broker has accepted the message.
+ */
+@Entity
+@Table(name = "workload_outbox",
+        indexes = @Index(name = "idx_workload_outbox_pending", columnList = "sent_at, id"))
+public class WorkloadOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, unique = true, length = 36)
+    private String eventId;
+
+    @Column(name = "trainer_username", nullable = false, length = 100)
+    private String trainerUsername;
+
+    /** {@code _type} of the payload, see {@code WorkloadMessage.TYPE_IDS}. */
+    @Column(name = "message_type", nullable = false, length = 32)
+    private String messageType = "workloadEvent";
+
+    /** {@code WorkloadMessage.Lane} the message is sent in. */
+    @Column(name = "lane", nullable = false, length = 16)
+    private String lane = "INTERACTIVE";
+
+    /** JSON of the message exactly as it will be sent. */
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "transaction_id", length = 64)
+    private String transactionId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    public WorkloadOutboxEvent() {
+    }
+
+    public WorkloadOutboxEvent(String eventId, String trainerUsername, String payload,
+                               String transactionId, Instant occurredAt) {
+        this.eventId = eventId;
+        this.trainerUsername = trainerUsername;
+        this.payload = payload;
+        this.transactionId = transactionId;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getTrainerUsername() {
+        return trainerUsername;
+    }
+
+    public void setTrainerUsername(String trainerUsername) {
+        this.trainerUsername = trainerUsername;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(String messageType) {
+        this.messageType = messageType;
+    }
+
+    public String getLane() {
+        return lane;
+    }
+
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WorkloadOutboxEvent that = (WorkloadOutboxEvent) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadOutboxEvent{" +
+                "id=" + id +
+                ", eventId='" + eventId + '\'' +
+                ", trainerUsername='" + trainerUsername + '\'' +
+                ", sentAt=" + sentAt +
+                '}';
+    }
+}
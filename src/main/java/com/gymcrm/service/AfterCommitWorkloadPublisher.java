@@ -0,0 +1,193 @@
+package com.gymcrm.service;
+
+import com.gymcrm.dto.request.WorkloadMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends workload events from a dedicated thread once the training change has committed
+ * ({@code jms.workload.publisher=after-commit}).
+ *
+ * {@link WorkloadNotificationService} hands events over from an {@code afterCommit}
+ * synchronization, so the request thread only pays for an {@link BlockingQueue#offer}.
+ * The sender thread drains up to {@code batch-size} events at a time and sends them in one
+ * transacted JMS session, committing once per batch. Each event carries the queue of its
+ * lane; one batch can mix lanes and opens one producer per queue it sends to. Producers come
+ * from Spring Boot's {@code CachingConnectionFactory}, which keeps them per session and destination.
+ *
+ * Delivery is fire-and-forget like {@code direct}: the queue is bounded, and an event that
+ * does not fit, or whose batch the broker rejects, is logged and counted but not retried.
+ * Use {@code outbox} where events must survive a broker outage or a crash.
+ *
+ * On shutdown new events are rejected and the queue is drained for up to
+ * {@code drain-timeout}.
+ */
+@Component
+@ConditionalOnProperty(name = "jms.workload.publisher", havingValue = "after-commit")
+public class AfterCommitWorkloadPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(AfterCommitWorkloadPublisher.class);
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    /** An event with its destination queue and the post-processor that stamps its JMS properties at send time. */
+    record PendingEvent(WorkloadMessage message, String queue, MessagePostProcessor properties) {
+    }
+
+    private final JmsTemplate transactedTemplate;
+    private final MessageConverter messageConverter;
+    private final int batchSize;
+    private final Duration drainTimeout;
+    private final BlockingQueue<PendingEvent> queue;
+    private final Thread sender;
+    private final Timer sendTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+
+    public AfterCommitWorkloadPublisher(ConnectionFactory connectionFactory,
+                                        MessageConverter messageConverter,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${jms.workload.after-commit.queue-capacity:10000}") int queueCapacity,
+                                        @Value("${jms.workload.after-commit.batch-size:50}") int batchSize,
+                                        @Value("${jms.workload.after-commit.drain-timeout:PT10S}") Duration drainTimeout) {
+        this.transactedTemplate = new JmsTemplate(connectionFactory);
+        this.transactedTemplate.setSessionTransacted(true);
+        this.messageConverter = messageConverter;
+        this.batchSize = batchSize;
+        this.drainTimeout = drainTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("workload.publisher.queue.depth", queue, BlockingQueue::size)
+                .description("Committed workload events waiting to be sent")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("workload.publisher.send")
+                .description("Time to send and commit one batch of workload events")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("workload.publisher.batch.size")
+                .description("Workload events sent per JMS transaction")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("workload.publisher.rejected")
+                .description("Workload events dropped because the send queue was full or closed")
+                .register(meterRegistry);
+        this.failed = Counter.builder("workload.publisher.failed")
+                .description("Workload events lost to a failed batch send")
+                .register(meterRegistry);
+
+        this.sender = new Thread(this::run, "workload-publisher");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    /** Queues an event without blocking; returns false if it was dropped. */
+    public boolean submit(WorkloadMessage message, String destination, MessagePostProcessor properties) {
+        if (running && queue.offer(new PendingEvent(message, destination, properties))) {
+            return true;
+        }
+        rejected.increment();
+        log.error("Workload event dropped, send queue {} — workload summary may be stale [trainer={}, action={}]",
+                running ? "full" : "closed", message.getTrainerUsername(), WorkloadNotificationService.action(message));
+        return false;
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Sends the events in one transacted session; on failure the whole batch is lost. */
+    void sendBatch(List<PendingEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            transactedTemplate.execute(session -> {
+                Map<String, MessageProducer> producers = new HashMap<>();
+                try {
+                    for (PendingEvent event : batch) {
+                        MessageProducer producer = producers.get(event.queue());
+                        if (producer == null) {
+                            Destination destination = transactedTemplate.getDestinationResolver()
+                                    .resolveDestinationName(session, event.queue(), false);
+                            producer = session.createProducer(destination);
+                            producers.put(event.queue(), producer);
+                        }
+                        Message message = event.properties()
+                                .postProcessMessage(messageConverter.toMessage(event.message(), session));
+                        producer.send(message, DeliveryMode.PERSISTENT,
+                                Message.DEFAULT_PRIORITY, Message.DEFAULT_TIME_TO_LIVE);
+                    }
+                    session.commit();
+                } finally {
+                    for (MessageProducer producer : producers.values()) {
+                        producer.close();
+                    }
+                }
+                return null;
+            }, true);
+            batchSizes.record(batch.size());
+        } catch (JmsException e) {
+            failed.increment(batch.size());
+            log.error("Failed to publish {} workload events — workload summaries may be stale", batch.size(), e);
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        sender.join(drainTimeout.toMillis());
+        if (sender.isAlive()) {
+            sender.interrupt();
+            log.warn("Workload publisher stopped with {} events unsent after {}", queue.size(), drainTimeout);
+        }
+    }
+}
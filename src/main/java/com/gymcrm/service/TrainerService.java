@@ -22,4 +22,7 @@ public interface TrainerService {
     Optional<Trainer> getTrainer(Long id);
 
     List<Trainer> getAllTrainers();
+
+    /** Usernames that split all trainers into at most {@code chunks} equal ranges; see {@code TrainerDAO}. */
+    List<String> getUsernameBoundaries(int chunks);
 }
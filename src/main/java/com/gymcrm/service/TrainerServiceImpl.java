@@ -15,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -25,6 +26,7 @@ public class TrainerServiceImpl implements TrainerService {
     private TrainerDAO trainerDAO;
     private CredentialsGenerator credentialsGenerator;
     private UserService userService;
+    private WorkloadNotificationService workloadNotificationService;
 
     @Autowired
     public void setTrainerDAO(TrainerDAO trainerDAO) {
@@ -41,6 +43,11 @@ public class TrainerServiceImpl implements TrainerService {
         this.userService = userService;
     }
 
+    @Autowired
+    public void setWorkloadNotificationService(WorkloadNotificationService workloadNotificationService) {
+        this.workloadNotificationService = workloadNotificationService;
+    }
+
     @Autowired
     public void setPasswordEncoder(PasswordEncoder passwordEncoder) {
         this.passwordEncoder = passwordEncoder;
@@ -61,7 +68,10 @@ public class TrainerServiceImpl implements TrainerService {
         user.setRawPassword(rawPassword);  // transient — returned to caller for RegistrationResponse
         user.setIsActive(true);
 
-        return trainerDAO.create(trainer);
+        Trainer created = trainerDAO.create(trainer);
+        // The workload service learns the profile here, before any slim workload event.
+        workloadNotificationService.notifyProfileChange(user);
+        return created;
     }
 
     @Override
@@ -85,13 +95,21 @@ public class TrainerServiceImpl implements TrainerService {
 
         // Update allowed fields on the managed entity
         User existingUser = existing.getUser();
-        existingUser.setFirstName(trainer.getUser().getFirstName());
-        existingUser.setLastName(trainer.getUser().getLastName());
-        existingUser.setIsActive(trainer.getUser().getIsActive());
+        User incoming = trainer.getUser();
+        boolean profileChanged = !Objects.equals(existingUser.getFirstName(), incoming.getFirstName())
+                || !Objects.equals(existingUser.getLastName(), incoming.getLastName())
+                || !Objects.equals(existingUser.getIsActive(), incoming.getIsActive());
+        existingUser.setFirstName(incoming.getFirstName());
+        existingUser.setLastName(incoming.getLastName());
+        existingUser.setIsActive(incoming.getIsActive());
         // specialization is read-only per spec — intentionally not updated here
         logger.warn("Specialization (Training Type) is read-only, cannot update it");
 
-        return trainerDAO.update(existing);
+        Trainer updated = trainerDAO.update(existing);
+        if (profileChanged) {
+            workloadNotificationService.notifyProfileChange(updated.getUser());
+        }
+        return updated;
     }
 
     @Override
@@ -111,6 +129,7 @@ public class TrainerServiceImpl implements TrainerService {
 
         trainer.getUser().setIsActive(true);
         trainerDAO.update(trainer);
+        workloadNotificationService.notifyProfileChange(trainer.getUser());
     }
 
     @Override
@@ -130,6 +149,7 @@ public class TrainerServiceImpl implements TrainerService {
 
         trainer.getUser().setIsActive(false);
         trainerDAO.update(trainer);
+        workloadNotificationService.notifyProfileChange(trainer.getUser());
     }
 
     @Override
@@ -144,6 +164,15 @@ public class TrainerServiceImpl implements TrainerService {
         return trainerDAO.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getUsernameBoundaries(int chunks) {
+        if (chunks < 1) {
+            throw new ValidationException("chunks must be at least 1");
+        }
+        return trainerDAO.findUsernameBoundaries(chunks);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Trainer> getUnassignedTrainersByTraineeUsername(String traineeUsername) {
@@ -1,9 +1,13 @@
 package com.gymcrm.service;
 
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadExportRow;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
 import com.gymcrm.model.Training;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 
 public interface TrainingService {
@@ -49,4 +53,17 @@ public interface TrainingService {
             java.time.LocalDate fromDate,
             java.time.LocalDate toDate,
             String traineeName);
+
+    /**
+     * Hands the monthly training totals of the trainers in [{@code fromUsername}, {@code toUsername})
+     * to {@code sink} one row at a time, in trainer, year and month order, from one streaming query.
+     * A null {@code toUsername} has no upper bound.
+     */
+    void exportMonthlyTotals(String fromUsername, String toUsername, Consumer<WorkloadExportRow> sink);
+
+    /** Combined workload digest of the trainers in [{@code fromUsername}, {@code toUsername}). */
+    WorkloadRangeDigest getWorkloadRangeDigest(String fromUsername, String toUsername);
+
+    /** Per-trainer workload digests in [{@code fromUsername}, {@code toUsername}), trainers with no minutes left out. */
+    List<WorkloadDigest> getWorkloadDigests(String fromUsername, String toUsername);
 }
@@ -4,6 +4,9 @@ import com.gymcrm.dao.TraineeDAO;
 import com.gymcrm.dao.TrainerDAO;
 import com.gymcrm.dao.TrainingDAO;
 import com.gymcrm.dao.TrainingTypeDAO;
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadExportRow;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
 import com.gymcrm.exception.NotFoundException;
 import com.gymcrm.exception.StateConflictException;
 import com.gymcrm.exception.ValidationException;
@@ -22,6 +25,8 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class TrainingServiceImpl implements TrainingService {
@@ -157,6 +162,31 @@ public class TrainingServiceImpl implements TrainingService {
                 traineeName);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMonthlyTotals(String fromUsername, String toUsername, Consumer<WorkloadExportRow> sink) {
+        long rows = 0;
+        try (Stream<WorkloadExportRow> totals = trainingDAO.streamMonthlyTotals(fromUsername, toUsername)) {
+            for (WorkloadExportRow row : (Iterable<WorkloadExportRow>) totals::iterator) {
+                sink.accept(row);
+                rows++;
+            }
+        }
+        logger.info("Exported {} monthly workload rows for trainers [{}, {})", rows, fromUsername, toUsername);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public WorkloadRangeDigest getWorkloadRangeDigest(String fromUsername, String toUsername) {
+        return trainingDAO.findRangeDigest(fromUsername, toUsername);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<WorkloadDigest> getWorkloadDigests(String fromUsername, String toUsername) {
+        return trainingDAO.findTrainerDigests(fromUsername, toUsername);
+    }
+
     // ────────── Private helpers ──────────
 
     private void validateRequiredFields(Training training) {
@@ -0,0 +1,231 @@
+package com.gymcrm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed-size, memory-mapped, append-only journal of opaque records, read back in FIFO order.
+ *
+ * Layout: a header holding the read offset, write offset and record count, followed by
+ * records of {@code [int length][int crc32][payload]}. A record's bytes are written before
+ * the header's write offset moves past it, so a process crash never exposes a half-written
+ * record; the mapped pages are flushed to disk on {@link #close()} and by compaction.
+ *
+ * Space is reclaimed by resetting both offsets when the reader catches up, or by compaction
+ * when an append would not fit otherwise: the unread records are copied to the front of a
+ * fresh file, which is forced to disk and then renamed over the journal. A crash before the
+ * rename leaves the old journal untouched; after it, the new one is complete. Not
+ * thread-safe on its own; {@link WorkloadEventSpool} serializes access.
+ */
+class WorkloadEventJournal implements AutoCloseable {
+
+    /** Thrown by {@link #peek()} when the record at the read offset fails its checksum. */
+    static class CorruptRecordException extends Exception {
+        CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+
+    private static final int READ_OFFSET = 0;
+    private static final int WRITE_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_OVERHEAD = 8;
+
+    /** Suffix of the file a compaction is written to before it replaces the journal. */
+    static final String COMPACT_SUFFIX = ".compact";
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadEventJournal.class);
+
+    private final Path file;
+    private final int capacity;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    WorkloadEventJournal(Path file, int capacity) throws IOException {
+        if (capacity <= HEADER_BYTES + RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Journal capacity too small: " + capacity);
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Left behind by a crash before its rename; the journal itself is intact.
+        Files.deleteIfExists(compactFile(file));
+        boolean existing = Files.exists(file) && Files.size(file) == capacity;
+        this.file = file;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.capacity = capacity;
+        if (!existing || !headerValid()) {
+            reset();
+        }
+    }
+
+    /** Appends a record; returns false if it does not fit even after compaction, or compaction failed. */
+    boolean append(byte[] payload) {
+        int size = RECORD_OVERHEAD + payload.length;
+        if (writeOffset() + size > capacity) {
+            if (!compact() || writeOffset() + size > capacity) {
+                return false;
+            }
+        }
+        int at = (int) writeOffset();
+        buffer.putInt(at, payload.length);
+        buffer.putInt(at + 4, checksum(payload));
+        buffer.put(at + RECORD_OVERHEAD, payload);
+        buffer.putInt(COUNT_OFFSET, count() + 1);
+        buffer.putLong(WRITE_OFFSET, at + size);
+        return true;
+    }
+
+    /** The oldest unread record, or null if the journal is empty. */
+    byte[] peek() throws CorruptRecordException {
+        if (isEmpty()) {
+            return null;
+        }
+        int at = (int) readOffset();
+        int length = buffer.getInt(at);
+        if (length < 0 || at + RECORD_OVERHEAD + (long) length > writeOffset()) {
+            throw new CorruptRecordException("Invalid record length " + length + " at offset " + at);
+        }
+        byte[] payload = new byte[length];
+        buffer.get(at + RECORD_OVERHEAD, payload);
+        if (buffer.getInt(at + 4) != checksum(payload)) {
+            throw new CorruptRecordException("Checksum mismatch at offset " + at);
+        }
+        return payload;
+    }
+
+    /** Consumes the record returned by the last {@link #peek()}. */
+    void advance() {
+        int at = (int) readOffset();
+        long next = at + RECORD_OVERHEAD + buffer.getInt(at);
+        if (next >= writeOffset()) {
+            reset();
+            return;
+        }
+        buffer.putInt(COUNT_OFFSET, count() - 1);
+        buffer.putLong(READ_OFFSET, next);
+    }
+
+    /** Drops every unread record; used when one is corrupt, since records cannot be resynchronized. */
+    int discardAll() {
+        int dropped = count();
+        reset();
+        return dropped;
+    }
+
+    boolean isEmpty() {
+        return readOffset() >= writeOffset();
+    }
+
+    int count() {
+        return buffer.getInt(COUNT_OFFSET);
+    }
+
+    long usedBytes() {
+        return writeOffset() - readOffset();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Replaces the journal with a fresh file holding only the unread records. The channel of the
+     * fresh file stays open and becomes the journal's, so nothing is remapped after the rename.
+     */
+    private boolean compact() {
+        int from = (int) readOffset();
+        if (from == HEADER_BYTES) {
+            return true;
+        }
+        byte[] unread = new byte[(int) usedBytes()];
+        buffer.get(from, unread);
+        Path fresh = compactFile(file);
+        FileChannel freshChannel = null;
+        try {
+            freshChannel = FileChannel.open(fresh, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer freshBuffer = freshChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            freshBuffer.put(HEADER_BYTES, unread);
+            freshBuffer.putLong(READ_OFFSET, HEADER_BYTES);
+            freshBuffer.putLong(WRITE_OFFSET, HEADER_BYTES + unread.length);
+            freshBuffer.putInt(COUNT_OFFSET, count());
+            freshBuffer.force();
+            Files.move(fresh, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            FileChannel replaced = channel;
+            channel = freshChannel;
+            buffer = freshBuffer;
+            closeQuietly(replaced);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not compact workload journal {} — the append is rejected", file, e);
+            closeQuietly(freshChannel);
+            try {
+                Files.deleteIfExists(fresh);
+            } catch (IOException ignored) {
+                // removed on the next open
+            }
+            return false;
+        }
+    }
+
+    private static Path compactFile(Path file) {
+        return file.resolveSibling(file.getFileName() + COMPACT_SUFFIX);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Could not close a replaced journal channel", e);
+        }
+    }
+
+    private void reset() {
+        buffer.putLong(WRITE_OFFSET, HEADER_BYTES);
+        buffer.putLong(READ_OFFSET, HEADER_BYTES);
+        buffer.putInt(COUNT_OFFSET, 0);
+    }
+
+    private boolean headerValid() {
+        long read = readOffset();
+        long write = writeOffset();
+        return read >= HEADER_BYTES && read <= write && write <= capacity && count() >= 0;
+    }
+
+    private long readOffset() {
+        return buffer.getLong(READ_OFFSET);
+    }
+
+    private long writeOffset() {
+        return buffer.getLong(WRITE_OFFSET);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
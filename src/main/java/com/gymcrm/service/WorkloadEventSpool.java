@@ -0,0 +1,224 @@
+package com.gymcrm.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.dto.request.WorkloadMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Local disk spool for workload events the broker cannot take right now
+ * ({@code jms.workload.spool.enabled=true}, used by {@code direct} publishing).
+ *
+ * Events are appended to a {@link WorkloadEventJournal} while a circuit breaker is open or
+ * while earlier events are still spooled, so a trainer's events keep their order, and
+ * {@link WorkloadSpoolForwarder} replays them once the broker answers again. The breaker
+ * opens after {@code failure-threshold} consecutive sends that failed or took longer than
+ * {@code slow-call-threshold}; while it is open request threads never touch the broker,
+ * and only the forwarder probes it after {@code open-duration}.
+ *
+ * The journal has a fixed size; an event that does not fit is dropped and counted.
+ */
+@Component
+@ConditionalOnProperty(name = "jms.workload.spool.enabled", havingValue = "true")
+public class WorkloadEventSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadEventSpool.class);
+
+    /**
+     * A journal record: the message, its {@code _type} and the lane and properties it would have
+     * been sent with. Records spooled before lanes existed have no lane and go to the interactive one.
+     */
+    record SpooledEvent(String messageType, JsonNode payload, String lane, String transactionId, long occurredAt) {
+    }
+
+    /** A spooled message read back, ready to send. */
+    record PendingMessage(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId, long occurredAt) {
+    }
+
+    private final WorkloadEventJournal journal;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final Duration openDuration;
+    private final Counter spooled;
+    private final Counter forwarded;
+    private final Counter rejected;
+    private final Counter corrupted;
+
+    private int consecutiveFailures;
+    private long openedAt = -1;
+
+    public WorkloadEventSpool(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${jms.workload.spool.path:data/workload-spool.journal}") Path path,
+                              @Value("${jms.workload.spool.capacity-bytes:67108864}") int capacityBytes,
+                              @Value("${jms.workload.spool.failure-threshold:3}") int failureThreshold,
+                              @Value("${jms.workload.spool.slow-call-threshold:PT1S}") Duration slowCallThreshold,
+                              @Value("${jms.workload.spool.open-duration:PT30S}") Duration openDuration) {
+        this(openJournal(path, capacityBytes), objectMapper, meterRegistry, Clock.systemUTC(),
+                failureThreshold, slowCallThreshold, openDuration);
+        if (!journal.isEmpty()) {
+            log.warn("Workload spool {} holds {} events from a previous run — forwarding them", path, journal.count());
+        }
+    }
+
+    WorkloadEventSpool(WorkloadEventJournal journal, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       Clock clock, int failureThreshold, Duration slowCallThreshold, Duration openDuration) {
+        this.journal = journal;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.failureThreshold = failureThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openDuration = openDuration;
+
+        Gauge.builder("workload.spool.events", this, s -> s.size())
+                .description("Workload events waiting in the local spool")
+                .register(meterRegistry);
+        Gauge.builder("workload.spool.bytes", this, s -> s.usedBytes())
+                .description("Bytes used in the local spool journal")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("workload.spool.breaker.open", this, s -> s.isOpen() ? 1 : 0)
+                .description("1 while the broker circuit breaker is open")
+                .register(meterRegistry);
+        this.spooled = Counter.builder("workload.spool.spooled")
+                .description("Workload events written to the spool")
+                .register(meterRegistry);
+        this.forwarded = Counter.builder("workload.spool.forwarded")
+                .description("Spooled workload events sent to the broker")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("workload.spool.rejected")
+                .description("Workload events dropped because the spool was full")
+                .register(meterRegistry);
+        this.corrupted = Counter.builder("workload.spool.corrupted")
+                .description("Spooled workload events discarded after a checksum failure")
+                .register(meterRegistry);
+    }
+
+    private static WorkloadEventJournal openJournal(Path path, int capacityBytes) {
+        try {
+            return new WorkloadEventJournal(path, capacityBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open workload spool " + path, e);
+        }
+    }
+
+    /** True if a new event must go to the spool instead of the broker. */
+    public synchronized boolean shouldSpool() {
+        return isOpen() || !journal.isEmpty();
+    }
+
+    /** Appends an event; returns false if the spool is full. */
+    public synchronized boolean spool(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId,
+                                      long occurredAt) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(new SpooledEvent(WorkloadMessage.typeIdOf(message),
+                    objectMapper.valueToTree(message), lane.name(), transactionId, occurredAt));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not serialize workload event for " + message.getTrainerUsername(), e);
+        }
+        if (!journal.append(payload)) {
+            rejected.increment();
+            return false;
+        }
+        spooled.increment();
+        return true;
+    }
+
+    /**
+     * The oldest spooled event if the forwarder may try sending it now: the spool is not
+     * empty and the breaker is closed or has been open for {@code open-duration}.
+     * Corrupt records are discarded together with everything behind them.
+     */
+    synchronized PendingMessage nextToForward() {
+        if (journal.isEmpty() || (isOpen() && clock.millis() - openedAt < openDuration.toMillis())) {
+            return null;
+        }
+        try {
+            byte[] payload = journal.peek();
+            if (payload == null) {
+                return null;
+            }
+            SpooledEvent event = objectMapper.readValue(payload, SpooledEvent.class);
+            Class<? extends WorkloadMessage> type = WorkloadMessage.TYPE_IDS.get(event.messageType());
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown message type " + event.messageType());
+            }
+            WorkloadMessage.Lane lane = event.lane() == null
+                    ? WorkloadMessage.Lane.INTERACTIVE
+                    : WorkloadMessage.Lane.valueOf(event.lane());
+            return new PendingMessage(objectMapper.treeToValue(event.payload(), type),
+                    lane, event.transactionId(), event.occurredAt());
+        } catch (WorkloadEventJournal.CorruptRecordException | IOException | IllegalArgumentException e) {
+            int dropped = journal.discardAll();
+            corrupted.increment(dropped);
+            log.error("Discarded {} spooled workload events after an unreadable record — " +
+                      "workload summaries may be stale", dropped, e);
+            return null;
+        }
+    }
+
+    /** Marks the event returned by {@link #nextToForward()} as sent. */
+    synchronized void forwarded() {
+        journal.advance();
+        forwarded.increment();
+    }
+
+    /** Records a completed send; a slow one counts against the breaker like a failure. */
+    public synchronized void recordSend(long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            recordFailure();
+            return;
+        }
+        if (isOpen()) {
+            log.info("Broker circuit closed — sending workload events directly again");
+        }
+        consecutiveFailures = 0;
+        openedAt = -1;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            if (!isOpen()) {
+                log.warn("Broker circuit opened after {} failed or slow sends — spooling workload events",
+                        consecutiveFailures);
+            }
+            // Re-arming on every failure also pushes the forwarder's next probe back.
+            openedAt = clock.millis();
+        }
+    }
+
+    synchronized boolean isOpen() {
+        return openedAt >= 0;
+    }
+
+    synchronized int size() {
+        return journal.count();
+    }
+
+    synchronized long usedBytes() {
+        return journal.usedBytes();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+}
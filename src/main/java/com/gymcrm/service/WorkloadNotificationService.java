@@ -1,22 +1,81 @@
 package com.gymcrm.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.dao.WorkloadOutboxDAO;
+import com.gymcrm.dto.request.TrainerProfileEvent;
+import com.gymcrm.dto.request.TrainerWorkloadDeltaBatch;
 import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import com.gymcrm.dto.request.WorkloadMessage;
 import com.gymcrm.model.Training;
+import com.gymcrm.model.User;
+import com.gymcrm.model.WorkloadOutboxEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.JmsException;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 
 /**
  * Publishes workload events to a JMS queue when trainings are created or deleted.
  *
- * Uses a fire-and-forget approach: failures during message publishing are logged
- * but do not affect the already committed database transaction.
+ * With {@code jms.workload.publisher=outbox} an event is only written to the
+ * {@code workload_outbox} table, in the caller's transaction, and {@link WorkloadOutboxRelay}
+ * sends it after commit. The request never waits for the broker and an event is never lost
+ * to a broker outage; a failed outbox write rolls the training change back with it. The table
+ * comes from {@code db/schema/V1__workload_outbox.sql} where Hibernate only validates.
+ *
+ * With {@code after-commit} the event is handed to {@link AfterCommitWorkloadPublisher} once
+ * the caller's transaction commits (immediately if there is none) and sent in batches from
+ * its own thread; nothing is sent for a rolled-back change, and the request never waits for
+ * the broker, but an event still queued in memory is lost if the instance dies.
+ *
+ * With {@code direct} (the default) the event is sent immediately, fire-and-forget: failures during message
+ * publishing are logged but do not affect the database transaction. With
+ * {@code jms.workload.spool.enabled} an event the broker fails to take, or any event while the
+ * {@link WorkloadEventSpool} circuit breaker is open, goes to the local disk spool instead and
+ * is replayed by {@link WorkloadSpoolForwarder}.
+ *
+ * Bulk removals ({@link #notifyDeleteAll}) are coalesced into one {@code workloadDeltaBatch}
+ * message per trainer instead of one {@code workloadEvent} per training.
+ *
+ * Every message travels in a {@link WorkloadMessage.Lane}: bulk removals go to
+ * {@code jms.queue.workload-bulk}, everything else to {@code jms.queue.workload}, so a mass
+ * deletion never queues ahead of the ADD of a live {@code POST /trainings}. The lane is also
+ * stamped as {@code X-Workload-Lane}. Events of one trainer in different lanes may be applied
+ * out of order; the workload deltas are additive, so only the floor at 0 can notice.
+ *
+ * With {@code jms.workload.slim-events.enabled} (off by default) workload events carry only the
+ * username, date, duration and action; the trainer's name and status are published as a
+ * {@code trainerProfile} event when they change ({@link #notifyProfileChange}). A trainer whose
+ * first workload event is slim gets a document without a profile until that next change, so the
+ * flag is meant for after every trainer's document holds one.
  *
  * Adds a transaction ID from MDC to each message for cross-service traceability.
+ *
+ * Stamps {@code JMSXGroupID} with a partition derived from the trainer username so the
+ * broker hands all events of one trainer to the same consumer, in order, while different
+ * trainers are still consumed in parallel.
+ *
+ * Stamps {@code X-Occurred-At} (when the training change was made) and {@code X-Published-At}
+ * (when the message was handed to the broker), both epoch milliseconds, from which the
+ * workload service derives its event lag histograms.
  */
 @Service
 public class WorkloadNotificationService {
@@ -29,56 +88,297 @@ public class WorkloadNotificationService {
     /** JMS property name — mirrors the HTTP header used by {@code TransactionLoggingFilter}. */
     private static final String JMS_TRANSACTION_ID_PROPERTY = "X-Transaction-Id";
 
+    /** Epoch millis of the training change; must match {@code EventLagMetrics} in the workload service. */
+    static final String JMS_OCCURRED_AT_PROPERTY = "X-Occurred-At";
+
+    /** Epoch millis of the send; must match {@code EventLagMetrics} in the workload service. */
+    static final String JMS_PUBLISHED_AT_PROPERTY = "X-Published-At";
+
+    /** Lane of the message; must match {@code EventLagMetrics} in the workload service. */
+    static final String JMS_LANE_PROPERTY = "X-Workload-Lane";
+
+    /** Standard JMS property the broker uses for message-group affinity. */
+    static final String JMS_GROUP_ID_PROPERTY = "JMSXGroupID";
+
+    /** Value of {@code jms.workload.publisher} that writes to the outbox table. */
+    static final String OUTBOX_PUBLISHER = "outbox";
+
+    /** Value of {@code jms.workload.publisher} that sends on the request thread. */
+    static final String DIRECT_PUBLISHER = "direct";
+
+    /** Value of {@code jms.workload.publisher} that sends from a background thread after commit. */
+    static final String AFTER_COMMIT_PUBLISHER = "after-commit";
+
     private final JmsTemplate jmsTemplate;
+    private final WorkloadOutboxDAO outboxDAO;
+    private final ObjectMapper objectMapper;
     private final String workloadQueue;
+    private final String bulkQueue;
+    private final int groupPartitions;
+    private final AfterCommitWorkloadPublisher afterCommitPublisher;
+    private final WorkloadEventSpool spool;
+    private final boolean outbox;
+    private final boolean coalesce;
+    private final boolean slimEvents;
 
     public WorkloadNotificationService(JmsTemplate jmsTemplate,
-                                       @Value("${jms.queue.workload}") String workloadQueue) {
+                                       WorkloadOutboxDAO outboxDAO,
+                                       ObjectMapper objectMapper,
+                                       @Value("${jms.queue.workload}") String workloadQueue,
+                                       @Value("${jms.queue.workload-bulk:${jms.queue.workload}}") String bulkQueue,
+                                       @Value("${jms.workload.group-partitions:256}") int groupPartitions,
+                                       @Value("${jms.workload.publisher:direct}") String publisher,
+                                       ObjectProvider<AfterCommitWorkloadPublisher> afterCommitPublisher,
+                                       ObjectProvider<WorkloadEventSpool> spool,
+                                       @Value("${jms.workload.coalesce.enabled:true}") boolean coalesce,
+                                       @Value("${jms.workload.slim-events.enabled:false}") boolean slimEvents) {
         this.jmsTemplate = jmsTemplate;
+        this.outboxDAO = outboxDAO;
+        this.objectMapper = objectMapper;
         this.workloadQueue = workloadQueue;
+        this.bulkQueue = bulkQueue;
+        this.groupPartitions = groupPartitions;
+        this.afterCommitPublisher = AFTER_COMMIT_PUBLISHER.equalsIgnoreCase(publisher)
+                ? afterCommitPublisher.getObject()
+                : null;
+        this.spool = spool.getIfAvailable();
+        this.outbox = OUTBOX_PUBLISHER.equalsIgnoreCase(publisher);
+        this.coalesce = coalesce;
+        this.slimEvents = slimEvents;
+    }
+
+    /**
+     * Message group for a trainer's events. Hashing into a fixed number of partitions keeps
+     * the broker's group table bounded; {@link String#hashCode()} is specified by the JLS,
+     * so the key is stable across JVMs and restarts. A non-positive partition count
+     * disables grouping.
+     */
+    public static String groupIdFor(String trainerUsername, int partitions) {
+        if (partitions <= 0) {
+            return null;
+        }
+        return "workload-" + Math.floorMod(trainerUsername.hashCode(), partitions);
     }
 
     public void notifyAdd(Training training) {
-        notify(training, TrainerWorkloadRequest.ActionType.ADD);
+        notify(training, TrainerWorkloadRequest.ActionType.ADD, WorkloadMessage.Lane.INTERACTIVE);
     }
 
     public void notifyDelete(Training training) {
-        notify(training, TrainerWorkloadRequest.ActionType.DELETE);
+        notify(training, TrainerWorkloadRequest.ActionType.DELETE, WorkloadMessage.Lane.INTERACTIVE);
     }
 
-    private void notify(Training training, TrainerWorkloadRequest.ActionType actionType) {
-        TrainerWorkloadRequest request = buildRequest(training, actionType);
+    /**
+     * Publishes the trainer's current name and status. Callers only call this when one of
+     * them actually changed, or for a new trainer, so the workload service has the profile
+     * before the trainer's first (slim) workload event.
+     */
+    public void notifyProfileChange(User trainer) {
+        TrainerProfileEvent event = new TrainerProfileEvent();
+        event.setTrainerUsername(trainer.getUsername());
+        event.setFirstName(trainer.getFirstName());
+        event.setLastName(trainer.getLastName());
+        event.setIsActive(trainer.getIsActive());
+        event.setEventId(UUID.randomUUID().toString());
+        publish(event, WorkloadMessage.Lane.INTERACTIVE, MDC.get(MDC_TRANSACTION_ID), System.currentTimeMillis());
+    }
+
+    /**
+     * Publishes the removal of many trainings made by one unit of work. With
+     * {@code jms.workload.coalesce.enabled} (the default) they are folded into one
+     * {@link TrainerWorkloadDeltaBatch} per trainer, holding the net minutes per (year, month);
+     * otherwise each training is published like {@link #notifyDelete}. Either way the
+     * messages go to the bulk lane.
+     */
+    public void notifyDeleteAll(Collection<Training> trainings) {
+        if (!coalesce) {
+            trainings.forEach(training ->
+                    notify(training, TrainerWorkloadRequest.ActionType.DELETE, WorkloadMessage.Lane.BULK));
+            return;
+        }
+        long occurredAt = System.currentTimeMillis();
         String transactionId = MDC.get(MDC_TRANSACTION_ID);
+        List<TrainerWorkloadDeltaBatch> batches = deltaBatches(trainings, -1, !slimEvents);
+        batches.forEach(batch -> publish(batch, WorkloadMessage.Lane.BULK, transactionId, occurredAt));
+        log.info("Coalesced {} workload events into {} delta batches", trainings.size(), batches.size());
+    }
 
-        log.info("Publishing workload event: trainer={}, action={}",
-                request.getTrainerUsername(), actionType);
-        try {
-            jmsTemplate.convertAndSend(workloadQueue, request, message -> {
-                if (transactionId != null) {
-                    message.setStringProperty(JMS_TRANSACTION_ID_PROPERTY, transactionId);
-                }
-                return message;
+    /**
+     * Folds the trainings, each counted {@code sign} times, into one batch per trainer; months that
+     * net to 0 are left out. The trainer profile is only filled in {@code withProfile}.
+     */
+    static List<TrainerWorkloadDeltaBatch> deltaBatches(Collection<Training> trainings, int sign, boolean withProfile) {
+        Map<String, TrainerWorkloadDeltaBatch> batches = new LinkedHashMap<>();
+        Map<String, Map<YearMonth, Integer>> minutes = new HashMap<>();
+        for (Training training : trainings) {
+            User trainer = training.getTrainer().getUser();
+            batches.computeIfAbsent(trainer.getUsername(), username -> {
+                TrainerWorkloadDeltaBatch batch = new TrainerWorkloadDeltaBatch();
+                batch.setTrainerUsername(username);
+                batch.setEventId(UUID.randomUUID().toString());
+                return batch;
             });
+            if (withProfile) {
+                // Latest profile wins, as on the consumer side.
+                TrainerWorkloadDeltaBatch batch = batches.get(trainer.getUsername());
+                batch.setFirstName(trainer.getFirstName());
+                batch.setLastName(trainer.getLastName());
+                batch.setIsActive(trainer.getIsActive());
+            }
+            minutes.computeIfAbsent(trainer.getUsername(), username -> new TreeMap<>())
+                    .merge(YearMonth.from(training.getTrainingDate()), sign * training.getTrainingDuration(), Integer::sum);
+        }
+        batches.values().forEach(batch -> minutes.get(batch.getTrainerUsername()).forEach((month, sum) -> {
+            if (sum != 0) {
+                batch.getDeltas().add(new TrainerWorkloadDeltaBatch.MonthDelta(month.getYear(), month.getMonthValue(), sum));
+            }
+        }));
+        return batches.values().stream().filter(batch -> !batch.getDeltas().isEmpty()).toList();
+    }
+
+    private void notify(Training training, TrainerWorkloadRequest.ActionType actionType, WorkloadMessage.Lane lane) {
+        long occurredAt = System.currentTimeMillis();
+        TrainerWorkloadRequest request = buildRequest(training, actionType);
+        publish(request, lane, MDC.get(MDC_TRANSACTION_ID), occurredAt);
+    }
+
+    /** Routes one message through the configured publisher. */
+    private void publish(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId, long occurredAt) {
+        if (outbox) {
+            enqueue(message, lane, transactionId, occurredAt);
+            return;
+        }
+        if (afterCommitPublisher != null) {
+            submitAfterCommit(message, lane, transactionId, occurredAt);
+            return;
+        }
+        if (spool != null && spool.shouldSpool()) {
+            spool(message, lane, transactionId, occurredAt);
+            return;
+        }
+        log.info("Publishing workload event: trainer={}, action={}, lane={}",
+                message.getTrainerUsername(), action(message), lane);
+        long start = System.nanoTime();
+        try {
+            send(message, lane, transactionId, occurredAt);
+            if (spool != null) {
+                spool.recordSend(System.nanoTime() - start);
+            }
         } catch (JmsException e) {
+            if (spool != null) {
+                log.warn("Broker rejected workload event, spooling it [trainer={}, action={}]",
+                        message.getTrainerUsername(), action(message), e);
+                spool.recordFailure();
+                spool(message, lane, transactionId, occurredAt);
+                return;
+            }
             /*
             * The training has already been persisted in a separate flow, so rolling back is not an option here. 
             * Log the failure so it can be monitored and investigated.
              */
             log.error("Failed to publish workload event — workload summary may be stale " +
-                      "[trainer={}, action={}]", request.getTrainerUsername(), actionType, e);
+                      "[trainer={}, action={}]", message.getTrainerUsername(), action(message), e);
         }
     }
 
+    /** The action of a single event, {@code BATCH} for a delta batch or {@code PROFILE}; for logs only. */
+    static Object action(WorkloadMessage message) {
+        if (message instanceof TrainerWorkloadRequest request) {
+            return request.getActionType();
+        }
+        return message instanceof TrainerProfileEvent ? "PROFILE" : "BATCH";
+    }
+
+    private void spool(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId, long occurredAt) {
+        if (spool.spool(message, lane, transactionId, occurredAt)) {
+            log.info("Spooled workload event: trainer={}, action={}",
+                    message.getTrainerUsername(), action(message));
+        } else {
+            log.error("Workload spool full, event dropped — workload summary may be stale " +
+                      "[trainer={}, action={}]", message.getTrainerUsername(), action(message));
+        }
+    }
+
+    /** Writes the event to the outbox in the current transaction; fails if there is none. */
+    private void enqueue(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId, long occurredAt) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize workload event for " + message.getTrainerUsername(), e);
+        }
+        WorkloadOutboxEvent event = new WorkloadOutboxEvent(message.getEventId(), message.getTrainerUsername(), payload,
+                transactionId, Instant.ofEpochMilli(occurredAt));
+        event.setMessageType(WorkloadMessage.typeIdOf(message));
+        event.setLane(lane.name());
+        outboxDAO.create(event);
+        log.info("Queued workload event in outbox: trainer={}, action={}",
+                message.getTrainerUsername(), action(message));
+    }
+
+    /** Hands the event to the background publisher once the current transaction commits. */
+    private void submitAfterCommit(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId,
+                                   long occurredAt) {
+        String queue = queueFor(lane);
+        MessagePostProcessor properties = messageProperties(message, lane, transactionId, occurredAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommitPublisher.submit(message, queue, properties);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                afterCommitPublisher.submit(message, queue, properties);
+            }
+        });
+        log.info("Workload event scheduled for after commit: trainer={}, action={}",
+                message.getTrainerUsername(), action(message));
+    }
+
+    /**
+     * Sends one message with the properties the workload service relies on:
+     * transaction ID, message group, lane and lag timestamps, to the queue of its lane.
+     * Throws on broker failure.
+     */
+    void send(WorkloadMessage message, WorkloadMessage.Lane lane, String transactionId, long occurredAt) {
+        jmsTemplate.convertAndSend(queueFor(lane), message, messageProperties(message, lane, transactionId, occurredAt));
+    }
+
+    String queueFor(WorkloadMessage.Lane lane) {
+        return lane == WorkloadMessage.Lane.BULK ? bulkQueue : workloadQueue;
+    }
+
+    /** {@code X-Published-At} is stamped when the post-processor runs, i.e. at send time. */
+    private MessagePostProcessor messageProperties(WorkloadMessage workloadMessage, WorkloadMessage.Lane lane,
+                                                   String transactionId, long occurredAt) {
+        String groupId = groupIdFor(workloadMessage.getTrainerUsername(), groupPartitions);
+        return message -> {
+            if (transactionId != null) {
+                message.setStringProperty(JMS_TRANSACTION_ID_PROPERTY, transactionId);
+            }
+            if (groupId != null) {
+                message.setStringProperty(JMS_GROUP_ID_PROPERTY, groupId);
+            }
+            message.setStringProperty(JMS_LANE_PROPERTY, lane.name());
+            message.setLongProperty(JMS_OCCURRED_AT_PROPERTY, occurredAt);
+            message.setLongProperty(JMS_PUBLISHED_AT_PROPERTY, System.currentTimeMillis());
+            return message;
+        };
+    }
+
     private TrainerWorkloadRequest buildRequest(Training training,
                                                TrainerWorkloadRequest.ActionType actionType) {
         TrainerWorkloadRequest request = new TrainerWorkloadRequest();
         request.setTrainerUsername(training.getTrainer().getUser().getUsername());
-        request.setFirstName(training.getTrainer().getUser().getFirstName());
-        request.setLastName(training.getTrainer().getUser().getLastName());
-        request.setIsActive(training.getTrainer().getUser().getIsActive());
+        if (!slimEvents) {
+            request.setFirstName(training.getTrainer().getUser().getFirstName());
+            request.setLastName(training.getTrainer().getUser().getLastName());
+            request.setIsActive(training.getTrainer().getUser().getIsActive());
+        }
         request.setTrainingDate(training.getTrainingDate());
         request.setTrainingDuration(training.getTrainingDuration());
         request.setActionType(actionType);
+        request.setEventId(UUID.randomUUID().toString());
         return request;
     }
 }
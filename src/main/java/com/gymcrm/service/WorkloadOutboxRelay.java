@@ -0,0 +1,139 @@
+package com.gymcrm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.dao.WorkloadOutboxDAO;
+import com.gymcrm.dto.request.WorkloadMessage;
+import com.gymcrm.model.WorkloadOutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.JmsException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes the events of the {@code workload_outbox} table to the queue of their lane.
+ *
+ * Each poll locks a batch of unsent rows with {@code FOR UPDATE SKIP LOCKED}, sends them in
+ * id order through {@link WorkloadNotificationService#send} (same {@code _type},
+ * {@code X-Transaction-Id}, group and lane contract as direct publishing) and marks the sent ones
+ * in the same transaction. Several instances can relay concurrently without sending a row
+ * twice; a broker failure stops the batch and leaves the remaining rows for the next poll.
+ *
+ * Delivery is at least once: a crash between send and commit resends the batch, which the
+ * workload service drops by event ID. Rows of one trainer locked by different instances can
+ * be sent out of order; the workload deltas are additive, so only a DELETE overtaking its
+ * ADD inside that window is affected by the floor at 0.
+ *
+ * Sent rows are deleted once they are older than {@code jms.workload.outbox.retention}.
+ */
+@Component
+@ConditionalOnProperty(name = "jms.workload.publisher", havingValue = "outbox")
+public class WorkloadOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadOutboxRelay.class);
+
+    private final WorkloadOutboxDAO outboxDAO;
+    private final WorkloadNotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter published;
+    private final Counter failures;
+    private final Counter dropped;
+
+    public WorkloadOutboxRelay(WorkloadOutboxDAO outboxDAO,
+                               WorkloadNotificationService notificationService,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${jms.workload.outbox.batch-size:100}") int batchSize,
+                               @Value("${jms.workload.outbox.retention:PT24H}") Duration retention) {
+        this.outboxDAO = outboxDAO;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.published = Counter.builder("workload.outbox.published")
+                .description("Outbox events sent to the broker")
+                .register(meterRegistry);
+        this.failures = Counter.builder("workload.outbox.failures")
+                .description("Relay batches stopped by a broker failure")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("workload.outbox.dropped")
+                .description("Outbox rows whose payload could not be read")
+                .register(meterRegistry);
+    }
+
+    /** Relays full batches back to back until the outbox is drained or the broker fails. */
+    @Scheduled(fixedDelayString = "${jms.workload.outbox.poll-interval-ms:500}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /** Returns the number of rows completed, or -1 if the broker failed. */
+    int relayBatch() {
+        Integer result = transactionTemplate.execute(status -> {
+            List<WorkloadOutboxEvent> pending = outboxDAO.lockPending(batchSize);
+            List<Long> done = new ArrayList<>(pending.size());
+            boolean failed = false;
+            for (WorkloadOutboxEvent event : pending) {
+                WorkloadMessage message;
+                WorkloadMessage.Lane lane;
+                try {
+                    Class<? extends WorkloadMessage> type = WorkloadMessage.TYPE_IDS.get(event.getMessageType());
+                    if (type == null) {
+                        throw new IllegalArgumentException("Unknown message type " + event.getMessageType());
+                    }
+                    message = objectMapper.readValue(event.getPayload(), type);
+                    lane = WorkloadMessage.Lane.valueOf(event.getLane());
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    log.error("Dropping unreadable outbox event {} for trainer {}",
+                            event.getEventId(), event.getTrainerUsername(), e);
+                    dropped.increment();
+                    done.add(event.getId());
+                    continue;
+                }
+                try {
+                    notificationService.send(message, lane, event.getTransactionId(), event.getOccurredAt().toEpochMilli());
+                } catch (JmsException e) {
+                    log.warn("Outbox relay stopped by broker failure after {} of {} events — retrying next poll",
+                            done.size(), pending.size(), e);
+                    failures.increment();
+                    failed = true;
+                    break;
+                }
+                published.increment();
+                done.add(event.getId());
+            }
+            outboxDAO.markSent(done, Instant.now());
+            return failed ? -1 : done.size();
+        });
+        return result == null ? 0 : result;
+    }
+
+    @Scheduled(cron = "${jms.workload.outbox.cleanup-cron:0 15 * * * *}")
+    public void deleteSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxDAO.deleteSentBefore(Instant.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Outbox cleanup: deleted {} sent events", deleted);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.gymcrm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.JmsException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays the {@link WorkloadEventSpool} to the broker in journal order.
+ *
+ * Each run sends spooled events one by one until the spool is empty or a send fails. A
+ * failure (or a slow send) feeds the circuit breaker and ends the run; the event stays at
+ * the head of the spool for the next probe. An event can be sent twice if the instance dies
+ * between send and advance; the workload service drops the duplicate by event ID.
+ */
+@Component
+@ConditionalOnProperty(name = "jms.workload.spool.enabled", havingValue = "true")
+public class WorkloadSpoolForwarder {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadSpoolForwarder.class);
+
+    private final WorkloadEventSpool spool;
+    private final WorkloadNotificationService notificationService;
+
+    public WorkloadSpoolForwarder(WorkloadEventSpool spool, WorkloadNotificationService notificationService) {
+        this.spool = spool;
+        this.notificationService = notificationService;
+    }
+
+    @Scheduled(fixedDelayString = "${jms.workload.spool.forward-interval-ms:1000}")
+    public void forward() {
+        WorkloadEventSpool.PendingMessage event;
+        while ((event = spool.nextToForward()) != null) {
+            long start = System.nanoTime();
+            try {
+                notificationService.send(event.message(), event.lane(), event.transactionId(), event.occurredAt());
+            } catch (JmsException e) {
+                spool.recordFailure();
+                log.warn("Spool forwarding paused, broker still unavailable ({} events waiting)", spool.size(), e);
+                return;
+            }
+            spool.forwarded();
+            spool.recordSend(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+-- workload_outbox (PostgreSQL), required by jms.workload.publisher=outbox.
+-- stg and prod run with spring.jpa.hibernate.ddl-auto=validate: apply this before switching
+-- the publisher there. Matches com.gymcrm.model.WorkloadOutboxEvent.
+CREATE TABLE IF NOT EXISTS workload_outbox (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id         VARCHAR(36)  NOT NULL,
+    trainer_username VARCHAR(100) NOT NULL,
+    message_type     VARCHAR(32)  NOT NULL DEFAULT 'workloadEvent',
+    lane             VARCHAR(16)  NOT NULL DEFAULT 'INTERACTIVE',
+    payload          TEXT         NOT NULL,
+    transaction_id   VARCHAR(64),
+    occurred_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    sent_at          TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT uk_workload_outbox_event_id UNIQUE (event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_workload_outbox_pending ON workload_outbox (sent_at, id);
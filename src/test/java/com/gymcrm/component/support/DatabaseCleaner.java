@@ -29,6 +29,7 @@ public class DatabaseCleaner {
 
     @Transactional
     public void clean() {
+        entityManager.createNativeQuery("DELETE FROM workload_outbox").executeUpdate();
         entityManager.createNativeQuery("DELETE FROM trainings").executeUpdate();
         entityManager.createNativeQuery("DELETE FROM trainee_trainer").executeUpdate();
         entityManager.createNativeQuery("DELETE FROM trainees").executeUpdate();
@@ -3,6 +3,7 @@ package com.gymcrm.dao;
 import com.gymcrm.model.Trainer;
 import com.gymcrm.model.User;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -110,4 +111,31 @@ class TrainerDAOImplTest {
         List<Trainer> result = trainerDAO.findUnassignedTrainersByTraineeUsername("john.doe");
         assertThat(result).containsExactly(t1);
     }
+
+    @Test
+    @DisplayName("findUsernameBoundaries: returns empty list without the window query when there are no trainers")
+    @SuppressWarnings("unchecked")
+    void findUsernameBoundaries_noTrainers_returnsEmptyList() {
+        TypedQuery<Long> count = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(count);
+        when(count.getSingleResult()).thenReturn(0L);
+
+        assertThat(trainerDAO.findUsernameBoundaries(16)).isEmpty();
+        verify(entityManager, never()).createNativeQuery(anyString(), any(Class.class));
+    }
+
+    @Test
+    @DisplayName("findUsernameBoundaries: keeps every step-th username so the ranges are even")
+    @SuppressWarnings("unchecked")
+    void findUsernameBoundaries_stepFromTrainerCount() {
+        TypedQuery<Long> count = mock(TypedQuery.class);
+        Query window = mock(Query.class);
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(count);
+        when(count.getSingleResult()).thenReturn(10L);
+        when(entityManager.createNativeQuery(anyString(), eq(String.class))).thenReturn(window);
+        when(window.setParameter("step", 3L)).thenReturn(window);
+        when(window.getResultList()).thenReturn(List.of("a", "d", "g", "j"));
+
+        assertThat(trainerDAO.findUsernameBoundaries(4)).containsExactly("a", "d", "g", "j");
+    }
 }
@@ -1,7 +1,10 @@
 package com.gymcrm.dao;
 
+import com.gymcrm.dto.response.WorkloadDigest;
+import com.gymcrm.dto.response.WorkloadRangeDigest;
 import com.gymcrm.model.Training;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +12,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigInteger;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -58,6 +64,32 @@ class TrainingDAOImplTest {
         assertThat(trainingDAO.findByTrainerId(null)).isEmpty();
         verifyNoInteractions(entityManager);
     }
-}
 
+    @Test
+    @DisplayName("findRangeDigest: binds the open-ended range and maps count and digest")
+    void findRangeDigest_mapsSingleRow() {
+        Query query = mock(Query.class, RETURNS_SELF);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getSingleResult()).thenReturn(new Object[] {3L, BigInteger.valueOf(12345L)});
+
+        WorkloadRangeDigest digest = trainingDAO.findRangeDigest("john", null);
+
+        assertThat(digest).isEqualTo(new WorkloadRangeDigest("john", null, 3L, 12345L));
+        verify(query).setParameter("fromUsername", "john");
+        verify(query, never()).setParameter(eq("toUsername"), any());
+    }
 
+    @Test
+    @DisplayName("findTrainerDigests: maps one digest per row in query order")
+    void findTrainerDigests_mapsRows() {
+        Query query = mock(Query.class, RETURNS_SELF);
+        when(entityManager.createNativeQuery(contains("order by username"))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(
+                new Object[] {"anna.lee", 7L}, new Object[] {"john.doe", 42L}));
+
+        List<WorkloadDigest> digests = trainingDAO.findTrainerDigests("", "mike");
+
+        assertThat(digests).containsExactly(new WorkloadDigest("anna.lee", 7L), new WorkloadDigest("john.doe", 42L));
+        verify(query).setParameter("toUsername", "mike");
+    }
+}
@@ -0,0 +1,80 @@
+package com.gymcrm.messaging;
+
+import com.gymcrm.dto.request.TrainerWorkloadDeltaBatch;
+import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadMessageConverter")
+class WorkloadMessageConverterTest {
+
+    @Mock
+    private MessageConverter json;
+    @Mock
+    private Session session;
+    @Mock
+    private BytesMessage bytesMessage;
+    @Mock
+    private TextMessage textMessage;
+
+    private WorkloadMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new WorkloadMessageConverter(json);
+    }
+
+    @Test
+    @DisplayName("writes a single event as codec bytes typed as binary")
+    void toMessage_event_writtenAsBinary() throws Exception {
+        TrainerWorkloadRequest request = new TrainerWorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setTrainingDate(LocalDate.of(2026, 3, 1));
+        request.setTrainingDuration(60);
+        request.setActionType(TrainerWorkloadRequest.ActionType.ADD);
+        request.setEventId(UUID.randomUUID().toString());
+        when(session.createBytesMessage()).thenReturn(bytesMessage);
+
+        assertSame(bytesMessage, converter.toMessage(request, session));
+
+        verify(bytesMessage).writeBytes(WorkloadEventCodec.encode(request));
+        verify(bytesMessage).setStringProperty("_type", WorkloadEventCodec.BINARY_TYPE_ID);
+        verifyNoInteractions(json);
+    }
+
+    @Test
+    @DisplayName("leaves delta batches to the JSON converter")
+    void toMessage_deltaBatch_delegatedToJson() throws Exception {
+        TrainerWorkloadDeltaBatch batch = new TrainerWorkloadDeltaBatch();
+        when(json.toMessage(batch, session)).thenReturn(textMessage);
+
+        assertSame(textMessage, converter.toMessage(batch, session));
+
+        verify(session, never()).createBytesMessage();
+    }
+
+    @Test
+    @DisplayName("a UUID event ID takes 16 bytes instead of its 36-character text")
+    void encode_uuidEventId_isCompact() {
+        TrainerWorkloadRequest withUuid = new TrainerWorkloadRequest();
+        withUuid.setEventId(UUID.randomUUID().toString());
+        TrainerWorkloadRequest withoutId = new TrainerWorkloadRequest();
+
+        assertEquals(16, WorkloadEventCodec.encode(withUuid).length - WorkloadEventCodec.encode(withoutId).length);
+    }
+}
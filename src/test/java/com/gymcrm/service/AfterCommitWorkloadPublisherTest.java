@@ -0,0 +1,149 @@
+package com.gymcrm.service;
+
+import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.core.MessagePostProcessor;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AfterCommitWorkloadPublisher")
+class AfterCommitWorkloadPublisherTest {
+
+    private static final String QUEUE = "trainer.workload.queue";
+    private static final String BULK_QUEUE = "trainer.workload.bulk.queue";
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+    @Mock
+    private Connection connection;
+    @Mock
+    private Session session;
+    @Mock
+    private Queue queue;
+    @Mock
+    private Queue bulkQueue;
+    @Mock
+    private MessageProducer producer;
+    @Mock
+    private MessageProducer bulkProducer;
+    @Mock
+    private TextMessage message;
+    @Mock
+    private MessageConverter messageConverter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AfterCommitWorkloadPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new AfterCommitWorkloadPublisher(connectionFactory, messageConverter, meterRegistry,
+                2, 50, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        publisher.shutdown();
+    }
+
+    @Test
+    @DisplayName("sends a batch through one producer and commits the session once")
+    void sendBatch_commitsOnce() throws JMSException {
+        stubSession();
+        MessagePostProcessor properties = mock(MessagePostProcessor.class);
+        when(properties.postProcessMessage(message)).thenReturn(message);
+
+        publisher.sendBatch(List.of(
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), QUEUE, properties),
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), QUEUE, properties)));
+
+        verify(producer, times(2)).send(message, DeliveryMode.PERSISTENT,
+                Message.DEFAULT_PRIORITY, Message.DEFAULT_TIME_TO_LIVE);
+        verify(properties, times(2)).postProcessMessage(message);
+        verify(session).commit();
+        assertEquals(1, meterRegistry.get("workload.publisher.send").timer().count());
+    }
+
+    @Test
+    @DisplayName("a batch mixing lanes sends each event to its own queue in the same transaction")
+    void sendBatch_mixedLanes_producerPerQueue() throws JMSException {
+        stubSession();
+        when(session.createQueue(BULK_QUEUE)).thenReturn(bulkQueue);
+        when(session.createProducer(bulkQueue)).thenReturn(bulkProducer);
+
+        publisher.sendBatch(List.of(
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), QUEUE, m -> m),
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), BULK_QUEUE, m -> m),
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), BULK_QUEUE, m -> m)));
+
+        verify(producer).send(message, DeliveryMode.PERSISTENT, Message.DEFAULT_PRIORITY, Message.DEFAULT_TIME_TO_LIVE);
+        verify(bulkProducer, times(2)).send(message, DeliveryMode.PERSISTENT,
+                Message.DEFAULT_PRIORITY, Message.DEFAULT_TIME_TO_LIVE);
+        verify(session).commit();
+        verify(producer).close();
+        verify(bulkProducer).close();
+    }
+
+    @Test
+    @DisplayName("a failed send loses the batch without throwing and counts the events")
+    void sendBatch_brokerFailure_countsFailedEvents() throws JMSException {
+        stubSession();
+        doThrow(new JMSException("broker down")).when(producer).send(any(), anyInt(), anyInt(), anyLong());
+
+        assertDoesNotThrow(() -> publisher.sendBatch(List.of(
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), QUEUE, m -> m),
+                new AfterCommitWorkloadPublisher.PendingEvent(request(), QUEUE, m -> m))));
+
+        verify(session, never()).commit();
+        assertEquals(2.0, meterRegistry.get("workload.publisher.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("events submitted after shutdown are rejected and counted")
+    void submit_afterShutdown_rejected() throws InterruptedException {
+        publisher.shutdown();
+
+        assertFalse(publisher.submit(request(), QUEUE, m -> m));
+        assertEquals(1.0, meterRegistry.get("workload.publisher.rejected").counter().count());
+        verifyNoInteractions(connectionFactory);
+    }
+
+    private void stubSession() throws JMSException {
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(true, Session.AUTO_ACKNOWLEDGE)).thenReturn(session);
+        lenient().when(session.getTransacted()).thenReturn(true);
+        when(session.createQueue(QUEUE)).thenReturn(queue);
+        when(session.createProducer(queue)).thenReturn(producer);
+        when(messageConverter.toMessage(any(), eq(session))).thenReturn(message);
+    }
+
+    private TrainerWorkloadRequest request() {
+        TrainerWorkloadRequest request = new TrainerWorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setActionType(TrainerWorkloadRequest.ActionType.ADD);
+        return request;
+    }
+}
@@ -40,6 +40,9 @@ class TrainerServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private WorkloadNotificationService workloadNotificationService;
+
     @InjectMocks
     private TrainerServiceImpl trainerService;
 
@@ -94,6 +97,7 @@ class TrainerServiceImplTest {
         assertTrue(result.getUser().getIsActive());
         verify(credentialsGenerator).generateUsername("Sarah", "Fit");
         verify(credentialsGenerator).generatePassword();
+        verify(workloadNotificationService).notifyProfileChange(result.getUser());
         verify(trainerDAO).create(newTrainer);
     }
 
@@ -129,6 +133,26 @@ class TrainerServiceImplTest {
         assertFalse(testTrainer.getUser().getIsActive());
         assertEquals(testSpecialization, testTrainer.getSpecialization());
         verify(trainerDAO).update(testTrainer);
+        verify(workloadNotificationService).notifyProfileChange(testUser);
+    }
+
+    @Test
+    @DisplayName("updateTrainer: unchanged profile publishes no profile event")
+    void updateTrainer_unchanged_noProfileEvent() {
+        User sameUser = new User();
+        sameUser.setFirstName("Mike");
+        sameUser.setLastName("Coach");
+        sameUser.setUsername("Mike.Coach");
+        sameUser.setIsActive(true);
+        Trainer incoming = new Trainer();
+        incoming.setUser(sameUser);
+
+        when(trainerDAO.findByUsernameWithTrainees("Mike.Coach")).thenReturn(Optional.of(testTrainer));
+        when(trainerDAO.update(testTrainer)).thenReturn(testTrainer);
+
+        trainerService.updateTrainer(incoming);
+
+        verifyNoInteractions(workloadNotificationService);
     }
 
     @Test
@@ -159,6 +183,7 @@ class TrainerServiceImplTest {
 
         assertTrue(testTrainer.getUser().getIsActive());
         verify(trainerDAO).update(testTrainer);
+        verify(workloadNotificationService).notifyProfileChange(testUser);
     }
 
     @Test
@@ -183,6 +208,7 @@ class TrainerServiceImplTest {
 
         assertFalse(testTrainer.getUser().getIsActive());
         verify(trainerDAO).update(testTrainer);
+        verify(workloadNotificationService).notifyProfileChange(testUser);
     }
 
     @Test
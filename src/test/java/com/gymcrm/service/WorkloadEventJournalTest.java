@@ -0,0 +1,134 @@
+package com.gymcrm.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WorkloadEventJournal")
+class WorkloadEventJournalTest {
+
+    private static final int CAPACITY = 128;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("records are read back in append order and the journal resets when drained")
+    void appendPeekAdvance_fifo() throws Exception {
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(dir.resolve("spool"), CAPACITY)) {
+            assertTrue(journal.append(bytes("first")));
+            assertTrue(journal.append(bytes("second")));
+            assertEquals(2, journal.count());
+
+            assertEquals("first", text(journal.peek()));
+            journal.advance();
+            assertEquals("second", text(journal.peek()));
+            journal.advance();
+
+            assertTrue(journal.isEmpty());
+            assertEquals(0, journal.usedBytes());
+            assertNull(journal.peek());
+        }
+    }
+
+    @Test
+    @DisplayName("unread records survive reopening the file")
+    void reopen_keepsUnreadRecords() throws Exception {
+        Path file = dir.resolve("spool");
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            journal.append(bytes("sent"));
+            journal.append(bytes("pending"));
+            journal.advance();
+        }
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            assertEquals(1, journal.count());
+            assertEquals("pending", text(journal.peek()));
+        }
+    }
+
+    @Test
+    @DisplayName("a full journal rejects appends, and compaction reclaims consumed space")
+    void append_full_rejectsUntilCompacted() throws Exception {
+        byte[] record = new byte[40];
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(dir.resolve("spool"), CAPACITY)) {
+            assertTrue(journal.append(record));
+            assertTrue(journal.append(record));
+            assertFalse(journal.append(record));
+
+            journal.peek();
+            journal.advance();
+
+            assertTrue(journal.append(record));
+            assertEquals(2, journal.count());
+        }
+    }
+
+    @Test
+    @DisplayName("compaction replaces the file, so the unread records survive reopening it")
+    void compact_replacesFile_recordsSurviveReopen() throws Exception {
+        Path file = dir.resolve("spool");
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            journal.append(bytes("sent".repeat(10)));
+            journal.append(bytes("pending".repeat(5)));
+            journal.advance();
+
+            assertTrue(journal.append(bytes("next".repeat(10))));
+            assertFalse(Files.exists(dir.resolve("spool" + WorkloadEventJournal.COMPACT_SUFFIX)));
+        }
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            assertEquals(2, journal.count());
+            assertEquals("pending".repeat(5), text(journal.peek()));
+            journal.advance();
+            assertEquals("next".repeat(10), text(journal.peek()));
+        }
+    }
+
+    @Test
+    @DisplayName("a compaction file left by a crash before its rename is ignored and removed")
+    void open_leftoverCompaction_removed() throws Exception {
+        Path file = dir.resolve("spool");
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            journal.append(bytes("pending"));
+        }
+        Path leftover = dir.resolve("spool" + WorkloadEventJournal.COMPACT_SUFFIX);
+        Files.write(leftover, new byte[CAPACITY]);
+
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            assertEquals("pending", text(journal.peek()));
+        }
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    @DisplayName("a record whose bytes changed fails its checksum")
+    void peek_corruptRecord_throws() throws Exception {
+        Path file = dir.resolve("spool");
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            journal.append(bytes("payload"));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(WorkloadEventJournal.HEADER_BYTES + WorkloadEventJournal.RECORD_OVERHEAD);
+            raw.write('X');
+        }
+        try (WorkloadEventJournal journal = new WorkloadEventJournal(file, CAPACITY)) {
+            assertThrows(WorkloadEventJournal.CorruptRecordException.class, journal::peek);
+            assertEquals(1, journal.discardAll());
+            assertTrue(journal.isEmpty());
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
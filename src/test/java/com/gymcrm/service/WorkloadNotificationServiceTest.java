@@ -1,9 +1,16 @@
 package com.gymcrm.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gymcrm.dao.WorkloadOutboxDAO;
+import com.gymcrm.dto.request.TrainerProfileEvent;
+import com.gymcrm.dto.request.TrainerWorkloadDeltaBatch;
 import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import com.gymcrm.dto.request.WorkloadMessage;
 import com.gymcrm.model.Trainer;
 import com.gymcrm.model.Training;
 import com.gymcrm.model.User;
+import com.gymcrm.model.WorkloadOutboxEvent;
 import jakarta.jms.Message;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,11 +20,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.jms.UncategorizedJmsException;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessagePostProcessor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,15 +39,198 @@ import static org.mockito.Mockito.*;
 class WorkloadNotificationServiceTest {
 
     private static final String QUEUE = "trainer.workload.queue";
+    private static final String BULK_QUEUE = "trainer.workload.bulk.queue";
 
     @Mock
     private JmsTemplate jmsTemplate;
 
+    @Mock
+    private WorkloadOutboxDAO outboxDAO;
+
+    @Mock
+    private AfterCommitWorkloadPublisher afterCommitPublisher;
+
+    @Mock
+    private ObjectProvider<AfterCommitWorkloadPublisher> afterCommitPublisherProvider;
+
+    @Mock
+    private WorkloadEventSpool spool;
+
+    @Mock
+    private ObjectProvider<WorkloadEventSpool> spoolProvider;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    /** Direct publishing — most tests below assert on the sent message. */
     private WorkloadNotificationService service;
 
+    private WorkloadNotificationService outboxService;
+
     @BeforeEach
     void setUp() {
-        service = new WorkloadNotificationService(jmsTemplate, QUEUE);
+        service = new WorkloadNotificationService(jmsTemplate, outboxDAO, objectMapper, QUEUE, BULK_QUEUE, 256,
+                WorkloadNotificationService.DIRECT_PUBLISHER, afterCommitPublisherProvider, spoolProvider, true, true);
+        outboxService = new WorkloadNotificationService(jmsTemplate, outboxDAO, objectMapper, QUEUE, BULK_QUEUE, 256,
+                "outbox", afterCommitPublisherProvider, spoolProvider, true, true);
+    }
+
+    private WorkloadNotificationService afterCommitService() {
+        when(afterCommitPublisherProvider.getObject()).thenReturn(afterCommitPublisher);
+        return new WorkloadNotificationService(jmsTemplate, outboxDAO, objectMapper, QUEUE, BULK_QUEUE, 256,
+                WorkloadNotificationService.AFTER_COMMIT_PUBLISHER, afterCommitPublisherProvider, spoolProvider, true, true);
+    }
+
+    private WorkloadNotificationService spoolingService() {
+        when(spoolProvider.getIfAvailable()).thenReturn(spool);
+        return new WorkloadNotificationService(jmsTemplate, outboxDAO, objectMapper, QUEUE, BULK_QUEUE, 256,
+                WorkloadNotificationService.DIRECT_PUBLISHER, afterCommitPublisherProvider, spoolProvider, true, true);
+    }
+
+    @Test
+    @DisplayName("with a spool, a broker failure spools the event and feeds the circuit breaker")
+    void notifyAdd_spool_brokerFailure_spoolsEvent() {
+        WorkloadNotificationService spooling = spoolingService();
+        doThrow(new UncategorizedJmsException("broker down"))
+                .when(jmsTemplate).convertAndSend(anyString(), any(Object.class), any(MessagePostProcessor.class));
+        when(spool.spool(any(), any(), any(), anyLong())).thenReturn(true);
+
+        assertDoesNotThrow(() -> spooling.notifyAdd(training()));
+
+        verify(spool).recordFailure();
+        verify(spool).spool(any(TrainerWorkloadRequest.class), eq(WorkloadMessage.Lane.INTERACTIVE), isNull(), anyLong());
+    }
+
+    @Test
+    @DisplayName("with a spool, an open breaker skips the broker entirely")
+    void notifyAdd_spool_breakerOpen_skipsBroker() {
+        WorkloadNotificationService spooling = spoolingService();
+        when(spool.shouldSpool()).thenReturn(true);
+        when(spool.spool(any(), any(), any(), anyLong())).thenReturn(true);
+
+        spooling.notifyAdd(training());
+
+        verifyNoInteractions(jmsTemplate);
+        verify(spool).spool(any(TrainerWorkloadRequest.class), any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("after-commit mode hands the event over only when the transaction commits")
+    void notifyAdd_afterCommit_submitsOnCommit() {
+        WorkloadNotificationService afterCommit = afterCommitService();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            afterCommit.notifyAdd(training());
+
+            verifyNoInteractions(afterCommitPublisher);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ArgumentCaptor<TrainerWorkloadRequest> captor = ArgumentCaptor.forClass(TrainerWorkloadRequest.class);
+        verify(afterCommitPublisher).submit(captor.capture(), eq(QUEUE), any(MessagePostProcessor.class));
+        assertEquals(TrainerWorkloadRequest.ActionType.ADD, captor.getValue().getActionType());
+        verifyNoInteractions(jmsTemplate, outboxDAO);
+    }
+
+    @Test
+    @DisplayName("after-commit mode hands the event over at once when there is no transaction")
+    void notifyAdd_afterCommit_noTransaction_submitsImmediately() {
+        afterCommitService().notifyAdd(training());
+
+        verify(afterCommitPublisher).submit(any(TrainerWorkloadRequest.class), eq(QUEUE), any(MessagePostProcessor.class));
+        verifyNoInteractions(jmsTemplate);
+    }
+
+    @Test
+    @DisplayName("outbox mode writes the event to the outbox instead of sending it")
+    void notifyAdd_outbox_writesRowWithoutSending() throws Exception {
+        MDC.put("transactionId", "tx-abc-123");
+        try {
+            outboxService.notifyAdd(training());
+        } finally {
+            MDC.remove("transactionId");
+        }
+
+        ArgumentCaptor<WorkloadOutboxEvent> captor = ArgumentCaptor.forClass(WorkloadOutboxEvent.class);
+        verify(outboxDAO).create(captor.capture());
+        verifyNoInteractions(jmsTemplate);
+
+        WorkloadOutboxEvent event = captor.getValue();
+        TrainerWorkloadRequest payload = objectMapper.readValue(event.getPayload(), TrainerWorkloadRequest.class);
+        assertAll(
+            () -> assertEquals("john.doe", event.getTrainerUsername()),
+            () -> assertEquals("tx-abc-123", event.getTransactionId()),
+            () -> assertEquals(payload.getEventId(), event.getEventId()),
+            () -> assertEquals(TrainerWorkloadRequest.ActionType.ADD, payload.getActionType()),
+            () -> assertNotNull(event.getOccurredAt())
+        );
+    }
+
+    @Test
+    @DisplayName("outbox mode propagates a failed outbox write so the training change rolls back")
+    void notifyAdd_outbox_writeFailurePropagates() {
+        when(outboxDAO.create(any())).thenThrow(new IllegalStateException("no transaction"));
+
+        assertThrows(IllegalStateException.class, () -> outboxService.notifyAdd(training()));
+    }
+
+    @Test
+    @DisplayName("notifyDeleteAll sends one delta batch per trainer with the net minutes per month to the bulk queue")
+    void notifyDeleteAll_coalescesPerTrainerAndMonth() {
+        Training june1 = training();
+        Training june2 = training();
+        june2.setTrainingDate(LocalDate.of(2024, 6, 20));
+        june2.setTrainingDuration(30);
+        Training july = training();
+        july.setTrainingDate(LocalDate.of(2024, 7, 3));
+
+        service.notifyDeleteAll(List.of(june1, june2, july));
+
+        ArgumentCaptor<TrainerWorkloadDeltaBatch> captor = ArgumentCaptor.forClass(TrainerWorkloadDeltaBatch.class);
+        verify(jmsTemplate).convertAndSend(eq(BULK_QUEUE), captor.capture(), any(MessagePostProcessor.class));
+        TrainerWorkloadDeltaBatch batch = captor.getValue();
+        assertAll(
+            () -> assertEquals("john.doe", batch.getTrainerUsername()),
+            () -> assertNotNull(batch.getEventId()),
+            () -> assertNull(batch.getFirstName()),
+            () -> assertEquals(List.of(2024, 2024), batch.getDeltas().stream().map(TrainerWorkloadDeltaBatch.MonthDelta::getYear).toList()),
+            () -> assertEquals(List.of(6, 7), batch.getDeltas().stream().map(TrainerWorkloadDeltaBatch.MonthDelta::getMonth).toList()),
+            () -> assertEquals(List.of(-90, -60), batch.getDeltas().stream().map(TrainerWorkloadDeltaBatch.MonthDelta::getMinutes).toList())
+        );
+    }
+
+    @Test
+    @DisplayName("notifyDeleteAll without coalescing publishes one DELETE event per training to the bulk queue")
+    void notifyDeleteAll_coalescingDisabled_sendsPerTraining() {
+        WorkloadNotificationService perTraining = new WorkloadNotificationService(jmsTemplate, outboxDAO, objectMapper,
+                QUEUE, BULK_QUEUE, 256, WorkloadNotificationService.DIRECT_PUBLISHER, afterCommitPublisherProvider, spoolProvider, false, true);
+
+        perTraining.notifyDeleteAll(List.of(training(), training()));
+
+        verify(jmsTemplate, times(2)).convertAndSend(eq(BULK_QUEUE), any(TrainerWorkloadRequest.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    @DisplayName("outbox mode stores a delta batch with its message type and the bulk lane")
+    void notifyDeleteAll_outbox_storesMessageType() {
+        outboxService.notifyDeleteAll(List.of(training()));
+
+        ArgumentCaptor<WorkloadOutboxEvent> captor = ArgumentCaptor.forClass(WorkloadOutboxEvent.class);
+        verify(outboxDAO).create(captor.capture());
+        assertEquals(WorkloadMessage.WORKLOAD_DELTA_BATCH_TYPE, captor.getValue().getMessageType());
+        assertEquals(WorkloadMessage.Lane.BULK.name(), captor.getValue().getLane());
+    }
+
+    @Test
+    @DisplayName("after-commit mode hands a bulk removal over with the bulk queue")
+    void notifyDeleteAll_afterCommit_usesBulkQueue() {
+        afterCommitService().notifyDeleteAll(List.of(training()));
+
+        verify(afterCommitPublisher).submit(any(TrainerWorkloadDeltaBatch.class), eq(BULK_QUEUE),
+                any(MessagePostProcessor.class));
     }
 
     @Test
@@ -62,7 +256,21 @@ class WorkloadNotificationServiceTest {
     }
 
     @Test
-    @DisplayName("notifyAdd maps training fields onto the published request correctly")
+    @DisplayName("every published event carries its own event ID")
+    void notify_assignsUniqueEventIds() {
+        service.notifyAdd(training());
+        service.notifyAdd(training());
+
+        ArgumentCaptor<TrainerWorkloadRequest> captor =
+                ArgumentCaptor.forClass(TrainerWorkloadRequest.class);
+        verify(jmsTemplate, times(2)).convertAndSend(eq(QUEUE), captor.capture(), any(MessagePostProcessor.class));
+        String first = captor.getAllValues().get(0).getEventId();
+        assertNotNull(first);
+        assertNotEquals(first, captor.getAllValues().get(1).getEventId());
+    }
+
+    @Test
+    @DisplayName("notifyAdd maps training fields onto a slim request without the trainer profile")
     void notifyAdd_mapsTrainingFields() {
         service.notifyAdd(training());
 
@@ -73,13 +281,53 @@ class WorkloadNotificationServiceTest {
         TrainerWorkloadRequest req = captor.getValue();
         assertAll(
             () -> assertEquals("john.doe",              req.getTrainerUsername()),
-            () -> assertEquals("John",                  req.getFirstName()),
-            () -> assertEquals("Doe",                   req.getLastName()),
+            () -> assertNull(req.getFirstName()),
+            () -> assertNull(req.getLastName()),
+            () -> assertNull(req.getIsActive()),
             () -> assertEquals(LocalDate.of(2024, 6, 1), req.getTrainingDate()),
             () -> assertEquals(60,                       req.getTrainingDuration())
         );
     }
 
+    @Test
+    @DisplayName("with slim events disabled notifyAdd still carries the trainer profile")
+    void notifyAdd_slimEventsDisabled_includesProfile() {
+        WorkloadNotificationService fullEvents = new WorkloadNotificationService(jmsTemplate, outboxDAO, objectMapper,
+                QUEUE, BULK_QUEUE, 256, WorkloadNotificationService.DIRECT_PUBLISHER, afterCommitPublisherProvider, spoolProvider,
+                true, false);
+
+        fullEvents.notifyAdd(training());
+
+        ArgumentCaptor<TrainerWorkloadRequest> captor =
+                ArgumentCaptor.forClass(TrainerWorkloadRequest.class);
+        verify(jmsTemplate).convertAndSend(eq(QUEUE), captor.capture(), any(MessagePostProcessor.class));
+        assertAll(
+            () -> assertEquals("John", captor.getValue().getFirstName()),
+            () -> assertEquals("Doe", captor.getValue().getLastName()),
+            () -> assertEquals(true, captor.getValue().getIsActive())
+        );
+    }
+
+    @Test
+    @DisplayName("notifyProfileChange publishes the trainer's current profile")
+    void notifyProfileChange_publishesProfile() {
+        User trainer = training().getTrainer().getUser();
+
+        service.notifyProfileChange(trainer);
+
+        ArgumentCaptor<TrainerProfileEvent> captor = ArgumentCaptor.forClass(TrainerProfileEvent.class);
+        verify(jmsTemplate).convertAndSend(eq(QUEUE), captor.capture(), any(MessagePostProcessor.class));
+        TrainerProfileEvent event = captor.getValue();
+        assertAll(
+            () -> assertEquals("john.doe", event.getTrainerUsername()),
+            () -> assertEquals("John", event.getFirstName()),
+            () -> assertEquals("Doe", event.getLastName()),
+            () -> assertEquals(true, event.getIsActive()),
+            () -> assertNotNull(event.getEventId()),
+            () -> assertEquals(WorkloadMessage.TRAINER_PROFILE_TYPE, WorkloadMessage.typeIdOf(event))
+        );
+    }
+
     @Test
     @DisplayName("notifyAdd sets X-Transaction-Id JMS property when MDC contains a transaction ID")
     void notifyAdd_withMdcTransactionId_setsJmsProperty() throws Exception {
@@ -99,6 +347,70 @@ class WorkloadNotificationServiceTest {
         }
     }
 
+    @Test
+    @DisplayName("notifyAdd stamps a JMSXGroupID derived from the trainer username")
+    void notifyAdd_setsMessageGroupFromTrainerUsername() throws Exception {
+        ArgumentCaptor<MessagePostProcessor> captor =
+                ArgumentCaptor.forClass(MessagePostProcessor.class);
+        service.notifyAdd(training());
+        verify(jmsTemplate).convertAndSend(eq(QUEUE), any(), captor.capture());
+
+        Message msg = mock(Message.class);
+        captor.getValue().postProcessMessage(msg);
+
+        verify(msg).setStringProperty("JMSXGroupID", WorkloadNotificationService.groupIdFor("john.doe", 256));
+    }
+
+    @Test
+    @DisplayName("every message is stamped with its lane")
+    void notify_stampsLane() throws Exception {
+        ArgumentCaptor<MessagePostProcessor> captor =
+                ArgumentCaptor.forClass(MessagePostProcessor.class);
+        service.notifyAdd(training());
+        service.notifyDeleteAll(List.of(training()));
+        verify(jmsTemplate).convertAndSend(eq(QUEUE), any(), captor.capture());
+        verify(jmsTemplate).convertAndSend(eq(BULK_QUEUE), any(), captor.capture());
+
+        Message interactive = mock(Message.class);
+        captor.getAllValues().get(0).postProcessMessage(interactive);
+        Message bulk = mock(Message.class);
+        captor.getAllValues().get(1).postProcessMessage(bulk);
+
+        verify(interactive).setStringProperty("X-Workload-Lane", "INTERACTIVE");
+        verify(bulk).setStringProperty("X-Workload-Lane", "BULK");
+    }
+
+    @Test
+    @DisplayName("groupIdFor is stable and bounded by the partition count; 0 partitions disables grouping")
+    void groupIdFor_stableAndBounded() {
+        assertEquals(WorkloadNotificationService.groupIdFor("john.doe", 16),
+                     WorkloadNotificationService.groupIdFor("john.doe", 16));
+        int partition = Integer.parseInt(
+                WorkloadNotificationService.groupIdFor("john.doe", 16).substring("workload-".length()));
+        assertTrue(partition >= 0 && partition < 16);
+        assertNull(WorkloadNotificationService.groupIdFor("john.doe", 0));
+    }
+
+    @Test
+    @DisplayName("notifyAdd stamps occurred-at and published-at timestamps for lag tracking")
+    void notifyAdd_stampsLagTimestamps() throws Exception {
+        long before = System.currentTimeMillis();
+        ArgumentCaptor<MessagePostProcessor> captor =
+                ArgumentCaptor.forClass(MessagePostProcessor.class);
+        service.notifyAdd(training());
+        verify(jmsTemplate).convertAndSend(eq(QUEUE), any(), captor.capture());
+
+        Message msg = mock(Message.class);
+        captor.getValue().postProcessMessage(msg);
+
+        ArgumentCaptor<Long> occurredAt = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> publishedAt = ArgumentCaptor.forClass(Long.class);
+        verify(msg).setLongProperty(eq("X-Occurred-At"), occurredAt.capture());
+        verify(msg).setLongProperty(eq("X-Published-At"), publishedAt.capture());
+        assertTrue(occurredAt.getValue() >= before);
+        assertTrue(publishedAt.getValue() >= occurredAt.getValue());
+    }
+
     @Test
     @DisplayName("notifyAdd omits X-Transaction-Id JMS property when MDC has no transaction ID")
     void notifyAdd_withoutMdcTransactionId_omitsJmsProperty() throws Exception {
@@ -111,7 +423,7 @@ class WorkloadNotificationServiceTest {
         Message msg = mock(Message.class);
         captor.getValue().postProcessMessage(msg);
 
-        verify(msg, never()).setStringProperty(anyString(), anyString());
+        verify(msg, never()).setStringProperty(eq("X-Transaction-Id"), anyString());
     }
 
     @Test
@@ -0,0 +1,139 @@
+package com.gymcrm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gymcrm.dao.WorkloadOutboxDAO;
+import com.gymcrm.dto.request.TrainerWorkloadDeltaBatch;
+import com.gymcrm.dto.request.TrainerWorkloadRequest;
+import com.gymcrm.dto.request.WorkloadMessage;
+import com.gymcrm.model.WorkloadOutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadOutboxRelay")
+class WorkloadOutboxRelayTest {
+
+    @Mock
+    private WorkloadOutboxDAO outboxDAO;
+    @Mock
+    private WorkloadNotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private WorkloadOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        relay = new WorkloadOutboxRelay(outboxDAO, notificationService, objectMapper, transactionManager,
+                new SimpleMeterRegistry(), 2, Duration.ofHours(24));
+    }
+
+    @Test
+    @DisplayName("sends locked rows in order with their stored transaction ID and marks them sent")
+    void relayBatch_sendsAndMarksSent() throws Exception {
+        when(outboxDAO.lockPending(2)).thenReturn(List.of(event(1L, "evt-1"), event(2L, "evt-2")));
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(notificationService, times(2)).send(any(TrainerWorkloadRequest.class),
+                eq(WorkloadMessage.Lane.INTERACTIVE), eq("tx-1"),
+                eq(Instant.parse("2026-03-01T10:00:00Z").toEpochMilli()));
+        verify(outboxDAO).markSent(eq(List.of(1L, 2L)), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("a broker failure stops the batch and only marks the rows sent before it")
+    void relayBatch_brokerFailure_marksPrefixOnly() throws Exception {
+        when(outboxDAO.lockPending(2)).thenReturn(List.of(event(1L, "evt-1"), event(2L, "evt-2")));
+        doNothing()
+                .doThrow(new UncategorizedJmsException("broker down", null))
+                .when(notificationService).send(any(), any(), any(), anyLong());
+
+        assertEquals(-1, relay.relayBatch());
+
+        verify(outboxDAO).markSent(eq(List.of(1L)), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("relay keeps polling while batches come back full")
+    void relay_drainsFullBatches() throws Exception {
+        when(outboxDAO.lockPending(2))
+                .thenReturn(List.of(event(1L, "evt-1"), event(2L, "evt-2")))
+                .thenReturn(List.of(event(3L, "evt-3")));
+
+        relay.relay();
+
+        verify(outboxDAO, times(2)).lockPending(2);
+        verify(notificationService, times(3)).send(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("an unreadable payload is dropped instead of blocking the outbox")
+    void relayBatch_unreadablePayload_dropped() {
+        WorkloadOutboxEvent broken = new WorkloadOutboxEvent("evt-x", "john.doe", "{not json", null, Instant.now());
+        broken.setId(5L);
+        when(outboxDAO.lockPending(2)).thenReturn(List.of(broken));
+
+        assertEquals(1, relay.relayBatch());
+
+        verifyNoInteractions(notificationService);
+        verify(outboxDAO).markSent(eq(List.of(5L)), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("a delta batch row is read back as a delta batch and sent in its lane")
+    void relayBatch_deltaBatch_sentWithItsType() throws Exception {
+        TrainerWorkloadDeltaBatch batch = new TrainerWorkloadDeltaBatch();
+        batch.setTrainerUsername("john.doe");
+        batch.setEventId("batch-1");
+        batch.getDeltas().add(new TrainerWorkloadDeltaBatch.MonthDelta(2026, 3, -60));
+        WorkloadOutboxEvent event = new WorkloadOutboxEvent("batch-1", "john.doe",
+                objectMapper.writeValueAsString(batch), null, Instant.now());
+        event.setId(7L);
+        event.setMessageType(WorkloadMessage.WORKLOAD_DELTA_BATCH_TYPE);
+        event.setLane(WorkloadMessage.Lane.BULK.name());
+        when(outboxDAO.lockPending(2)).thenReturn(List.of(event));
+
+        assertEquals(1, relay.relayBatch());
+
+        verify(notificationService).send(any(TrainerWorkloadDeltaBatch.class), eq(WorkloadMessage.Lane.BULK), isNull(), anyLong());
+    }
+
+    private WorkloadOutboxEvent event(Long id, String eventId) throws Exception {
+        TrainerWorkloadRequest request = new TrainerWorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setFirstName("John");
+        request.setLastName("Doe");
+        request.setIsActive(true);
+        request.setTrainingDate(LocalDate.of(2026, 3, 1));
+        request.setTrainingDuration(60);
+        request.setActionType(TrainerWorkloadRequest.ActionType.ADD);
+        request.setEventId(eventId);
+
+        WorkloadOutboxEvent event = new WorkloadOutboxEvent(eventId, "john.doe",
+                objectMapper.writeValueAsString(request), "tx-1", Instant.parse("2026-03-01T10:00:00Z"));
+        event.setId(id);
+        return event;
+    }
+}
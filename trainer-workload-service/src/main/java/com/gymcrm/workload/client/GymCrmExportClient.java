@@ -0,0 +1,130 @@
+package com.gymcrm.workload.client;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.workload.dto.RangeDigest;
+import com.gymcrm.workload.dto.TrainerDigest;
+import com.gymcrm.workload.dto.TrainerMonthExportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads gym-crm's aggregated workload export and digests. The caller's bearer token is passed
+ * through, so gym-crm authenticates the export like any other request of that user; scheduled
+ * jobs without a caller obtain one with {@link #login}.
+ */
+@Component
+public class GymCrmExportClient {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+
+    public GymCrmExportClient(RestClient.Builder restClientBuilder,
+                              ObjectMapper objectMapper,
+                              @Value("${workload.full-rebuild.gym-crm-url:http://localhost:8080}") String baseUrl) {
+        this.restClient = restClientBuilder.baseUrl(baseUrl).build();
+        this.objectMapper = objectMapper;
+    }
+
+    /** Usernames splitting gym-crm's trainers into at most {@code chunks} equal ranges, in order. */
+    public List<String> fetchRangeBoundaries(int chunks, String authorization) {
+        String[] boundaries = restClient.get()
+                .uri(uri -> uri.path("/workload-export/ranges").queryParam("chunks", chunks).build())
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .retrieve()
+                .body(String[].class);
+        return boundaries == null ? List.of() : List.of(boundaries);
+    }
+
+    /**
+     * Streams the rows of the trainers in [{@code from}, {@code to}) to {@code sink} as they are
+     * read off the connection, in trainer order. A null {@code to} has no upper bound.
+     */
+    public void streamMonthlyTotals(String from, String to, String authorization, Consumer<TrainerMonthExportRow> sink) {
+        restClient.get()
+                .uri(uri -> {
+                    uri.path("/workload-export").queryParam("from", from);
+                    if (to != null) {
+                        uri.queryParam("to", to);
+                    }
+                    return uri.build();
+                })
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .accept(NDJSON)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientException("gym-crm workload export failed with " + response.getStatusCode());
+                    }
+                    try (MappingIterator<TrainerMonthExportRow> rows =
+                                 objectMapper.readerFor(TrainerMonthExportRow.class).readValues(response.getBody())) {
+                        while (rows.hasNextValue()) {
+                            sink.accept(rows.nextValue());
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    /** Combined digest of the trainers in [{@code from}, {@code to}); a null {@code to} has no upper bound. */
+    public RangeDigest fetchRangeDigest(String from, String to, String authorization) {
+        return restClient.get()
+                .uri(uri -> {
+                    uri.path("/workload-export/digest").queryParam("from", from);
+                    if (to != null) {
+                        uri.queryParam("to", to);
+                    }
+                    return uri.build();
+                })
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .retrieve()
+                .body(RangeDigest.class);
+    }
+
+    /** Digests of the trainers in [{@code from}, {@code to}) that have training minutes, in username order. */
+    public List<TrainerDigest> fetchTrainerDigests(String from, String to, String authorization) {
+        TrainerDigest[] digests = restClient.get()
+                .uri(uri -> {
+                    uri.path("/workload-export/digests").queryParam("from", from);
+                    if (to != null) {
+                        uri.queryParam("to", to);
+                    }
+                    return uri.build();
+                })
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .retrieve()
+                .body(TrainerDigest[].class);
+        return digests == null ? List.of() : List.of(digests);
+    }
+
+    /**
+     * Streams one trainer's rows. The range [username, username + U+0001) holds only that
+     * username, as usernames have no control characters and PostgreSQL text cannot hold U+0000.
+     */
+    public void streamTrainerTotals(String trainerUsername, String authorization, Consumer<TrainerMonthExportRow> sink) {
+        streamMonthlyTotals(trainerUsername, trainerUsername + '\u0001', authorization, sink);
+    }
+
+    /** Logs in to gym-crm and returns the {@code Authorization} header value for its token. */
+    public String login(String username, String password) {
+        Map<?, ?> response = restClient.post()
+                .uri("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("username", username, "password", password))
+                .retrieve()
+                .body(Map.class);
+        if (response == null || response.get("token") == null) {
+            throw new IllegalStateException("gym-crm login returned no token");
+        }
+        return "Bearer " + response.get("token");
+    }
+}
@@ -1,13 +1,19 @@
 package com.gymcrm.workload.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.workload.dto.TrainerProfileRequest;
+import com.gymcrm.workload.dto.WorkloadDeltaBatchRequest;
 import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.messaging.WorkloadEventCodec;
+import com.gymcrm.workload.messaging.WorkloadMessageConverter;
+import jakarta.jms.Session;
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.RedeliveryPolicy;
 import org.apache.activemq.broker.BrokerService;
 import org.apache.activemq.broker.region.policy.IndividualDeadLetterStrategy;
 import org.apache.activemq.broker.region.policy.PolicyEntry;
 import org.apache.activemq.broker.region.policy.PolicyMap;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +21,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
 import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.jms.support.converter.MessageType;
@@ -33,6 +40,11 @@ import java.util.Map;
 @EnableJms
 public class JmsConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(JmsConfig.class);
+
+    /** Dispatch wait of the embedded broker for the consumers of a grouped queue. */
+    private static final int GROUP_DISPATCH_WAIT_MS = 5_000;
+
     @Value("${spring.activemq.broker-url}")
     private String brokerUrl;
 
@@ -45,6 +57,24 @@ public class JmsConfig {
     @Value("${workload.jms.concurrency:1-5}")
     private String concurrency;
 
+    @Value("${workload.jms.bulk.concurrency:1-2}")
+    private String bulkConcurrency;
+
+    @Value("${workload.jms.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${workload.jms.message-groups:true}")
+    private boolean messageGroups;
+
+    @Value("${workload.jms.adaptive.enabled:false}")
+    private boolean adaptiveEnabled;
+
+    @Value("${workload.jms.queue-name}")
+    private String queueName;
+
+    @Value("${workload.jms.bulk.queue-name:${workload.jms.queue-name}}")
+    private String bulkQueueName;
+
     /**
      * ActiveMQ connection factory with custom redelivery policy.
      *
@@ -76,40 +106,95 @@ public class JmsConfig {
     }
 
     /**
-     * JSON converter mapping "workloadEvent" to {@link WorkloadRequest}.
+     * JSON converter mapping "workloadEvent" to {@link WorkloadRequest},
+     * "workloadDeltaBatch" to {@link WorkloadDeltaBatchRequest} and "trainerProfile"
+     * to {@link TrainerProfileRequest}.
      *
      * Uses "_type" property for type resolution and avoids sharing DTO classes
-     * across services.
+     * across services. Wrapped in a {@link WorkloadMessageConverter} so binary events
+     * ({@code _type} {@value WorkloadEventCodec#BINARY_TYPE_ID}) are accepted alongside JSON.
      */
     @Bean
     public MessageConverter jacksonJmsMessageConverter(ObjectMapper objectMapper) {
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
         converter.setTargetType(MessageType.TEXT);
         converter.setTypeIdPropertyName("_type");
-        converter.setTypeIdMappings(Map.of("workloadEvent", WorkloadRequest.class));
+        converter.setTypeIdMappings(Map.of(
+                "workloadEvent", WorkloadRequest.class,
+                "workloadDeltaBatch", WorkloadDeltaBatchRequest.class,
+                "trainerProfile", TrainerProfileRequest.class));
         converter.setObjectMapper(objectMapper);
-        return converter;
+        return new WorkloadMessageConverter(converter);
     }
 
     /**
      * Main listener factory.
      *
      * - Transacted session → enables retry on failure
-     * - Configurable concurrency → supports horizontal scaling
+     * - Configurable concurrency → supports horizontal scaling; with
+     *   {@code workload.jms.adaptive.enabled} the range only bounds {@code AdaptiveConcurrencyController}
+     * - Consumers are cached per invoker, so the broker's {@code JMSXGroupID} affinity sticks:
+     *   each trainer's events go to one consumer in order, different trainers run in parallel.
+     *   Without caching every receive would open a new consumer and groups would be reassigned.
+     * - With {@code workload.jms.message-groups} the pool is pinned to the upper bound of the
+     *   range and never resized: a group belongs to a consumer that existed when its first
+     *   message arrived, so consumers added later would get no groups and stay idle.
      * - Errors trigger redelivery or DLQ routing
+     * - Not auto-started in batch mode, where {@code BatchWorkloadConsumer} owns the queue
      */
     @Bean
     public DefaultJmsListenerContainerFactory jmsListenerContainerFactory(
             ActiveMQConnectionFactory connectionFactory,
             MessageConverter messageConverter) {
+        if (messageGroups && adaptiveEnabled) {
+            log.warn("workload.jms.adaptive.enabled is ignored while workload.jms.message-groups is on — "
+                     + "consumers are pinned to {}", pinned(concurrency));
+        }
+        DefaultJmsListenerContainerFactory factory = workloadListenerFactory(connectionFactory, messageConverter,
+                messageGroups ? pinned(concurrency) : concurrency);
+        factory.setAutoStartup(!batchEnabled);
+        return factory;
+    }
+
+    /**
+     * Listener factory of the bulk lane ({@code workload.jms.bulk.queue-name}).
+     *
+     * Same transaction, caching and error handling as the main factory, with its own fixed
+     * {@code workload.jms.bulk.concurrency}, so a backfill can only ever occupy that many
+     * consumers, pinned to its upper bound with message groups like the main factory.
+     * Started in batch mode too; {@code BatchWorkloadConsumer} only drains the interactive queue.
+     */
+    @Bean
+    public DefaultJmsListenerContainerFactory bulkListenerContainerFactory(
+            ActiveMQConnectionFactory connectionFactory,
+            MessageConverter messageConverter) {
+        return workloadListenerFactory(connectionFactory, messageConverter,
+                messageGroups ? pinned(bulkConcurrency) : bulkConcurrency);
+    }
+
+    /** {@code "1-5"} → {@code "5-5"}: a fixed pool at the upper bound of a concurrency range. */
+    private static String pinned(String concurrency) {
+        int max = maxConsumers(concurrency);
+        return max + "-" + max;
+    }
+
+    private static int maxConsumers(String concurrency) {
+        int dash = concurrency.indexOf('-');
+        return Integer.parseInt((dash < 0 ? concurrency : concurrency.substring(dash + 1)).trim());
+    }
+
+    private static DefaultJmsListenerContainerFactory workloadListenerFactory(
+            ActiveMQConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            String concurrency) {
         DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
         factory.setSessionTransacted(true);
         factory.setConcurrency(concurrency);
+        factory.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
         factory.setErrorHandler(t ->
-                LoggerFactory.getLogger(JmsConfig.class)
-                        .error("JMS container error — message will be redelivered or sent to DLQ", t));
+                log.error("JMS container error — message will be redelivered or sent to DLQ", t));
         return factory;
     }
 
@@ -118,7 +203,9 @@ public class JmsConfig {
      *
      * <p>Configured as non-transacted to prevent failed DLQ messages from being
      * redelivered indefinitely. DLQ messages have already exhausted retries, so
-     * further failures should not trigger another retry cycle.
+     * further failures should not trigger another retry cycle. Client acknowledgement
+     * acknowledges a message only once the listener has stored it, so a dead letter
+     * that could not be stored gets the connection's redeliveries instead of being lost.
      *
      * <p>Runs single-threaded since DLQ processing is not performance-critical and
      * simpler, sequential handling makes debugging and inspection easier.
@@ -131,6 +218,7 @@ public class JmsConfig {
         factory.setConnectionFactory(connectionFactory);
         factory.setConcurrency("1-1");
         factory.setSessionTransacted(false);
+        factory.setSessionAcknowledgeMode(Session.CLIENT_ACKNOWLEDGE);
         return factory;
     }
 
@@ -142,7 +230,13 @@ public class JmsConfig {
      *
      * <p>Runs in the workload service to ensure the broker is available before producers connect.
      * Uses TCP (rather than vm://) to allow communication across JVMs, and configures per-queue DLQs
-     * (e.g., DLQ.trainer.workload.queue) for easier monitoring and replay.
+     * (e.g., DLQ.trainer.workload.queue, DLQ.trainer.workload.bulk.queue) for easier monitoring and replay.
+     *
+     * <p>With {@code workload.jms.message-groups} the two workload queues hold back dispatch until
+     * their pinned number of consumers is connected (or {@value #GROUP_DISPATCH_WAIT_MS} ms have
+     * passed), so the groups spread over all consumers instead of landing on the first one.
+     * A shared broker (dev, stg, prod) needs the same {@code consumersBeforeDispatchStarts} /
+     * {@code timeBeforeDispatchStarts} destination policy in its own configuration.
      */
     @Bean(initMethod = "start", destroyMethod = "stop")
     @Profile("local")
@@ -162,9 +256,26 @@ public class JmsConfig {
         policyEntry.setDeadLetterStrategy(dlqStrategy);
 
         PolicyMap policyMap = new PolicyMap();
-        policyMap.setPolicyEntries(List.of(policyEntry));
+        if (messageGroups) {
+            policyMap.setPolicyEntries(List.of(
+                    groupedQueuePolicy(queueName, maxConsumers(concurrency), dlqStrategy),
+                    groupedQueuePolicy(bulkQueueName, maxConsumers(bulkConcurrency), dlqStrategy),
+                    policyEntry));
+        } else {
+            policyMap.setPolicyEntries(List.of(policyEntry));
+        }
 
         broker.setDestinationPolicy(policyMap);
         return broker;
     }
+
+    private static PolicyEntry groupedQueuePolicy(String queue, int consumers,
+                                                  IndividualDeadLetterStrategy dlqStrategy) {
+        PolicyEntry entry = new PolicyEntry();
+        entry.setQueue(queue);
+        entry.setDeadLetterStrategy(dlqStrategy);
+        entry.setConsumersBeforeDispatchStarts(consumers);
+        entry.setTimeBeforeDispatchStarts(GROUP_DISPATCH_WAIT_MS);
+        return entry;
+    }
 }
@@ -2,6 +2,7 @@ package com.gymcrm.workload.config;
 
 import com.gymcrm.workload.security.JwtAuthenticationFilter;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,12 +16,18 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  * Security configuration for the trainer-workload-service.
  *
  * Stateless JWT validation — no session, no UserDetailsService, no login form.
- * Permitted without auth: /actuator/health, /actuator/info
+ * Permitted without auth: /actuator/health, /actuator/info, /actuator/prometheus
+ * Admin only (token with {@code roles: ["WORKLOAD_ADMIN"]}): /api/workload/dead-letters/**,
+ * /api/workload/full-rebuild, /api/workload/projections/**, /api/workload/reconcile,
+ * POST /api/workload/rollups/rebuild
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /** Role of operator tokens; see {@link com.gymcrm.workload.security.JwtTokenValidator}. */
+    public static final String ADMIN_ROLE = "WORKLOAD_ADMIN";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
@@ -35,12 +42,22 @@ public class SecurityConfig {
                     sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .exceptionHandling(eh -> eh
                     .authenticationEntryPoint((req, res, ex) ->
-                            res.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized")))
+                            res.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized"))
+                    .accessDeniedHandler((req, res, ex) ->
+                            res.sendError(HttpServletResponse.SC_FORBIDDEN, "Forbidden")))
             .authorizeHttpRequests(auth -> auth
                     .requestMatchers(
                             "/actuator/health",
-                            "/actuator/info"
+                            "/actuator/info",
+                            "/actuator/prometheus"
                     ).permitAll()
+                    .requestMatchers(
+                            "/api/workload/dead-letters/**",
+                            "/api/workload/full-rebuild/**",
+                            "/api/workload/projections/**",
+                            "/api/workload/reconcile/**"
+                    ).hasRole(ADMIN_ROLE)
+                    .requestMatchers(HttpMethod.POST, "/api/workload/rollups/rebuild").hasRole(ADMIN_ROLE)
                     .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,86 @@
+package com.gymcrm.workload.controller;
+
+import com.gymcrm.workload.document.DeadLetterDocument.Status;
+import com.gymcrm.workload.dto.DeadLetterFilter;
+import com.gymcrm.workload.dto.DeadLetterReplayRequest;
+import com.gymcrm.workload.dto.DeadLetterReplayResponse;
+import com.gymcrm.workload.dto.DeadLetterResponse;
+import com.gymcrm.workload.messaging.DeadLetterReplayer;
+import com.gymcrm.workload.service.DeadLetterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * REST controller for stored dead letters.
+ * GET  /api/workload/dead-letters        — list, filtered by status, lane, trainer, transaction ID and time
+ * GET  /api/workload/dead-letters/{id}   — one dead letter
+ * POST /api/workload/dead-letters/replay — send the listed IDs, or every pending match, back to their original queue
+ */
+@RestController
+@RequestMapping("/api/workload/dead-letters")
+public class DeadLetterController {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterController.class);
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final DeadLetterService deadLetters;
+    private final DeadLetterReplayer replayer;
+
+    public DeadLetterController(DeadLetterService deadLetters, DeadLetterReplayer replayer) {
+        this.deadLetters = deadLetters;
+        this.replayer = replayer;
+    }
+
+    /** Most recently dead-lettered first; the total number of matches is in {@code X-Total-Count}. */
+    @GetMapping
+    public ResponseEntity<List<DeadLetterResponse>> list(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) String lane,
+            @RequestParam(required = false) String trainerUsername,
+            @RequestParam(required = false) String transactionId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        DeadLetterFilter filter = new DeadLetterFilter(status, lane, trainerUsername, transactionId, from, to);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", Long.toString(deadLetters.count(filter)))
+                .body(deadLetters.list(filter, page, size));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<DeadLetterResponse> get(@PathVariable String id) {
+        return deadLetters.get(id)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No dead letter " + id));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayResponse> replay(@RequestBody DeadLetterReplayRequest request) {
+        log.info("Replaying dead letters: ids={}, trainer={}, lane={}",
+                request.ids() == null ? 0 : request.ids().size(), request.trainerUsername(), request.lane());
+        try {
+            return ResponseEntity.ok(replayer.replay(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
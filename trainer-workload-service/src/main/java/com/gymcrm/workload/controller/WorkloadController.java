@@ -1,23 +1,50 @@
 package com.gymcrm.workload.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.workload.dto.WorkloadIngestResponse;
 import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.dto.WorkloadSummariesRequest;
 import com.gymcrm.workload.dto.WorkloadSummaryResponse;
+import com.gymcrm.workload.repository.WorkloadRange;
+import com.gymcrm.workload.service.WorkloadIngestBuffer;
 import com.gymcrm.workload.service.WorkloadService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * REST controller for trainer workload management.
- * POST /api/workload       — accept ADD/DELETE workload event (called by main service)
- * GET  /api/workload/{username} — retrieve monthly summary for a trainer
+ * POST /api/workload       — accept one ADD/DELETE workload event or a JSON array of them;
+ *                            applied before the response, or buffered and acknowledged with
+ *                            202 in {@code workload.ingest.mode=async}
+ * GET  /api/workload/{username} — retrieve monthly summary for a trainer,
+ *                                  optionally limited by fromYear/toYear/fromMonth/toMonth
+ * POST /api/workload/summaries  — summaries of many trainers, streamed as NDJSON
  */
 @RestController
 @RequestMapping("/api/workload")
@@ -25,14 +52,44 @@ public class WorkloadController {
 
     private static final Logger log = LoggerFactory.getLogger(WorkloadController.class);
 
+    /** Seconds a sender should wait after a 429 or 503 from the ingest buffer. */
+    private static final String INGEST_RETRY_AFTER_SECONDS = "1";
+
+    private static final TypeReference<List<WorkloadRequest>> REQUEST_LIST = new TypeReference<>() {};
+
     private final WorkloadService workloadService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final WorkloadIngestBuffer ingestBuffer;
 
-    public WorkloadController(WorkloadService workloadService) {
+    public WorkloadController(WorkloadService workloadService, ObjectMapper objectMapper, Validator validator,
+                              ObjectProvider<WorkloadIngestBuffer> ingestBuffer) {
         this.workloadService = workloadService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.ingestBuffer = ingestBuffer.getIfAvailable();
     }
 
+    /**
+     * Accepts a single event object or an array of events; every event is validated before
+     * any is applied or buffered. Synchronously a single event is applied with
+     * {@link WorkloadService#processWorkload} and an array with one
+     * {@link WorkloadService#processBatch(List)} (200). In {@code async} mode the events are
+     * buffered as a whole and acknowledged with 202 and an {@code ackId}; a full buffer
+     * answers 429 and a failing writer 503, both with {@code Retry-After}.
+     */
     @PostMapping
-    public ResponseEntity<Void> updateWorkload(@Valid @RequestBody WorkloadRequest req) {
+    public ResponseEntity<?> updateWorkload(@RequestBody JsonNode body) {
+        List<WorkloadRequest> requests = toRequests(body);
+        if (ingestBuffer != null) {
+            return enqueue(requests);
+        }
+        if (body.isArray()) {
+            log.info("Received workload batch: events={}", requests.size());
+            workloadService.processBatch(requests);
+            return ResponseEntity.ok().build();
+        }
+        WorkloadRequest req = requests.get(0);
         log.info("Received workload update: trainer={}, action={}, date={}, duration={}min",
                  req.getTrainerUsername(), req.getActionType(),
                  req.getTrainingDate(), req.getTrainingDuration());
@@ -40,10 +97,99 @@ public class WorkloadController {
         return ResponseEntity.ok().build();
     }
 
+    private ResponseEntity<?> enqueue(List<WorkloadRequest> requests) {
+        if (requests.size() > ingestBuffer.capacity()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "at most " + ingestBuffer.capacity() + " events per request");
+        }
+        String ackId = UUID.randomUUID().toString();
+        return switch (ingestBuffer.offer(ackId, requests)) {
+            case ACCEPTED -> {
+                log.info("Buffered workload events: ackId={}, events={}", ackId, requests.size());
+                yield ResponseEntity.accepted().body(new WorkloadIngestResponse(ackId, requests.size()));
+            }
+            case FULL -> {
+                log.warn("Workload ingest buffer full, rejected events={}", requests.size());
+                yield ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, INGEST_RETRY_AFTER_SECONDS).build();
+            }
+            case UNAVAILABLE -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, INGEST_RETRY_AFTER_SECONDS).build();
+        };
+    }
+
+    /** Reads one event or an array of events; any malformed or invalid event rejects the request. */
+    private List<WorkloadRequest> toRequests(JsonNode body) {
+        if (!body.isArray() && !body.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a workload event or an array of them");
+        }
+        List<WorkloadRequest> requests;
+        try {
+            requests = body.isArray()
+                    ? objectMapper.convertValue(body, REQUEST_LIST)
+                    : List.of(objectMapper.convertValue(body, WorkloadRequest.class));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed workload event: " + e.getMessage());
+        }
+        if (requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No workload events");
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            if (requests.get(i) == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Workload event " + i + " is null");
+            }
+            Set<ConstraintViolation<WorkloadRequest>> violations = validator.validate(requests.get(i));
+            if (!violations.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid workload event " + i + ": "
+                        + violations.stream()
+                                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                                .sorted()
+                                .collect(Collectors.joining(", ")));
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * All range parameters are optional and inclusive; month bounds apply within every selected
+     * year. Without any of them the full history is returned.
+     */
     @GetMapping("/{trainerUsername}")
     public ResponseEntity<WorkloadSummaryResponse> getSummary(
-            @PathVariable String trainerUsername) {
-        log.info("Retrieving workload summary for trainer: {}", trainerUsername);
-        return ResponseEntity.ok(workloadService.getSummary(trainerUsername));
+            @PathVariable String trainerUsername,
+            @RequestParam(required = false) Integer fromYear,
+            @RequestParam(required = false) Integer toYear,
+            @RequestParam(required = false) Integer fromMonth,
+            @RequestParam(required = false) Integer toMonth) {
+        WorkloadRange range = toRange(fromYear, toYear, fromMonth, toMonth);
+        log.info("Retrieving workload summary for trainer: {} range: {}", trainerUsername, range);
+        return ResponseEntity.ok(workloadService.getSummary(trainerUsername, range));
+    }
+
+    /**
+     * One JSON summary per line, written as the database cursor advances, so neither side
+     * holds the whole result. Unknown trainers get an empty summary.
+     */
+    @PostMapping(value = "/summaries", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getSummaries(@Valid @RequestBody WorkloadSummariesRequest req) {
+        WorkloadRange range = toRange(req.getFromYear(), req.getToYear(), req.getFromMonth(), req.getToMonth());
+        log.info("Retrieving workload summaries for {} trainers range: {}", req.getTrainerUsernames().size(), range);
+        StreamingResponseBody body = out -> workloadService.streamSummaries(req.getTrainerUsernames(), range, summary -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(summary));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private WorkloadRange toRange(Integer fromYear, Integer toYear, Integer fromMonth, Integer toMonth) {
+        try {
+            return new WorkloadRange(fromYear, toYear, fromMonth, toMonth);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 }
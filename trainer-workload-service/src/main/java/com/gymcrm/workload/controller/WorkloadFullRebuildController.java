@@ -0,0 +1,52 @@
+package com.gymcrm.workload.controller;
+
+import com.gymcrm.workload.service.WorkloadFullRebuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for rebuilding every trainer workload document from gym-crm.
+ * POST /api/workload/full-rebuild — start a rebuild in the background (202); 409 while one runs
+ * GET  /api/workload/full-rebuild — progress of the running or last rebuild
+ *
+ * The caller's bearer token is used to read gym-crm's export.
+ */
+@RestController
+@RequestMapping("/api/workload/full-rebuild")
+public class WorkloadFullRebuildController {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadFullRebuildController.class);
+
+    private final WorkloadFullRebuilder rebuilder;
+
+    public WorkloadFullRebuildController(WorkloadFullRebuilder rebuilder) {
+        this.rebuilder = rebuilder;
+    }
+
+    @PostMapping
+    public ResponseEntity<WorkloadFullRebuilder.Status> start(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        log.info("Starting a full workload rebuild from gym-crm");
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(rebuilder.start(authorization));
+        } catch (UnsupportedOperationException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<WorkloadFullRebuilder.Status> status() {
+        return ResponseEntity.ok(rebuilder.status());
+    }
+}
@@ -0,0 +1,69 @@
+package com.gymcrm.workload.controller;
+
+import com.gymcrm.workload.dto.ProjectionRebuildResponse;
+import com.gymcrm.workload.service.WorkloadProjectionRebuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.function.Supplier;
+
+/**
+ * REST controller for rebuilding trainer workload documents from the raw event log.
+ * POST /api/workload/projections/rebuild                   — replay the log of every trainer
+ * POST /api/workload/projections/rebuild/{trainerUsername} — replay one trainer's log
+ * POST /api/workload/projections/seed                      — snapshot every trainer document into the log
+ *
+ * Only registered with {@code workload.event-log.enabled=true}.
+ */
+@RestController
+@ConditionalOnProperty(name = "workload.event-log.enabled", havingValue = "true")
+@RequestMapping("/api/workload/projections")
+public class WorkloadProjectionController {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadProjectionController.class);
+
+    private final WorkloadProjectionRebuilder rebuilder;
+
+    public WorkloadProjectionController(WorkloadProjectionRebuilder rebuilder) {
+        this.rebuilder = rebuilder;
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<ProjectionRebuildResponse> rebuildAll() {
+        log.info("Rebuilding all workload projections from the event log");
+        return ResponseEntity.ok(supported(rebuilder::rebuildAll));
+    }
+
+    @PostMapping("/rebuild/{trainerUsername}")
+    public ResponseEntity<ProjectionRebuildResponse> rebuildTrainer(@PathVariable String trainerUsername) {
+        log.info("Rebuilding workload projection for trainer: {}", trainerUsername);
+        ProjectionRebuildResponse response = supported(() -> rebuilder.rebuildTrainer(trainerUsername));
+        if (response.trainers() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No logged events for trainer " + trainerUsername);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/seed")
+    public ResponseEntity<ProjectionRebuildResponse> seed() {
+        log.info("Seeding the workload event log from trainer documents");
+        return ResponseEntity.ok(supported(rebuilder::seed));
+    }
+
+    private static ProjectionRebuildResponse supported(Supplier<ProjectionRebuildResponse> operation) {
+        try {
+            return operation.get();
+        } catch (UnsupportedOperationException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage());
+        }
+    }
+}
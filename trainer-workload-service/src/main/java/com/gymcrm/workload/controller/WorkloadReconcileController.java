@@ -0,0 +1,45 @@
+package com.gymcrm.workload.controller;
+
+import com.gymcrm.workload.dto.ReconcileResponse;
+import com.gymcrm.workload.service.WorkloadReconciler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for reconciling trainer workload documents with gym-crm.
+ * POST /api/workload/reconcile — compare digests and re-sync drifted trainers now; 409 while a run is in progress
+ *
+ * The caller's bearer token is used to read gym-crm's digests and totals.
+ */
+@RestController
+@RequestMapping("/api/workload/reconcile")
+public class WorkloadReconcileController {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadReconcileController.class);
+
+    private final WorkloadReconciler reconciler;
+
+    public WorkloadReconcileController(WorkloadReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReconcileResponse> reconcile(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        log.info("Reconciling workload documents with gym-crm");
+        try {
+            return ResponseEntity.ok(reconciler.reconcile(authorization));
+        } catch (UnsupportedOperationException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.gymcrm.workload.controller;
+
+import com.gymcrm.workload.dto.MonthRollupResponse;
+import com.gymcrm.workload.service.WorkloadRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * REST controller for cross-trainer monthly rollups.
+ * GET  /api/workload/rollups/{year}/{month} — totals and leaderboard of one month
+ * GET  /api/workload/rollups/{year}         — the same for every month of a year
+ * POST /api/workload/rollups/rebuild        — recompute all rollups from the trainer data
+ *
+ * Only registered with {@code workload.rollup.enabled=true}.
+ */
+@RestController
+@ConditionalOnProperty(name = "workload.rollup.enabled", havingValue = "true")
+@RequestMapping("/api/workload/rollups")
+public class WorkloadRollupController {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadRollupController.class);
+
+    private final WorkloadRollupService rollupService;
+
+    public WorkloadRollupController(WorkloadRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/{year}/{month}")
+    public ResponseEntity<MonthRollupResponse> getMonth(@PathVariable int year,
+                                                        @PathVariable int month,
+                                                        @RequestParam(defaultValue = "10") int top) {
+        if (month < 1 || month > 12) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "month must be between 1 and 12");
+        }
+        requireValidTop(top);
+        return ResponseEntity.ok(rollupService.getMonth(year, month, top));
+    }
+
+    @GetMapping("/{year}")
+    public ResponseEntity<List<MonthRollupResponse>> getYear(@PathVariable int year,
+                                                             @RequestParam(defaultValue = "10") int top) {
+        requireValidTop(top);
+        return ResponseEntity.ok(rollupService.getYear(year, top));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        log.info("Rebuilding workload rollups");
+        rollupService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+
+    private void requireValidTop(int top) {
+        if (top < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "top must not be negative");
+        }
+    }
+}
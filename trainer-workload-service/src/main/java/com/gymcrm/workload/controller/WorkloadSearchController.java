@@ -0,0 +1,55 @@
+package com.gymcrm.workload.controller;
+
+import com.gymcrm.workload.dto.TrainerSearchResponse;
+import com.gymcrm.workload.service.WorkloadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for trainer name search.
+ * GET /api/workload/search — case-insensitive name prefix search, keyset-paginated
+ *
+ * Searches the trainer documents, so it is only registered with {@code workload.storage=document}.
+ */
+@RestController
+@ConditionalOnProperty(name = "workload.storage", havingValue = "document", matchIfMissing = true)
+@RequestMapping("/api/workload")
+public class WorkloadSearchController {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadSearchController.class);
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    private final WorkloadService workloadService;
+
+    public WorkloadSearchController(WorkloadService workloadService) {
+        this.workloadService = workloadService;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<TrainerSearchResponse> searchTrainers(
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        log.info("Searching trainers: firstName={}, lastName={}, active={}, size={}", firstName, lastName, active, size);
+        try {
+            return ResponseEntity.ok(workloadService.searchTrainers(firstName, lastName, active, size, cursor));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
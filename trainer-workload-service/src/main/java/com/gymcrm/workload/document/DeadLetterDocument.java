@@ -0,0 +1,164 @@
+package com.gymcrm.workload.document;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A workload message that exhausted its redeliveries, as read from a dead-letter queue, kept
+ * with everything needed to send it again: body, JMS properties and headers.
+ *
+ * <p>{@code messageId} is the JMS message ID of the last dead-lettered copy; a DLQ redelivery of
+ * the same copy is recognised by it. A replayed message carries its entry's ID in
+ * {@code X-Dead-Letter-Id}, so failing again moves the entry back to {@link Status#PENDING} and
+ * increments {@code failureCount} instead of creating a second entry.
+ *
+ * <p>Exactly one of {@code text} and {@code bytes} is set.
+ */
+@Document(collection = DeadLetterDocument.COLLECTION)
+@CompoundIndex(name = "idx_status_dead_lettered_at", def = "{'status': 1, 'lastDeadLetteredAt': 1}")
+public class DeadLetterDocument {
+
+    public static final String COLLECTION = "workload_dead_letters";
+
+    /**
+     * PENDING until replayed. REPLAYING while a replay has claimed the entry; a claim older than
+     * {@code workload.dead-letters.replay.claim-timeout} counts as abandoned and can be claimed again.
+     */
+    public enum Status { PENDING, REPLAYING, REPLAYED }
+
+    @Id
+    private String id;
+
+    @Indexed(name = "idx_message_id", unique = true)
+    @Field("messageId")
+    private String messageId;
+
+    @Field("status")
+    private Status status;
+
+    /** DLQ the message was read from. */
+    @Field("deadLetterQueue")
+    private String deadLetterQueue;
+
+    /** Queue the message failed on, when the broker recorded it. */
+    @Field("originalQueue")
+    private String originalQueue;
+
+    @Field("lane")
+    private String lane;
+
+    @Indexed(name = "idx_transaction_id", sparse = true)
+    @Field("transactionId")
+    private String transactionId;
+
+    /** Read from the payload on a best-effort basis; absent for unreadable payloads. */
+    @Indexed(name = "idx_trainer_username", sparse = true)
+    @Field("trainerUsername")
+    private String trainerUsername;
+
+    @Field("eventId")
+    private String eventId;
+
+    /** Times the event was dead-lettered: 1, plus one for each replay that failed again. */
+    @Field("failureCount")
+    private Integer failureCount;
+
+    /** {@code JMSXDeliveryCount} of the last dead-lettered copy. */
+    @Field("deliveryCount")
+    private Integer deliveryCount;
+
+    /** {@code dlqDeliveryFailureCause} set by the broker. */
+    @Field("failureCause")
+    private String failureCause;
+
+    /** JMS headers ({@code JMSType}, {@code JMSCorrelationID}, ...) and message properties. */
+    @Field("headers")
+    private Map<String, Object> headers;
+
+    @Field("text")
+    private String text;
+
+    @Field("bytes")
+    private byte[] bytes;
+
+    @Field("firstDeadLetteredAt")
+    private Instant firstDeadLetteredAt;
+
+    @Field("lastDeadLetteredAt")
+    private Instant lastDeadLetteredAt;
+
+    @Field("claimedAt")
+    private Instant claimedAt;
+
+    @Field("replayedAt")
+    private Instant replayedAt;
+
+    @Field("replayCount")
+    private Integer replayCount;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getMessageId() { return messageId; }
+    public void setMessageId(String messageId) { this.messageId = messageId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getDeadLetterQueue() { return deadLetterQueue; }
+    public void setDeadLetterQueue(String deadLetterQueue) { this.deadLetterQueue = deadLetterQueue; }
+
+    public String getOriginalQueue() { return originalQueue; }
+    public void setOriginalQueue(String originalQueue) { this.originalQueue = originalQueue; }
+
+    public String getLane() { return lane; }
+    public void setLane(String lane) { this.lane = lane; }
+
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Integer getFailureCount() { return failureCount; }
+    public void setFailureCount(Integer failureCount) { this.failureCount = failureCount; }
+
+    public Integer getDeliveryCount() { return deliveryCount; }
+    public void setDeliveryCount(Integer deliveryCount) { this.deliveryCount = deliveryCount; }
+
+    public String getFailureCause() { return failureCause; }
+    public void setFailureCause(String failureCause) { this.failureCause = failureCause; }
+
+    public Map<String, Object> getHeaders() { return headers; }
+    public void setHeaders(Map<String, Object> headers) { this.headers = headers; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public byte[] getBytes() { return bytes; }
+    public void setBytes(byte[] bytes) { this.bytes = bytes; }
+
+    public Instant getFirstDeadLetteredAt() { return firstDeadLetteredAt; }
+    public void setFirstDeadLetteredAt(Instant firstDeadLetteredAt) { this.firstDeadLetteredAt = firstDeadLetteredAt; }
+
+    public Instant getLastDeadLetteredAt() { return lastDeadLetteredAt; }
+    public void setLastDeadLetteredAt(Instant lastDeadLetteredAt) { this.lastDeadLetteredAt = lastDeadLetteredAt; }
+
+    public Instant getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(Instant claimedAt) { this.claimedAt = claimedAt; }
+
+    public Instant getReplayedAt() { return replayedAt; }
+    public void setReplayedAt(Instant replayedAt) { this.replayedAt = replayedAt; }
+
+    public Integer getReplayCount() { return replayCount; }
+    public void setReplayCount(Integer replayCount) { this.replayCount = replayCount; }
+}
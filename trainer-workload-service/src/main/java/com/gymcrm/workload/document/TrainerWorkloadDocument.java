@@ -3,29 +3,66 @@ package com.gymcrm.workload.document;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.query.Collation;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * MongoDB document representing the aggregated training workload of a single trainer.
  * The data is stored using an embedded structure (Trainer → Years → Months → trainingSummaryDuration),
  * allowing all workload information to be retrieved and updated within a single document.
  * A unique index on {@code trainerUsername} ensures one document per trainer and enables fast primary lookups,
- * and a compound index on {@code (firstName, lastName)} supports search operations.
+ * and two case-insensitive compound indexes on {@code (firstName, lastName, _id)} and
+ * {@code (lastName, firstName, _id)} serve the paginated name search. Queries must use
+ * {@link #NAME_COLLATION} to be able to use them.
  *
  * <p>MongoDB guarantees atomic writes at the document level, and optimistic locking via {@code @Version}
  * prevents lost updates in concurrent scenarios. Each document aggregates training durations
  * per (year, month),
+ *
+ * <p>Two layouts exist, told apart by {@code schemaVersion}:
+ * <ul>
+ *   <li>v1 (no {@code schemaVersion}) — {@code years: [{year, months: [{month, trainingSummaryDuration}]}]}.
+ *       Updates must locate entries by scanning arrays and reads must sort them.</li>
+ *   <li>v2 — {@code totals: {"2026": {"03": 90}}}. A month is addressed directly by the path
+ *       {@code totals.2026.03}; zero-padded keys keep both levels in calendar order. The map lives
+ *       under {@code totals} rather than {@code years} so a numeric path can never be applied to
+ *       a v1 array by mistake.</li>
+ * </ul>
+ * v1 documents are migrated on first write or read, and in the background by
+ * {@code WorkloadLayoutMigrator}.
  */
 
 @Document(collection = "trainer_workload")
-@CompoundIndex(name = "idx_first_last_name", def = "{'firstName': 1, 'lastName': 1}")
+@CompoundIndexes({
+        @CompoundIndex(name = "idx_name_search", def = "{'firstName': 1, 'lastName': 1, '_id': 1}",
+                collation = "{ 'locale': 'en', 'strength': 2 }"),
+        @CompoundIndex(name = "idx_name_search_last", def = "{'lastName': 1, 'firstName': 1, '_id': 1}",
+                collation = "{ 'locale': 'en', 'strength': 2 }")
+})
 public class TrainerWorkloadDocument {
 
+    public static final int CURRENT_SCHEMA_VERSION = 2;
+
+    /**
+     * Length of the applied-event ring kept in every trainer document and year bucket. Events
+     * of one trainer arrive in order through one consumer, so a redelivery or replay is caught
+     * as long as fewer than this many newer events of the trainer were applied since.
+     */
+    public static final int RECENT_EVENT_IDS = 64;
+
+    /** Case-insensitive (strength 2) collation of the name search indexes. */
+    public static final Collation NAME_COLLATION = Collation.of(Locale.ENGLISH).strength(Collation.ComparisonLevel.secondary());
+
     @Id
     private String id;
 
@@ -42,8 +79,26 @@ public class TrainerWorkloadDocument {
     @Field("isActive")
     private Boolean active;
 
+    /** v1 layout; null once the document has been migrated. */
     @Field("years")
-    private List<YearEntry> years = new ArrayList<>();
+    private List<YearEntry> years;
+
+    /** v2 layout: year key → month key → total training minutes. */
+    @Field("totals")
+    private SortedMap<String, SortedMap<String, Integer>> totals = new TreeMap<>();
+
+    /** Absent on v1 documents. */
+    @Field("schemaVersion")
+    private Integer schemaVersion;
+
+    /** Time of the last applied event; absent until the first write after its introduction. Drives cache warm-up. */
+    @Indexed(name = "idx_updated_at")
+    @Field("updatedAt")
+    private Instant updatedAt;
+
+    /** IDs of the last {@link #RECENT_EVENT_IDS} applied events, oldest first; absent for events sent without an ID. */
+    @Field("recentEventIds")
+    private List<String> recentEventIds;
 
     /**
      * Incremented by Spring Data MongoDB on every save.
@@ -53,6 +108,43 @@ public class TrainerWorkloadDocument {
     @Version
     private Long version;
 
+    /** Key of a year in {@link #getTotals()}. */
+    public static String yearKey(int year) {
+        return Integer.toString(year);
+    }
+
+    /** Key of a month in {@link #getTotals()}; zero-padded so that keys sort in calendar order. */
+    public static String monthKey(int month) {
+        return month < 10 ? "0" + month : Integer.toString(month);
+    }
+
+    /** Dotted path of a month total, e.g. {@code totals.2026.03}. */
+    public static String totalPath(int year, int month) {
+        return "totals." + yearKey(year) + "." + monthKey(month);
+    }
+
+    public boolean isLegacyLayout() {
+        return schemaVersion == null || schemaVersion < CURRENT_SCHEMA_VERSION;
+    }
+
+    /**
+     * Moves v1 year/month entries into {@link #getTotals()} and marks the document as v2.
+     * In-memory only; also used to initialise new documents.
+     */
+    public void migrateToMapLayout() {
+        if (years != null) {
+            for (YearEntry yearEntry : years) {
+                SortedMap<String, Integer> months =
+                        totals.computeIfAbsent(yearKey(yearEntry.getYear()), k -> new TreeMap<>());
+                for (MonthEntry monthEntry : yearEntry.getMonths()) {
+                    months.merge(monthKey(monthEntry.getMonth()), monthEntry.getTrainingSummaryDuration(), Integer::sum);
+                }
+            }
+        }
+        years = null;
+        schemaVersion = CURRENT_SCHEMA_VERSION;
+    }
+
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -71,6 +163,18 @@ public class TrainerWorkloadDocument {
     public List<YearEntry> getYears() { return years; }
     public void setYears(List<YearEntry> years) { this.years = years; }
 
+    public SortedMap<String, SortedMap<String, Integer>> getTotals() { return totals; }
+    public void setTotals(SortedMap<String, SortedMap<String, Integer>> totals) { this.totals = totals; }
+
+    public Integer getSchemaVersion() { return schemaVersion; }
+    public void setSchemaVersion(Integer schemaVersion) { this.schemaVersion = schemaVersion; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public List<String> getRecentEventIds() { return recentEventIds; }
+    public void setRecentEventIds(List<String> recentEventIds) { this.recentEventIds = recentEventIds; }
+
     public Long getVersion() { return version; }
     public void setVersion(Long version) { this.version = version; }
 
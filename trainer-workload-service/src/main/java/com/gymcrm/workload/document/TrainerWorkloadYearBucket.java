@@ -0,0 +1,106 @@
+package com.gymcrm.workload.document;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * One year of a trainer's workload, used when {@code workload.storage=bucket}.
+ *
+ * <p>Instead of embedding every year in a single {@link TrainerWorkloadDocument}, each
+ * (trainer, year) pair gets its own small document, so an event only ever rewrites the
+ * current year. The unique compound index both enforces one bucket per pair and serves the
+ * summary read, which is a single range scan on {@code trainerUsername}.
+ *
+ * <p>Profile fields are written with every event; the summary takes them from the most
+ * recently updated bucket. Buckets of past years can be moved to
+ * {@link #ARCHIVE_COLLECTION} by {@code WorkloadBucketArchiver}.
+ */
+@Document(collection = TrainerWorkloadYearBucket.COLLECTION)
+@CompoundIndex(name = "uk_trainer_year", def = "{'trainerUsername': 1, 'year': 1}", unique = true)
+public class TrainerWorkloadYearBucket {
+
+    public static final String COLLECTION = "trainer_workload_years";
+    public static final String ARCHIVE_COLLECTION = "trainer_workload_years_archive";
+
+    @Id
+    private String id;
+
+    @Field("trainerUsername")
+    private String trainerUsername;
+
+    /** Own index for the archive job, which selects buckets by year across all trainers. */
+    @Indexed(name = "idx_year")
+    @Field("year")
+    private Integer year;
+
+    @Field("firstName")
+    private String firstName;
+
+    @Field("lastName")
+    private String lastName;
+
+    @Field("isActive")
+    private Boolean active;
+
+    /** Month key (zero-padded, see {@link TrainerWorkloadDocument#monthKey}) → total training minutes. */
+    @Field("months")
+    private SortedMap<String, Integer> months = new TreeMap<>();
+
+    @Field("updatedAt")
+    private Instant updatedAt;
+
+    /** Applied-event ring of this bucket, see {@link TrainerWorkloadDocument#RECENT_EVENT_IDS}. */
+    @Field("recentEventIds")
+    private List<String> recentEventIds;
+
+    @Version
+    private Long version;
+
+    /** Set by the summary read on buckets that come from the archive collection; never stored. */
+    @ReadOnlyProperty
+    @Field("archived")
+    private boolean archived;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public SortedMap<String, Integer> getMonths() { return months; }
+    public void setMonths(SortedMap<String, Integer> months) { this.months = months; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public List<String> getRecentEventIds() { return recentEventIds; }
+    public void setRecentEventIds(List<String> recentEventIds) { this.recentEventIds = recentEventIds; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+}
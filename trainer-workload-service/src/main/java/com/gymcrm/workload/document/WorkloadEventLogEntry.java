@@ -0,0 +1,122 @@
+package com.gymcrm.workload.document;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * One accepted workload event as it arrived, appended to the {@code workload_event_log}
+ * time-series collection before the event is applied to the trainer's totals.
+ *
+ * <p>The trainer is the series' meta field, so one trainer's entries are stored and read
+ * together in {@code recordedAt} order. Entries are never updated; {@code trainer_workload}
+ * is a projection of them that {@code WorkloadProjectionRebuilder} can recompute.
+ *
+ * <p>Three kinds exist:
+ * <ul>
+ *   <li>{@link Kind#DELTA} — signed {@code minutes} for ({@code year}, {@code month}), the event ID
+ *       that guards it and the profile fields the event carried, if any.</li>
+ *   <li>{@link Kind#PROFILE} — profile fields only.</li>
+ *   <li>{@link Kind#SNAPSHOT} — the trainer's whole document ({@code totals}, profile and
+ *       {@code recentEventIds}) at the time it was written; replay starts over from it. Used to
+ *       seed the log with trainers whose history predates it.</li>
+ * </ul>
+ */
+@TimeSeries(collection = WorkloadEventLogEntry.COLLECTION, timeField = "recordedAt",
+        metaField = "trainerUsername", granularity = Granularity.SECONDS)
+public class WorkloadEventLogEntry {
+
+    public static final String COLLECTION = "workload_event_log";
+
+    public enum Kind { DELTA, PROFILE, SNAPSHOT }
+
+    @Id
+    private String id;
+
+    @Field("recordedAt")
+    private Instant recordedAt;
+
+    @Field("trainerUsername")
+    private String trainerUsername;
+
+    @Field("kind")
+    private Kind kind;
+
+    @Field("eventId")
+    private String eventId;
+
+    @Field("year")
+    private Integer year;
+
+    @Field("month")
+    private Integer month;
+
+    @Field("minutes")
+    private Integer minutes;
+
+    @Field("firstName")
+    private String firstName;
+
+    @Field("lastName")
+    private String lastName;
+
+    @Field("isActive")
+    private Boolean active;
+
+    /** {@link Kind#SNAPSHOT} only, keyed like {@link TrainerWorkloadDocument#getTotals()}. */
+    @Field("totals")
+    private SortedMap<String, SortedMap<String, Integer>> totals;
+
+    /** {@link Kind#SNAPSHOT} only. */
+    @Field("recentEventIds")
+    private List<String> recentEventIds;
+
+    /** Whether the entry carries profile fields; slim events and snapshots of profile-less trainers do not. */
+    public boolean hasProfile() {
+        return firstName != null || lastName != null || active != null;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Instant getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Integer getMonth() { return month; }
+    public void setMonth(Integer month) { this.month = month; }
+
+    public Integer getMinutes() { return minutes; }
+    public void setMinutes(Integer minutes) { this.minutes = minutes; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public SortedMap<String, SortedMap<String, Integer>> getTotals() { return totals; }
+    public void setTotals(SortedMap<String, SortedMap<String, Integer>> totals) { this.totals = totals; }
+
+    public List<String> getRecentEventIds() { return recentEventIds; }
+    public void setRecentEventIds(List<String> recentEventIds) { this.recentEventIds = recentEventIds; }
+}
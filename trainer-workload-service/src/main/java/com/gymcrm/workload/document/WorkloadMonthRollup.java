@@ -0,0 +1,99 @@
+package com.gymcrm.workload.document;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Totals of one calendar month across all trainers, kept up to date by every applied event
+ * so month-level reports and leaderboards are a single document read.
+ *
+ * <p>{@code activeTrainers} counts trainers with a positive total in the month. {@code top}
+ * holds at most {@code workload.rollup.top-capacity} trainers ordered by minutes. It is
+ * exact for trainers whose minutes grow; when a trainer in the list loses minutes, one just
+ * outside it can be missing until the next rebuild, which is why more entries are stored
+ * than are usually served.
+ */
+@Document(collection = WorkloadMonthRollup.COLLECTION)
+public class WorkloadMonthRollup {
+
+    public static final String COLLECTION = "workload_monthly_rollups";
+
+    /** {@code "<year>-<month>"} with the storage keys of {@link TrainerWorkloadDocument}, e.g. {@code "2026-03"}. */
+    @Id
+    private String id;
+
+    @Indexed(name = "idx_year")
+    @Field("year")
+    private Integer year;
+
+    @Field("month")
+    private Integer month;
+
+    @Field("totalMinutes")
+    private Long totalMinutes;
+
+    @Field("activeTrainers")
+    private Integer activeTrainers;
+
+    @Field("top")
+    private List<TopTrainer> top = new ArrayList<>();
+
+    @Field("updatedAt")
+    private Instant updatedAt;
+
+    public static String idOf(int year, int month) {
+        return TrainerWorkloadDocument.yearKey(year) + "-" + TrainerWorkloadDocument.monthKey(month);
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Integer getMonth() { return month; }
+    public void setMonth(Integer month) { this.month = month; }
+
+    public Long getTotalMinutes() { return totalMinutes; }
+    public void setTotalMinutes(Long totalMinutes) { this.totalMinutes = totalMinutes; }
+
+    public Integer getActiveTrainers() { return activeTrainers; }
+    public void setActiveTrainers(Integer activeTrainers) { this.activeTrainers = activeTrainers; }
+
+    public List<TopTrainer> getTop() { return top; }
+    public void setTop(List<TopTrainer> top) { this.top = top; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    // ── Nested: one leaderboard entry ────────────────────────────────────────
+
+    public static class TopTrainer {
+
+        @Field("trainerUsername")
+        private String trainerUsername;
+
+        @Field("minutes")
+        private Integer minutes;
+
+        /** Required by MongoDB driver for deserialization. */
+        public TopTrainer() {}
+
+        public TopTrainer(String trainerUsername, Integer minutes) {
+            this.trainerUsername = trainerUsername;
+            this.minutes = minutes;
+        }
+
+        public String getTrainerUsername() { return trainerUsername; }
+        public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+        public Integer getMinutes() { return minutes; }
+        public void setMinutes(Integer minutes) { this.minutes = minutes; }
+    }
+}
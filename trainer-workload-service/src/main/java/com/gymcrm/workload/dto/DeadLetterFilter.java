@@ -0,0 +1,12 @@
+package com.gymcrm.workload.dto;
+
+import com.gymcrm.workload.document.DeadLetterDocument.Status;
+
+import java.time.Instant;
+
+/**
+ * Criteria for dead letters; null fields do not filter. {@code from}/{@code to} bound the time
+ * the entry was last dead-lettered, inclusive/exclusive.
+ */
+public record DeadLetterFilter(Status status, String lane, String trainerUsername, String transactionId,
+                               Instant from, Instant to) {}
@@ -0,0 +1,23 @@
+package com.gymcrm.workload.dto;
+
+import com.gymcrm.workload.document.DeadLetterDocument.Status;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Selects dead letters to replay: the listed {@code ids}, or when none are listed every pending
+ * entry matching the other fields, oldest first, up to {@code limit}.
+ */
+public record DeadLetterReplayRequest(List<String> ids,
+                                      String lane,
+                                      String trainerUsername,
+                                      String transactionId,
+                                      Instant from,
+                                      Instant to,
+                                      Integer limit) {
+
+    public DeadLetterFilter filter() {
+        return new DeadLetterFilter(Status.PENDING, lane, trainerUsername, transactionId, from, to);
+    }
+}
@@ -0,0 +1,7 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * Outcome of a replay: entries sent, entries skipped because they were already replayed or
+ * claimed by another replay, and entries that could not be sent and stay pending.
+ */
+public record DeadLetterReplayResponse(int replayed, int skipped, int failed) {}
@@ -0,0 +1,26 @@
+package com.gymcrm.workload.dto;
+
+import com.gymcrm.workload.document.DeadLetterDocument.Status;
+
+import java.time.Instant;
+import java.util.Map;
+
+/** A dead letter as listed by {@code GET /api/workload/dead-letters}; binary bodies are described, not returned. */
+public record DeadLetterResponse(String id,
+                                 String messageId,
+                                 Status status,
+                                 String deadLetterQueue,
+                                 String originalQueue,
+                                 String lane,
+                                 String transactionId,
+                                 String trainerUsername,
+                                 String eventId,
+                                 int failureCount,
+                                 Integer deliveryCount,
+                                 String failureCause,
+                                 Map<String, Object> headers,
+                                 String body,
+                                 Instant firstDeadLetteredAt,
+                                 Instant lastDeadLetteredAt,
+                                 Instant replayedAt,
+                                 int replayCount) {}
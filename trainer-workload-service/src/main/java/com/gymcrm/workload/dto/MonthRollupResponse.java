@@ -0,0 +1,16 @@
+package com.gymcrm.workload.dto;
+
+import java.util.List;
+
+/**
+ * Response for GET /api/workload/rollups/{year}/{month} (and one entry per month of
+ * GET /api/workload/rollups/{year}). {@code top} is ordered by minutes, highest first.
+ */
+public record MonthRollupResponse(Integer year,
+                                  Integer month,
+                                  Long totalMinutes,
+                                  Integer activeTrainers,
+                                  List<TopTrainer> top) {
+
+    public record TopTrainer(String trainerUsername, Integer minutes) {}
+}
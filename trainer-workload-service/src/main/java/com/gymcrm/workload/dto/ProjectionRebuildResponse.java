@@ -0,0 +1,7 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * Outcome of a projection rebuild or log seeding: trainers written, event log entries replayed
+ * (or, for seeding, appended), and trainers whose rebuild failed.
+ */
+public record ProjectionRebuildResponse(int trainers, long entries, int failed) {}
@@ -0,0 +1,7 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * Digest of all trainers with username in [from, to): how many have positive totals and the
+ * sum of their {@link TrainerDigest}s modulo the digest prime. A null {@code to} has no upper bound.
+ */
+public record RangeDigest(String from, String to, long trainers, long digest) {}
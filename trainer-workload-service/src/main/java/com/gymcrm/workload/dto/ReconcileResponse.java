@@ -0,0 +1,8 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * Outcome of a reconciliation against gym-crm: the username ranges compared, those whose
+ * digests differed, the trainers whose digests still differed after the settle delay, and how
+ * many of those were repaired or failed.
+ */
+public record ReconcileResponse(int ranges, int mismatchedRanges, int mismatchedTrainers, int repaired, int failed) {}
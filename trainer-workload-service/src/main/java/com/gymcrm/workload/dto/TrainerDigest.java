@@ -0,0 +1,7 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * A trainer's workload digest: a hash of their positive (year, month, total minutes) tuples.
+ * gym-crm computes the same digest from its trainings; see {@code WorkloadDigestRepository}.
+ */
+public record TrainerDigest(String trainerUsername, long digest) {}
@@ -0,0 +1,19 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * One line of gym-crm's workload export ({@code GET /workload-export}): a trainer's total
+ * minutes in one month, with the trainer's profile. A trainer without trainings comes as one
+ * row with null year, month and minutes.
+ */
+public record TrainerMonthExportRow(String trainerUsername,
+                                    String firstName,
+                                    String lastName,
+                                    Boolean isActive,
+                                    Integer year,
+                                    Integer month,
+                                    Long minutes) {
+
+    public boolean hasMonth() {
+        return year != null && month != null && minutes != null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gymcrm.workload.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A trainer's profile as it is after a change in gym-crm ({@code trainerProfile} JMS type):
+ * sent when a trainer registers, is updated with different values, or is (de)activated.
+ *
+ * Only the profile fields are written; the training totals are left alone. Applying the
+ * same profile twice changes nothing, so no event ID guard is needed.
+ */
+public class TrainerProfileRequest {
+
+    @NotBlank(message = "Trainer username is required")
+    private String trainerUsername;
+
+    @NotBlank(message = "First name is required")
+    private String firstName;
+
+    @NotBlank(message = "Last name is required")
+    private String lastName;
+
+    @NotNull(message = "IsActive is required")
+    private Boolean isActive;
+
+    /** Unique ID assigned by the sender, for tracing only. Optional. */
+    @Size(max = 64, message = "Event ID must be at most 64 characters")
+    private String eventId;
+
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+}
@@ -0,0 +1,22 @@
+package com.gymcrm.workload.dto;
+
+import java.util.List;
+
+/**
+ * Response for GET /api/workload/search.
+ * {@code nextCursor} is passed back as {@code cursor} to fetch the following page; it is
+ * {@code null} on the last page.
+ */
+public class TrainerSearchResponse {
+
+    private List<TrainerSummary> trainers;
+    private String nextCursor;
+
+    public record TrainerSummary(String trainerUsername, String firstName, String lastName, Boolean trainerStatus) {}
+
+    public List<TrainerSummary> getTrainers() { return trainers; }
+    public void setTrainers(List<TrainerSummary> trainers) { this.trainers = trainers; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,86 @@
+package com.gymcrm.workload.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Net workload changes of one trainer produced by a single unit of work in gym-crm
+ * ({@code workloadDeltaBatch} JMS type), e.g. all trainings removed with a trainee.
+ *
+ * Each entry is a signed number of minutes for one (year, month); the stored total is
+ * floored at 0 as for single events. The batch is applied once: {@code eventId} is
+ * remembered per month as {@code eventId:year-month}.
+ */
+public class WorkloadDeltaBatchRequest {
+
+    public static final int MAX_DELTAS = 1_200;
+
+    @NotBlank(message = "Trainer username is required")
+    private String trainerUsername;
+
+    /*
+     * Profile fields are optional: slim batches leave them out and the profile arrives as a
+     * trainerProfile event. When present (older producers) they are written as before.
+     */
+    private String firstName;
+
+    private String lastName;
+
+    private Boolean isActive;
+
+    /** Unique ID assigned by the sender; a redelivered batch carries the same one. Optional. */
+    @Size(max = 64, message = "Event ID must be at most 64 characters")
+    private String eventId;
+
+    @NotEmpty(message = "At least one delta is required")
+    @Size(max = MAX_DELTAS, message = "At most " + MAX_DELTAS + " deltas per batch")
+    private List<@Valid @NotNull(message = "Delta must not be null") MonthDelta> deltas;
+
+    public static class MonthDelta {
+
+        @NotNull(message = "Year is required")
+        private Integer year;
+
+        @NotNull(message = "Month is required")
+        @Min(value = 1, message = "Month must be between 1 and 12")
+        @Max(value = 12, message = "Month must be between 1 and 12")
+        private Integer month;
+
+        @NotNull(message = "Minutes are required")
+        private Integer minutes;
+
+        public Integer getYear() { return year; }
+        public void setYear(Integer year) { this.year = year; }
+
+        public Integer getMonth() { return month; }
+        public void setMonth(Integer month) { this.month = month; }
+
+        public Integer getMinutes() { return minutes; }
+        public void setMinutes(Integer minutes) { this.minutes = minutes; }
+    }
+
+    public String getTrainerUsername() { return trainerUsername; }
+    public void setTrainerUsername(String trainerUsername) { this.trainerUsername = trainerUsername; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public List<MonthDelta> getDeltas() { return deltas; }
+    public void setDeltas(List<MonthDelta> deltas) { this.deltas = deltas; }
+}
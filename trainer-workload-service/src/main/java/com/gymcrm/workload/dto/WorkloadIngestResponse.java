@@ -0,0 +1,7 @@
+package com.gymcrm.workload.dto;
+
+/**
+ * Response for POST /api/workload in {@code async} ingestion mode: the events were buffered,
+ * not yet written. {@code ackId} appears in the writer's logs for the batches holding them.
+ */
+public record WorkloadIngestResponse(String ackId, int accepted) {}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.time.LocalDate;
 
@@ -13,13 +14,14 @@ public class WorkloadRequest {
     @NotBlank(message = "Trainer username is required")
     private String trainerUsername;
 
-    @NotBlank(message = "First name is required")
+    /*
+     * Profile fields are optional: slim events leave them out and the profile arrives as a
+     * trainerProfile event. When present (older producers) they are written as before.
+     */
     private String firstName;
 
-    @NotBlank(message = "Last name is required")
     private String lastName;
 
-    @NotNull(message = "IsActive is required")
     private Boolean isActive;
 
     @NotNull(message = "Training date is required")
@@ -33,6 +35,10 @@ public class WorkloadRequest {
     @NotNull(message = "Action type is required")
     private ActionType actionType;
 
+    /** Unique ID assigned by the sender; a redelivered event carries the same one. Optional. */
+    @Size(max = 64, message = "Event ID must be at most 64 characters")
+    private String eventId;
+
     public enum ActionType {
         ADD, DELETE
     }
@@ -57,4 +63,7 @@ public class WorkloadRequest {
 
     public ActionType getActionType() { return actionType; }
     public void setActionType(ActionType actionType) { this.actionType = actionType; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
 }
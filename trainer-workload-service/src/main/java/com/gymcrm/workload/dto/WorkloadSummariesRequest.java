@@ -0,0 +1,40 @@
+package com.gymcrm.workload.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request for POST /api/workload/summaries.
+ * The period fields are optional and behave like the query parameters of the single-trainer read.
+ */
+public class WorkloadSummariesRequest {
+
+    public static final int MAX_TRAINERS = 10_000;
+
+    @NotEmpty(message = "At least one trainer username is required")
+    @Size(max = MAX_TRAINERS, message = "At most " + MAX_TRAINERS + " trainers per request")
+    private List<@NotBlank(message = "Trainer username must not be blank") String> trainerUsernames;
+
+    private Integer fromYear;
+    private Integer toYear;
+    private Integer fromMonth;
+    private Integer toMonth;
+
+    public List<String> getTrainerUsernames() { return trainerUsernames; }
+    public void setTrainerUsernames(List<String> trainerUsernames) { this.trainerUsernames = trainerUsernames; }
+
+    public Integer getFromYear() { return fromYear; }
+    public void setFromYear(Integer fromYear) { this.fromYear = fromYear; }
+
+    public Integer getToYear() { return toYear; }
+    public void setToYear(Integer toYear) { this.toYear = toYear; }
+
+    public Integer getFromMonth() { return fromMonth; }
+    public void setFromMonth(Integer fromMonth) { this.fromMonth = fromMonth; }
+
+    public Integer getToMonth() { return toMonth; }
+    public void setToMonth(Integer toMonth) { this.toMonth = toMonth; }
+}
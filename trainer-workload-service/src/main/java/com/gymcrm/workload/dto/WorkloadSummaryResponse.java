@@ -5,6 +5,8 @@ import java.util.List;
 /**
  * Response for GET /api/workload/{trainerUsername}.
  * Nested structure: trainer → years → months → total training minutes.
+ * {@code totalDuration} on the response and on each year is the sum of the minutes below it;
+ * for a range read it covers only the requested slice.
  */
 public class WorkloadSummaryResponse {
 
@@ -13,8 +15,14 @@ public class WorkloadSummaryResponse {
     private String lastName;
     private Boolean trainerStatus;
     private List<YearSummary> years;
+    private Integer totalDuration;
 
-    public record YearSummary(Integer year, List<MonthSummary> months) {}
+    public record YearSummary(Integer year, List<MonthSummary> months, Integer totalDuration) {
+
+        public YearSummary(Integer year, List<MonthSummary> months) {
+            this(year, months, months.stream().mapToInt(MonthSummary::trainingSummaryDuration).sum());
+        }
+    }
 
     public record MonthSummary(Integer month, Integer trainingSummaryDuration) {}
 
@@ -32,4 +40,7 @@ public class WorkloadSummaryResponse {
 
     public List<YearSummary> getYears() { return years; }
     public void setYears(List<YearSummary> years) { this.years = years; }
+
+    public Integer getTotalDuration() { return totalDuration; }
+    public void setTotalDuration(Integer totalDuration) { this.totalDuration = totalDuration; }
 }
@@ -0,0 +1,231 @@
+package com.gymcrm.workload.messaging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sizes the consumer pool of {@link WorkloadMessageListener} at runtime, within the bounds of
+ * {@code workload.jms.concurrency}. Enabled with {@code workload.jms.adaptive.enabled=true}, and only
+ * without message groups ({@code workload.jms.message-groups=false}): the broker assigns each
+ * {@code JMSXGroupID} to a consumer that exists when the group's first message arrives, so with
+ * groups every group would stay on the first consumers and those added later would idle.
+ *
+ * <p>Every {@code interval-ms} it samples three signals and moves the consumer count:
+ * <ul>
+ *   <li>Mean MongoDB command latency since the last sample ({@code mongodb.driver.commands})
+ *       or p95 of {@code workload.events.process} above its limit — halve the consumers.
+ *       More consumers would only queue more writes on a struggling database.</li>
+ *   <li>Backlog on the queue above {@code backlog-per-consumer} per consumer — add one.</li>
+ *   <li>Empty queue — remove one, down to the minimum.</li>
+ * </ul>
+ * Otherwise the count is held. Additive increase and multiplicative decrease keep the pool
+ * from oscillating while still draining bursts, such as a rush of bookings, quickly.
+ *
+ * <p>The backlog is counted with a queue browser, stopping at {@code backlog-probe-limit}.
+ * Removed consumers release their message groups; the broker reassigns them in order.
+ * Recent decisions and their reasons are served by {@link AdaptiveConcurrencyEndpoint}, and
+ * the current count is the {@code workload.jms.consumers} gauge.
+ *
+ * <p>Only the interactive lane is sized: the queue and the {@code lane=interactive} process
+ * timer are its own, and the bulk lane keeps its fixed {@code workload.jms.bulk.concurrency}.
+ */
+@Component
+@ConditionalOnExpression("'${workload.jms.adaptive.enabled:false}' == 'true' and '${workload.jms.message-groups:true}' == 'false'")
+public class AdaptiveConcurrencyController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyController.class);
+
+    /** Command timer registered by Spring Boot's MongoDB metrics auto-configuration. */
+    static final String MONGO_COMMANDS_TIMER = "mongodb.driver.commands";
+
+    private static final int HISTORY_SIZE = 50;
+
+    private final JmsListenerEndpointRegistry registry;
+    private final JmsTemplate jmsTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String queueName;
+    private final int minConsumers;
+    private final int maxConsumers;
+    private final int backlogPerConsumer;
+    private final int backlogProbeLimit;
+    private final long processLatencyLimitMs;
+    private final long mongoLatencyLimitMs;
+
+    private final AtomicInteger consumers = new AtomicInteger();
+    private final Deque<Decision> history = new ArrayDeque<>();
+    private long lastMongoCount;
+    private double lastMongoTotalMs;
+
+    public AdaptiveConcurrencyController(JmsListenerEndpointRegistry registry,
+                                         JmsTemplate jmsTemplate,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${workload.jms.queue-name}") String queueName,
+                                         @Value("${workload.jms.concurrency:1-5}") String concurrency,
+                                         @Value("${workload.jms.adaptive.backlog-per-consumer:100}") int backlogPerConsumer,
+                                         @Value("${workload.jms.adaptive.backlog-probe-limit:5000}") int backlogProbeLimit,
+                                         @Value("${workload.jms.adaptive.process-latency-limit-ms:250}") long processLatencyLimitMs,
+                                         @Value("${workload.jms.adaptive.mongo-latency-limit-ms:50}") long mongoLatencyLimitMs) {
+        this.registry = registry;
+        this.jmsTemplate = jmsTemplate;
+        this.meterRegistry = meterRegistry;
+        this.queueName = queueName;
+        int dash = concurrency.indexOf('-');
+        this.minConsumers = Integer.parseInt(dash < 0 ? concurrency.trim() : concurrency.substring(0, dash).trim());
+        this.maxConsumers = dash < 0 ? minConsumers : Integer.parseInt(concurrency.substring(dash + 1).trim());
+        this.backlogPerConsumer = backlogPerConsumer;
+        this.backlogProbeLimit = backlogProbeLimit;
+        this.processLatencyLimitMs = processLatencyLimitMs;
+        this.mongoLatencyLimitMs = mongoLatencyLimitMs;
+        meterRegistry.gauge("workload.jms.consumers", consumers);
+    }
+
+    /** Signals of one sampling interval; latencies are {@code NaN} when nothing was measured. */
+    public record Sample(long backlog, double processP95Ms, double mongoLatencyMs) {}
+
+    /** Outcome of one sampling interval. {@code backlog} is -1 when the queue could not be browsed. */
+    public record Decision(Instant at, int previous, int target, String reason,
+                           long backlog, double processP95Ms, double mongoLatencyMs) {}
+
+    @Scheduled(fixedDelayString = "${workload.jms.adaptive.interval-ms:5000}",
+               initialDelayString = "${workload.jms.adaptive.interval-ms:5000}")
+    public void adjust() {
+        MessageListenerContainer listener = registry.getListenerContainer(WorkloadMessageListener.CONTAINER_ID);
+        if (!(listener instanceof DefaultMessageListenerContainer container) || !container.isRunning()) {
+            return;   // batch mode: BatchWorkloadConsumer owns the queue
+        }
+        Sample sample = new Sample(measureBacklog(), processP95Ms(), mongoLatencyMs());
+        Decision decision = decide(container.getConcurrentConsumers(), sample);
+        if (decision.target() != decision.previous()) {
+            // Lower the core count first: DMLC never lets max drop below it.
+            container.setConcurrentConsumers(decision.target());
+            container.setMaxConcurrentConsumers(decision.target());
+            log.info("[WORKLOAD-CONCURRENCY] consumers {} -> {}: {} (backlog={} p95={}ms mongo={}ms)",
+                    decision.previous(), decision.target(), decision.reason(),
+                    sample.backlog(), format(sample.processP95Ms()), format(sample.mongoLatencyMs()));
+        }
+        consumers.set(decision.target());
+        remember(decision);
+    }
+
+    Decision decide(int current, Sample sample) {
+        int target = current;
+        String reason;
+        if (sample.mongoLatencyMs() > mongoLatencyLimitMs) {
+            target = Math.max(minConsumers, current / 2);
+            reason = "mongo latency above " + mongoLatencyLimitMs + "ms";
+        } else if (sample.processP95Ms() > processLatencyLimitMs) {
+            target = Math.max(minConsumers, current / 2);
+            reason = "process p95 above " + processLatencyLimitMs + "ms";
+        } else if (sample.backlog() < 0) {
+            reason = "backlog unknown";
+        } else if (sample.backlog() > (long) current * backlogPerConsumer) {
+            target = Math.min(maxConsumers, current + 1);
+            reason = target > current ? "backlog above " + backlogPerConsumer + " per consumer" : "at maximum";
+        } else if (sample.backlog() == 0) {
+            target = Math.max(minConsumers, current - 1);
+            reason = target < current ? "queue empty" : "at minimum";
+        } else {
+            reason = "steady";
+        }
+        // Keep a hand-tuned container inside the configured bounds.
+        target = Math.max(minConsumers, Math.min(maxConsumers, target));
+        return new Decision(Instant.now(), current, target, reason,
+                sample.backlog(), sample.processP95Ms(), sample.mongoLatencyMs());
+    }
+
+    /** Most recent decisions, newest first. */
+    public synchronized List<Decision> recentDecisions() {
+        return List.copyOf(history);
+    }
+
+    public int minConsumers() {
+        return minConsumers;
+    }
+
+    public int maxConsumers() {
+        return maxConsumers;
+    }
+
+    public int currentConsumers() {
+        return consumers.get();
+    }
+
+    private synchronized void remember(Decision decision) {
+        history.addFirst(decision);
+        if (history.size() > HISTORY_SIZE) {
+            history.removeLast();
+        }
+    }
+
+    private long measureBacklog() {
+        try {
+            Integer counted = jmsTemplate.browse(queueName, (session, browser) -> {
+                int n = 0;
+                Enumeration<?> messages = browser.getEnumeration();
+                while (n < backlogProbeLimit && messages.hasMoreElements()) {
+                    messages.nextElement();
+                    n++;
+                }
+                return n;
+            });
+            return counted == null ? -1 : counted;
+        } catch (JmsException e) {
+            log.warn("[WORKLOAD-CONCURRENCY] could not browse {}: {}", queueName, e.getMessage());
+            return -1;
+        }
+    }
+
+    private double processP95Ms() {
+        Timer timer = meterRegistry.find(WorkloadMessageListener.PROCESS_TIMER)
+                .tag("lane", EventLagMetrics.INTERACTIVE_LANE)
+                .timer();
+        if (timer == null) {
+            return Double.NaN;
+        }
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** Mean command latency since the previous sample, summed over every command timer. */
+    private double mongoLatencyMs() {
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : meterRegistry.find(MONGO_COMMANDS_TIMER).timers()) {
+            count += timer.count();
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long commands = count - lastMongoCount;
+        double spentMs = totalMs - lastMongoTotalMs;
+        lastMongoCount = count;
+        lastMongoTotalMs = totalMs;
+        return commands > 0 ? spentMs / commands : Double.NaN;
+    }
+
+    private static String format(double ms) {
+        return Double.isNaN(ms) ? "-" : String.format("%.1f", ms);
+    }
+}
@@ -0,0 +1,33 @@
+package com.gymcrm.workload.messaging;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/jmsconcurrency}: bounds and current size of the workload listener pool,
+ * and the latest decisions of {@link AdaptiveConcurrencyController} with the signals behind them.
+ */
+@Component
+@Endpoint(id = "jmsconcurrency")
+@ConditionalOnExpression("'${workload.jms.adaptive.enabled:false}' == 'true' and '${workload.jms.message-groups:true}' == 'false'")
+public class AdaptiveConcurrencyEndpoint {
+
+    private final AdaptiveConcurrencyController controller;
+
+    public AdaptiveConcurrencyEndpoint(AdaptiveConcurrencyController controller) {
+        this.controller = controller;
+    }
+
+    public record Status(int minConsumers, int maxConsumers, int consumers,
+                         List<AdaptiveConcurrencyController.Decision> decisions) {}
+
+    @ReadOperation
+    public Status status() {
+        return new Status(controller.minConsumers(), controller.maxConsumers(),
+                controller.currentConsumers(), controller.recentDecisions());
+    }
+}
@@ -0,0 +1,396 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.TrainerProfileRequest;
+import com.gymcrm.workload.dto.WorkloadDeltaBatchRequest;
+import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.service.WorkloadService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch consumer for trainer workload events, enabled with {@code workload.jms.batch.enabled=true}.
+ *
+ * <p>Each worker owns a transacted session and drains up to {@code max-size} messages or
+ * {@code linger-ms} milliseconds, whichever comes first. The valid events of a batch are
+ * folded per (trainer, year, month) and written with bulk operations, then the session is
+ * committed once for the whole batch. {@code workloadDeltaBatch} messages join the same
+ * bulk write with their deltas as they are; {@code trainerProfile} messages are applied after
+ * it, one update each, in the same transaction.
+ *
+ * <p>Error handling mirrors {@link WorkloadMessageListener}:
+ * <ul>
+ *   <li>Tier 1 — payloads failing validation are logged and dropped; they are committed
+ *       with the rest of the batch. Payloads that cannot be converted at all are moved
+ *       to the DLQ inside the same transaction (the single-message listener reaches the
+ *       same DLQ, only after exhausting its retries).</li>
+ *   <li>Tier 2 — a failed write rolls the session back. The worker then receives the
+ *       batch's messages again one per transaction, and any redelivered message arriving
+ *       first is also consumed alone, so only a message that keeps failing uses up its
+ *       retries under the connection factory's {@code RedeliveryPolicy} and ends in the DLQ,
+ *       as with the single-message listener.</li>
+ * </ul>
+ *
+ * <p>The batch's {@code X-Transaction-Id}s are in the MDC while it is written, so the
+ * service's batch log lines carry them.
+ *
+ * <p>Committed events are recorded in {@code workload.events.lag} like in the single-message
+ * listener; the whole batch counts as consumed when its processing starts.
+ */
+@Component
+@ConditionalOnProperty(name = "workload.jms.batch.enabled", havingValue = "true")
+public class BatchWorkloadConsumer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchWorkloadConsumer.class);
+
+    /** How long an idle worker blocks waiting for the first message of a batch. */
+    private static final long IDLE_RECEIVE_TIMEOUT_MS = 1_000L;
+
+    /** Pause before reopening a session after a broker failure. */
+    private static final long RECONNECT_BACKOFF_MS = 5_000L;
+
+    private final ConnectionFactory connectionFactory;
+    private final MessageConverter messageConverter;
+    private final WorkloadService workloadService;
+    private final Validator validator;
+
+    private final String queueName;
+    private final String dlqName;
+    private final int maxBatchSize;
+    private final long lingerMs;
+    private final int consumers;
+
+    private final DistributionSummary batchSize;
+    private final Timer batchLinger;
+    private final Timer batchWrite;
+    private final Counter eventsApplied;
+    private final Counter eventsDiscarded;
+    private final Counter batchesRolledBack;
+    private final EventLagMetrics lagMetrics;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    private Connection connection;
+
+    public BatchWorkloadConsumer(ConnectionFactory connectionFactory,
+                                 MessageConverter messageConverter,
+                                 WorkloadService workloadService,
+                                 Validator validator,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${workload.jms.queue-name}") String queueName,
+                                 @Value("${workload.jms.dlq-name:ActiveMQ.DLQ}") String dlqName,
+                                 @Value("${workload.jms.batch.max-size:500}") int maxBatchSize,
+                                 @Value("${workload.jms.batch.linger-ms:200}") long lingerMs,
+                                 @Value("${workload.jms.batch.consumers:1}") int consumers) {
+        this.connectionFactory = connectionFactory;
+        this.messageConverter = messageConverter;
+        this.workloadService = workloadService;
+        this.validator = validator;
+        this.queueName = queueName;
+        this.dlqName = dlqName;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.consumers = consumers;
+
+        this.batchSize = DistributionSummary.builder("workload.batch.size")
+                .description("Messages per consumed batch")
+                .register(meterRegistry);
+        this.batchLinger = Timer.builder("workload.batch.linger")
+                .description("Time spent collecting a batch after its first message")
+                .register(meterRegistry);
+        this.batchWrite = Timer.builder("workload.batch.write")
+                .description("Bulk write and commit time per batch")
+                .register(meterRegistry);
+        this.eventsApplied = Counter.builder("workload.batch.events")
+                .tag("result", "applied")
+                .description("Workload events consumed in batch mode")
+                .register(meterRegistry);
+        this.eventsDiscarded = Counter.builder("workload.batch.events")
+                .tag("result", "discarded")
+                .description("Workload events consumed in batch mode")
+                .register(meterRegistry);
+        this.batchesRolledBack = Counter.builder("workload.batch.rollbacks")
+                .description("Batches rolled back for redelivery")
+                .register(meterRegistry);
+        this.lagMetrics = new EventLagMetrics(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            connection = connectionFactory.createConnection();
+            connection.start();
+        } catch (JMSException e) {
+            throw new IllegalStateException("Could not open JMS connection for batch consumer", e);
+        }
+        running = true;
+        for (int i = 1; i <= consumers; i++) {
+            Thread worker = new Thread(this::consumeLoop, "workload-batch-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Batch workload consumer started: queue={}, consumers={}, maxSize={}, lingerMs={}",
+                queueName, consumers, maxBatchSize, lingerMs);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(IDLE_RECEIVE_TIMEOUT_MS + lingerMs + RECONNECT_BACKOFF_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            log.warn("Error closing batch consumer connection", e);
+        }
+        log.info("Batch workload consumer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            try (Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                 MessageConsumer consumer = session.createConsumer(session.createQueue(queueName));
+                 MessageProducer dlqProducer = session.createProducer(session.createQueue(dlqName))) {
+                int isolated = 0;
+                while (running) {
+                    isolated = poll(session, consumer, dlqProducer, isolated);
+                }
+            } catch (JMSException e) {
+                log.error("Batch consumer session failed — reopening in {}ms", RECONNECT_BACKOFF_MS, e);
+                sleepQuietly(RECONNECT_BACKOFF_MS);
+            } catch (RuntimeException e) {
+                // Closing the session rolled back whatever it had not committed.
+                log.error("Batch consumer failed unexpectedly — reopening in {}ms", RECONNECT_BACKOFF_MS, e);
+                sleepQuietly(RECONNECT_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Consumes one batch, or one message while {@code isolated} messages of a failed batch are
+     * still to come back, and returns how many are left to consume one at a time.
+     */
+    int poll(Session session, MessageConsumer consumer, MessageProducer dlqProducer, int isolated) throws JMSException {
+        List<Message> batch = drain(consumer, isolated > 0 ? 1 : maxBatchSize);
+        if (batch.isEmpty()) {
+            return isolated;
+        }
+        boolean committed = processBatch(session, dlqProducer, batch);
+        if (!committed && batch.size() > 1) {
+            log.warn("Redelivering the {} messages of the failed batch one per transaction", batch.size());
+            return batch.size();
+        }
+        return Math.max(0, isolated - 1);
+    }
+
+    /**
+     * Blocks for the first message, then collects more until the batch holds {@code limit}
+     * messages or the linger expires. A redelivered first message is returned alone.
+     */
+    private List<Message> drain(MessageConsumer consumer, int limit) throws JMSException {
+        Message first = consumer.receive(IDLE_RECEIVE_TIMEOUT_MS);
+        if (first == null) {
+            return List.of();
+        }
+        if (first.getJMSRedelivered()) {
+            limit = 1;
+        }
+
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        List<Message> batch = new ArrayList<>();
+        batch.add(first);
+        while (batch.size() < limit) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                break;
+            }
+            Message next = consumer.receive(remainingMs);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        batchLinger.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+        return batch;
+    }
+
+    /**
+     * Returns whether the batch was committed; false when it was rolled back for redelivery,
+     * including when one of its messages could not be converted or validated.
+     */
+    private boolean processBatch(Session session, MessageProducer dlqProducer, List<Message> batch) throws JMSException {
+        long consumedAtMs = System.currentTimeMillis();
+        List<WorkloadRequest> valid = new ArrayList<>(batch.size());
+        List<Message> validMessages = new ArrayList<>(batch.size());
+        List<WorkloadDeltaBatchRequest> deltaBatches = new ArrayList<>();
+        List<Message> deltaBatchMessages = new ArrayList<>();
+        List<TrainerProfileRequest> profiles = new ArrayList<>();
+        List<Message> profileMessages = new ArrayList<>();
+        try {
+            for (Message message : batch) {
+                Object payload = toValidPayload(message, dlqProducer);
+                if (payload instanceof WorkloadRequest request) {
+                    valid.add(request);
+                    validMessages.add(message);
+                } else if (payload instanceof WorkloadDeltaBatchRequest deltaBatch) {
+                    deltaBatches.add(deltaBatch);
+                    deltaBatchMessages.add(message);
+                } else if (payload instanceof TrainerProfileRequest profile) {
+                    profiles.add(profile);
+                    profileMessages.add(message);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Workload batch could not be read — session will roll back for redelivery [size={}]",
+                    batch.size(), e);
+            session.rollback();
+            batchesRolledBack.increment();
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        setupBatchMdc(batch);
+        try {
+            if (!valid.isEmpty() || !deltaBatches.isEmpty()) {
+                workloadService.processBatch(valid, deltaBatches);
+            }
+            profiles.forEach(workloadService::processProfile);
+            session.commit();
+            for (int i = 0; i < valid.size(); i++) {
+                lagMetrics.recordPersisted(validMessages.get(i), valid.get(i).getActionType(), consumedAtMs);
+            }
+            deltaBatchMessages.forEach(message ->
+                    lagMetrics.recordPersisted(message, EventLagMetrics.DELTA_BATCH_ACTION, consumedAtMs));
+            profileMessages.forEach(message ->
+                    lagMetrics.recordPersisted(message, EventLagMetrics.PROFILE_ACTION, consumedAtMs));
+            int applied = valid.size() + deltaBatches.size() + profiles.size();
+            eventsApplied.increment(applied);
+            eventsDiscarded.increment(batch.size() - applied);
+            return true;
+        } catch (RuntimeException e) {
+            // Tier 2: transient/infrastructure failure — the batch goes back to the broker.
+            log.error("Workload batch failed — session will roll back for redelivery [size={}]", batch.size(), e);
+            session.rollback();
+            batchesRolledBack.increment();
+            return false;
+        } finally {
+            WorkloadMessages.clearMdc();
+            batchWrite.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Puts the batch's distinct transaction IDs, comma-separated, into the MDC. */
+    private static void setupBatchMdc(List<Message> batch) {
+        Set<String> transactionIds = new LinkedHashSet<>();
+        for (Message message : batch) {
+            try {
+                String transactionId = message.getStringProperty(WorkloadMessages.TRANSACTION_ID_JMS_PROPERTY);
+                if (transactionId != null) {
+                    transactionIds.add(transactionId);
+                }
+            } catch (JMSException e) {
+                log.debug("Could not read {} of a batch message", WorkloadMessages.TRANSACTION_ID_JMS_PROPERTY, e);
+            }
+        }
+        if (!transactionIds.isEmpty()) {
+            MDC.put(WorkloadMessages.TRANSACTION_ID_MDC_KEY, String.join(",", transactionIds));
+        }
+    }
+
+    /**
+     * Returns the converted {@link WorkloadRequest}, {@link WorkloadDeltaBatchRequest} or
+     * {@link TrainerProfileRequest}, or null if it was discarded (tier 1) or moved to the DLQ.
+     */
+    private Object toValidPayload(Message message, MessageProducer dlqProducer) throws JMSException {
+        WorkloadMessages.setupMdc(message);
+        try {
+            Object payload;
+            try {
+                payload = messageConverter.fromMessage(message);
+            } catch (MessageConversionException e) {
+                payload = null;
+            }
+            if (payload instanceof WorkloadDeltaBatchRequest deltaBatch) {
+                Set<ConstraintViolation<WorkloadDeltaBatchRequest>> violations = validator.validate(deltaBatch);
+                if (!violations.isEmpty()) {
+                    log.error("Invalid workload delta batch discarded [trainer={}]: {}",
+                            deltaBatch.getTrainerUsername(), WorkloadMessages.formatViolations(violations));
+                    return null;
+                }
+                return deltaBatch;
+            }
+            if (payload instanceof TrainerProfileRequest profile) {
+                Set<ConstraintViolation<TrainerProfileRequest>> violations = validator.validate(profile);
+                if (!violations.isEmpty()) {
+                    log.error("Invalid trainer profile discarded [trainer={}]: {}",
+                            profile.getTrainerUsername(), WorkloadMessages.formatViolations(violations));
+                    return null;
+                }
+                return profile;
+            }
+            if (!(payload instanceof WorkloadRequest request)) {
+                log.error("Unconvertible workload message moved to DLQ [JMSMessageID={}]", message.getJMSMessageID());
+                dlqProducer.send(message);
+                return null;
+            }
+
+            Set<ConstraintViolation<WorkloadRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                // Tier 1: payload is permanently invalid — discard without retry.
+                log.error("Invalid workload message discarded [trainer={}, action={}]: {}",
+                        request.getTrainerUsername(), request.getActionType(),
+                        WorkloadMessages.formatViolations(violations));
+                return null;
+            }
+            return request;
+        } finally {
+            WorkloadMessages.clearMdc();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
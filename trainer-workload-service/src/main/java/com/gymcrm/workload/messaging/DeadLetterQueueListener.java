@@ -1,18 +1,40 @@
 package com.gymcrm.workload.messaging;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymcrm.workload.document.DeadLetterDocument;
+import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.service.DeadLetterService;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Destination;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
+import jakarta.jms.Queue;
 import jakarta.jms.TextMessage;
+import org.apache.activemq.command.ActiveMQMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Listener for trainer workload dead-letter queue messages.
  *
- * <p>Consumes messages that failed all retries and were moved to the DLQ.
- * Uses raw {@link Message} since payloads may be invalid or unserializable.
+ * <p>Consumes messages that failed all retries and were moved to the DLQ of the
+ * interactive or the bulk queue. Uses raw {@link Message} since payloads may be
+ * invalid or unserializable.
+ *
+ * <p>Every dead letter is stored by {@link DeadLetterService} with its body, headers and
+ * properties, so it can be inspected and replayed with {@link DeadLetterReplayer}. A replayed
+ * message that fails again is recognised by {@link #DEAD_LETTER_ID_PROPERTY} and counted on
+ * its original entry. When the store cannot be written the exception propagates and the
+ * message stays on the DLQ for redelivery.
  *
  * <p>Runs with a non-transacted, single-threaded listener to avoid reprocessing
  * and to simplify logging, debugging, and manual intervention.
@@ -22,31 +44,139 @@ public class DeadLetterQueueListener {
 
     private static final Logger log = LoggerFactory.getLogger(DeadLetterQueueListener.class);
 
+    /** Set on replayed messages to the ID of the dead letter they were replayed from. */
+    public static final String DEAD_LETTER_ID_PROPERTY = "X-Dead-Letter-Id";
+
+    /** Set by ActiveMQ on messages it moves to a DLQ. */
+    static final String FAILURE_CAUSE_PROPERTY = "dlqDeliveryFailureCause";
+
+    static final String DELIVERY_COUNT_PROPERTY = "JMSXDeliveryCount";
+
     private static final String TRANSACTION_ID_JMS_PROPERTY = "X-Transaction-Id";
 
+    private final DeadLetterService deadLetters;
+    private final ObjectMapper objectMapper;
+
+    public DeadLetterQueueListener(DeadLetterService deadLetters, ObjectMapper objectMapper) {
+        this.deadLetters = deadLetters;
+        this.objectMapper = objectMapper;
+    }
+
     @JmsListener(destination = "${workload.jms.dlq-name:ActiveMQ.DLQ}",
                  containerFactory = "dlqListenerContainerFactory")
+    @JmsListener(destination = "${workload.jms.bulk.dlq-name:ActiveMQ.DLQ}",
+                 containerFactory = "dlqListenerContainerFactory")
     public void onDeadLetter(Message rawMessage) {
+        DeadLetterDocument deadLetter;
+        String replayedEntryId;
         try {
             String messageId   = rawMessage.getJMSMessageID();
             String body        = extractBody(rawMessage);
             String transactionId = rawMessage.getStringProperty(TRANSACTION_ID_JMS_PROPERTY);
+            String lane        = rawMessage.getStringProperty(EventLagMetrics.LANE_JMS_PROPERTY);
 
             log.error("DEAD LETTER — manual intervention required " +
-                      "[JMSMessageID={}, transactionId={}, body={}]",
-                      messageId, transactionId, body);
-
-            //persist, metrics, alert
+                      "[JMSMessageID={}, transactionId={}, lane={}, body={}]",
+                      messageId, transactionId, lane, body);
 
+            deadLetter = toDocument(rawMessage);
+            replayedEntryId = rawMessage.getStringProperty(DEAD_LETTER_ID_PROPERTY);
         } catch (JMSException e) {
             log.error("Failed to read dead-letter message", e);
+            return;
         }
+        deadLetters.record(deadLetter, replayedEntryId);
     }
 
     private String extractBody(Message message) throws JMSException {
         if (message instanceof TextMessage textMessage) {
             return textMessage.getText();
         }
+        if (WorkloadMessageConverter.isBinary(message)) {
+            return WorkloadMessageConverter.describe((BytesMessage) message);
+        }
         return "[non-text message: " + message.getClass().getSimpleName() + "]";
     }
+
+    private DeadLetterDocument toDocument(Message message) throws JMSException {
+        Instant now = Instant.now();
+        DeadLetterDocument deadLetter = new DeadLetterDocument();
+        deadLetter.setMessageId(message.getJMSMessageID());
+        deadLetter.setStatus(DeadLetterDocument.Status.PENDING);
+        deadLetter.setDeadLetterQueue(queueName(message.getJMSDestination()));
+        if (message instanceof ActiveMQMessage activeMqMessage && activeMqMessage.getOriginalDestination() != null) {
+            deadLetter.setOriginalQueue(activeMqMessage.getOriginalDestination().getPhysicalName());
+        }
+        deadLetter.setLane(message.getStringProperty(EventLagMetrics.LANE_JMS_PROPERTY));
+        deadLetter.setTransactionId(message.getStringProperty(TRANSACTION_ID_JMS_PROPERTY));
+        deadLetter.setFailureCause(message.getStringProperty(FAILURE_CAUSE_PROPERTY));
+        if (message.getObjectProperty(DELIVERY_COUNT_PROPERTY) instanceof Number deliveryCount) {
+            deadLetter.setDeliveryCount(deliveryCount.intValue());
+        }
+        deadLetter.setHeaders(headers(message));
+        deadLetter.setFailureCount(1);
+        deadLetter.setReplayCount(0);
+        deadLetter.setFirstDeadLetteredAt(now);
+        deadLetter.setLastDeadLetteredAt(now);
+
+        if (message instanceof TextMessage textMessage) {
+            deadLetter.setText(textMessage.getText());
+            readJsonIdentity(deadLetter);
+        } else if (message instanceof BytesMessage bytesMessage) {
+            bytesMessage.reset();
+            byte[] payload = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(payload);
+            deadLetter.setBytes(payload);
+            if (WorkloadMessageConverter.isBinary(message)) {
+                readBinaryIdentity(deadLetter, payload);
+            }
+        }
+        return deadLetter;
+    }
+
+    /** JMS headers worth replaying or filtering on, then every message property. */
+    private static Map<String, Object> headers(Message message) throws JMSException {
+        Map<String, Object> headers = new LinkedHashMap<>();
+        putIfPresent(headers, "JMSType", message.getJMSType());
+        putIfPresent(headers, "JMSCorrelationID", message.getJMSCorrelationID());
+        headers.put("JMSTimestamp", message.getJMSTimestamp());
+        headers.put("JMSPriority", message.getJMSPriority());
+        putIfPresent(headers, DeadLetterReplayer.GROUP_ID_PROPERTY, message.getStringProperty(DeadLetterReplayer.GROUP_ID_PROPERTY));
+        Enumeration<?> names = message.getPropertyNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            putIfPresent(headers, name, message.getObjectProperty(name));
+        }
+        return headers;
+    }
+
+    private static void putIfPresent(Map<String, Object> headers, String name, Object value) {
+        if (value != null) {
+            headers.put(name, value);
+        }
+    }
+
+    private void readJsonIdentity(DeadLetterDocument deadLetter) {
+        try {
+            JsonNode payload = objectMapper.readTree(deadLetter.getText());
+            deadLetter.setTrainerUsername(payload.path("trainerUsername").asText(null));
+            deadLetter.setEventId(payload.path("eventId").asText(null));
+        } catch (JsonProcessingException e) {
+            log.debug("Dead letter {} has no readable JSON payload", deadLetter.getMessageId());
+        }
+    }
+
+    private static void readBinaryIdentity(DeadLetterDocument deadLetter, byte[] payload) {
+        try {
+            WorkloadRequest request = WorkloadEventCodec.decode(payload);
+            deadLetter.setTrainerUsername(request.getTrainerUsername());
+            deadLetter.setEventId(request.getEventId());
+        } catch (IllegalArgumentException e) {
+            log.debug("Dead letter {} has an undecodable binary payload", deadLetter.getMessageId());
+        }
+    }
+
+    private static String queueName(Destination destination) throws JMSException {
+        return destination instanceof Queue queue ? queue.getQueueName() : null;
+    }
 }
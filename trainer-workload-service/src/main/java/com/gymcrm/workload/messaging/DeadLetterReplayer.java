@@ -0,0 +1,193 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.document.DeadLetterDocument;
+import com.gymcrm.workload.dto.DeadLetterReplayRequest;
+import com.gymcrm.workload.dto.DeadLetterReplayResponse;
+import com.gymcrm.workload.repository.DeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends stored dead letters back to the queue they were dead-lettered from — or
+ * {@code workload.jms.queue-name} when that is unknown — at most
+ * {@code workload.dead-letters.replay.rate-per-second}, through one producer on one session.
+ * Bulk-lane dead letters therefore go back through the bulk lane and its concurrency cap.
+ *
+ * <p>Each entry is claimed before it is sent and marked replayed after, so concurrent replays
+ * never send an entry twice; one that cannot be sent is released and stays pending. The only
+ * duplicate left is an entry re-claimed after its replay crashed between send and mark; the
+ * replayed message keeps its event ID, so the consumer's recent-event check drops it.
+ *
+ * <p>The copy keeps the body and every message property except the ones the broker sets
+ * (JMS headers, JMSX delivery properties) and its failure cause, and adds
+ * {@link DeadLetterQueueListener#DEAD_LETTER_ID_PROPERTY}. {@code JMSXGroupID} is kept, so a
+ * replayed event goes to the consumer that owns its trainer's group, like the live ones.
+ */
+@Component
+public class DeadLetterReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    /** Set by gym-crm per trainer partition; the only JMSX property that is copied. */
+    static final String GROUP_ID_PROPERTY = "JMSXGroupID";
+
+    private final DeadLetterRepository repository;
+    private final JmsTemplate jmsTemplate;
+    private final String queueName;
+    private final long intervalNanos;
+    private final int maxBatch;
+    private final Duration claimTimeout;
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+
+    public DeadLetterReplayer(DeadLetterRepository repository,
+                              JmsTemplate jmsTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${workload.jms.queue-name}") String queueName,
+                              @Value("${workload.dead-letters.replay.rate-per-second:200}") double ratePerSecond,
+                              @Value("${workload.dead-letters.replay.max-batch:10000}") int maxBatch,
+                              @Value("${workload.dead-letters.replay.claim-timeout:5m}") Duration claimTimeout) {
+        this.repository = repository;
+        this.jmsTemplate = jmsTemplate;
+        this.queueName = queueName;
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.maxBatch = maxBatch;
+        this.claimTimeout = claimTimeout;
+        this.replayedCounter = Counter.builder("workload.dlq.replayed")
+                .description("Dead letters sent back to the workload queue")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("workload.dlq.replay.failures")
+                .description("Dead letters that could not be replayed and stay pending")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replays the requested entries in order and returns the counts.
+     *
+     * @throws IllegalArgumentException when more than {@code max-batch} IDs are listed
+     */
+    public DeadLetterReplayResponse replay(DeadLetterReplayRequest request) {
+        List<String> ids;
+        if (request.ids() != null && !request.ids().isEmpty()) {
+            if (request.ids().size() > maxBatch) {
+                throw new IllegalArgumentException("At most " + maxBatch + " dead letters can be replayed at once");
+            }
+            ids = request.ids();
+        } else {
+            int limit = request.limit() == null ? maxBatch : Math.min(request.limit(), maxBatch);
+            ids = repository.findIds(request.filter(), limit);
+        }
+        if (ids.isEmpty()) {
+            return new DeadLetterReplayResponse(0, 0, 0);
+        }
+        log.info("[WORKLOAD-DLQ] replaying {} dead letters", ids.size());
+        return jmsTemplate.execute(session -> send(session, ids), true);
+    }
+
+    private DeadLetterReplayResponse send(Session session, List<String> ids) throws JMSException {
+        Instant staleBefore = Instant.now().minus(claimTimeout);
+        int replayed = 0;
+        int skipped = 0;
+        int failed = 0;
+        long next = System.nanoTime();
+        Map<String, Queue> queues = new HashMap<>();
+        MessageProducer producer = session.createProducer(null);
+        try {
+            for (String id : ids) {
+                DeadLetterDocument deadLetter = repository.claim(id, staleBefore);
+                if (deadLetter == null) {
+                    skipped++;
+                    continue;
+                }
+                if (deadLetter.getText() == null && deadLetter.getBytes() == null) {
+                    log.warn("[WORKLOAD-DLQ] dead letter {} has no replayable body", id);
+                    repository.release(id);
+                    failed++;
+                    continue;
+                }
+                next = pace(next);
+                try {
+                    String target = deadLetter.getOriginalQueue() == null ? queueName : deadLetter.getOriginalQueue();
+                    Queue destination = queues.get(target);
+                    if (destination == null) {
+                        destination = session.createQueue(target);
+                        queues.put(target, destination);
+                    }
+                    producer.send(destination, toMessage(session, deadLetter));
+                } catch (JMSException e) {
+                    repository.release(id);
+                    failed = ids.size() - replayed - skipped;
+                    log.error("[WORKLOAD-DLQ] replay stopped at {} — broker unavailable, {} left pending", id, failed, e);
+                    break;
+                }
+                repository.markReplayed(id);
+                replayed++;
+            }
+        } finally {
+            producer.close();
+        }
+        replayedCounter.increment(replayed);
+        failedCounter.increment(failed);
+        log.info("[WORKLOAD-DLQ] replay finished: replayed={} skipped={} failed={}", replayed, skipped, failed);
+        return new DeadLetterReplayResponse(replayed, skipped, failed);
+    }
+
+    /** Waits for the send slot {@code next} and returns the one after it; no catching up after a stall. */
+    private long pace(long next) {
+        long wait;
+        while ((wait = next - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return Math.max(next, System.nanoTime() - intervalNanos) + intervalNanos;
+    }
+
+    static Message toMessage(Session session, DeadLetterDocument deadLetter) throws JMSException {
+        Message message;
+        if (deadLetter.getText() != null) {
+            message = session.createTextMessage(deadLetter.getText());
+        } else {
+            BytesMessage bytesMessage = session.createBytesMessage();
+            bytesMessage.writeBytes(deadLetter.getBytes());
+            message = bytesMessage;
+        }
+        if (deadLetter.getHeaders() != null) {
+            for (Map.Entry<String, Object> header : deadLetter.getHeaders().entrySet()) {
+                copyHeader(message, header.getKey(), header.getValue());
+            }
+        }
+        message.setStringProperty(DeadLetterQueueListener.DEAD_LETTER_ID_PROPERTY, deadLetter.getId());
+        return message;
+    }
+
+    private static void copyHeader(Message message, String name, Object value) throws JMSException {
+        switch (name) {
+            case "JMSType" -> message.setJMSType((String) value);
+            case "JMSCorrelationID" -> message.setJMSCorrelationID((String) value);
+            case GROUP_ID_PROPERTY -> message.setStringProperty(GROUP_ID_PROPERTY, (String) value);
+            case DeadLetterQueueListener.FAILURE_CAUSE_PROPERTY, DeadLetterQueueListener.DEAD_LETTER_ID_PROPERTY -> { }
+            default -> {
+                if (!name.startsWith("JMS")) {
+                    message.setObjectProperty(name, value);
+                }
+            }
+        }
+    }
+}
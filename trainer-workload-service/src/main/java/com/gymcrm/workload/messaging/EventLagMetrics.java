@@ -0,0 +1,104 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Records how far behind the trainer summaries are, as {@code workload.events.lag} timers
+ * tagged with {@code stage}, {@code action} and {@code lane}:
+ * <ul>
+ *   <li>{@code delivery} — publish ({@code X-Published-At}) to consume</li>
+ *   <li>{@code apply} — consume to persisted</li>
+ *   <li>{@code end_to_end} — training change ({@code X-Occurred-At}) to persisted, i.e. how
+ *       stale a summary can be</li>
+ * </ul>
+ * The timestamps are epoch milliseconds stamped by gym-crm's {@code WorkloadNotificationService}.
+ * Messages without them only record {@code apply}; negative lags from clock skew count as 0.
+ * The {@code lane} tag ({@code interactive} or {@code bulk}) comes from {@code X-Workload-Lane};
+ * messages without it count as interactive.
+ * Histogram buckets and SLO boundaries are configured under
+ * {@code management.metrics.distribution.*.workload.events.lag}.
+ */
+final class EventLagMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLagMetrics.class);
+
+    static final String LAG_TIMER = "workload.events.lag";
+
+    // Must match the properties set by WorkloadNotificationService MessagePostProcessor
+    static final String PUBLISHED_AT_JMS_PROPERTY = "X-Published-At";
+    static final String OCCURRED_AT_JMS_PROPERTY = "X-Occurred-At";
+    static final String LANE_JMS_PROPERTY = "X-Workload-Lane";
+
+    static final String INTERACTIVE_LANE = "interactive";
+    static final String BULK_LANE = "bulk";
+
+    /** {@code action} tag of {@code workloadDeltaBatch} messages. */
+    static final String DELTA_BATCH_ACTION = "BATCH";
+
+    /** {@code action} tag of {@code trainerProfile} messages. */
+    static final String PROFILE_ACTION = "PROFILE";
+
+    private final MeterRegistry meterRegistry;
+
+    EventLagMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Records all stages of a message that was persisted now and consumed at {@code consumedAtMs}. */
+    void recordPersisted(Message message, WorkloadRequest.ActionType action, long consumedAtMs) {
+        recordPersisted(message, action == null ? "unknown" : action.name(), consumedAtMs);
+    }
+
+    /** Same, with a free-form {@code action} tag, e.g. {@code BATCH} for delta batches. */
+    void recordPersisted(Message message, String action, long consumedAtMs) {
+        long persistedAtMs = System.currentTimeMillis();
+        long publishedAtMs = timestamp(message, PUBLISHED_AT_JMS_PROPERTY);
+        long occurredAtMs = timestamp(message, OCCURRED_AT_JMS_PROPERTY);
+        String lane = lane(message);
+        if (publishedAtMs > 0) {
+            record("delivery", action, lane, consumedAtMs - publishedAtMs);
+        }
+        record("apply", action, lane, persistedAtMs - consumedAtMs);
+        if (occurredAtMs > 0) {
+            record("end_to_end", action, lane, persistedAtMs - occurredAtMs);
+        }
+    }
+
+    private void record(String stage, String action, String lane, long lagMs) {
+        Timer.builder(LAG_TIMER)
+                .description("Lag of workload events from training change to persisted summary, per stage")
+                .tag("stage", stage)
+                .tag("action", action)
+                .tag("lane", lane)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(Math.max(0, lagMs)));
+    }
+
+    /** {@code bulk} for messages of the bulk lane, otherwise {@code interactive}. */
+    static String lane(Message message) {
+        try {
+            return "BULK".equals(message.getStringProperty(LANE_JMS_PROPERTY)) ? BULK_LANE : INTERACTIVE_LANE;
+        } catch (JMSException e) {
+            log.debug("Could not read {} JMS property", LANE_JMS_PROPERTY, e);
+            return INTERACTIVE_LANE;
+        }
+    }
+
+    /** The property's value, or 0 when absent or unreadable. */
+    private static long timestamp(Message message, String property) {
+        try {
+            return message.propertyExists(property) ? message.getLongProperty(property) : 0;
+        } catch (JMSException | NumberFormatException e) {
+            log.debug("Could not read {} JMS property", property, e);
+            return 0;
+        }
+    }
+}
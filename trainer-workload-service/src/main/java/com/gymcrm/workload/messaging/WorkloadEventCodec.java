@@ -0,0 +1,173 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Compact binary form of a {@code workloadEvent}, carried in a {@code BytesMessage} whose
+ * {@code _type} is {@link #BINARY_TYPE_ID}. Must match gym-crm's {@code WorkloadEventCodec}.
+ *
+ * <p>Layout of version 1:
+ * <pre>
+ * byte     version (1)
+ * byte     flags: 0x01 DELETE (else ADD), 0x02 active, 0x04 active present,
+ *                 0x08 event ID present, 0x10 event ID is a UUID
+ * string   trainerUsername, firstName, lastName
+ * int32    trainingDate as epoch day, big-endian; Integer.MIN_VALUE when absent
+ * varint   trainingDuration + 1; 0 when absent
+ * 16 bytes event ID if it is a UUID, otherwise a string
+ * </pre>
+ * A string is a varint of its UTF-8 length + 1 (0 for null) followed by the bytes. The action
+ * type needs no string at all. A payload whose version byte is unknown is rejected, so a later
+ * layout needs a new version and type ID rather than an in-place change.
+ */
+public final class WorkloadEventCodec {
+
+    /** {@code _type} of binary workload events; JSON events keep {@code workloadEvent}. */
+    public static final String BINARY_TYPE_ID = "workloadEvent.v1+bin";
+
+    static final byte VERSION = 1;
+
+    private static final int DELETE = 0x01;
+    private static final int ACTIVE = 0x02;
+    private static final int ACTIVE_PRESENT = 0x04;
+    private static final int EVENT_ID_PRESENT = 0x08;
+    private static final int EVENT_ID_UUID = 0x10;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private WorkloadEventCodec() {}
+
+    public static byte[] encode(WorkloadRequest request) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        UUID uuid = asUuid(request.getEventId());
+        int flags = 0;
+        if (request.getActionType() == WorkloadRequest.ActionType.DELETE) flags |= DELETE;
+        if (request.getIsActive() != null) flags |= ACTIVE_PRESENT;
+        if (Boolean.TRUE.equals(request.getIsActive())) flags |= ACTIVE;
+        if (request.getEventId() != null) flags |= EVENT_ID_PRESENT;
+        if (uuid != null) flags |= EVENT_ID_UUID;
+
+        out.write(VERSION);
+        out.write(flags);
+        writeString(out, request.getTrainerUsername());
+        writeString(out, request.getFirstName());
+        writeString(out, request.getLastName());
+        writeInt(out, request.getTrainingDate() == null ? NO_DATE : (int) request.getTrainingDate().toEpochDay());
+        writeVarint(out, request.getTrainingDuration() == null ? 0 : request.getTrainingDuration() + 1);
+        if (uuid != null) {
+            writeLong(out, uuid.getMostSignificantBits());
+            writeLong(out, uuid.getLeastSignificantBits());
+        } else if (request.getEventId() != null) {
+            writeString(out, request.getEventId());
+        }
+        return out.toByteArray();
+    }
+
+    /** @throws IllegalArgumentException if the payload is truncated or of an unknown version */
+    public static WorkloadRequest decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        try {
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported workload event encoding version " + version);
+            }
+            int flags = in.get();
+            WorkloadRequest request = new WorkloadRequest();
+            request.setActionType((flags & DELETE) != 0 ? WorkloadRequest.ActionType.DELETE : WorkloadRequest.ActionType.ADD);
+            request.setTrainerUsername(readString(in));
+            request.setFirstName(readString(in));
+            request.setLastName(readString(in));
+            if ((flags & ACTIVE_PRESENT) != 0) {
+                request.setIsActive((flags & ACTIVE) != 0);
+            }
+            int epochDay = in.getInt();
+            request.setTrainingDate(epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay));
+            int duration = readVarint(in);
+            request.setTrainingDuration(duration == 0 ? null : duration - 1);
+            if ((flags & EVENT_ID_UUID) != 0) {
+                request.setEventId(new UUID(in.getLong(), in.getLong()).toString());
+            } else if ((flags & EVENT_ID_PRESENT) != 0) {
+                request.setEventId(readString(in));
+            }
+            return request;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated workload event payload (" + payload.length + " bytes)", e);
+        }
+    }
+
+    /** The canonical lower-case UUID the value is, or null; other IDs are kept as strings. */
+    private static UUID asUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarint(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > in.remaining()) {
+            throw new IllegalArgumentException("String length " + (length - 1) + " exceeds payload");
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Unsigned LEB128: 7 bits per byte, high bit set on all but the last. */
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        writeInt(out, (int) (value >>> 32));
+        writeInt(out, (int) value);
+    }
+}
@@ -0,0 +1,66 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+/**
+ * Reads both wire formats of the workload queue: {@code BytesMessage}s typed
+ * {@link WorkloadEventCodec#BINARY_TYPE_ID} are decoded with {@link WorkloadEventCodec},
+ * everything else goes to the JSON converter. Lets producers switch format per message
+ * during a rollout. Outgoing messages are always written by the JSON converter.
+ */
+public class WorkloadMessageConverter implements MessageConverter {
+
+    /** Must match the type id property name of the JSON converter. */
+    static final String TYPE_ID_PROPERTY = "_type";
+
+    private final MessageConverter json;
+
+    public WorkloadMessageConverter(MessageConverter json) {
+        this.json = json;
+    }
+
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        return json.toMessage(object, session);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        if (!isBinary(message)) {
+            return json.fromMessage(message);
+        }
+        BytesMessage bytesMessage = (BytesMessage) message;
+        byte[] payload = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(payload);
+        try {
+            return WorkloadEventCodec.decode(payload);
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Could not decode binary workload event", e);
+        }
+    }
+
+    static boolean isBinary(Message message) throws JMSException {
+        return message instanceof BytesMessage
+                && WorkloadEventCodec.BINARY_TYPE_ID.equals(message.getStringProperty(TYPE_ID_PROPERTY));
+    }
+
+    /** Decodes a binary event for logging; {@link WorkloadRequest} has no useful toString. */
+    static String describe(BytesMessage message) throws JMSException {
+        byte[] payload = new byte[(int) message.getBodyLength()];
+        message.readBytes(payload);
+        try {
+            WorkloadRequest r = WorkloadEventCodec.decode(payload);
+            return "[binary v1: trainer=" + r.getTrainerUsername() + ", action=" + r.getActionType()
+                    + ", date=" + r.getTrainingDate() + ", duration=" + r.getTrainingDuration()
+                    + ", eventId=" + r.getEventId() + "]";
+        } catch (IllegalArgumentException e) {
+            return "[undecodable binary workload event: " + payload.length + " bytes]";
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package com.gymcrm.workload.messaging;
 
+import com.gymcrm.workload.dto.TrainerProfileRequest;
+import com.gymcrm.workload.dto.WorkloadDeltaBatchRequest;
 import com.gymcrm.workload.dto.WorkloadRequest;
 import com.gymcrm.workload.service.WorkloadService;
-import jakarta.jms.JMSException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.jms.Message;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * JMS consumer for trainer workload events.
@@ -24,29 +25,93 @@ import java.util.stream.Collectors;
  *
  * <p>Propagates the {@code X-Transaction-Id} JMS property into MDC to enable
  * end-to-end log correlation across services.
+ *
+ * <p>Failures are counted in {@code workload.events.failed}, tagged with the exception type,
+ * so optimistic-lock conflicts between consumers are visible separately from outages.
+ * Processing time of valid events is timed as {@code workload.events.process}, tagged with
+ * the lane, with a p95 that {@link AdaptiveConcurrencyController} reads when sizing the
+ * interactive container.
+ * Delivery and end-to-end lag of applied events are recorded by {@link EventLagMetrics}.
+ *
+ * <p>All message types of the queue arrive here: single {@code workloadEvent}s, the
+ * per-trainer {@code workloadDeltaBatch}es gym-crm sends for bulk changes, and
+ * {@code trainerProfile} changes. Each goes through the same validation tiers; a batch is
+ * applied with one bulk write, a profile with one update of the profile fields.
+ *
+ * <p>Two containers feed it: {@link #CONTAINER_ID} on {@code workload.jms.queue-name} for
+ * interactive changes and {@link #BULK_CONTAINER_ID} on {@code workload.jms.bulk.queue-name}
+ * for mass changes, each with its own concurrency and DLQ, so a backfill never delays
+ * interactive events. A trainer's events in different lanes may be applied in either order;
+ * the deltas are additive, so only the floor at 0 can tell.
+ *
+ * <p>The interactive container is not started when {@code workload.jms.batch.enabled=true};
+ * {@link BatchWorkloadConsumer} drains that queue instead.
  */
 @Component
 public class WorkloadMessageListener {
 
-    private static final Logger log = LoggerFactory.getLogger(WorkloadMessageListener.class);
+    /** Listener container id, used to look the container up in the endpoint registry. */
+    public static final String CONTAINER_ID = "workloadListener";
 
-    // Must match TransactionIdPropagationFilter.TRANSACTION_ID_MDC_KEY
-    private static final String TRANSACTION_ID_MDC_KEY = "transactionId";
-    // Must match the property set by WorkloadNotificationService MessagePostProcessor
-    private static final String TRANSACTION_ID_JMS_PROPERTY = "X-Transaction-Id";
+    /** Container id of the bulk lane. */
+    public static final String BULK_CONTAINER_ID = "workloadBulkListener";
+
+    static final String PROCESS_TIMER = "workload.events.process";
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadMessageListener.class);
 
     private final WorkloadService workloadService;
     private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final Timer processTimer;
+    private final Timer bulkProcessTimer;
+    private final EventLagMetrics lagMetrics;
 
-    public WorkloadMessageListener(WorkloadService workloadService, Validator validator) {
+    public WorkloadMessageListener(WorkloadService workloadService, Validator validator,
+                                   MeterRegistry meterRegistry) {
         this.workloadService = workloadService;
         this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.processTimer = processTimer(EventLagMetrics.INTERACTIVE_LANE, meterRegistry);
+        this.bulkProcessTimer = processTimer(EventLagMetrics.BULK_LANE, meterRegistry);
+        this.lagMetrics = new EventLagMetrics(meterRegistry);
     }
 
-    @JmsListener(destination = "${workload.jms.queue-name}",
+    @JmsListener(id = CONTAINER_ID,
+                 destination = "${workload.jms.queue-name}",
                  containerFactory = "jmsListenerContainerFactory")
-    public void onMessage(WorkloadRequest request, Message rawMessage) {
-        setupMdc(rawMessage);
+    public void onMessage(Object payload, Message rawMessage) {
+        dispatch(payload, rawMessage, processTimer);
+    }
+
+    @JmsListener(id = BULK_CONTAINER_ID,
+                 destination = "${workload.jms.bulk.queue-name:${workload.jms.queue-name}}",
+                 containerFactory = "bulkListenerContainerFactory")
+    public void onBulkMessage(Object payload, Message rawMessage) {
+        dispatch(payload, rawMessage, bulkProcessTimer);
+    }
+
+    private static Timer processTimer(String lane, MeterRegistry meterRegistry) {
+        return Timer.builder(PROCESS_TIMER)
+                .description("Time to apply one workload event")
+                .tag("lane", lane)
+                .publishPercentiles(0.95)
+                .register(meterRegistry);
+    }
+
+    private void dispatch(Object payload, Message rawMessage, Timer timer) {
+        if (payload instanceof WorkloadDeltaBatchRequest batch) {
+            onDeltaBatch(batch, rawMessage, timer);
+        } else if (payload instanceof TrainerProfileRequest profile) {
+            onProfile(profile, rawMessage, timer);
+        } else {
+            onEvent((WorkloadRequest) payload, rawMessage, timer);
+        }
+    }
+
+    private void onEvent(WorkloadRequest request, Message rawMessage, Timer timer) {
+        long consumedAtMs = System.currentTimeMillis();
+        WorkloadMessages.setupMdc(rawMessage);
         try {
             log.info("Received workload event: trainer={}, action={}",
                     request.getTrainerUsername(), request.getActionType());
@@ -56,11 +121,12 @@ public class WorkloadMessageListener {
                 // Tier 1: payload is permanently invalid — discard without retry.
                 log.error("Invalid workload message discarded [trainer={}, action={}]: {}",
                         request.getTrainerUsername(), request.getActionType(),
-                        formatViolations(violations));
+                        WorkloadMessages.formatViolations(violations));
                 return;
             }
 
-            workloadService.processWorkload(request);
+            timer.record(() -> workloadService.processWorkload(request));
+            lagMetrics.recordPersisted(rawMessage, request.getActionType(), consumedAtMs);
 
             log.info("Workload event processed successfully: trainer={}, action={}",
                     request.getTrainerUsername(), request.getActionType());
@@ -68,30 +134,70 @@ public class WorkloadMessageListener {
         } catch (Exception e) {
             // Tier 2: transient/infrastructure failure.
             // Rethrow so the transacted JMS session rolls back → broker redelivers
+            meterRegistry.counter("workload.events.failed", "exception", e.getClass().getSimpleName()).increment();
             log.error("Workload processing failed — session will roll back for redelivery " +
                       "[trainer={}, action={}]",
                       request.getTrainerUsername(), request.getActionType(), e);
             throw new RuntimeException("Workload processing failure — triggering redelivery", e);
         } finally {
-            MDC.remove(TRANSACTION_ID_MDC_KEY);
+            WorkloadMessages.clearMdc();
         }
     }
 
-    private void setupMdc(Message rawMessage) {
+    private void onDeltaBatch(WorkloadDeltaBatchRequest batch, Message rawMessage, Timer timer) {
+        long consumedAtMs = System.currentTimeMillis();
+        WorkloadMessages.setupMdc(rawMessage);
         try {
-            String transactionId = rawMessage.getStringProperty(TRANSACTION_ID_JMS_PROPERTY);
-            if (transactionId != null) {
-                MDC.put(TRANSACTION_ID_MDC_KEY, transactionId);
+            log.info("Received workload delta batch: trainer={}, deltas={}",
+                    batch.getTrainerUsername(), batch.getDeltas() == null ? 0 : batch.getDeltas().size());
+
+            Set<ConstraintViolation<WorkloadDeltaBatchRequest>> violations = validator.validate(batch);
+            if (!violations.isEmpty()) {
+                log.error("Invalid workload delta batch discarded [trainer={}]: {}",
+                        batch.getTrainerUsername(), WorkloadMessages.formatViolations(violations));
+                return;
             }
-        } catch (JMSException e) {
-            log.warn("Could not read {} JMS property — correlated logging unavailable",
-                    TRANSACTION_ID_JMS_PROPERTY, e);
+
+            timer.record(() -> workloadService.processDeltaBatch(batch));
+            lagMetrics.recordPersisted(rawMessage, EventLagMetrics.DELTA_BATCH_ACTION, consumedAtMs);
+
+            log.info("Workload delta batch processed successfully: trainer={}", batch.getTrainerUsername());
+
+        } catch (Exception e) {
+            meterRegistry.counter("workload.events.failed", "exception", e.getClass().getSimpleName()).increment();
+            log.error("Workload delta batch failed — session will roll back for redelivery [trainer={}]",
+                      batch.getTrainerUsername(), e);
+            throw new RuntimeException("Workload processing failure — triggering redelivery", e);
+        } finally {
+            WorkloadMessages.clearMdc();
         }
     }
 
-    private String formatViolations(Set<ConstraintViolation<WorkloadRequest>> violations) {
-        return violations.stream()
-                .map(v -> v.getPropertyPath() + " " + v.getMessage())
-                .collect(Collectors.joining(", "));
+    private void onProfile(TrainerProfileRequest profile, Message rawMessage, Timer timer) {
+        long consumedAtMs = System.currentTimeMillis();
+        WorkloadMessages.setupMdc(rawMessage);
+        try {
+            log.info("Received trainer profile: trainer={}, active={}", profile.getTrainerUsername(), profile.getIsActive());
+
+            Set<ConstraintViolation<TrainerProfileRequest>> violations = validator.validate(profile);
+            if (!violations.isEmpty()) {
+                log.error("Invalid trainer profile discarded [trainer={}]: {}",
+                        profile.getTrainerUsername(), WorkloadMessages.formatViolations(violations));
+                return;
+            }
+
+            timer.record(() -> workloadService.processProfile(profile));
+            lagMetrics.recordPersisted(rawMessage, EventLagMetrics.PROFILE_ACTION, consumedAtMs);
+
+            log.info("Trainer profile processed successfully: trainer={}", profile.getTrainerUsername());
+
+        } catch (Exception e) {
+            meterRegistry.counter("workload.events.failed", "exception", e.getClass().getSimpleName()).increment();
+            log.error("Trainer profile failed — session will roll back for redelivery [trainer={}]",
+                      profile.getTrainerUsername(), e);
+            throw new RuntimeException("Workload processing failure — triggering redelivery", e);
+        } finally {
+            WorkloadMessages.clearMdc();
+        }
     }
 }
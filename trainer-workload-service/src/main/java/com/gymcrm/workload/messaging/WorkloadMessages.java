@@ -0,0 +1,49 @@
+package com.gymcrm.workload.messaging;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.validation.ConstraintViolation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers shared by the single-message and batch workload consumers.
+ */
+final class WorkloadMessages {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadMessages.class);
+
+    // Must match TransactionIdPropagationFilter.TRANSACTION_ID_MDC_KEY
+    static final String TRANSACTION_ID_MDC_KEY = "transactionId";
+    // Must match the property set by WorkloadNotificationService MessagePostProcessor
+    static final String TRANSACTION_ID_JMS_PROPERTY = "X-Transaction-Id";
+
+    private WorkloadMessages() {}
+
+    /** Copies the {@code X-Transaction-Id} JMS property into MDC, if present. */
+    static void setupMdc(Message rawMessage) {
+        try {
+            String transactionId = rawMessage.getStringProperty(TRANSACTION_ID_JMS_PROPERTY);
+            if (transactionId != null) {
+                MDC.put(TRANSACTION_ID_MDC_KEY, transactionId);
+            }
+        } catch (JMSException e) {
+            log.warn("Could not read {} JMS property — correlated logging unavailable",
+                    TRANSACTION_ID_JMS_PROPERTY, e);
+        }
+    }
+
+    static void clearMdc() {
+        MDC.remove(TRANSACTION_ID_MDC_KEY);
+    }
+
+    static String formatViolations(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,11 @@
+package com.gymcrm.workload.repository;
+
+/**
+ * Outcome of one {@link TrainerWorkloadBucketRepository#archiveBefore} page: how many old
+ * buckets were found and how many of them were moved. A bucket written between its copy and
+ * its delete is found but stays hot until a later page.
+ */
+public record ArchivePage(int found, int moved) {
+
+    public static final ArchivePage EMPTY = new ArchivePage(0, 0);
+}
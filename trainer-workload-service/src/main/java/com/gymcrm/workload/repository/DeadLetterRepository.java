@@ -0,0 +1,151 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.DeadLetterDocument;
+import com.gymcrm.workload.document.DeadLetterDocument.Status;
+import com.gymcrm.workload.dto.DeadLetterFilter;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Store for {@link DeadLetterDocument}s.
+ *
+ * <p>Replays claim entries one at a time with a conditional {@code findAndModify}, so two
+ * replays running at once, on one instance or several, never send the same entry twice.
+ */
+@Repository
+public class DeadLetterRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public DeadLetterRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Stores a newly dead-lettered message and returns the stored entry. A message replayed from
+     * entry {@code replayedEntryId} updates that entry instead, and a DLQ redelivery of a copy
+     * already stored changes nothing.
+     */
+    public DeadLetterDocument record(DeadLetterDocument deadLetter, String replayedEntryId) {
+        if (replayedEntryId != null) {
+            Query query = Query.query(where("_id").is(replayedEntryId).and("messageId").ne(deadLetter.getMessageId()));
+            Update update = new Update()
+                    .set("status", Status.PENDING)
+                    .set("messageId", deadLetter.getMessageId())
+                    .set("deadLetterQueue", deadLetter.getDeadLetterQueue())
+                    .set("originalQueue", deadLetter.getOriginalQueue())
+                    .set("deliveryCount", deadLetter.getDeliveryCount())
+                    .set("failureCause", deadLetter.getFailureCause())
+                    .set("headers", deadLetter.getHeaders())
+                    .set("lastDeadLetteredAt", deadLetter.getLastDeadLetteredAt())
+                    .inc("failureCount", 1)
+                    .unset("claimedAt");
+            DeadLetterDocument updated = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), DeadLetterDocument.class);
+            if (updated != null) {
+                return updated;
+            }
+            Optional<DeadLetterDocument> existing = findById(replayedEntryId);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        try {
+            return mongoTemplate.insert(deadLetter);
+        } catch (DuplicateKeyException e) {
+            return mongoTemplate.findOne(Query.query(where("messageId").is(deadLetter.getMessageId())),
+                    DeadLetterDocument.class);
+        }
+    }
+
+    public Optional<DeadLetterDocument> findById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, DeadLetterDocument.class));
+    }
+
+    /** Matching entries, most recently dead-lettered first. */
+    public List<DeadLetterDocument> find(DeadLetterFilter filter, int page, int size) {
+        Query query = Query.query(criteria(filter))
+                .with(Sort.by(Sort.Direction.DESC, "lastDeadLetteredAt"))
+                .skip((long) page * size)
+                .limit(size);
+        return mongoTemplate.find(query, DeadLetterDocument.class);
+    }
+
+    public long count(DeadLetterFilter filter) {
+        return mongoTemplate.count(Query.query(criteria(filter)), DeadLetterDocument.class);
+    }
+
+    /** IDs of up to {@code limit} matching entries, oldest first, so events are replayed in the order they failed. */
+    public List<String> findIds(DeadLetterFilter filter, int limit) {
+        Query query = Query.query(criteria(filter))
+                .with(Sort.by(Sort.Direction.ASC, "lastDeadLetteredAt"))
+                .limit(limit);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, DeadLetterDocument.class).stream().map(DeadLetterDocument::getId).toList();
+    }
+
+    /**
+     * Claims a pending entry, or one whose claim is older than {@code staleBefore}, for replay.
+     * Returns the claimed entry, or null when it is replayed, claimed by someone else or gone.
+     */
+    public DeadLetterDocument claim(String id, Instant staleBefore) {
+        Query query = Query.query(where("_id").is(id).orOperator(
+                where("status").is(Status.PENDING),
+                where("status").is(Status.REPLAYING).and("claimedAt").lt(staleBefore)));
+        Update update = new Update().set("status", Status.REPLAYING).set("claimedAt", Instant.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                DeadLetterDocument.class);
+    }
+
+    public void markReplayed(String id) {
+        mongoTemplate.updateFirst(Query.query(where("_id").is(id).and("status").is(Status.REPLAYING)),
+                new Update().set("status", Status.REPLAYED)
+                        .set("replayedAt", Instant.now())
+                        .inc("replayCount", 1)
+                        .unset("claimedAt"),
+                DeadLetterDocument.class);
+    }
+
+    /** Returns a claimed entry to PENDING after its replay could not be sent. */
+    public void release(String id) {
+        mongoTemplate.updateFirst(Query.query(where("_id").is(id).and("status").is(Status.REPLAYING)),
+                new Update().set("status", Status.PENDING).unset("claimedAt"),
+                DeadLetterDocument.class);
+    }
+
+    private static Criteria criteria(DeadLetterFilter filter) {
+        List<Criteria> conditions = new ArrayList<>();
+        if (filter.status() != null) {
+            conditions.add(where("status").is(filter.status()));
+        }
+        if (filter.lane() != null) {
+            conditions.add(where("lane").is(filter.lane()));
+        }
+        if (filter.trainerUsername() != null) {
+            conditions.add(where("trainerUsername").is(filter.trainerUsername()));
+        }
+        if (filter.transactionId() != null) {
+            conditions.add(where("transactionId").is(filter.transactionId()));
+        }
+        if (filter.from() != null) {
+            conditions.add(where("lastDeadLetteredAt").gte(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add(where("lastDeadLetteredAt").lt(filter.to()));
+        }
+        return conditions.isEmpty() ? new Criteria() : new Criteria().andOperator(conditions);
+    }
+}
@@ -0,0 +1,43 @@
+package com.gymcrm.workload.repository;
+
+import java.util.List;
+
+/**
+ * Effect of an applied delta on one trainer's (year, month) total: the stored value before
+ * and after the write. Differs from the delta's minutes when a DELETE was floored.
+ * A {@code duplicate} change is a delta whose event had already been applied; nothing was
+ * written and {@code after == before}.
+ */
+public record MonthChange(String trainerUsername, int year, int month, int before, int after, boolean duplicate) {
+
+    public MonthChange(String trainerUsername, int year, int month, int before, int after) {
+        this(trainerUsername, year, month, before, after, false);
+    }
+
+    static MonthChange of(WorkloadDelta delta, int before) {
+        return new MonthChange(delta.trainerUsername(), delta.year(), delta.month(),
+                before, Math.max(delta.floor(), before + delta.minutes()));
+    }
+
+    static MonthChange duplicateOf(WorkloadDelta delta, int before) {
+        return new MonthChange(delta.trainerUsername(), delta.year(), delta.month(), before, before, true);
+    }
+
+    /** Outcome of a guarded write, judged from the document as it was before the write. */
+    static MonthChange fromPreImage(WorkloadDelta delta, int before, List<String> recentEventIds) {
+        boolean seen = recentEventIds != null && delta.eventIds().stream().anyMatch(recentEventIds::contains);
+        return seen ? duplicateOf(delta, before) : of(delta, before);
+    }
+
+    public int minutesDelta() {
+        return after - before;
+    }
+
+    /** +1 when the trainer starts counting for the month, -1 when they drop to 0, else 0. */
+    public int activeTrainerDelta() {
+        if (before == 0 && after > 0) {
+            return 1;
+        }
+        return before > 0 && after == 0 ? -1 : 0;
+    }
+}
@@ -0,0 +1,5 @@
+package com.gymcrm.workload.repository;
+
+/** A trainer's profile fields, written on their own by a {@code trainerProfile} event. */
+public record TrainerProfile(String trainerUsername, String firstName, String lastName, Boolean active) {
+}
@@ -0,0 +1,65 @@
+package com.gymcrm.workload.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Trainer name search: optional case-insensitive prefixes, an optional status filter and the
+ * keyset position after which the page starts ({@code null} for the first page).
+ *
+ * <p>Results are ordered by first name, then last name, then {@code _id}; when only a last
+ * name prefix is given the two names swap places so the prefix still bounds the index scan.
+ */
+public record TrainerSearch(String firstNamePrefix, String lastNamePrefix, Boolean active, Position after) {
+
+    public boolean byLastName() {
+        return firstNamePrefix == null && lastNamePrefix != null;
+    }
+
+    /**
+     * Sort key of the last trainer of a page, in search order ({@code primary} is the first
+     * name unless {@link #byLastName()}). Travels to clients as an opaque URL-safe token.
+     *
+     * <p>A name is {@code null} for a trainer known only from slim events; it sorts before every
+     * name, so it is kept as {@code null} rather than {@code ""}.
+     */
+    public record Position(String primary, String secondary, String id) {
+
+        public String encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                writeNullable(out, primary);
+                writeNullable(out, secondary);
+                out.writeUTF(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        }
+
+        /** Throws {@link IllegalArgumentException} for a token not produced by {@link #encode()}. */
+        public static Position decode(String token) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+                return new Position(readNullable(in), readNullable(in), in.readUTF());
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+        }
+
+        private static void writeNullable(DataOutputStream out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readNullable(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.document.TrainerWorkloadYearBucket;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.gymcrm.workload.repository.WorkloadUpdates.bumpedVersion;
+import static com.gymcrm.workload.repository.WorkloadUpdates.flooredAdd;
+import static com.gymcrm.workload.repository.WorkloadUpdates.onlyOnce;
+import static com.gymcrm.workload.repository.WorkloadUpdates.recentEventIds;
+import static com.gymcrm.workload.repository.WorkloadUpdates.valueAt;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Store for {@link TrainerWorkloadYearBucket}s ({@code workload.storage=bucket}).
+ *
+ * <p>Writes mirror the map-keyed path of {@link TrainerWorkloadDocumentRepository}: one upsert
+ * per delta on the (trainer, year) bucket with a pipeline that floors the month at 0, so an
+ * event only touches the small current-year document. Event IDs are remembered per bucket
+ * and guard the write the same way.
+ *
+ * <p>An event for a year that was already archived first moves the archived bucket back to
+ * the hot collection (see {@link #restoreArchived}), so it updates and floors against the
+ * year's real total; the archiver moves the bucket out again on its next run.
+ */
+@Repository
+public class TrainerWorkloadBucketRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainerWorkloadBucketRepository.class);
+
+    /** Two consumers creating the same bucket race on the unique index at most once. */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public TrainerWorkloadBucketRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Builds the indexes declared on {@link TrainerWorkloadYearBucket} on the archive collection
+     * too; index auto-creation only covers the entity's own collection. Summary reads, profile
+     * updates and archive upserts select archived buckets through {@code uk_trainer_year}.
+     */
+    @PostConstruct
+    void createArchiveIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION);
+        try {
+            IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(TrainerWorkloadYearBucket.class)
+                    .forEach(indexes::ensureIndex);
+        } catch (DataAccessException e) {
+            log.error("[WORKLOAD-BUCKET] could not index {} — archived buckets are read by collection scan",
+                    TrainerWorkloadYearBucket.ARCHIVE_COLLECTION, e);
+        }
+    }
+
+    /** Returns the month total before and after the write, read from the pre-image. */
+    public MonthChange applyDelta(WorkloadDelta delta) {
+        restoreArchived(List.of(delta));
+        String path = monthPath(delta.month());
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                Query query = bucketQuery(delta);
+                query.fields().include(path, "recentEventIds");
+                Document before = mongoTemplate.findAndModify(query, deltaUpdate(delta),
+                        FindAndModifyOptions.options().upsert(true).returnNew(false),
+                        Document.class, TrainerWorkloadYearBucket.COLLECTION);
+                return MonthChange.fromPreImage(delta, before == null ? 0 : valueAt(before, path), recentEventIds(before));
+            } catch (DuplicateKeyException e) {
+                log.debug("[WORKLOAD-BUCKET] upsert race lost trainer={} year={} attempt={}",
+                        delta.trainerUsername(), delta.year(), attempt);
+            }
+        }
+        throw new OptimisticLockingFailureException(
+                "Could not apply workload delta for trainer " + delta.trainerUsername()
+                        + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * One unordered bulk of upserts; upserts that lose an insert race are replayed one by one.
+     * The touched months are read with one query just before the write (see
+     * {@link TrainerWorkloadDocumentRepositoryCustom#applyDeltas} for why that is exact).
+     */
+    public List<MonthChange> applyDeltas(Collection<WorkloadDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        List<WorkloadDelta> ordered = new ArrayList<>(deltas);
+        restoreArchived(ordered);
+        Map<String, Document> current = currentMonths(ordered);
+        List<MonthChange> changes = new ArrayList<>(ordered.size());
+        for (WorkloadDelta d : ordered) {
+            Document bucket = current.get(d.trainerUsername() + "/" + d.year());
+            changes.add(MonthChange.fromPreImage(d,
+                    bucket == null ? 0 : valueAt(bucket, monthPath(d.month())), recentEventIds(bucket)));
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, TrainerWorkloadYearBucket.COLLECTION);
+        ordered.forEach(d -> operations.upsert(bucketQuery(d), deltaUpdate(d)));
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> error.getCode() == DUPLICATE_KEY_ERROR);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            for (BulkWriteError error : e.getErrors()) {
+                changes.set(error.getIndex(), applyDelta(ordered.get(error.getIndex())));
+            }
+        }
+        log.debug("[WORKLOAD-BUCKET] applied {} deltas", deltas.size());
+        return changes;
+    }
+
+    /**
+     * Writes the profile fields to every bucket of the trainer, hot and archived, so whichever
+     * bucket a summary takes its profile from is current. Totals and {@code updatedAt} are left
+     * alone; a trainer without buckets gets the profile with the next event's new bucket only
+     * if that event carries it.
+     */
+    public void updateProfile(TrainerProfile profile) {
+        Query query = Query.query(where("trainerUsername").is(profile.trainerUsername()));
+        Update update = new Update()
+                .set("firstName", profile.firstName())
+                .set("lastName", profile.lastName())
+                .set("isActive", profile.active())
+                .inc("version", 1);
+        long hot = mongoTemplate.updateMulti(query, update, TrainerWorkloadYearBucket.COLLECTION).getModifiedCount();
+        long archived = mongoTemplate.updateMulti(query, update, TrainerWorkloadYearBucket.ARCHIVE_COLLECTION)
+                .getModifiedCount();
+        log.debug("[WORKLOAD-BUCKET] profile updated trainer={} buckets={} archived={}",
+                profile.trainerUsername(), hot, archived);
+    }
+
+    /**
+     * IDs of the events recently applied to the given trainers' buckets of the given years.
+     * Only hot buckets are read; an event for an archived year is guarded by its write alone,
+     * which goes to the restored bucket and its ring.
+     */
+    public Set<String> findAppliedEventIds(Collection<String> trainerUsernames, Collection<Integer> years) {
+        Query query = Query.query(where("trainerUsername").in(trainerUsernames).and("year").in(years));
+        query.fields().include("recentEventIds");
+        Set<String> applied = new HashSet<>();
+        mongoTemplate.find(query, Document.class, TrainerWorkloadYearBucket.COLLECTION).forEach(bucket -> {
+            List<String> ids = recentEventIds(bucket);
+            if (ids != null) {
+                applied.addAll(ids);
+            }
+        });
+        return applied;
+    }
+
+    /**
+     * All buckets of a trainer, hot and archived, in one aggregation ({@code $unionWith}),
+     * ordered by year. Archived buckets carry {@code archived: true}; a bucket caught between
+     * its copy to the archive and its delete appears twice with the same id.
+     */
+    public List<TrainerWorkloadYearBucket> findBuckets(String trainerUsername) {
+        return findBuckets(trainerUsername, WorkloadRange.ALL);
+    }
+
+    /**
+     * Buckets of the years in {@code range}, selected through {@code uk_trainer_year} in both
+     * collections, with {@code months} filtered to the range's month bounds on the server.
+     */
+    public List<TrainerWorkloadYearBucket> findBuckets(String trainerUsername, WorkloadRange range) {
+        Aggregation aggregation = bucketAggregation(where("trainerUsername").is(trainerUsername), range, Sort.by("year"));
+        return mongoTemplate.aggregate(aggregation, TrainerWorkloadYearBucket.COLLECTION, TrainerWorkloadYearBucket.class)
+                .getMappedResults();
+    }
+
+    /**
+     * Buckets of all given trainers in one {@code $in} aggregation, read through a cursor and
+     * ordered by trainer, then year, so each trainer's buckets arrive together. The stream must
+     * be closed.
+     */
+    public Stream<TrainerWorkloadYearBucket> streamBuckets(Collection<String> trainerUsernames, WorkloadRange range) {
+        // The sort follows $unionWith and cannot use an index; spill to disk for very large requests.
+        Aggregation aggregation = bucketAggregation(where("trainerUsername").in(trainerUsernames), range,
+                Sort.by("trainerUsername", "year"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregateStream(aggregation, TrainerWorkloadYearBucket.COLLECTION, TrainerWorkloadYearBucket.class);
+    }
+
+    private Aggregation bucketAggregation(Criteria criteria, WorkloadRange range, Sort order) {
+        if (range.hasYearBounds()) {
+            Criteria year = criteria.and("year");
+            if (range.fromYear() != null) {
+                year.gte(range.fromYear());
+            }
+            if (range.toYear() != null) {
+                year.lte(range.toYear());
+            }
+        }
+        AggregationOperation markArchived = context -> new Document("$addFields", new Document("archived", true));
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(match(criteria));
+        stages.add(UnionWithOperation.unionWith(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION)
+                .pipeline(match(criteria), markArchived));
+        if (range.hasMonthBounds()) {
+            stages.add(context -> new Document("$addFields", new Document("months", WorkloadFilters.monthsSlice(range))));
+        }
+        stages.add(sort(order));
+        return Aggregation.newAggregation(stages);
+    }
+
+    /**
+     * Usernames of the trainers whose buckets were written most recently, newest first.
+     * Groups the hot collection only; archived years are never the latest activity.
+     */
+    public List<String> findRecentlyActiveTrainers(int limit) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                group("trainerUsername").max("updatedAt").as("updatedAt"),
+                sort(Sort.by(Sort.Direction.DESC, "updatedAt")),
+                limit(limit));
+        return mongoTemplate.aggregate(aggregation, TrainerWorkloadYearBucket.COLLECTION, Document.class)
+                .getMappedResults().stream()
+                .map(result -> result.getString("_id"))
+                .toList();
+    }
+
+    /**
+     * Moves up to {@code batchSize} buckets of years before {@code beforeYear} to the archive
+     * collection and returns how many were found and moved. The copy is an upsert by {@code _id}, so a
+     * run interrupted between copy and delete is simply repeated; the delete is guarded by the
+     * version that was copied, so a bucket updated in between stays hot and is picked up again.
+     */
+    public ArchivePage archiveBefore(int beforeYear, int batchSize) {
+        List<TrainerWorkloadYearBucket> old = mongoTemplate.find(
+                Query.query(where("year").lt(beforeYear)).limit(batchSize), TrainerWorkloadYearBucket.class);
+        if (old.isEmpty()) {
+            return ArchivePage.EMPTY;
+        }
+
+        BulkOperations copies = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, TrainerWorkloadYearBucket.ARCHIVE_COLLECTION);
+        old.forEach(b -> copies.replaceOne(Query.query(where("_id").is(b.getId())), b, FindAndReplaceOptions.options().upsert()));
+        Set<Integer> notCopied = new HashSet<>();
+        try {
+            copies.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR) {
+                    throw e;
+                }
+                // The archive holds another bucket of the same year: fold it into this one, which a later page moves.
+                TrainerWorkloadYearBucket bucket = old.get(error.getIndex());
+                restoreArchived(bucket.getTrainerUsername(), bucket.getYear());
+                notCopied.add(error.getIndex());
+            }
+        }
+
+        BulkOperations deletes = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, TrainerWorkloadYearBucket.COLLECTION);
+        for (int i = 0; i < old.size(); i++) {
+            if (!notCopied.contains(i)) {
+                TrainerWorkloadYearBucket b = old.get(i);
+                deletes.remove(Query.query(where("_id").is(b.getId()).and("version").is(b.getVersion())));
+            }
+        }
+        int moved = notCopied.size() == old.size() ? 0 : deletes.execute().getDeletedCount();
+        log.info("[WORKLOAD-BUCKET] archived {} of {} buckets before {}", moved, old.size(), beforeYear);
+        return new ArchivePage(old.size(), moved);
+    }
+
+    /**
+     * Moves the archived buckets of the deltas' (trainer, year) pairs back to the hot collection.
+     * Only past years are ever archived, so events for the current year skip the lookup.
+     */
+    private void restoreArchived(List<WorkloadDelta> deltas) {
+        int currentYear = Year.now().getValue();
+        List<WorkloadDelta> past = deltas.stream().filter(d -> d.year() < currentYear).toList();
+        if (past.isEmpty()) {
+            return;
+        }
+        Set<String> pairs = past.stream().map(d -> d.trainerUsername() + "/" + d.year()).collect(Collectors.toSet());
+        Query query = Query.query(where("trainerUsername").in(
+                        past.stream().map(WorkloadDelta::trainerUsername).collect(Collectors.toSet()))
+                .and("year").in(past.stream().map(WorkloadDelta::year).collect(Collectors.toSet())));
+        mongoTemplate.find(query, Document.class, TrainerWorkloadYearBucket.ARCHIVE_COLLECTION).stream()
+                .filter(archived -> pairs.contains(archived.getString("trainerUsername") + "/" + archived.get("year")))
+                .forEach(this::restore);
+    }
+
+    private void restoreArchived(String trainerUsername, int year) {
+        Query query = Query.query(where("trainerUsername").is(trainerUsername).and("year").is(year));
+        Document archived = mongoTemplate.findOne(query, Document.class, TrainerWorkloadYearBucket.ARCHIVE_COLLECTION);
+        if (archived != null) {
+            restore(archived);
+        }
+    }
+
+    /**
+     * Copies an archived bucket back to the hot collection and removes it from the archive.
+     * A hot bucket with the same id is the newer copy of a move that did not finish, and is
+     * kept. A hot bucket with another id was opened for the year at 0 while it was archived;
+     * the archived months are added to it. The copy precedes the removal, so an interrupted
+     * restore leaves both copies, which the next restore or archive run resolves.
+     */
+    private void restore(Document archived) {
+        Object id = archived.get("_id");
+        try {
+            mongoTemplate.insert(archived, TrainerWorkloadYearBucket.COLLECTION);
+            log.info("[WORKLOAD-BUCKET] restored archived bucket trainer={} year={}",
+                    archived.getString("trainerUsername"), archived.get("year"));
+        } catch (DuplicateKeyException e) {
+            Query otherBucket = Query.query(where("trainerUsername").is(archived.getString("trainerUsername"))
+                    .and("year").is(archived.get("year")).and("_id").ne(id));
+            Update merge = new Update().inc("version", 1);
+            Document months = archived.get("months", Document.class);
+            if (months != null) {
+                months.forEach((month, minutes) -> merge.inc("months." + month, (Number) minutes));
+            }
+            if (mongoTemplate.updateFirst(otherBucket, merge, TrainerWorkloadYearBucket.COLLECTION).getModifiedCount() > 0) {
+                log.warn("[WORKLOAD-BUCKET] merged archived bucket into the hot one trainer={} year={}",
+                        archived.getString("trainerUsername"), archived.get("year"));
+            }
+        }
+        mongoTemplate.remove(Query.query(where("_id").is(id)), TrainerWorkloadYearBucket.ARCHIVE_COLLECTION);
+    }
+
+    /** "trainer/year" → bucket holding only the months the deltas touch. */
+    private Map<String, Document> currentMonths(List<WorkloadDelta> deltas) {
+        Query query = Query.query(where("trainerUsername").in(
+                        deltas.stream().map(WorkloadDelta::trainerUsername).collect(Collectors.toSet()))
+                .and("year").in(deltas.stream().map(WorkloadDelta::year).collect(Collectors.toSet())));
+        query.fields().include("trainerUsername", "year", "recentEventIds");
+        deltas.forEach(d -> query.fields().include(monthPath(d.month())));
+        Map<String, Document> byBucket = new HashMap<>();
+        mongoTemplate.find(query, Document.class, TrainerWorkloadYearBucket.COLLECTION)
+                .forEach(doc -> byBucket.put(doc.getString("trainerUsername") + "/" + doc.get("year"), doc));
+        return byBucket;
+    }
+
+    private static String monthPath(int month) {
+        return "months." + TrainerWorkloadDocument.monthKey(month);
+    }
+
+    private Query bucketQuery(WorkloadDelta delta) {
+        return Query.query(where("trainerUsername").is(delta.trainerUsername()).and("year").is(delta.year()));
+    }
+
+    private AggregationUpdate deltaUpdate(WorkloadDelta delta) {
+        String path = monthPath(delta.month());
+        Document fields = WorkloadUpdates.profileFields(delta)
+                .append("updatedAt", "$$NOW")
+                .append("version", bumpedVersion())
+                .append(path, flooredAdd(path, delta.minutes(), delta.floor()));
+        AggregationOperation set = context -> new Document("$set", onlyOnce(fields, delta.eventIds()));
+        return AggregationUpdate.from(List.of(set));
+    }
+}
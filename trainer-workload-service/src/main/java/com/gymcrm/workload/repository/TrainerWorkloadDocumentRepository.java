@@ -1,17 +1,27 @@
 package com.gymcrm.workload.repository;
 
 import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Spring Data MongoDB repository for trainer workload documents.
+ * Atomic update operations live in {@link TrainerWorkloadDocumentRepositoryCustom}.
  */
 @Repository
 public interface TrainerWorkloadDocumentRepository
-        extends MongoRepository<TrainerWorkloadDocument, String> {
+        extends MongoRepository<TrainerWorkloadDocument, String>, TrainerWorkloadDocumentRepositoryCustom {
 
     Optional<TrainerWorkloadDocument> findByTrainerUsername(String trainerUsername);
+
+    /** Most recently updated trainers first; served by {@code idx_updated_at}. */
+    List<TrainerWorkloadDocument> findByOrderByUpdatedAtDesc(Pageable pageable);
+
+    /** Every trainer document through one cursor; the stream must be closed. */
+    Stream<TrainerWorkloadDocument> streamAllBy();
 }
@@ -0,0 +1,91 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+/**
+ * Custom write operations for {@link TrainerWorkloadDocumentRepository} that bypass the
+ * read-modify-write cycle of {@code save()}.
+ */
+public interface TrainerWorkloadDocumentRepositoryCustom {
+
+    /**
+     * Applies a delta to the trainer's (year, month) total with server-side update operators,
+     * creating the document or month as needed and migrating a v1 document first.
+     * Only the profile fields and the targeted month are written. Returns the month total
+     * before and after the write, or a duplicate change when the delta's event was already applied.
+     */
+    MonthChange applyDelta(WorkloadDelta delta);
+
+    /**
+     * Applies many deltas with unordered bulk writes. Callers are expected to have folded
+     * the deltas so that each (trainer, year, month) appears at most once. Returns one
+     * change per delta, in iteration order.
+     */
+    List<MonthChange> applyDeltas(Collection<WorkloadDelta> deltas);
+
+    /**
+     * Writes only the profile fields of the trainer's document (plus update time and version),
+     * creating a document without totals if the trainer has none yet. Works on either layout.
+     */
+    void updateProfile(TrainerProfile profile);
+
+    /**
+     * IDs of the events recently applied to any of the given trainers, i.e. the union of their
+     * {@code recentEventIds} rings. Lets a batch drop redelivered events before folding them.
+     */
+    Set<String> findAppliedEventIds(Collection<String> trainerUsernames);
+
+    /**
+     * Reads the trainer's document with {@code totals} cut down to {@code range} on the server.
+     * A v1 document is returned with its full {@code years} list; callers migrate it as usual.
+     */
+    Optional<TrainerWorkloadDocument> findSummarySlice(String trainerUsername, WorkloadRange range);
+
+    /**
+     * Streams the documents of all given trainers, sliced like {@link #findSummarySlice}, from
+     * one {@code $in} query. Trainers without a document are simply absent. The stream holds a
+     * server cursor and must be closed.
+     */
+    Stream<TrainerWorkloadDocument> streamSummarySlices(Collection<String> trainerUsernames, WorkloadRange range);
+
+    /**
+     * Up to {@code limit} trainers matching {@code search} after its position, in search order.
+     * Only the id and profile fields are loaded.
+     */
+    List<TrainerWorkloadDocument> searchByName(TrainerSearch search, int limit);
+
+    /**
+     * Converts a v1 document to the map-keyed layout in memory and persists it, unless the
+     * stored document changed since it was read. Returns the converted document either way.
+     */
+    TrainerWorkloadDocument migrateLayout(TrainerWorkloadDocument document);
+
+    /**
+     * Migrates up to {@code batchSize} v1 documents whose id is greater than {@code afterId}
+     * ({@code null} to start from the beginning). Returns the last id examined, or
+     * {@code null} when no v1 documents remain after {@code afterId}.
+     */
+    String migrateLegacyLayouts(String afterId, int batchSize);
+
+    /**
+     * Drops the v1 {@code idx_first_last_name} index, which the name search indexes replaced.
+     * Returns whether it existed.
+     */
+    boolean dropLegacyNameIndex();
+
+    /**
+     * Overwrites the trainer's totals and event ring with a rebuilt projection, plus the profile
+     * fields unless {@code profile} is {@code null}, converting a v1 document on the way. Only
+     * writes if the document is still at {@code expectedVersion} ({@code null}: the trainer had no
+     * document, or one without a version). Returns whether the write happened.
+     */
+    boolean replaceProjection(String trainerUsername, SortedMap<String, SortedMap<String, Integer>> totals,
+                              TrainerProfile profile, List<String> recentEventIds, Long expectedVersion);
+}
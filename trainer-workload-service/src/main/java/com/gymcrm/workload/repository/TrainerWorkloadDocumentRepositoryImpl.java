@@ -0,0 +1,435 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.gymcrm.workload.document.TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION;
+import static com.gymcrm.workload.repository.WorkloadUpdates.bumpedVersion;
+import static com.gymcrm.workload.repository.WorkloadUpdates.flooredAdd;
+import static com.gymcrm.workload.repository.WorkloadUpdates.onlyOnce;
+import static com.gymcrm.workload.repository.WorkloadUpdates.recentEventIds;
+import static com.gymcrm.workload.repository.WorkloadUpdates.valueAt;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * {@link MongoTemplate}-backed implementation of the atomic write path.
+ *
+ * <p>A delta is a single upsert on the v2 document with a one-stage update pipeline that
+ * sets the profile fields and writes {@code totals.<year>.<month> = max(0, current + minutes)}.
+ * It is issued as a {@code findAndModify} projected on that month, so the previous total
+ * comes back with the write and the caller learns the exact change.
+ * The month is addressed by its path, so nothing needs to exist beforehand and DELETE is
+ * floored at 0 on the server in the same operation.
+ *
+ * <p>A delta carrying event IDs is applied only once: the pipeline leaves the document
+ * unchanged when one of the IDs is already in its {@code recentEventIds} ring and appends
+ * them otherwise, in the same write. The projected pre-image includes the ring, so the
+ * caller learns which of the two happened.
+ *
+ * <p>The upsert only matches v2 documents. For a trainer still on the v1 layout it fails on
+ * the unique username index; the document is then migrated and the delta retried. The same
+ * retry covers two consumers racing to insert a new trainer.
+ *
+ * <p>Updates are issued against the collection name rather than the entity class: the map
+ * keys in the paths are not entity properties, and the version is bumped explicitly.
+ */
+class TrainerWorkloadDocumentRepositoryImpl implements TrainerWorkloadDocumentRepositoryCustom {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainerWorkloadDocumentRepositoryImpl.class);
+
+    /** Insert races and v1 migrations can only be lost a couple of times before the document exists. */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    /** v1 name index, superseded by {@code idx_name_search} and {@code idx_name_search_last}. */
+    static final String LEGACY_NAME_INDEX = "idx_first_last_name";
+
+    private final MongoTemplate mongoTemplate;
+
+    TrainerWorkloadDocumentRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public MonthChange applyDelta(WorkloadDelta delta) {
+        String path = TrainerWorkloadDocument.totalPath(delta.year(), delta.month());
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                Query query = currentLayoutQuery(delta.trainerUsername());
+                query.fields().include(path, "recentEventIds");
+                Document before = mongoTemplate.findAndModify(query, deltaUpdate(delta),
+                        FindAndModifyOptions.options().upsert(true).returnNew(false), Document.class, collection());
+                return MonthChange.fromPreImage(delta, before == null ? 0 : valueAt(before, path), recentEventIds(before));
+            } catch (DuplicateKeyException e) {
+                // Either a v1 document exists or another consumer inserted the trainer first.
+                log.debug("[WORKLOAD-ATOMIC] upsert collided trainer={} attempt={}",
+                        delta.trainerUsername(), attempt);
+                migrateTrainer(delta.trainerUsername());
+            }
+        }
+        throw new OptimisticLockingFailureException(
+                "Could not apply workload delta for trainer " + delta.trainerUsername()
+                        + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Bulk variant used by the batch consumer: legacy documents among the batch's trainers
+     * are migrated first, then every delta is one upsert in a single unordered bulk write.
+     * Upserts that lose an insert race are replayed one by one through {@link #applyDelta}.
+     *
+     * <p>Bulk writes return no pre-images, so the touched months are read with one query
+     * just before the write. That is exact as long as no other consumer writes the same
+     * trainer in between, which per-trainer message groups guarantee.
+     */
+    @Override
+    public List<MonthChange> applyDeltas(Collection<WorkloadDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        migrateLegacyTrainers(deltas);
+
+        List<WorkloadDelta> ordered = new ArrayList<>(deltas);
+        Map<String, Document> current = currentTotals(ordered);
+        List<MonthChange> changes = new ArrayList<>(ordered.size());
+        for (WorkloadDelta d : ordered) {
+            Document doc = current.get(d.trainerUsername());
+            changes.add(MonthChange.fromPreImage(d,
+                    doc == null ? 0 : valueAt(doc, TrainerWorkloadDocument.totalPath(d.year(), d.month())), recentEventIds(doc)));
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection());
+        ordered.forEach(d -> operations.upsert(currentLayoutQuery(d.trainerUsername()), deltaUpdate(d)));
+        try {
+            BulkWriteResult result = operations.execute();
+            log.debug("[WORKLOAD-BULK] applied {} deltas ({} inserted)", deltas.size(), result.getUpserts().size());
+        } catch (BulkOperationException e) {
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> error.getCode() == DUPLICATE_KEY_ERROR);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            log.debug("[WORKLOAD-BULK] {} upserts lost a race — replaying individually", e.getErrors().size());
+            for (BulkWriteError error : e.getErrors()) {
+                changes.set(error.getIndex(), applyDelta(ordered.get(error.getIndex())));
+            }
+        }
+        return changes;
+    }
+
+    /** An upsert by username; a lost insert race with a delta is simply retried as an update. */
+    @Override
+    public void updateProfile(TrainerProfile profile) {
+        Update update = new Update()
+                .set("firstName", profile.firstName())
+                .set("lastName", profile.lastName())
+                .set("isActive", profile.active())
+                .currentDate("updatedAt")
+                .inc("version", 1)
+                .setOnInsert("schemaVersion", CURRENT_SCHEMA_VERSION);
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                mongoTemplate.upsert(Query.query(where("trainerUsername").is(profile.trainerUsername())),
+                        update, collection());
+                return;
+            } catch (DuplicateKeyException e) {
+                log.debug("[WORKLOAD-PROFILE] upsert race lost trainer={} attempt={}",
+                        profile.trainerUsername(), attempt);
+            }
+        }
+        throw new OptimisticLockingFailureException(
+                "Could not update profile of trainer " + profile.trainerUsername()
+                        + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    @Override
+    public Set<String> findAppliedEventIds(Collection<String> trainerUsernames) {
+        Query query = Query.query(where("trainerUsername").in(trainerUsernames));
+        query.fields().include("recentEventIds");
+        Set<String> applied = new HashSet<>();
+        mongoTemplate.find(query, Document.class, collection()).forEach(doc -> {
+            List<String> ids = recentEventIds(doc);
+            if (ids != null) {
+                applied.addAll(ids);
+            }
+        });
+        return applied;
+    }
+
+    /**
+     * One aggregation: match on the unique username index, then a {@code $project} that keeps
+     * the profile and version fields and filters {@code totals} by year and month key.
+     * {@code years} is passed through untouched so v1 documents can still be migrated.
+     */
+    @Override
+    public Optional<TrainerWorkloadDocument> findSummarySlice(String trainerUsername, WorkloadRange range) {
+        Aggregation aggregation = sliceAggregation(where("trainerUsername").is(trainerUsername), range);
+        return Optional.ofNullable(mongoTemplate.aggregate(aggregation, collection(), TrainerWorkloadDocument.class)
+                .getUniqueMappedResult());
+    }
+
+    /** Same pipeline as {@link #findSummarySlice}, matched with {@code $in} and read through a cursor. */
+    @Override
+    public Stream<TrainerWorkloadDocument> streamSummarySlices(Collection<String> trainerUsernames, WorkloadRange range) {
+        Aggregation aggregation = sliceAggregation(where("trainerUsername").in(trainerUsernames), range);
+        return mongoTemplate.aggregateStream(aggregation, collection(), TrainerWorkloadDocument.class);
+    }
+
+    /**
+     * Prefixes become key ranges ({@code [prefix, prefix + U+FFFF)}; U+FFFF sorts after every
+     * character under ICU collation) and the page continues after the cursor tuple. The query
+     * runs with the collation of {@code idx_name_search}/{@code idx_name_search_last}, which is
+     * what lets it use them; a regex would not.
+     */
+    @Override
+    public List<TrainerWorkloadDocument> searchByName(TrainerSearch search, int limit) {
+        String primary = search.byLastName() ? "lastName" : "firstName";
+        String secondary = search.byLastName() ? "firstName" : "lastName";
+
+        List<Criteria> filters = new ArrayList<>();
+        if (search.firstNamePrefix() != null) {
+            filters.add(prefix("firstName", search.firstNamePrefix()));
+        }
+        if (search.lastNamePrefix() != null) {
+            filters.add(prefix("lastName", search.lastNamePrefix()));
+        }
+        if (search.active() != null) {
+            filters.add(where("isActive").is(search.active()));
+        }
+        TrainerSearch.Position after = search.after();
+        if (after != null) {
+            filters.add(after(primary, after.primary(),
+                    after(secondary, after.secondary(), where("_id").gt(new ObjectId(after.id())))));
+        }
+
+        Query query = new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(Sort.by(primary, secondary, "_id"))
+                .limit(limit)
+                .collation(TrainerWorkloadDocument.NAME_COLLATION);
+        query.fields().include("trainerUsername", "firstName", "lastName", "isActive");
+        return mongoTemplate.find(query, TrainerWorkloadDocument.class);
+    }
+
+    /**
+     * Persists the v2 layout of a v1 document. The write is guarded by the version read with
+     * the document, so an event applied concurrently is never overwritten; if the guard fails
+     * the document is left for the next write or migrator pass.
+     */
+    @Override
+    public TrainerWorkloadDocument migrateLayout(TrainerWorkloadDocument document) {
+        Long expectedVersion = document.getVersion();
+        document.migrateToMapLayout();
+
+        UpdateResult result = mongoTemplate.updateFirst(
+                legacyVersionQuery(document.getTrainerUsername(), expectedVersion), layoutUpdate(document), collection());
+        if (result.getMatchedCount() > 0) {
+            document.setVersion(expectedVersion == null ? 1L : expectedVersion + 1);
+            log.debug("[WORKLOAD-MIGRATE] trainer={} migrated to v{}", document.getTrainerUsername(), CURRENT_SCHEMA_VERSION);
+        } else {
+            log.debug("[WORKLOAD-MIGRATE] trainer={} changed concurrently — migration deferred",
+                    document.getTrainerUsername());
+        }
+        return document;
+    }
+
+    /**
+     * Walks v1 documents in {@code _id} order, so every pass is an index range scan, and
+     * migrates one page with a single unordered bulk write.
+     */
+    @Override
+    public String migrateLegacyLayouts(String afterId, int batchSize) {
+        Criteria criteria = where("schemaVersion").ne(CURRENT_SCHEMA_VERSION);
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(afterId));
+        }
+        List<TrainerWorkloadDocument> legacy = mongoTemplate.find(
+                Query.query(criteria).with(Sort.by("_id")).limit(batchSize), TrainerWorkloadDocument.class);
+        if (legacy.isEmpty()) {
+            return null;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection());
+        for (TrainerWorkloadDocument document : legacy) {
+            Long expectedVersion = document.getVersion();
+            document.migrateToMapLayout();
+            operations.updateOne(legacyVersionQuery(document.getTrainerUsername(), expectedVersion), layoutUpdate(document));
+        }
+        BulkWriteResult result = operations.execute();
+        log.info("[WORKLOAD-MIGRATE] page of {} legacy documents, {} migrated", legacy.size(), result.getModifiedCount());
+        return legacy.get(legacy.size() - 1).getId();
+    }
+
+    /**
+     * Its plain binary ordering cannot serve the case-insensitive search, so it would only
+     * cost every write an extra index update.
+     */
+    @Override
+    public boolean dropLegacyNameIndex() {
+        IndexOperations indexes = mongoTemplate.indexOps(collection());
+        boolean present = indexes.getIndexInfo().stream()
+                .anyMatch(index -> LEGACY_NAME_INDEX.equals(index.getName()));
+        if (present) {
+            indexes.dropIndex(LEGACY_NAME_INDEX);
+            log.info("[WORKLOAD-MIGRATE] dropped legacy index {}", LEGACY_NAME_INDEX);
+        }
+        return present;
+    }
+
+    /**
+     * A version-guarded update, or an upsert when no version was read; a document inserted
+     * meanwhile makes that upsert fail on the unique username index, which counts as a
+     * lost guard as well.
+     */
+    @Override
+    public boolean replaceProjection(String trainerUsername, SortedMap<String, SortedMap<String, Integer>> totals,
+                                     TrainerProfile profile, List<String> recentEventIds, Long expectedVersion) {
+        Update update = new Update()
+                .set("totals", totals)
+                .set("recentEventIds", recentEventIds)
+                .set("schemaVersion", CURRENT_SCHEMA_VERSION)
+                .unset("years")
+                .currentDate("updatedAt")
+                .inc("version", 1);
+        if (profile != null) {
+            update.set("firstName", profile.firstName())
+                    .set("lastName", profile.lastName())
+                    .set("isActive", profile.active());
+        }
+        if (expectedVersion != null) {
+            Query query = Query.query(where("trainerUsername").is(trainerUsername).and("version").is(expectedVersion));
+            return mongoTemplate.updateFirst(query, update, collection()).getMatchedCount() > 0;
+        }
+        try {
+            mongoTemplate.upsert(Query.query(where("trainerUsername").is(trainerUsername).and("version").exists(false)),
+                    update, collection());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private static Criteria prefix(String field, String prefix) {
+        return where(field).gte(prefix).lt(prefix + '\uffff');
+    }
+
+    /**
+     * Keyset step on one sort field: {@code field} sorts after {@code value}, or equals it and
+     * {@code tie} holds. A missing or {@code null} name sorts before every name, so after
+     * {@code null} every present name follows.
+     */
+    private static Criteria after(String field, String value, Criteria tie) {
+        Criteria greater = value == null ? where(field).ne(null) : where(field).gt(value);
+        return new Criteria().orOperator(greater, new Criteria().andOperator(where(field).is(value), tie));
+    }
+
+    /** Trainer username → document holding only the months the deltas touch. */
+    private Map<String, Document> currentTotals(List<WorkloadDelta> deltas) {
+        Query query = Query.query(where("trainerUsername").in(
+                deltas.stream().map(WorkloadDelta::trainerUsername).collect(Collectors.toSet())));
+        query.fields().include("trainerUsername", "recentEventIds");
+        deltas.forEach(d -> query.fields().include(TrainerWorkloadDocument.totalPath(d.year(), d.month())));
+        Map<String, Document> byTrainer = new HashMap<>();
+        mongoTemplate.find(query, Document.class, collection())
+                .forEach(doc -> byTrainer.put(doc.getString("trainerUsername"), doc));
+        return byTrainer;
+    }
+
+    private Aggregation sliceAggregation(Criteria match, WorkloadRange range) {
+        Document projection = new Document("trainerUsername", 1)
+                .append("firstName", 1)
+                .append("lastName", 1)
+                .append("isActive", 1)
+                .append("schemaVersion", 1)
+                .append("updatedAt", 1)
+                .append("version", 1)
+                .append("years", 1)
+                .append("totals", range.isUnbounded() ? 1 : WorkloadFilters.totalsSlice(range));
+        AggregationOperation project = context -> new Document("$project", projection);
+        return Aggregation.newAggregation(Aggregation.match(match), project);
+    }
+
+    private void migrateLegacyTrainers(Collection<WorkloadDelta> deltas) {
+        Set<String> trainers = deltas.stream().map(WorkloadDelta::trainerUsername).collect(Collectors.toSet());
+        Query legacyQuery = Query.query(where("trainerUsername").in(trainers)
+                .and("schemaVersion").ne(CURRENT_SCHEMA_VERSION));
+        mongoTemplate.find(legacyQuery, TrainerWorkloadDocument.class).forEach(this::migrateLayout);
+    }
+
+    private void migrateTrainer(String trainerUsername) {
+        TrainerWorkloadDocument document = mongoTemplate.findOne(
+                Query.query(where("trainerUsername").is(trainerUsername)), TrainerWorkloadDocument.class);
+        if (document != null && document.isLegacyLayout()) {
+            migrateLayout(document);
+        }
+    }
+
+    private Query currentLayoutQuery(String trainerUsername) {
+        return Query.query(where("trainerUsername").is(trainerUsername).and("schemaVersion").is(CURRENT_SCHEMA_VERSION));
+    }
+
+    private Query legacyVersionQuery(String trainerUsername, Long expectedVersion) {
+        return Query.query(where("trainerUsername").is(trainerUsername)
+                .and("schemaVersion").ne(CURRENT_SCHEMA_VERSION)
+                .and("version").is(expectedVersion));
+    }
+
+    private Update layoutUpdate(TrainerWorkloadDocument document) {
+        return new Update()
+                .set("totals", document.getTotals())
+                .set("schemaVersion", CURRENT_SCHEMA_VERSION)
+                .unset("years")
+                .inc("version", 1);
+    }
+
+    /**
+     * One {@code $set} stage: profile fields (unless the event is slim), schema version, update
+     * time, version bump and the floored month total, guarded by the delta's event IDs (see
+     * {@link WorkloadUpdates#onlyOnce}).
+     */
+    private AggregationUpdate deltaUpdate(WorkloadDelta delta) {
+        String path = TrainerWorkloadDocument.totalPath(delta.year(), delta.month());
+        Document fields = WorkloadUpdates.profileFields(delta)
+                .append("schemaVersion", CURRENT_SCHEMA_VERSION)
+                .append("updatedAt", "$$NOW")
+                .append("version", bumpedVersion())
+                .append(path, flooredAdd(path, delta.minutes(), delta.floor()));
+        AggregationOperation set = context -> new Document("$set", onlyOnce(fields, delta.eventIds()));
+        return AggregationUpdate.from(List.of(set));
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(TrainerWorkloadDocument.class);
+    }
+}
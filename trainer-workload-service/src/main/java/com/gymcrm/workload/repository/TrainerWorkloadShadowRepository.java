@@ -0,0 +1,91 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * A shadow copy of {@code trainer_workload} that a full rebuild is loaded into and then swapped
+ * in with a single {@code renameCollection}, so readers only ever see the old or the new data.
+ *
+ * <p>The shadow is bulk-loaded without indexes; they are built once at the end, with the same
+ * definitions as the entity, so the renamed collection is immediately fully indexed.
+ */
+@Repository
+public class TrainerWorkloadShadowRepository {
+
+    public static final String SHADOW_COLLECTION = "trainer_workload_rebuild";
+
+    private static final Logger log = LoggerFactory.getLogger(TrainerWorkloadShadowRepository.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public TrainerWorkloadShadowRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** Drops what an earlier, aborted rebuild left behind and starts with an empty shadow. */
+    public void recreate() {
+        mongoTemplate.dropCollection(SHADOW_COLLECTION);
+        mongoTemplate.createCollection(SHADOW_COLLECTION);
+    }
+
+    /** Inserts the documents with one unordered bulk write. */
+    public void insert(List<TrainerWorkloadDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrainerWorkloadDocument.class, SHADOW_COLLECTION)
+                .insert(documents)
+                .execute();
+    }
+
+    /** Builds the indexes declared on {@link TrainerWorkloadDocument} on the shadow. */
+    public void createIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(SHADOW_COLLECTION);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(TrainerWorkloadDocument.class)
+                .forEach(indexes::ensureIndex);
+    }
+
+    /**
+     * Copies every live document's {@code recentEventIds} ring onto the shadow document of the
+     * same trainer with one server-side {@code $merge}, so redeliveries of events applied before
+     * the swap are still recognised after it. Needs the unique username index on the shadow.
+     */
+    public void copyRecentEventIds() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("recentEventIds.0", new Document("$exists", true))),
+                new Document("$project", new Document("_id", 0)
+                        .append("trainerUsername", 1)
+                        .append("recentEventIds", 1)),
+                new Document("$merge", new Document("into", SHADOW_COLLECTION)
+                        .append("on", "trainerUsername")
+                        .append("whenMatched", List.of(new Document("$set",
+                                new Document("recentEventIds", "$$new.recentEventIds"))))
+                        .append("whenNotMatched", "discard")));
+        mongoTemplate.getCollection(liveCollection()).aggregate(pipeline).toCollection();
+    }
+
+    /** Atomically replaces the live collection with the shadow, dropping the old data. */
+    public void swap() {
+        MongoNamespace live = new MongoNamespace(mongoTemplate.getDb().getName(), liveCollection());
+        mongoTemplate.getCollection(SHADOW_COLLECTION)
+                .renameCollection(live, new RenameCollectionOptions().dropTarget(true));
+        log.info("[WORKLOAD-REBUILD] {} swapped in as {}", SHADOW_COLLECTION, live.getCollectionName());
+    }
+
+    private String liveCollection() {
+        return mongoTemplate.getCollectionName(TrainerWorkloadDocument.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.gymcrm.workload.repository;
+
+import java.util.List;
+
+/**
+ * A signed change to one trainer's (year, month) training total, together with the
+ * trainer profile fields carried by the event. The profile fields are all null for slim
+ * events, in which case the stored profile is left as it is (see {@link #hasProfile()}).
+ *
+ * <p>{@code minutes} is positive for ADD and negative for DELETE. Applying the delta sets
+ * the stored total to {@code max(floor, total + minutes)}. {@code floor} is 0 for a single
+ * event. For several events folded into one delta it is what their own floors at 0 leave
+ * in any case, so the folded delta gives the same total as the events applied one by one.
+ *
+ * <p>{@code eventIds} are the IDs of the events folded into the delta. When present, the
+ * delta is skipped if any of them was already applied to the target document, and they are
+ * remembered there otherwise; events without an ID are always applied.
+ */
+public record WorkloadDelta(String trainerUsername,
+                            String firstName,
+                            String lastName,
+                            Boolean active,
+                            int year,
+                            int month,
+                            int minutes,
+                            List<String> eventIds,
+                            int floor) {
+
+    public WorkloadDelta {
+        eventIds = eventIds == null ? List.of() : List.copyOf(eventIds);
+    }
+
+    public WorkloadDelta(String trainerUsername, String firstName, String lastName, Boolean active,
+                         int year, int month, int minutes, List<String> eventIds) {
+        this(trainerUsername, firstName, lastName, active, year, month, minutes, eventIds, 0);
+    }
+
+    public WorkloadDelta(String trainerUsername, String firstName, String lastName, Boolean active,
+                         int year, int month, int minutes) {
+        this(trainerUsername, firstName, lastName, active, year, month, minutes, List.of());
+    }
+
+    /** Whether the event carried profile fields that should be written with the delta. */
+    public boolean hasProfile() {
+        return firstName != null || lastName != null || active != null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.dto.RangeDigest;
+import com.gymcrm.workload.dto.TrainerDigest;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes workload digests of {@code trainer_workload} documents on the server, the same way
+ * gym-crm computes them from its trainings ({@code TrainingDAOImpl}), so the two can be compared
+ * without moving the totals themselves.
+ *
+ * <p>With k = year * 12 + month, every month with a positive total contributes
+ * {@code ((k * 1000003 + total) mod P) * ((k * 998244353 + total) mod P) mod P}, and a trainer's
+ * digest is the sum of the contributions mod P = 2^31 - 1. Every intermediate value stays below
+ * 2^63, so both databases compute it in exact 64-bit integers. Months floored at 0 contribute
+ * nothing, matching trainers whose trainings were all deleted.
+ *
+ * <p>Only the map-keyed layout is read; v1 documents digest as empty until migrated.
+ */
+@Repository
+public class WorkloadDigestRepository {
+
+    public static final long PRIME = 2_147_483_647L;
+    static final long FACTOR_A = 1_000_003L;
+    static final long FACTOR_B = 998_244_353L;
+
+    private final MongoTemplate mongoTemplate;
+
+    public WorkloadDigestRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** Digests of the trainers in [{@code from}, {@code to}) with positive totals, in username order. */
+    public List<TrainerDigest> trainerDigests(String from, String to) {
+        List<Document> pipeline = trainerDigestPipeline(from, to);
+        pipeline.add(new Document("$sort", new Document("_id", 1)));
+        List<TrainerDigest> digests = new ArrayList<>();
+        collection().aggregate(pipeline).allowDiskUse(true)
+                .forEach(doc -> digests.add(new TrainerDigest(doc.getString("_id"), number(doc, "digest"))));
+        return digests;
+    }
+
+    /** Trainer count and combined digest of the same trainers as {@link #trainerDigests}. */
+    public RangeDigest rangeDigest(String from, String to) {
+        List<Document> pipeline = trainerDigestPipeline(from, to);
+        pipeline.add(new Document("$group", new Document("_id", null)
+                .append("trainers", new Document("$sum", 1L))
+                .append("sum", new Document("$sum", "$digest"))));
+        Document result = collection().aggregate(pipeline).allowDiskUse(true).first();
+        if (result == null) {
+            return new RangeDigest(from, to, 0, 0);
+        }
+        return new RangeDigest(from, to, number(result, "trainers"), Math.floorMod(number(result, "sum"), PRIME));
+    }
+
+    /** Trainer digests as documents {@code {_id: username, digest}}. */
+    private static List<Document> trainerDigestPipeline(String from, String to) {
+        Document range = new Document("$gte", from == null ? "" : from);
+        if (to != null) {
+            range.append("$lt", to);
+        }
+        Document k = new Document("$add", List.of(new Document("$multiply", List.of("$year", 12L)), "$month"));
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", new Document("trainerUsername", range)));
+        pipeline.add(new Document("$project", new Document("_id", 0)
+                .append("trainerUsername", 1)
+                .append("years", new Document("$objectToArray", new Document("$ifNull", List.of("$totals", new Document()))))));
+        pipeline.add(new Document("$unwind", "$years"));
+        pipeline.add(new Document("$project", new Document("trainerUsername", 1)
+                .append("year", new Document("$toLong", "$years.k"))
+                .append("months", new Document("$objectToArray", "$years.v"))));
+        pipeline.add(new Document("$unwind", "$months"));
+        pipeline.add(new Document("$match", new Document("months.v", new Document("$gt", 0))));
+        pipeline.add(new Document("$project", new Document("trainerUsername", 1)
+                .append("year", 1)
+                .append("month", new Document("$toLong", "$months.k"))
+                .append("total", new Document("$toLong", "$months.v"))));
+        pipeline.add(new Document("$project", new Document("trainerUsername", 1)
+                .append("term", mod(new Document("$multiply", List.of(term(k, FACTOR_A), term(k, FACTOR_B)))))));
+        pipeline.add(new Document("$group", new Document("_id", "$trainerUsername")
+                .append("sum", new Document("$sum", "$term"))));
+        pipeline.add(new Document("$project", new Document("digest", mod("$sum"))));
+        return pipeline;
+    }
+
+    /** {@code (k * factor + total) mod P}. */
+    private static Document term(Document k, long factor) {
+        return mod(new Document("$add", List.of(new Document("$multiply", List.of(k, factor)), "$total")));
+    }
+
+    private static Document mod(Object value) {
+        return new Document("$mod", List.of(value, PRIME));
+    }
+
+    private static long number(Document document, String field) {
+        return ((Number) document.get(field)).longValue();
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(TrainerWorkloadDocument.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.WorkloadEventLogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Append-only store for {@link WorkloadEventLogEntry}s.
+ *
+ * <p>MongoDB creates a plain collection on the first insert, so the time-series collection
+ * has to be created explicitly before anything is appended; see {@link #createCollectionIfMissing()}.
+ * On MongoDB 6.3+ the collection comes with an index on (trainer, recordedAt), which serves
+ * the per-trainer replay.
+ */
+@Repository
+public class WorkloadEventLogRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadEventLogRepository.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public WorkloadEventLogRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** Creates the time-series collection unless it exists; losing the race to another instance is fine. */
+    public void createCollectionIfMissing() {
+        if (mongoTemplate.collectionExists(WorkloadEventLogEntry.class)) {
+            return;
+        }
+        try {
+            mongoTemplate.createCollection(WorkloadEventLogEntry.class);
+            log.info("[WORKLOAD-EVENT-LOG] created time-series collection {}", WorkloadEventLogEntry.COLLECTION);
+        } catch (DataAccessException e) {
+            if (!mongoTemplate.collectionExists(WorkloadEventLogEntry.class)) {
+                throw e;
+            }
+        }
+    }
+
+    /** Appends the entries with one {@code insertMany}. */
+    public void append(Collection<WorkloadEventLogEntry> entries) {
+        if (!entries.isEmpty()) {
+            mongoTemplate.insert(entries, WorkloadEventLogEntry.class);
+        }
+    }
+
+    /**
+     * Streams one trainer's entries in the order they were recorded. Entries of one insert
+     * share their {@code recordedAt} and keep their list order through their ids. The stream
+     * holds a server cursor and must be closed.
+     */
+    public Stream<WorkloadEventLogEntry> streamTrainer(String trainerUsername) {
+        Query query = Query.query(where("trainerUsername").is(trainerUsername))
+                .with(Sort.by("recordedAt", "_id"));
+        return mongoTemplate.stream(query, WorkloadEventLogEntry.class);
+    }
+
+    /** Every trainer with at least one entry. */
+    public List<String> findTrainerUsernames() {
+        return mongoTemplate.findDistinct(new Query(), "trainerUsername", WorkloadEventLogEntry.class, String.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.gymcrm.workload.repository;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregation-expression fragments that cut a {@link WorkloadRange} out of the map-keyed
+ * totals inside MongoDB, so only the requested slice is sent back.
+ */
+final class WorkloadFilters {
+
+    private WorkloadFilters() {}
+
+    /**
+     * {@code totals} of a trainer document restricted to the range: years are filtered by key
+     * and, when month bounds are set, every remaining year's months as well.
+     */
+    static Object totalsSlice(WorkloadRange range) {
+        Object months = range.hasMonthBounds()
+                ? keyRange("$$year.v", "month", range.fromMonthKey(), range.toMonthKey())
+                : "$$year.v";
+        return keyRange("$totals", "year", range.fromYearKey(), range.toYearKey(), months);
+    }
+
+    /** {@code months} of a year bucket restricted to the range's month bounds. */
+    static Object monthsSlice(WorkloadRange range) {
+        return keyRange("$months", "month", range.fromMonthKey(), range.toMonthKey());
+    }
+
+    private static Document keyRange(String map, String var, String from, String to) {
+        return keyRange(map, var, from, to, "$$" + var + ".v");
+    }
+
+    /**
+     * {@code $arrayToObject} of the entries of {@code map} whose key lies in [from, to]
+     * (either bound may be null), with each value replaced by {@code value}. A missing map
+     * yields an empty object.
+     */
+    private static Document keyRange(String map, String var, String from, String to, Object value) {
+        String key = "$$" + var + ".k";
+        List<Document> bounds = new ArrayList<>();
+        if (from != null) {
+            bounds.add(new Document("$gte", List.of(key, from)));
+        }
+        if (to != null) {
+            bounds.add(new Document("$lte", List.of(key, to)));
+        }
+        Document entries = new Document("$objectToArray", new Document("$ifNull", List.of(map, new Document())));
+        Document filtered = new Document("$filter", new Document("input", entries)
+                .append("as", var)
+                .append("cond", bounds.isEmpty() ? true : new Document("$and", bounds)));
+        Document mapped = new Document("$map", new Document("input", filtered)
+                .append("as", var)
+                .append("in", new Document("k", key).append("v", value)));
+        return new Document("$arrayToObject", mapped);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+
+/**
+ * Inclusive slice of a trainer's history requested by a summary read. Every bound is optional;
+ * the month bounds apply within each selected year, so {@code 2026, 2026, 1, 3} is Q1 2026.
+ *
+ * <p>Bounds are compared as storage keys (see {@link TrainerWorkloadDocument#yearKey} and
+ * {@link TrainerWorkloadDocument#monthKey}), which sort like the numbers they encode for
+ * four-digit years and zero-padded months.
+ */
+public record WorkloadRange(Integer fromYear, Integer toYear, Integer fromMonth, Integer toMonth) {
+
+    public static final WorkloadRange ALL = new WorkloadRange(null, null, null, null);
+
+    public WorkloadRange {
+        if (fromYear != null && toYear != null && fromYear > toYear) {
+            throw new IllegalArgumentException("fromYear must not be after toYear");
+        }
+        if (outOfMonthRange(fromMonth) || outOfMonthRange(toMonth)) {
+            throw new IllegalArgumentException("months must be between 1 and 12");
+        }
+        if (fromMonth != null && toMonth != null && fromMonth > toMonth) {
+            throw new IllegalArgumentException("fromMonth must not be after toMonth");
+        }
+    }
+
+    public boolean isUnbounded() {
+        return !hasYearBounds() && !hasMonthBounds();
+    }
+
+    public boolean hasYearBounds() {
+        return fromYear != null || toYear != null;
+    }
+
+    public boolean hasMonthBounds() {
+        return fromMonth != null || toMonth != null;
+    }
+
+    public boolean includesYear(int year) {
+        return (fromYear == null || year >= fromYear) && (toYear == null || year <= toYear);
+    }
+
+    public boolean includesMonth(int month) {
+        return (fromMonth == null || month >= fromMonth) && (toMonth == null || month <= toMonth);
+    }
+
+    String fromYearKey() {
+        return fromYear == null ? null : TrainerWorkloadDocument.yearKey(fromYear);
+    }
+
+    String toYearKey() {
+        return toYear == null ? null : TrainerWorkloadDocument.yearKey(toYear);
+    }
+
+    String fromMonthKey() {
+        return fromMonth == null ? null : TrainerWorkloadDocument.monthKey(fromMonth);
+    }
+
+    String toMonthKey() {
+        return toMonth == null ? null : TrainerWorkloadDocument.monthKey(toMonth);
+    }
+
+    private static boolean outOfMonthRange(Integer month) {
+        return month != null && (month < 1 || month > 12);
+    }
+}
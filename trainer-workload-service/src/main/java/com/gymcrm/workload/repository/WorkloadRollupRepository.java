@@ -0,0 +1,175 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.document.TrainerWorkloadYearBucket;
+import com.gymcrm.workload.document.WorkloadMonthRollup;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.gymcrm.workload.repository.WorkloadUpdates.literal;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Store for {@link WorkloadMonthRollup}s.
+ *
+ * <p>Incremental updates are one upsert per touched month with a pipeline that adds the net
+ * minute and trainer-count changes and rewrites the leaderboard: entries of the changed
+ * trainers are replaced by their new totals, then the list is sorted and cut to capacity.
+ * Rebuilds recompute every month from the base collection and swap the result in with
+ * {@code $out}.
+ */
+@Repository
+public class WorkloadRollupRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadRollupRepository.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public WorkloadRollupRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** Folds the changes into their months with one unordered bulk of pipeline upserts. */
+    public void apply(Collection<MonthChange> changes, int topCapacity) {
+        Map<String, List<MonthChange>> byMonth = new LinkedHashMap<>();
+        for (MonthChange change : changes) {
+            if (change.minutesDelta() != 0) {
+                byMonth.computeIfAbsent(WorkloadMonthRollup.idOf(change.year(), change.month()), k -> new ArrayList<>())
+                        .add(change);
+            }
+        }
+        if (byMonth.isEmpty()) {
+            return;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WorkloadMonthRollup.COLLECTION);
+        byMonth.forEach((id, monthChanges) ->
+                operations.upsert(Query.query(where("_id").is(id)), rollupUpdate(monthChanges, topCapacity)));
+        operations.execute();
+        log.debug("[WORKLOAD-ROLLUP] updated {} months from {} changes", byMonth.size(), changes.size());
+    }
+
+    public WorkloadMonthRollup find(int year, int month) {
+        return mongoTemplate.findById(WorkloadMonthRollup.idOf(year, month), WorkloadMonthRollup.class);
+    }
+
+    public List<WorkloadMonthRollup> findYear(int year) {
+        return mongoTemplate.find(Query.query(where("year").is(year)).with(Sort.by("month")), WorkloadMonthRollup.class);
+    }
+
+    /** Recomputes all rollups from {@code trainer_workload} (map-keyed documents only). */
+    public void rebuildFromDocuments(int topCapacity) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(stage("$project", new Document("trainerUsername", 1)
+                .append("years", new Document("$objectToArray", new Document("$ifNull", List.of("$totals", new Document()))))));
+        stages.add(stage("$unwind", "$years"));
+        stages.add(stage("$project", new Document("trainerUsername", 1)
+                .append("year", "$years.k")
+                .append("months", new Document("$objectToArray", "$years.v"))));
+        stages.add(stage("$unwind", "$months"));
+        stages.add(stage("$project", new Document("trainerUsername", 1)
+                .append("year", 1)
+                .append("month", "$months.k")
+                .append("minutes", "$months.v")));
+        rebuild(stages, mongoTemplate.getCollectionName(TrainerWorkloadDocument.class), topCapacity);
+    }
+
+    /**
+     * Recomputes all rollups from the year buckets, hot and archived. A bucket present in both
+     * collections counts once; distinct buckets of the same trainer and year are summed.
+     */
+    public void rebuildFromBuckets(int topCapacity) {
+        AggregationOperation markArchived = context -> new Document("$set", new Document("archived", true));
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> new Document("$unionWith", new Document("coll", TrainerWorkloadYearBucket.ARCHIVE_COLLECTION)
+                .append("pipeline", markArchived.toPipelineStages(context))));
+        stages.add(stage("$sort", new Document("archived", 1)));
+        stages.add(stage("$group", new Document("_id", "$_id")
+                .append("trainerUsername", new Document("$first", "$trainerUsername"))
+                .append("year", new Document("$first", "$year"))
+                .append("months", new Document("$first", "$months"))));
+        stages.add(stage("$project", new Document("trainerUsername", 1)
+                .append("year", new Document("$toString", "$year"))
+                .append("months", new Document("$objectToArray", new Document("$ifNull", List.of("$months", new Document()))))));
+        stages.add(stage("$unwind", "$months"));
+        stages.add(stage("$group", new Document("_id", new Document("trainerUsername", "$trainerUsername")
+                        .append("year", "$year").append("month", "$months.k"))
+                .append("minutes", new Document("$sum", "$months.v"))));
+        stages.add(stage("$project", new Document("_id", 0)
+                .append("trainerUsername", "$_id.trainerUsername")
+                .append("year", "$_id.year")
+                .append("month", "$_id.month")
+                .append("minutes", 1)));
+        rebuild(stages, TrainerWorkloadYearBucket.COLLECTION, topCapacity);
+    }
+
+    /**
+     * Common tail: {@code stages} yield one {trainerUsername, year, month, minutes} row per
+     * trainer and month (string keys); rows are grouped per month and written with {@code $out},
+     * which replaces the collection in one step and keeps its indexes.
+     */
+    private void rebuild(List<AggregationOperation> stages, String source, int topCapacity) {
+        stages.add(stage("$match", new Document("minutes", new Document("$gt", 0))));
+        stages.add(stage("$group", new Document("_id", new Document("$concat", List.of("$year", "-", "$month")))
+                .append("year", new Document("$first", new Document("$toInt", "$year")))
+                .append("month", new Document("$first", new Document("$toInt", "$month")))
+                .append("totalMinutes", new Document("$sum", new Document("$toLong", "$minutes")))
+                .append("activeTrainers", new Document("$sum", 1))
+                .append("top", new Document("$topN", new Document("n", topCapacity)
+                        .append("sortBy", new Document("minutes", -1).append("trainerUsername", 1))
+                        .append("output", new Document("trainerUsername", "$trainerUsername").append("minutes", "$minutes"))))));
+        stages.add(stage("$set", new Document("updatedAt", "$$NOW")));
+        stages.add(stage("$out", WorkloadMonthRollup.COLLECTION));
+
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        mongoTemplate.aggregate(aggregation, source, Document.class);
+        log.info("[WORKLOAD-ROLLUP] rebuilt rollups from {}", source);
+    }
+
+    private AggregationUpdate rollupUpdate(List<MonthChange> changes, int topCapacity) {
+        MonthChange first = changes.get(0);
+        long minutes = changes.stream().mapToLong(MonthChange::minutesDelta).sum();
+        int trainers = changes.stream().mapToInt(MonthChange::activeTrainerDelta).sum();
+        List<String> changed = changes.stream().map(MonthChange::trainerUsername).toList();
+        List<Document> entries = changes.stream()
+                .filter(c -> c.after() > 0)
+                .map(c -> new Document("trainerUsername", c.trainerUsername()).append("minutes", c.after()))
+                .toList();
+
+        Document others = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$top", List.of())))
+                .append("as", "entry")
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$entry.trainerUsername", literal(changed)))))));
+        Document sorted = new Document("$sortArray", new Document("input", new Document("$concatArrays", List.of(others, literal(entries))))
+                .append("sortBy", new Document("minutes", -1).append("trainerUsername", 1)));
+
+        Document fields = new Document()
+                .append("year", first.year())
+                .append("month", first.month())
+                .append("totalMinutes", new Document("$add", List.of(new Document("$ifNull", List.of("$totalMinutes", 0L)), minutes)))
+                .append("activeTrainers", new Document("$add", List.of(new Document("$ifNull", List.of("$activeTrainers", 0)), trainers)))
+                .append("top", new Document("$slice", List.of(sorted, topCapacity)))
+                .append("updatedAt", "$$NOW");
+        AggregationOperation set = context -> new Document("$set", fields);
+        return AggregationUpdate.from(List.of(set));
+    }
+
+    private static AggregationOperation stage(String name, Object body) {
+        return context -> new Document(name, body);
+    }
+}
@@ -0,0 +1,83 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Aggregation-expression fragments shared by the pipeline updates of the workload stores,
+ * and reading back the values they wrote.
+ */
+final class WorkloadUpdates {
+
+    private WorkloadUpdates() {}
+
+    /**
+     * Makes a {@code $set} stage idempotent per event: every field keeps its current value when
+     * one of {@code eventIds} is already in {@code recentEventIds}, and otherwise takes the new
+     * value while the IDs are appended to the ring. Without IDs the fields are returned as is.
+     */
+    static Document onlyOnce(Document fields, List<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return fields;
+        }
+        Document seen = new Document("$gt", List.of(new Document("$size", new Document("$setIntersection",
+                List.of(new Document("$ifNull", List.of("$recentEventIds", List.of())), literal(eventIds)))), 0));
+        Document guarded = new Document();
+        fields.forEach((field, value) -> guarded.append(field, new Document("$cond", List.of(seen, "$" + field, value))));
+        Document remembered = new Document("$slice", List.of(new Document("$concatArrays",
+                List.of(new Document("$ifNull", List.of("$recentEventIds", List.of())), literal(eventIds))), -TrainerWorkloadDocument.RECENT_EVENT_IDS));
+        return guarded.append("recentEventIds", new Document("$cond", List.of(seen, "$recentEventIds", remembered)));
+    }
+
+    /**
+     * {@code $set} entries for the delta's profile fields, or none for a slim event, which
+     * leaves the stored profile as it is.
+     */
+    static Document profileFields(WorkloadDelta delta) {
+        Document fields = new Document();
+        if (delta.hasProfile()) {
+            fields.append("firstName", literal(delta.firstName()))
+                    .append("lastName", literal(delta.lastName()))
+                    .append("isActive", literal(delta.active()));
+        }
+        return fields;
+    }
+
+    /** {@code max(floor, current + minutes)} for the field at {@code path}, treating a missing field as 0. */
+    static Document flooredAdd(String path, int minutes, int floor) {
+        return new Document("$max", List.of(floor, new Document("$add", List.of(ifNull("$" + path), minutes))));
+    }
+
+    /** Increments {@code version} like {@code @Version} does on save, starting at 1 for an upsert. */
+    static Document bumpedVersion() {
+        return new Document("$add", List.of(ifNull("$version"), 1));
+    }
+
+    /** Profile values go through {@code $literal} so a leading {@code $} is never read as a field path. */
+    static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> recentEventIds(Document document) {
+        return document == null ? null : (List<String>) document.get("recentEventIds");
+    }
+
+    /** The number at dotted {@code path} of a (pre-image) document, 0 when the document or any level is missing. */
+    static int valueAt(Document document, String path) {
+        Object current = document;
+        for (String key : path.split("\\.")) {
+            if (!(current instanceof Document level)) {
+                return 0;
+            }
+            current = level.get(key);
+        }
+        return current instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static Document ifNull(String fieldPath) {
+        return new Document("$ifNull", List.of(fieldPath, 0));
+    }
+}
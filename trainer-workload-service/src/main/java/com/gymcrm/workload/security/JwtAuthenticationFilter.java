@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -16,7 +17,8 @@ import java.io.IOException;
 import java.util.List;
 
 /**
- * Extracts and validates the Bearer token from each request.
+ * Extracts and validates the Bearer token from each request. Each entry of the token's
+ * {@code roles} claim becomes a {@code ROLE_<name>} authority.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -39,15 +41,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null && jwtTokenValidator.validateToken(token)) {
             String subject = jwtTokenValidator.getSubject(token);
+            List<SimpleGrantedAuthority> authorities = jwtTokenValidator.getRoles(token).stream()
+                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                    .toList();
 
             // 3-argument constructor marks the token as authenticated.
             UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(subject, null, List.of());
+                    new UsernamePasswordAuthenticationToken(subject, null, authorities);
 
             auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(auth);
 
-            log.debug("Authenticated JWT for subject='{}'", subject);
+            log.debug("Authenticated JWT for subject='{}' roles={}", subject, authorities);
         }
 
         chain.doFilter(request, response);
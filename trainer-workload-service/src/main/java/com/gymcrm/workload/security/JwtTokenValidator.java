@@ -11,16 +11,21 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * Validates incoming JWT tokens using the shared HMAC-SHA-256 signing key.
  *
  * This service only validates, it never issues tokens.
  * The signing key must match the one used by the main gym-crm service (${jwt.secret}).
+ * Operator tokens carry a {@code roles} claim (e.g. {@code ["WORKLOAD_ADMIN"]}) for the
+ * maintenance endpoints; gym-crm's user tokens have none.
  */
 @Component
 public class JwtTokenValidator {
 
+    static final String ROLES_CLAIM = "roles";
+
     private static final Logger log = LoggerFactory.getLogger(JwtTokenValidator.class);
 
     private final SecretKey signingKey;
@@ -59,6 +64,21 @@ public class JwtTokenValidator {
         return parseClaims(token).getSubject();
     }
 
+    /**
+     * Extracts the {@code roles} claim from a valid token; empty when the token has none.
+     * Entries that are not strings are ignored.
+     */
+    public List<String> getRoles(String token) {
+        Object roles = parseClaims(token).get(ROLES_CLAIM);
+        if (!(roles instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .toList();
+    }
+
     // -------------------------------------------------------------------------
 
     private Claims parseClaims(String token) {
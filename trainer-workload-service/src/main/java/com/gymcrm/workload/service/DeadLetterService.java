@@ -0,0 +1,96 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.document.DeadLetterDocument;
+import com.gymcrm.workload.dto.DeadLetterFilter;
+import com.gymcrm.workload.dto.DeadLetterResponse;
+import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.messaging.WorkloadEventCodec;
+import com.gymcrm.workload.repository.DeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores and serves dead-lettered workload messages.
+ *
+ * <p>Every stored dead letter is counted in {@code workload.dlq.received}, tagged with its lane
+ * and whether it had been replayed before ({@code replayed=true} means a replay failed again),
+ * which is what DLQ alerts should be built on.
+ */
+@Service
+public class DeadLetterService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterService.class);
+
+    private final DeadLetterRepository repository;
+    private final MeterRegistry meterRegistry;
+
+    public DeadLetterService(DeadLetterRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Stores a dead letter; {@code replayedEntryId} is the entry it was replayed from, if any.
+     * Failures propagate so the message is not acknowledged.
+     */
+    public DeadLetterDocument record(DeadLetterDocument deadLetter, String replayedEntryId) {
+        DeadLetterDocument stored = repository.record(deadLetter, replayedEntryId);
+        Counter.builder("workload.dlq.received")
+                .description("Dead-lettered workload messages stored for replay")
+                .tag("lane", deadLetter.getLane() == null ? "unknown" : deadLetter.getLane().toLowerCase())
+                .tag("replayed", Boolean.toString(replayedEntryId != null))
+                .register(meterRegistry)
+                .increment();
+        log.warn("[WORKLOAD-DLQ] stored dead letter id={} messageId={} trainer={} failures={}",
+                stored.getId(), stored.getMessageId(), stored.getTrainerUsername(), stored.getFailureCount());
+        return stored;
+    }
+
+    public List<DeadLetterResponse> list(DeadLetterFilter filter, int page, int size) {
+        return repository.find(filter, page, size).stream().map(DeadLetterService::toResponse).toList();
+    }
+
+    public long count(DeadLetterFilter filter) {
+        return repository.count(filter);
+    }
+
+    public Optional<DeadLetterResponse> get(String id) {
+        return repository.findById(id).map(DeadLetterService::toResponse);
+    }
+
+    static DeadLetterResponse toResponse(DeadLetterDocument deadLetter) {
+        return new DeadLetterResponse(deadLetter.getId(), deadLetter.getMessageId(), deadLetter.getStatus(),
+                deadLetter.getDeadLetterQueue(), deadLetter.getOriginalQueue(), deadLetter.getLane(),
+                deadLetter.getTransactionId(), deadLetter.getTrainerUsername(), deadLetter.getEventId(),
+                valueOrZero(deadLetter.getFailureCount()), deadLetter.getDeliveryCount(), deadLetter.getFailureCause(),
+                deadLetter.getHeaders(), body(deadLetter), deadLetter.getFirstDeadLetteredAt(),
+                deadLetter.getLastDeadLetteredAt(), deadLetter.getReplayedAt(), valueOrZero(deadLetter.getReplayCount()));
+    }
+
+    private static String body(DeadLetterDocument deadLetter) {
+        if (deadLetter.getText() != null) {
+            return deadLetter.getText();
+        }
+        if (deadLetter.getBytes() == null) {
+            return null;
+        }
+        try {
+            WorkloadRequest request = WorkloadEventCodec.decode(deadLetter.getBytes());
+            return "[binary v1: trainer=" + request.getTrainerUsername() + ", action=" + request.getActionType()
+                    + ", date=" + request.getTrainingDate() + ", duration=" + request.getTrainingDuration()
+                    + ", eventId=" + request.getEventId() + "]";
+        } catch (IllegalArgumentException e) {
+            return "[binary payload: " + deadLetter.getBytes().length + " bytes]";
+        }
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,73 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.repository.ArchivePage;
+import com.gymcrm.workload.repository.TrainerWorkloadBucketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Year;
+
+/**
+ * Moves year buckets older than {@code workload.bucket.archive.retain-years} to the archive
+ * collection, keeping the hot collection down to recent years. Archived years still appear in
+ * summaries. Runs only with {@code workload.storage=bucket}; safe to run on every instance.
+ */
+@Component
+@ConditionalOnProperty(name = "workload.storage", havingValue = WorkloadService.BUCKET_STORAGE)
+public class WorkloadBucketArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadBucketArchiver.class);
+
+    /** Pages in a row whose buckets were all written during the move before the run gives up until tomorrow. */
+    private static final int MAX_IDLE_PAGES = 3;
+
+    private final TrainerWorkloadBucketRepository bucketRepository;
+    private final Clock clock;
+    private final int retainYears;
+    private final int batchSize;
+
+    @Autowired
+    public WorkloadBucketArchiver(TrainerWorkloadBucketRepository bucketRepository,
+                                  @Value("${workload.bucket.archive.retain-years:2}") int retainYears,
+                                  @Value("${workload.bucket.archive.batch-size:500}") int batchSize) {
+        this(bucketRepository, Clock.systemDefaultZone(), retainYears, batchSize);
+    }
+
+    WorkloadBucketArchiver(TrainerWorkloadBucketRepository bucketRepository, Clock clock,
+                           int retainYears, int batchSize) {
+        this.bucketRepository = bucketRepository;
+        this.clock = clock;
+        this.retainYears = retainYears;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the number of buckets moved. Pages are read until no old bucket is left; a page
+     * that moves nothing because every bucket in it was written meanwhile is read again.
+     */
+    @Scheduled(cron = "${workload.bucket.archive.cron:0 30 3 * * *}")
+    public int archiveOldYears() {
+        int beforeYear = Year.now(clock).getValue() - retainYears + 1;
+        int total = 0;
+        int idlePages = 0;
+        ArchivePage page;
+        do {
+            page = bucketRepository.archiveBefore(beforeYear, batchSize);
+            total += page.moved();
+            idlePages = page.moved() > 0 ? 0 : idlePages + 1;
+            if (page.found() > 0 && idlePages == MAX_IDLE_PAGES) {
+                log.warn("[WORKLOAD-BUCKET] archive run stopped: {} buckets before {} kept changing during the move",
+                        page.found(), beforeYear);
+                break;
+            }
+        } while (page.found() > 0);
+        log.info("[WORKLOAD-BUCKET] archive run finished: {} buckets before {} moved", total, beforeYear);
+        return total;
+    }
+}
@@ -0,0 +1,117 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.document.WorkloadEventLogEntry;
+import com.gymcrm.workload.document.WorkloadEventLogEntry.Kind;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.WorkloadDelta;
+import com.gymcrm.workload.repository.WorkloadEventLogRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appends every accepted workload event to the raw event log ({@link WorkloadEventLogEntry})
+ * before {@link WorkloadService} applies it.
+ *
+ * <p>Appending first means an event is never in {@code trainer_workload} without being in the
+ * log: a failed append fails the event, which is then redelivered. The reverse is possible — an
+ * event logged but not applied, or a redelivery logged twice — so replay deduplicates by event ID.
+ *
+ * <p>Off unless {@code workload.event-log.enabled=true}: the append is an extra round trip on
+ * every event. Projections cannot be rebuilt from the log while it is off.
+ */
+@Service
+public class WorkloadEventLog {
+
+    private final WorkloadEventLogRepository logRepository;
+    private final boolean enabled;
+
+    public WorkloadEventLog(WorkloadEventLogRepository logRepository,
+                            @Value("${workload.event-log.enabled:false}") boolean enabled) {
+        this.logRepository = logRepository;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void createCollection() {
+        if (enabled) {
+            logRepository.createCollectionIfMissing();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Logs the deltas of one message or batch, unfolded, as one insert. */
+    public void appendDeltas(Collection<WorkloadDelta> deltas) {
+        if (!enabled || deltas.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        logRepository.append(deltas.stream().map(delta -> deltaEntry(delta, now)).toList());
+    }
+
+    public void appendProfile(TrainerProfile profile) {
+        if (!enabled) {
+            return;
+        }
+        WorkloadEventLogEntry entry = entry(profile.trainerUsername(), Kind.PROFILE, Instant.now());
+        entry.setFirstName(profile.firstName());
+        entry.setLastName(profile.lastName());
+        entry.setActive(profile.active());
+        logRepository.append(List.of(entry));
+    }
+
+    /**
+     * Logs a {@link Kind#SNAPSHOT} of each document as it is, in map-keyed layout; v1 documents
+     * are converted in memory. Replay of a trainer starts over from their latest snapshot.
+     */
+    public void appendSnapshots(Collection<TrainerWorkloadDocument> documents) {
+        if (!enabled || documents.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        logRepository.append(documents.stream().map(document -> snapshotEntry(document, now)).toList());
+    }
+
+    private static WorkloadEventLogEntry snapshotEntry(TrainerWorkloadDocument document, Instant recordedAt) {
+        if (document.isLegacyLayout()) {
+            document.migrateToMapLayout();
+        }
+        WorkloadEventLogEntry entry = entry(document.getTrainerUsername(), Kind.SNAPSHOT, recordedAt);
+        entry.setTotals(document.getTotals());
+        entry.setRecentEventIds(document.getRecentEventIds());
+        entry.setFirstName(document.getFirstName());
+        entry.setLastName(document.getLastName());
+        entry.setActive(document.getActive());
+        return entry;
+    }
+
+    private static WorkloadEventLogEntry deltaEntry(WorkloadDelta delta, Instant recordedAt) {
+        WorkloadEventLogEntry entry = entry(delta.trainerUsername(), Kind.DELTA, recordedAt);
+        entry.setYear(delta.year());
+        entry.setMonth(delta.month());
+        entry.setMinutes(delta.minutes());
+        entry.setEventId(delta.eventIds().isEmpty() ? null : delta.eventIds().get(0));
+        if (delta.hasProfile()) {
+            entry.setFirstName(delta.firstName());
+            entry.setLastName(delta.lastName());
+            entry.setActive(delta.active());
+        }
+        return entry;
+    }
+
+    private static WorkloadEventLogEntry entry(String trainerUsername, Kind kind, Instant recordedAt) {
+        WorkloadEventLogEntry entry = new WorkloadEventLogEntry();
+        entry.setTrainerUsername(trainerUsername);
+        entry.setKind(kind);
+        entry.setRecordedAt(recordedAt);
+        return entry;
+    }
+}
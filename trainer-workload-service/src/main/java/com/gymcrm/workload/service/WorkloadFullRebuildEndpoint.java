@@ -0,0 +1,25 @@
+package com.gymcrm.workload.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/workloadrebuild}: state and progress of the running or last
+ * {@link WorkloadFullRebuilder full rebuild}.
+ */
+@Component
+@Endpoint(id = "workloadrebuild")
+public class WorkloadFullRebuildEndpoint {
+
+    private final WorkloadFullRebuilder rebuilder;
+
+    public WorkloadFullRebuildEndpoint(WorkloadFullRebuilder rebuilder) {
+        this.rebuilder = rebuilder;
+    }
+
+    @ReadOperation
+    public WorkloadFullRebuilder.Status status() {
+        return rebuilder.status();
+    }
+}
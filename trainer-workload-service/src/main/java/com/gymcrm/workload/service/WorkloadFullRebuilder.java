@@ -0,0 +1,310 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.client.GymCrmExportClient;
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.dto.TrainerMonthExportRow;
+import com.gymcrm.workload.repository.TrainerWorkloadShadowRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds all of {@code trainer_workload} from gym-crm's trainings, the source of truth,
+ * instead of replaying events one by one.
+ *
+ * <p>gym-crm splits its trainers into {@code chunks} username ranges and exports each range as
+ * per-trainer, per-month totals aggregated in SQL. The ranges are streamed {@code parallelism}
+ * at a time, folded into one document per trainer and bulk-inserted into the
+ * {@link TrainerWorkloadShadowRepository shadow collection}, which has no indexes while it is
+ * loaded. The indexes are built once at the end, the live dedup rings are copied over and the
+ * shadow is renamed over {@code trainer_workload} in one step. Afterwards the rollups are
+ * rebuilt, the summary cache is cleared and, with the event log enabled, every new document is
+ * snapshotted into the log so replay starts from the rebuilt state.
+ *
+ * <p>Events applied while the shadow is loaded may be missing from it or counted twice, so run
+ * a rebuild while consumers are idle or paused, like a rollup rebuild. One rebuild runs at a
+ * time per instance; progress is exposed by {@link #status()}, {@code GET /actuator/workloadrebuild}
+ * and {@code workload.full-rebuild.*} meters. Needs {@code document} storage.
+ */
+@Service
+public class WorkloadFullRebuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadFullRebuilder.class);
+
+    public enum State { IDLE, LOADING, INDEXING, SWAPPING, COMPLETED, FAILED }
+
+    public record Status(State state, Instant startedAt, Instant finishedAt, int chunks, int chunksDone,
+                         long trainers, long rows, double rowsPerSecond, String error) {}
+
+    private final GymCrmExportClient exportClient;
+    private final TrainerWorkloadShadowRepository shadowRepository;
+    private final WorkloadRollupService rollups;
+    private final WorkloadSummaryCache summaryCache;
+    private final WorkloadEventLog eventLog;
+    private final WorkloadProjectionRebuilder projectionRebuilder;
+    private final MeterRegistry meterRegistry;
+    private final int chunks;
+    private final int parallelism;
+    private final int batchSize;
+    private final boolean bucketStorage;
+    private final Counter rowsCounter;
+    private final Counter trainersCounter;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger chunksDone = new AtomicInteger();
+    private final AtomicLong trainersLoaded = new AtomicLong();
+    private final AtomicLong rowsLoaded = new AtomicLong();
+    private volatile State state = State.IDLE;
+    private volatile int chunksTotal;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public WorkloadFullRebuilder(GymCrmExportClient exportClient,
+                                 TrainerWorkloadShadowRepository shadowRepository,
+                                 WorkloadRollupService rollups,
+                                 WorkloadSummaryCache summaryCache,
+                                 WorkloadEventLog eventLog,
+                                 WorkloadProjectionRebuilder projectionRebuilder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${workload.full-rebuild.chunks:32}") int chunks,
+                                 @Value("${workload.full-rebuild.parallelism:8}") int parallelism,
+                                 @Value("${workload.full-rebuild.batch-size:1000}") int batchSize,
+                                 @Value("${workload.storage:document}") String storage) {
+        this.exportClient = exportClient;
+        this.shadowRepository = shadowRepository;
+        this.rollups = rollups;
+        this.summaryCache = summaryCache;
+        this.eventLog = eventLog;
+        this.projectionRebuilder = projectionRebuilder;
+        this.meterRegistry = meterRegistry;
+        this.chunks = chunks;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.bucketStorage = WorkloadService.BUCKET_STORAGE.equalsIgnoreCase(storage);
+        this.rowsCounter = Counter.builder("workload.full-rebuild.rows")
+                .description("Monthly total rows read from the gym-crm export by full rebuilds")
+                .register(meterRegistry);
+        this.trainersCounter = Counter.builder("workload.full-rebuild.trainers")
+                .description("Trainer documents written to the shadow collection by full rebuilds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a rebuild in the background, exporting with the caller's {@code Authorization}
+     * header, and returns its initial status.
+     *
+     * @throws IllegalStateException when a rebuild is already running
+     */
+    public Status start(String authorization) {
+        if (bucketStorage) {
+            throw new UnsupportedOperationException("Full rebuild requires workload.storage=document");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A full rebuild is already running");
+        }
+        chunksDone.set(0);
+        trainersLoaded.set(0);
+        rowsLoaded.set(0);
+        chunksTotal = 0;
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        state = State.LOADING;
+
+        Thread worker = new Thread(() -> run(authorization), "workload-full-rebuild");
+        worker.setDaemon(true);
+        worker.start();
+        return status();
+    }
+
+    public Status status() {
+        Instant start = startedAt;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long rows = rowsLoaded.get();
+        double seconds = start == null ? 0 : Duration.between(start, end).toMillis() / 1000.0;
+        return new Status(state, start, finishedAt, chunksTotal, chunksDone.get(), trainersLoaded.get(), rows,
+                seconds > 0 ? rows / seconds : 0, error);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    void run(String authorization) {
+        long begin = System.nanoTime();
+        String result = "completed";
+        try {
+            List<String> boundaries = exportClient.fetchRangeBoundaries(chunks, authorization);
+            shadowRepository.recreate();
+            load(ranges(boundaries), authorization);
+
+            state = State.INDEXING;
+            shadowRepository.createIndexes();
+
+            state = State.SWAPPING;
+            shadowRepository.copyRecentEventIds();
+            shadowRepository.swap();
+            summaryCache.invalidateAll();
+            rollups.rebuild();
+            if (eventLog.isEnabled()) {
+                projectionRebuilder.seed();
+            }
+            state = State.COMPLETED;
+            log.info("[WORKLOAD-REBUILD] completed trainers={} rows={} in {} ms",
+                    trainersLoaded.get(), rowsLoaded.get(), Duration.ofNanos(System.nanoTime() - begin).toMillis());
+        } catch (Exception e) {
+            result = "failed";
+            log.error("[WORKLOAD-REBUILD] failed while {} after {} of {} chunks", state, chunksDone.get(), chunksTotal, e);
+            error = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            finishedAt = Instant.now();
+            Timer.builder("workload.full-rebuild.duration")
+                    .description("Duration of full rebuilds from gym-crm")
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - begin));
+            running.set(false);
+        }
+    }
+
+    /** Consecutive [from, to) ranges covering every username; the last one is open-ended. */
+    static List<String[]> ranges(List<String> boundaries) {
+        List<String[]> ranges = new ArrayList<>();
+        if (boundaries.isEmpty()) {
+            ranges.add(new String[] {"", null});
+            return ranges;
+        }
+        for (int i = 0; i < boundaries.size(); i++) {
+            String from = i == 0 ? "" : boundaries.get(i);
+            String to = i + 1 < boundaries.size() ? boundaries.get(i + 1) : null;
+            ranges.add(new String[] {from, to});
+        }
+        return ranges;
+    }
+
+    private void load(List<String[]> ranges, String authorization) throws InterruptedException {
+        chunksTotal = ranges.size();
+        log.info("[WORKLOAD-REBUILD] loading chunks={} parallelism={}", ranges.size(), parallelism);
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                task -> new Thread(task, "workload-full-rebuild-" + threads.incrementAndGet()));
+        try {
+            List<Future<?>> results = new ArrayList<>(ranges.size());
+            for (String[] range : ranges) {
+                results.add(executor.submit(() -> loadChunk(range[0], range[1], authorization, aborted)));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    aborted.set(true);
+                    throw new IllegalStateException("Loading a chunk failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void loadChunk(String from, String to, String authorization, AtomicBoolean aborted) {
+        if (aborted.get()) {
+            return;
+        }
+        ChunkLoader loader = new ChunkLoader(aborted);
+        exportClient.streamMonthlyTotals(from, to, authorization, loader);
+        loader.finish();
+        chunksDone.incrementAndGet();
+        log.debug("[WORKLOAD-REBUILD] chunk [{}, {}) loaded", from, to);
+    }
+
+    /** Folds one range's rows, which arrive grouped by trainer, into documents and inserts them in batches. */
+    private final class ChunkLoader implements Consumer<TrainerMonthExportRow> {
+
+        private final AtomicBoolean aborted;
+        private final List<TrainerWorkloadDocument> batch = new ArrayList<>(batchSize);
+        private TrainerWorkloadDocument current;
+
+        ChunkLoader(AtomicBoolean aborted) {
+            this.aborted = aborted;
+        }
+
+        @Override
+        public void accept(TrainerMonthExportRow row) {
+            if (aborted.get()) {
+                throw new CancellationException("Full rebuild aborted");
+            }
+            if (current == null || !current.getTrainerUsername().equals(row.trainerUsername())) {
+                completeTrainer();
+                current = document(row);
+            }
+            if (row.hasMonth()) {
+                current.getTotals()
+                        .computeIfAbsent(TrainerWorkloadDocument.yearKey(row.year()), k -> new TreeMap<>())
+                        .put(TrainerWorkloadDocument.monthKey(row.month()), Math.toIntExact(row.minutes()));
+            }
+            rowsLoaded.incrementAndGet();
+            rowsCounter.increment();
+        }
+
+        void finish() {
+            completeTrainer();
+            flush();
+        }
+
+        private void completeTrainer() {
+            if (current == null) {
+                return;
+            }
+            batch.add(current);
+            current = null;
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            shadowRepository.insert(batch);
+            trainersLoaded.addAndGet(batch.size());
+            trainersCounter.increment(batch.size());
+            batch.clear();
+        }
+    }
+
+    private static TrainerWorkloadDocument document(TrainerMonthExportRow row) {
+        TrainerWorkloadDocument document = new TrainerWorkloadDocument();
+        document.setTrainerUsername(row.trainerUsername());
+        document.setFirstName(row.firstName());
+        document.setLastName(row.lastName());
+        document.setActive(row.isActive());
+        document.setSchemaVersion(TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+        document.setUpdatedAt(Instant.now());
+        document.setVersion(0L);
+        return document;
+    }
+}
@@ -0,0 +1,330 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory buffer behind POST /api/workload in {@code async} ingestion mode
+ * ({@code workload.ingest.mode=async}).
+ *
+ * <p>The request thread only validates and {@link #offer}s the events; a writer thread drains
+ * up to {@code batch-size} of them, waiting at most {@code linger-ms} after the first, and
+ * applies them with {@link WorkloadService#processBatch(List)}, which folds them into one
+ * net delta per (trainer, year, month) and writes them with one bulk write. Tomcat threads
+ * therefore never wait on MongoDB, and a burst of events for few trainers costs few writes.
+ *
+ * <p>Back-pressure: a request whose events do not all fit is rejected as a whole with
+ * {@link Admission#FULL}; while the writer's last flush failed, or during shutdown, every
+ * request gets {@link Admission#UNAVAILABLE}. A failed flush is retried every
+ * {@code retry-backoff} with the same events, which the event-ID check makes safe.
+ * MongoDB being unreachable ({@link TransientDataAccessException},
+ * {@link DataAccessResourceFailureException}) is waited out indefinitely. Any other failure is
+ * blamed on the events: after {@code max-retries} failed flushes the batch is applied one
+ * event at a time, and an event that fails on its own is dropped and counted as
+ * {@code result=poisoned}, so one bad event cannot keep the endpoint unavailable.
+ *
+ * <p>Accepted events live in memory only. On shutdown the writer drains the buffer for up to
+ * {@code drain-timeout}; a batch that fails then is dropped rather than retried, and events
+ * still buffered afterwards, or when the instance dies, are lost. Senders that need
+ * stronger guarantees use the JMS queue.
+ */
+@Component
+@ConditionalOnProperty(name = "workload.ingest.mode", havingValue = "async")
+public class WorkloadIngestBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadIngestBuffer.class);
+
+    /** How long an idle writer blocks waiting for the first event of a batch. */
+    private static final long IDLE_POLL_MS = 500L;
+
+    /** Result of {@link #offer}. */
+    public enum Admission {
+        ACCEPTED,
+        /** Not enough free capacity for all events of the request. */
+        FULL,
+        /** The writer is failing or shutting down. */
+        UNAVAILABLE
+    }
+
+    /** A buffered event and the acknowledgement ID of the request that carried it. */
+    private record Pending(String ackId, WorkloadRequest request) {
+    }
+
+    private final WorkloadService workloadService;
+    private final int capacity;
+    private final int batchSize;
+    private final long lingerMs;
+    private final Duration retryBackoff;
+    private final int maxRetries;
+    private final Duration drainTimeout;
+    private final BlockingQueue<Pending> buffer;
+
+    private final Counter accepted;
+    private final Counter rejectedFull;
+    private final Counter rejectedUnavailable;
+    private final Counter applied;
+    private final Counter dropped;
+    private final Counter poisoned;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile boolean writerHealthy = true;
+    private Thread writer;
+
+    public WorkloadIngestBuffer(WorkloadService workloadService,
+                                MeterRegistry meterRegistry,
+                                @Value("${workload.ingest.capacity:10000}") int capacity,
+                                @Value("${workload.ingest.batch-size:500}") int batchSize,
+                                @Value("${workload.ingest.linger-ms:100}") long lingerMs,
+                                @Value("${workload.ingest.retry-backoff:PT1S}") Duration retryBackoff,
+                                @Value("${workload.ingest.max-retries:5}") int maxRetries,
+                                @Value("${workload.ingest.drain-timeout:PT10S}") Duration drainTimeout) {
+        this.workloadService = workloadService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.retryBackoff = retryBackoff;
+        this.maxRetries = maxRetries;
+        this.drainTimeout = drainTimeout;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("workload.ingest.buffer.depth", buffer, BlockingQueue::size)
+                .description("Accepted workload events waiting to be written")
+                .register(meterRegistry);
+        this.accepted = events(meterRegistry, "accepted");
+        this.rejectedFull = events(meterRegistry, "rejected_full");
+        this.rejectedUnavailable = events(meterRegistry, "rejected_unavailable");
+        this.applied = events(meterRegistry, "applied");
+        this.dropped = events(meterRegistry, "dropped");
+        this.poisoned = events(meterRegistry, "poisoned");
+        this.flushFailures = Counter.builder("workload.ingest.flush.failures")
+                .description("Failed bulk writes of buffered workload events")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("workload.ingest.flush")
+                .description("Bulk write time per flushed batch of buffered workload events")
+                .register(meterRegistry);
+    }
+
+    private static Counter events(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("workload.ingest.events")
+                .tag("result", result)
+                .description("Workload events received over HTTP in async ingestion mode")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers all {@code requests} under {@code ackId}, or none of them. Never blocks. The
+     * writer only ever frees capacity, so checking it under this lock makes the call atomic
+     * with respect to other requests.
+     */
+    public synchronized Admission offer(String ackId, List<WorkloadRequest> requests) {
+        if (!running || !writerHealthy) {
+            rejectedUnavailable.increment(requests.size());
+            return Admission.UNAVAILABLE;
+        }
+        if (buffer.remainingCapacity() < requests.size()) {
+            rejectedFull.increment(requests.size());
+            return Admission.FULL;
+        }
+        requests.forEach(request -> buffer.add(new Pending(ackId, request)));
+        accepted.increment(requests.size());
+        return Admission.ACCEPTED;
+    }
+
+    /** Largest number of events a single request can ever have accepted. */
+    public int capacity() {
+        return capacity;
+    }
+
+    int depth() {
+        return buffer.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "workload-ingest-writer");
+        writer.start();
+        log.info("[WORKLOAD-INGEST] async ingestion started: capacity={}, batchSize={}, lingerMs={}",
+                capacity, batchSize, lingerMs);
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            writer.join(drainTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.warn("[WORKLOAD-INGEST] stopped with {} buffered events unwritten after {}", buffer.size(), drainTimeout);
+        }
+        log.info("[WORKLOAD-INGEST] async ingestion stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Runs until stopped and drained, or until {@link #stop()} interrupts it after {@code drain-timeout}. */
+    private void writeLoop() {
+        while ((running || !buffer.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+            try {
+                List<Pending> batch = drain();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Blocks for the first event, then collects more until the batch is full or the linger expires. */
+    private List<Pending> drain() throws InterruptedException {
+        Pending first = buffer.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<Pending> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        buffer.drainTo(batch, batchSize - 1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                break;
+            }
+            Pending next = buffer.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            buffer.drainTo(batch, batchSize - batch.size());
+        }
+        return batch;
+    }
+
+    /**
+     * Writes the batch, retrying while MongoDB is unreachable and up to {@code max-retries}
+     * times otherwise, then event by event; during shutdown a failed batch is dropped.
+     */
+    void flush(List<Pending> batch) throws InterruptedException {
+        List<WorkloadRequest> requests = batch.stream().map(Pending::request).toList();
+        int failures = 0;
+        while (true) {
+            RuntimeException failure = write(requests);
+            if (failure == null) {
+                log.debug("[WORKLOAD-INGEST] flushed events={} ackIds={}", requests.size(), ackIds(batch));
+                return;
+            }
+            if (!running) {
+                dropped.increment(requests.size());
+                log.error("[WORKLOAD-INGEST] dropped events={} ackIds={} after a failed flush during shutdown — " +
+                          "workload summaries may be stale", requests.size(), ackIds(batch), failure);
+                return;
+            }
+            if (!isTransient(failure) && ++failures >= maxRetries) {
+                log.warn("[WORKLOAD-INGEST] flush of {} events failed {} times — applying them one by one",
+                        requests.size(), failures, failure);
+                if (batch.size() == 1) {
+                    poison(batch.get(0), failure);
+                } else {
+                    for (Pending pending : batch) {
+                        flushAlone(pending);
+                    }
+                }
+                return;
+            }
+            log.warn("[WORKLOAD-INGEST] flush of {} events failed — rejecting new events, retrying in {}",
+                    requests.size(), retryBackoff, failure);
+            Thread.sleep(retryBackoff.toMillis());
+        }
+    }
+
+    /** Writes one event of a failed batch, waiting out MongoDB outages; any other failure drops it. */
+    private void flushAlone(Pending pending) throws InterruptedException {
+        while (true) {
+            RuntimeException failure = write(List.of(pending.request()));
+            if (failure == null) {
+                return;
+            }
+            if (!running) {
+                dropped.increment();
+                log.error("[WORKLOAD-INGEST] dropped event ackId={} after a failed flush during shutdown",
+                        pending.ackId(), failure);
+                return;
+            }
+            if (!isTransient(failure)) {
+                poison(pending, failure);
+                return;
+            }
+            Thread.sleep(retryBackoff.toMillis());
+        }
+    }
+
+    /** Applies the events; returns the failure, or null once they are written. */
+    private RuntimeException write(List<WorkloadRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            workloadService.processBatch(requests);
+        } catch (RuntimeException e) {
+            writerHealthy = false;
+            flushFailures.increment();
+            return e;
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        applied.increment(requests.size());
+        if (!writerHealthy) {
+            log.info("[WORKLOAD-INGEST] writer recovered — accepting events again");
+        }
+        writerHealthy = true;
+        return null;
+    }
+
+    private void poison(Pending pending, RuntimeException failure) {
+        WorkloadRequest request = pending.request();
+        poisoned.increment();
+        writerHealthy = true;
+        log.error("[WORKLOAD-INGEST] dropped event that cannot be written ackId={} trainer={} date={} action={} " +
+                  "duration={} eventId={} — resend it once fixed", pending.ackId(), request.getTrainerUsername(),
+                request.getTrainingDate(), request.getActionType(), request.getTrainingDuration(),
+                request.getEventId(), failure);
+    }
+
+    private static boolean isTransient(RuntimeException failure) {
+        return failure instanceof TransientDataAccessException || failure instanceof DataAccessResourceFailureException;
+    }
+
+    private static Set<String> ackIds(List<Pending> batch) {
+        Set<String> ackIds = new LinkedHashSet<>();
+        batch.forEach(pending -> ackIds.add(pending.ackId()));
+        return ackIds;
+    }
+}
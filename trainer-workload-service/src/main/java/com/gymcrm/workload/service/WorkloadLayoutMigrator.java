@@ -0,0 +1,103 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background migration of {@code trainer_workload} documents from the v1 list layout to the
+ * map-keyed layout.
+ *
+ * <p>Starts once the application is ready and walks the collection page by page on a single
+ * daemon thread, pausing between pages to keep the load on MongoDB low. Every page write is
+ * guarded by the documents' versions, so running it on several instances at once, or next to
+ * the consumers' on-write migration, is safe. Documents skipped because they changed mid-page
+ * are migrated by their next write or read, or by the next run.
+ *
+ * <p>Before the first page it also drops the v1 {@code idx_first_last_name} index, which the
+ * case-insensitive name search indexes replaced.
+ */
+@Component
+@ConditionalOnProperty(name = "workload.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkloadLayoutMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadLayoutMigrator.class);
+
+    private final TrainerWorkloadDocumentRepository repository;
+    private final int batchSize;
+    private final long pauseMs;
+    private final Counter pages;
+
+    private volatile boolean stopped;
+
+    public WorkloadLayoutMigrator(TrainerWorkloadDocumentRepository repository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${workload.migration.batch-size:500}") int batchSize,
+                                  @Value("${workload.migration.pause-ms:100}") long pauseMs) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        this.pages = Counter.builder("workload.migration.pages")
+                .description("Pages of v1 workload documents processed by the layout migrator")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread worker = new Thread(this::migrateAll, "workload-layout-migrator");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+    }
+
+    /** Returns the number of pages processed. */
+    int migrateAll() {
+        if (stopped) {
+            return 0;
+        }
+        dropLegacyIndex();
+        log.info("[WORKLOAD-MIGRATE] layout migration started, batchSize={}", batchSize);
+        int processed = 0;
+        String lastId = null;
+        try {
+            while (!stopped) {
+                lastId = repository.migrateLegacyLayouts(lastId, batchSize);
+                if (lastId == null) {
+                    break;
+                }
+                processed++;
+                pages.increment();
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("[WORKLOAD-MIGRATE] layout migration aborted after {} pages — remaining documents "
+                    + "are migrated on their next write or read", processed, e);
+            return processed;
+        }
+        log.info("[WORKLOAD-MIGRATE] layout migration finished after {} pages", processed);
+        return processed;
+    }
+
+    /** A failure here is logged and retried on the next start; it must not hold up the layout migration. */
+    private void dropLegacyIndex() {
+        try {
+            repository.dropLegacyNameIndex();
+        } catch (RuntimeException e) {
+            log.warn("[WORKLOAD-MIGRATE] could not drop the legacy name index, retrying on the next start", e);
+        }
+    }
+}
@@ -1,24 +1,29 @@
 package com.gymcrm.workload.service;
 
 import com.gymcrm.workload.document.TrainerWorkloadDocument;
-import com.gymcrm.workload.document.TrainerWorkloadDocument.MonthEntry;
-import com.gymcrm.workload.document.TrainerWorkloadDocument.YearEntry;
+import com.gymcrm.workload.document.TrainerWorkloadYearBucket;
 import com.gymcrm.workload.dto.WorkloadSummaryResponse;
+import com.gymcrm.workload.repository.WorkloadRange;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  *mapper between {@link TrainerWorkloadDocument} and {@link WorkloadSummaryResponse}.
+ * Expects the map-keyed layout, whose sorted keys already give calendar order.
  */
 class WorkloadMapper {
 
     private WorkloadMapper() {}
 
     static WorkloadSummaryResponse toSummaryResponse(TrainerWorkloadDocument doc) {
-        List<WorkloadSummaryResponse.YearSummary> yearSummaries = doc.getYears().stream()
-                .sorted(Comparator.comparingInt(YearEntry::getYear))
+        List<WorkloadSummaryResponse.YearSummary> yearSummaries = doc.getTotals().entrySet().stream()
                 .map(WorkloadMapper::toYearSummary)
                 .toList();
 
@@ -28,22 +33,87 @@ class WorkloadMapper {
         response.setLastName(doc.getLastName());
         response.setTrainerStatus(doc.getActive());
         response.setYears(yearSummaries);
+        response.setTotalDuration(totalOf(yearSummaries));
         return response;
     }
 
+    /**
+     * Copy of {@code summary} restricted to {@code range}, with totals recomputed. Years left
+     * without months are dropped.
+     */
+    static WorkloadSummaryResponse slice(WorkloadSummaryResponse summary, WorkloadRange range) {
+        List<WorkloadSummaryResponse.YearSummary> years = summary.getYears().stream()
+                .filter(year -> range.includesYear(year.year()))
+                .map(year -> new WorkloadSummaryResponse.YearSummary(year.year(), year.months().stream()
+                        .filter(month -> range.includesMonth(month.month()))
+                        .toList()))
+                .filter(year -> !year.months().isEmpty())
+                .toList();
+
+        WorkloadSummaryResponse response = new WorkloadSummaryResponse();
+        response.setTrainerUsername(summary.getTrainerUsername());
+        response.setFirstName(summary.getFirstName());
+        response.setLastName(summary.getLastName());
+        response.setTrainerStatus(summary.getTrainerStatus());
+        response.setYears(years);
+        response.setTotalDuration(totalOf(years));
+        return response;
+    }
+
+    /**
+     * Assembles a summary from year buckets. A bucket found both hot and archived (copied but
+     * not yet deleted) counts once, from the hot copy; distinct buckets of the same year
+     * (an event that arrived after its year was archived) are summed. Profile fields come
+     * from the most recently updated bucket.
+     */
+    static WorkloadSummaryResponse fromBuckets(String trainerUsername, List<TrainerWorkloadYearBucket> buckets) {
+        if (buckets.isEmpty()) {
+            return emptyResponse(trainerUsername);
+        }
+        Map<String, TrainerWorkloadYearBucket> byId = new LinkedHashMap<>();
+        for (TrainerWorkloadYearBucket bucket : buckets) {
+            byId.merge(bucket.getId(), bucket, (kept, other) -> kept.isArchived() ? other : kept);
+        }
+
+        TrainerWorkloadDocument merged = new TrainerWorkloadDocument();
+        merged.setTrainerUsername(trainerUsername);
+        for (TrainerWorkloadYearBucket bucket : byId.values()) {
+            SortedMap<String, Integer> months = merged.getTotals()
+                    .computeIfAbsent(TrainerWorkloadDocument.yearKey(bucket.getYear()), k -> new TreeMap<>());
+            bucket.getMonths().forEach((month, minutes) -> months.merge(month, minutes, Integer::sum));
+        }
+
+        // Buckets opened by slim events carry no profile; take it from the latest one that has it.
+        TrainerWorkloadYearBucket latest = byId.values().stream()
+                .filter(bucket -> bucket.getFirstName() != null || bucket.getActive() != null)
+                .max(Comparator.comparing(TrainerWorkloadYearBucket::getUpdatedAt,
+                        Comparator.nullsFirst(Comparator.<Instant>naturalOrder())))
+                .orElse(null);
+        if (latest != null) {
+            merged.setFirstName(latest.getFirstName());
+            merged.setLastName(latest.getLastName());
+            merged.setActive(latest.getActive());
+        }
+        return toSummaryResponse(merged);
+    }
+
     static WorkloadSummaryResponse emptyResponse(String trainerUsername) {
         WorkloadSummaryResponse response = new WorkloadSummaryResponse();
         response.setTrainerUsername(trainerUsername);
         response.setYears(Collections.emptyList());
+        response.setTotalDuration(0);
         return response;
     }
 
-    private static WorkloadSummaryResponse.YearSummary toYearSummary(YearEntry yearEntry) {
-        List<WorkloadSummaryResponse.MonthSummary> months = yearEntry.getMonths().stream()
-                .sorted(Comparator.comparingInt(MonthEntry::getMonth))
-                .map(m -> new WorkloadSummaryResponse.MonthSummary(m.getMonth(), m.getTrainingSummaryDuration()))
+    private static int totalOf(List<WorkloadSummaryResponse.YearSummary> years) {
+        return years.stream().mapToInt(WorkloadSummaryResponse.YearSummary::totalDuration).sum();
+    }
+
+    private static WorkloadSummaryResponse.YearSummary toYearSummary(Map.Entry<String, SortedMap<String, Integer>> year) {
+        List<WorkloadSummaryResponse.MonthSummary> months = year.getValue().entrySet().stream()
+                .map(m -> new WorkloadSummaryResponse.MonthSummary(Integer.valueOf(m.getKey()), m.getValue()))
                 .toList();
 
-        return new WorkloadSummaryResponse.YearSummary(yearEntry.getYear(), months);
+        return new WorkloadSummaryResponse.YearSummary(Integer.valueOf(year.getKey()), months);
     }
 }
@@ -0,0 +1,267 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.document.WorkloadEventLogEntry;
+import com.gymcrm.workload.dto.ProjectionRebuildResponse;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadEventLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds {@code trainer_workload} documents, which are projections of the
+ * {@link WorkloadEventLog}, by replaying a trainer's log entries in the order they were recorded.
+ *
+ * <p>Replay applies the same rules as the live write path: DELTA entries are floored at 0 one
+ * by one, an event ID already replayed is skipped (the log keeps redeliveries), the latest
+ * entry carrying profile fields supplies the profile, and a SNAPSHOT entry replaces everything
+ * before it. The rebuilt document keeps the newest replayed event IDs as its ring.
+ *
+ * <p>A rebuild reads the document's version before the log and writes only if the version is
+ * unchanged. Events are logged before they are applied, so an event missing from the replay
+ * has not been applied yet either, and one applied since bumps the version; the rebuild is
+ * then retried. It is safe while consumers run.
+ *
+ * <p>The changes of every rebuilt month are passed to the monthly rollups and the trainer's
+ * cached summary is dropped. Trainers without log entries are left alone; seed the log with
+ * {@link #seed()} first so trainers whose history predates it can be rebuilt. Needs
+ * {@code document} storage.
+ */
+@Service
+public class WorkloadProjectionRebuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadProjectionRebuilder.class);
+
+    /** A trainer can only keep receiving events for so long while its log is replayed. */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private final WorkloadEventLogRepository logRepository;
+    private final TrainerWorkloadDocumentRepository repository;
+    private final WorkloadEventLog eventLog;
+    private final WorkloadSummaryCache summaryCache;
+    private final WorkloadRollupService rollups;
+    private final int parallelism;
+    private final boolean bucketStorage;
+
+    public WorkloadProjectionRebuilder(WorkloadEventLogRepository logRepository,
+                                       TrainerWorkloadDocumentRepository repository,
+                                       WorkloadEventLog eventLog,
+                                       WorkloadSummaryCache summaryCache,
+                                       WorkloadRollupService rollups,
+                                       @Value("${workload.event-log.rebuild.parallelism:4}") int parallelism,
+                                       @Value("${workload.storage:document}") String storage) {
+        this.logRepository = logRepository;
+        this.repository = repository;
+        this.eventLog = eventLog;
+        this.summaryCache = summaryCache;
+        this.rollups = rollups;
+        this.parallelism = parallelism;
+        this.bucketStorage = WorkloadService.BUCKET_STORAGE.equalsIgnoreCase(storage);
+    }
+
+    /** Rebuilds one trainer; {@code trainers} is 0 when the log holds nothing for them. */
+    public ProjectionRebuildResponse rebuildTrainer(String trainerUsername) {
+        requireSupported();
+        long entries = rebuild(trainerUsername);
+        log.info("[WORKLOAD-PROJECTION] rebuilt trainer={} entries={}", trainerUsername, entries);
+        return new ProjectionRebuildResponse(entries > 0 ? 1 : 0, entries, 0);
+    }
+
+    /**
+     * Rebuilds every trainer in the log, {@code parallelism} trainers at a time. A trainer whose
+     * rebuild fails is logged and counted, and the others go on.
+     */
+    public ProjectionRebuildResponse rebuildAll() {
+        requireSupported();
+        List<String> trainers = logRepository.findTrainerUsernames();
+        log.info("[WORKLOAD-PROJECTION] rebuild started trainers={} parallelism={}", trainers.size(), parallelism);
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                task -> new Thread(task, "workload-projection-rebuild-" + threads.incrementAndGet()));
+        try {
+            List<Future<Long>> results = new ArrayList<>(trainers.size());
+            trainers.forEach(trainer -> results.add(executor.submit(() -> rebuild(trainer))));
+
+            int rebuilt = 0;
+            int failed = 0;
+            long entries = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    long replayed = results.get(i).get();
+                    entries += replayed;
+                    rebuilt += replayed > 0 ? 1 : 0;
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("[WORKLOAD-PROJECTION] rebuild failed trainer={}", trainers.get(i), e.getCause());
+                }
+            }
+            log.info("[WORKLOAD-PROJECTION] rebuild finished trainers={} entries={} failed={}", rebuilt, entries, failed);
+            return new ProjectionRebuildResponse(rebuilt, entries, failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Projection rebuild interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Appends a snapshot of every trainer document to the log. A snapshot taken between an
+     * event's append and its write misses that event on replay, so seed while consumers are
+     * idle or paused — typically once, when the log is introduced.
+     */
+    public ProjectionRebuildResponse seed() {
+        requireSupported();
+        int seeded = 0;
+        try (Stream<TrainerWorkloadDocument> documents = repository.streamAllBy()) {
+            Iterator<TrainerWorkloadDocument> iterator = documents.iterator();
+            List<TrainerWorkloadDocument> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == SEED_BATCH_SIZE || !iterator.hasNext()) {
+                    eventLog.appendSnapshots(batch);
+                    seeded += batch.size();
+                    batch = new ArrayList<>(SEED_BATCH_SIZE);
+                }
+            }
+        }
+        log.info("[WORKLOAD-PROJECTION] seeded event log with {} trainer snapshots", seeded);
+        return new ProjectionRebuildResponse(seeded, seeded, 0);
+    }
+
+    /** Returns the number of entries replayed, or 0 when the trainer has none and nothing was written. */
+    private long rebuild(String trainerUsername) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            TrainerWorkloadDocument current = repository.findByTrainerUsername(trainerUsername).orElse(null);
+            Projection projection = new Projection();
+            try (Stream<WorkloadEventLogEntry> entries = logRepository.streamTrainer(trainerUsername)) {
+                entries.forEach(projection::apply);
+            }
+            if (projection.entries == 0) {
+                return 0;
+            }
+            if (repository.replaceProjection(trainerUsername, projection.totals, projection.profile,
+                    List.copyOf(projection.ring), current == null ? null : current.getVersion())) {
+                summaryCache.invalidate(trainerUsername);
+                rollups.record(monthChanges(trainerUsername, current, projection.totals));
+                return projection.entries;
+            }
+            log.debug("[WORKLOAD-PROJECTION] trainer={} changed during replay attempt={}", trainerUsername, attempt);
+        }
+        throw new OptimisticLockingFailureException(
+                "Could not rebuild trainer " + trainerUsername + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private void requireSupported() {
+        if (bucketStorage) {
+            throw new UnsupportedOperationException("Projection rebuild requires workload.storage=document");
+        }
+        if (!eventLog.isEnabled()) {
+            throw new UnsupportedOperationException("Projection rebuild requires workload.event-log.enabled=true");
+        }
+    }
+
+    /** One change per month whose total differs between the stored document and the rebuilt one. */
+    static List<MonthChange> monthChanges(String trainerUsername, TrainerWorkloadDocument current,
+                                                  SortedMap<String, SortedMap<String, Integer>> rebuilt) {
+        if (current != null && current.isLegacyLayout()) {
+            current.migrateToMapLayout();
+        }
+        Map<String, SortedMap<String, Integer>> before = current == null ? Map.of() : current.getTotals();
+        Set<String> years = new TreeSet<>(before.keySet());
+        years.addAll(rebuilt.keySet());
+
+        List<MonthChange> changes = new ArrayList<>();
+        for (String year : years) {
+            Map<String, Integer> monthsBefore = before.getOrDefault(year, new TreeMap<>());
+            Map<String, Integer> monthsAfter = rebuilt.getOrDefault(year, new TreeMap<>());
+            Set<String> months = new TreeSet<>(monthsBefore.keySet());
+            months.addAll(monthsAfter.keySet());
+            for (String month : months) {
+                int was = monthsBefore.getOrDefault(month, 0);
+                int is = monthsAfter.getOrDefault(month, 0);
+                if (was != is) {
+                    changes.add(new MonthChange(trainerUsername, Integer.parseInt(year), Integer.parseInt(month), was, is));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /** A trainer's document as replayed so far. */
+    private static final class Projection {
+
+        private final SortedMap<String, SortedMap<String, Integer>> totals = new TreeMap<>();
+        private final Set<String> replayedEventIds = new HashSet<>();
+        private final Deque<String> ring = new ArrayDeque<>();
+        private TrainerProfile profile;
+        private long entries;
+
+        void apply(WorkloadEventLogEntry entry) {
+            entries++;
+            switch (entry.getKind()) {
+                case SNAPSHOT -> {
+                    totals.clear();
+                    if (entry.getTotals() != null) {
+                        entry.getTotals().forEach((year, months) -> totals.put(year, new TreeMap<>(months)));
+                    }
+                    ring.clear();
+                    if (entry.getRecentEventIds() != null) {
+                        entry.getRecentEventIds().forEach(this::remember);
+                    }
+                }
+                case DELTA -> {
+                    if (entry.getEventId() != null && !replayedEventIds.add(entry.getEventId())) {
+                        return;
+                    }
+                    SortedMap<String, Integer> months = totals.computeIfAbsent(
+                            TrainerWorkloadDocument.yearKey(entry.getYear()), k -> new TreeMap<>());
+                    months.merge(TrainerWorkloadDocument.monthKey(entry.getMonth()), Math.max(0, entry.getMinutes()),
+                            (before, ignored) -> Math.max(0, before + entry.getMinutes()));
+                    if (entry.getEventId() != null) {
+                        remember(entry.getEventId());
+                    }
+                }
+                case PROFILE -> { }
+            }
+            if (entry.hasProfile()) {
+                profile = new TrainerProfile(entry.getTrainerUsername(),
+                        entry.getFirstName(), entry.getLastName(), entry.getActive());
+            }
+        }
+
+        private void remember(String eventId) {
+            replayedEventIds.add(eventId);
+            ring.addLast(eventId);
+            if (ring.size() > TrainerWorkloadDocument.RECENT_EVENT_IDS) {
+                ring.removeFirst();
+            }
+        }
+    }
+}
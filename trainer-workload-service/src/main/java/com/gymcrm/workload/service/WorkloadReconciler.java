@@ -0,0 +1,284 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.client.GymCrmExportClient;
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.dto.RangeDigest;
+import com.gymcrm.workload.dto.ReconcileResponse;
+import com.gymcrm.workload.dto.TrainerDigest;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadDigestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds trainers whose {@code trainer_workload} totals drifted from gym-crm's trainings by
+ * comparing digests top-down, and re-syncs only those.
+ *
+ * <p>Both sides compute the same digests in their database ({@link WorkloadDigestRepository},
+ * gym-crm's {@code /workload-export/digest[s]}). The digest of all trainers is compared first;
+ * on a clean night that is the whole run. Otherwise the username ranges gym-crm splits its
+ * trainers into are compared, and per-trainer digests only inside ranges that differ.
+ *
+ * <p>A trainer can differ only because its latest events are still on their way, and re-syncing
+ * it then would count them twice once they arrive. Mismatched trainers are therefore compared
+ * again after {@code workload.reconcile.settle}, and only those still differing are re-synced: their
+ * totals and profile are replaced with gym-crm's under the document's version, keeping its
+ * dedup ring. Rollups, the summary cache and, when enabled, the event log are updated like for a
+ * projection rebuild.
+ *
+ * <p>Runs nightly ({@code workload.reconcile.cron}) when {@code workload.reconcile.enabled}, with the
+ * gym-crm account configured under {@code workload.reconcile}, which must then be set; or on demand
+ * with the caller's token. Mismatches are counted in
+ * {@code workload.reconcile.mismatches}, repairs timed in {@code workload.reconcile.repair}.
+ * Needs {@code document} storage.
+ */
+@Service
+public class WorkloadReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadReconciler.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final GymCrmExportClient exportClient;
+    private final WorkloadDigestRepository digestRepository;
+    private final TrainerWorkloadDocumentRepository repository;
+    private final WorkloadSummaryCache summaryCache;
+    private final WorkloadRollupService rollups;
+    private final WorkloadEventLog eventLog;
+    private final boolean enabled;
+    private final int chunks;
+    private final Duration settle;
+    private final String gymCrmUsername;
+    private final String gymCrmPassword;
+    private final boolean bucketStorage;
+    private final Counter rangeMismatches;
+    private final Counter trainerMismatches;
+    private final Counter repairFailures;
+    private final Timer repairTimer;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public WorkloadReconciler(GymCrmExportClient exportClient,
+                              WorkloadDigestRepository digestRepository,
+                              TrainerWorkloadDocumentRepository repository,
+                              WorkloadSummaryCache summaryCache,
+                              WorkloadRollupService rollups,
+                              WorkloadEventLog eventLog,
+                              MeterRegistry meterRegistry,
+                              @Value("${workload.reconcile.enabled:false}") boolean enabled,
+                              @Value("${workload.reconcile.chunks:64}") int chunks,
+                              @Value("${workload.reconcile.settle:30s}") Duration settle,
+                              @Value("${workload.reconcile.gym-crm-username:}") String gymCrmUsername,
+                              @Value("${workload.reconcile.gym-crm-password:}") String gymCrmPassword,
+                              @Value("${workload.storage:document}") String storage) {
+        if (enabled && gymCrmUsername.isBlank()) {
+            throw new IllegalStateException(
+                    "workload.reconcile.enabled requires workload.reconcile.gym-crm-username and gym-crm-password");
+        }
+        this.exportClient = exportClient;
+        this.digestRepository = digestRepository;
+        this.repository = repository;
+        this.summaryCache = summaryCache;
+        this.rollups = rollups;
+        this.eventLog = eventLog;
+        this.enabled = enabled;
+        this.chunks = chunks;
+        this.settle = settle;
+        this.gymCrmUsername = gymCrmUsername;
+        this.gymCrmPassword = gymCrmPassword;
+        this.bucketStorage = WorkloadService.BUCKET_STORAGE.equalsIgnoreCase(storage);
+        this.rangeMismatches = Counter.builder("workload.reconcile.mismatches")
+                .description("Digests that differed from gym-crm")
+                .tag("level", "range")
+                .register(meterRegistry);
+        this.trainerMismatches = Counter.builder("workload.reconcile.mismatches")
+                .description("Digests that differed from gym-crm")
+                .tag("level", "trainer")
+                .register(meterRegistry);
+        this.repairFailures = Counter.builder("workload.reconcile.repair.failures")
+                .description("Drifted trainers that could not be re-synced")
+                .register(meterRegistry);
+        this.repairTimer = Timer.builder("workload.reconcile.repair")
+                .description("Time to re-sync one drifted trainer from gym-crm")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("workload.reconcile.duration")
+                .description("Duration of reconciliation runs")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${workload.reconcile.cron:0 0 2 * * *}")
+    public void reconcileNightly() {
+        if (!enabled || bucketStorage) {
+            return;
+        }
+        try {
+            reconcile(exportClient.login(gymCrmUsername, gymCrmPassword));
+        } catch (RuntimeException e) {
+            log.error("[WORKLOAD-RECONCILE] nightly run failed", e);
+        }
+    }
+
+    /**
+     * Compares and repairs every trainer, reading gym-crm with {@code authorization}.
+     *
+     * @throws IllegalStateException when a reconciliation is already running on this instance
+     */
+    public ReconcileResponse reconcile(String authorization) {
+        if (bucketStorage) {
+            throw new UnsupportedOperationException("Reconciliation requires workload.storage=document");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation is already running");
+        }
+        try {
+            return runTimer.record(() -> run(authorization));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconcileResponse run(String authorization) {
+        if (matches(exportClient.fetchRangeDigest("", null, authorization), digestRepository.rangeDigest("", null))) {
+            log.info("[WORKLOAD-RECONCILE] all trainers match gym-crm");
+            return new ReconcileResponse(1, 0, 0, 0, 0);
+        }
+
+        List<String[]> ranges = WorkloadFullRebuilder.ranges(exportClient.fetchRangeBoundaries(chunks, authorization));
+        int mismatchedRanges = 0;
+        List<String> candidates = new ArrayList<>();
+        for (String[] range : ranges) {
+            if (matches(exportClient.fetchRangeDigest(range[0], range[1], authorization),
+                    digestRepository.rangeDigest(range[0], range[1]))) {
+                continue;
+            }
+            mismatchedRanges++;
+            rangeMismatches.increment();
+            candidates.addAll(differing(exportClient.fetchTrainerDigests(range[0], range[1], authorization),
+                    digestRepository.trainerDigests(range[0], range[1])));
+        }
+
+        List<String> drifted = settled(candidates, authorization);
+        trainerMismatches.increment(drifted.size());
+        int repaired = 0;
+        for (String trainer : drifted) {
+            try {
+                repairTimer.record(() -> repair(trainer, authorization));
+                repaired++;
+            } catch (RuntimeException e) {
+                repairFailures.increment();
+                log.error("[WORKLOAD-RECONCILE] re-sync failed trainer={}", trainer, e);
+            }
+        }
+        log.info("[WORKLOAD-RECONCILE] ranges={} mismatchedRanges={} candidates={} drifted={} repaired={}",
+                ranges.size(), mismatchedRanges, candidates.size(), drifted.size(), repaired);
+        return new ReconcileResponse(ranges.size(), mismatchedRanges, drifted.size(), repaired, drifted.size() - repaired);
+    }
+
+    private static boolean matches(RangeDigest source, RangeDigest local) {
+        return source.trainers() == local.trainers() && source.digest() == local.digest();
+    }
+
+    /** Usernames whose digest differs, including trainers with minutes on one side only. */
+    static List<String> differing(List<TrainerDigest> source, List<TrainerDigest> local) {
+        Map<String, Long> sourceDigests = new HashMap<>();
+        source.forEach(digest -> sourceDigests.put(digest.trainerUsername(), digest.digest()));
+        Map<String, Long> localDigests = new HashMap<>();
+        local.forEach(digest -> localDigests.put(digest.trainerUsername(), digest.digest()));
+
+        TreeSet<String> trainers = new TreeSet<>(sourceDigests.keySet());
+        trainers.addAll(localDigests.keySet());
+        trainers.removeIf(trainer -> Objects.equals(sourceDigests.get(trainer), localDigests.get(trainer)));
+        return new ArrayList<>(trainers);
+    }
+
+    /** The candidates that still differ after the settle delay. */
+    private List<String> settled(List<String> candidates, String authorization) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        try {
+            Thread.sleep(settle.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        }
+        List<String> drifted = new ArrayList<>();
+        for (String trainer : candidates) {
+            String to = trainer + '\u0001';
+            if (!differing(exportClient.fetchTrainerDigests(trainer, to, authorization),
+                    digestRepository.trainerDigests(trainer, to)).isEmpty()) {
+                drifted.add(trainer);
+            }
+        }
+        return drifted;
+    }
+
+    /** Replaces the trainer's totals and profile with gym-crm's, keeping its dedup ring. */
+    private void repair(String trainerUsername, String authorization) {
+        SortedMap<String, SortedMap<String, Integer>> totals = new TreeMap<>();
+        TrainerProfile[] profile = {null};
+        exportClient.streamTrainerTotals(trainerUsername, authorization, row -> {
+            if (profile[0] == null) {
+                profile[0] = new TrainerProfile(trainerUsername, row.firstName(), row.lastName(), row.isActive());
+            }
+            if (row.hasMonth() && row.minutes() > 0) {
+                totals.computeIfAbsent(TrainerWorkloadDocument.yearKey(row.year()), k -> new TreeMap<>())
+                        .put(TrainerWorkloadDocument.monthKey(row.month()), Math.toIntExact(row.minutes()));
+            }
+        });
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            TrainerWorkloadDocument current = repository.findByTrainerUsername(trainerUsername).orElse(null);
+            List<String> ring = current == null || current.getRecentEventIds() == null
+                    ? List.of() : current.getRecentEventIds();
+            if (repository.replaceProjection(trainerUsername, totals, profile[0], ring,
+                    current == null ? null : current.getVersion())) {
+                summaryCache.invalidate(trainerUsername);
+                rollups.record(WorkloadProjectionRebuilder.monthChanges(trainerUsername, current, totals));
+                eventLog.appendSnapshots(List.of(snapshot(trainerUsername, totals, profile[0], current, ring)));
+                log.info("[WORKLOAD-RECONCILE] re-synced trainer={}", trainerUsername);
+                return;
+            }
+        }
+        throw new OptimisticLockingFailureException(
+                "Could not re-sync trainer " + trainerUsername + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private static TrainerWorkloadDocument snapshot(String trainerUsername, SortedMap<String, SortedMap<String, Integer>> totals,
+                                                    TrainerProfile profile, TrainerWorkloadDocument current, List<String> ring) {
+        TrainerWorkloadDocument document = new TrainerWorkloadDocument();
+        document.setTrainerUsername(trainerUsername);
+        document.setSchemaVersion(TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+        document.setTotals(totals);
+        document.setRecentEventIds(ring);
+        if (profile != null) {
+            document.setFirstName(profile.firstName());
+            document.setLastName(profile.lastName());
+            document.setActive(profile.active());
+        } else if (current != null) {
+            document.setFirstName(current.getFirstName());
+            document.setLastName(current.getLastName());
+            document.setActive(current.getActive());
+        }
+        return document;
+    }
+}
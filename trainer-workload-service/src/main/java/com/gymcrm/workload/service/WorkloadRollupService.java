@@ -0,0 +1,117 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.document.WorkloadMonthRollup;
+import com.gymcrm.workload.dto.MonthRollupResponse;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains and serves the cross-trainer monthly rollups ({@link WorkloadMonthRollup}).
+ *
+ * <p>{@link WorkloadService} hands over the exact month changes of every write. A failed
+ * rollup update is logged and counted ({@code workload.rollup.failures}) but never fails the
+ * event: the trainer totals are already written, and a redelivery would apply them twice.
+ * Drift from such failures, or from trainers falling out of the leaderboard, is repaired by
+ * {@link #rebuild()}.
+ *
+ * <p>Off unless {@code workload.rollup.enabled=true}, since the update costs a round trip per
+ * event; {@link #record} then does nothing.
+ */
+@Service
+public class WorkloadRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadRollupService.class);
+
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final WorkloadRollupRepository rollupRepository;
+    private final TrainerWorkloadDocumentRepository repository;
+    private final boolean enabled;
+    private final int topCapacity;
+    private final boolean bucketStorage;
+    private final Counter failures;
+
+    public WorkloadRollupService(WorkloadRollupRepository rollupRepository,
+                                 TrainerWorkloadDocumentRepository repository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${workload.rollup.enabled:false}") boolean enabled,
+                                 @Value("${workload.rollup.top-capacity:50}") int topCapacity,
+                                 @Value("${workload.storage:document}") String storage) {
+        this.rollupRepository = rollupRepository;
+        this.repository = repository;
+        this.enabled = enabled;
+        this.topCapacity = topCapacity;
+        this.bucketStorage = WorkloadService.BUCKET_STORAGE.equalsIgnoreCase(storage);
+        this.failures = Counter.builder("workload.rollup.failures")
+                .description("Rollup updates that failed after the trainer totals were written")
+                .register(meterRegistry);
+    }
+
+    public void record(MonthChange change) {
+        record(List.of(change));
+    }
+
+    public void record(Collection<MonthChange> changes) {
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+        try {
+            rollupRepository.apply(changes, topCapacity);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("[WORKLOAD-ROLLUP] update failed for {} changes — rollups drift until the next rebuild",
+                    changes.size(), e);
+        }
+    }
+
+    /** Rollup of one month; a month without data has zero totals. {@code top} is capped at the stored capacity. */
+    public MonthRollupResponse getMonth(int year, int month, int top) {
+        WorkloadMonthRollup rollup = rollupRepository.find(year, month);
+        if (rollup == null) {
+            return new MonthRollupResponse(year, month, 0L, 0, List.of());
+        }
+        return toResponse(rollup, top);
+    }
+
+    /** Rollups of the months of {@code year} that have data, in calendar order. */
+    public List<MonthRollupResponse> getYear(int year, int top) {
+        return rollupRepository.findYear(year).stream().map(rollup -> toResponse(rollup, top)).toList();
+    }
+
+    /**
+     * Recomputes every rollup from the base collection. v1 trainer documents are migrated
+     * first so they are counted. Events applied while the rebuild runs may be missing from
+     * its result, so run it when consumers are idle or paused.
+     */
+    public void rebuild() {
+        log.info("[WORKLOAD-ROLLUP] rebuild started storage={}", bucketStorage ? "bucket" : "document");
+        if (bucketStorage) {
+            rollupRepository.rebuildFromBuckets(topCapacity);
+        } else {
+            String lastId = null;
+            do {
+                lastId = repository.migrateLegacyLayouts(lastId, MIGRATION_BATCH_SIZE);
+            } while (lastId != null);
+            rollupRepository.rebuildFromDocuments(topCapacity);
+        }
+    }
+
+    private MonthRollupResponse toResponse(WorkloadMonthRollup rollup, int top) {
+        List<MonthRollupResponse.TopTrainer> leaders = rollup.getTop().stream()
+                .limit(top)
+                .map(t -> new MonthRollupResponse.TopTrainer(t.getTrainerUsername(), t.getMinutes()))
+                .toList();
+        return new MonthRollupResponse(rollup.getYear(), rollup.getMonth(),
+                rollup.getTotalMinutes(), rollup.getActiveTrainers(), leaders);
+    }
+}
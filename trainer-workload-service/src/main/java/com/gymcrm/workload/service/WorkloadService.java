@@ -1,31 +1,106 @@
 package com.gymcrm.workload.service;
 
 import com.gymcrm.workload.document.TrainerWorkloadDocument;
-import com.gymcrm.workload.document.TrainerWorkloadDocument.MonthEntry;
-import com.gymcrm.workload.document.TrainerWorkloadDocument.YearEntry;
+import com.gymcrm.workload.document.TrainerWorkloadYearBucket;
+import com.gymcrm.workload.repository.TrainerWorkloadBucketRepository;
+import com.gymcrm.workload.dto.TrainerProfileRequest;
+import com.gymcrm.workload.dto.TrainerSearchResponse;
+import com.gymcrm.workload.dto.WorkloadDeltaBatchRequest;
 import com.gymcrm.workload.dto.WorkloadRequest;
 import com.gymcrm.workload.dto.WorkloadSummaryResponse;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.TrainerSearch;
 import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadDelta;
+import com.gymcrm.workload.repository.WorkloadRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 @Service
 public class WorkloadService {
 
     private static final Logger log = LoggerFactory.getLogger(WorkloadService.class);
 
+    /** Value of {@code workload.write-mode} that selects the legacy read-modify-write path. */
+    static final String DOCUMENT_WRITE_MODE = "document";
+
+    /** Value of {@code workload.storage} that selects one document per (trainer, year). */
+    static final String BUCKET_STORAGE = "bucket";
+
     private final TrainerWorkloadDocumentRepository repository;
+    private final TrainerWorkloadBucketRepository bucketRepository;
+    private final WorkloadSummaryCache summaryCache;
+    private final WorkloadRollupService rollups;
+    private final WorkloadEventLog eventLog;
+    private final boolean atomicWrites;
+    private final boolean bucketStorage;
+    private final Counter deduplicated;
 
-    public WorkloadService(TrainerWorkloadDocumentRepository repository) {
+    public WorkloadService(TrainerWorkloadDocumentRepository repository,
+                           TrainerWorkloadBucketRepository bucketRepository,
+                           WorkloadSummaryCache summaryCache,
+                           WorkloadRollupService rollups,
+                           WorkloadEventLog eventLog,
+                           MeterRegistry meterRegistry,
+                           @Value("${workload.write-mode:atomic}") String writeMode,
+                           @Value("${workload.storage:document}") String storage) {
         this.repository = repository;
+        this.bucketRepository = bucketRepository;
+        this.summaryCache = summaryCache;
+        this.rollups = rollups;
+        this.eventLog = eventLog;
+        this.atomicWrites = !DOCUMENT_WRITE_MODE.equalsIgnoreCase(writeMode);
+        this.bucketStorage = BUCKET_STORAGE.equalsIgnoreCase(storage);
+        this.deduplicated = Counter.builder("workload.events.deduplicated")
+                .description("Redelivered or replayed workload events skipped because their event ID was already applied")
+                .register(meterRegistry);
     }
 
     /**
      * Processes an ADD or DELETE workload event for a trainer.
-     * Finds the trainer's document (or creates one), updates the year/month entry,
-     * and persists the whole document in a single atomic write.
+     *
+     * <p>In the default {@code atomic} write mode the delta is applied with server-side
+     * update operators in (usually) a single round trip — see
+     * {@link TrainerWorkloadDocumentRepository#applyDelta}. In {@code document} mode the
+     * trainer's document is loaded (or created), updated in memory and saved whole,
+     * guarded by {@code @Version}; a v1 document is converted to the map-keyed layout
+     * as part of that save.
+     *
+     * <p>With {@code workload.storage=bucket} the delta goes to the trainer's bucket for the
+     * training year instead, always atomically; {@code write-mode} does not apply.
+     *
+     * <p>The trainer's cached summary is invalidated once the write has succeeded, and the
+     * exact change of the month total is passed on to the monthly rollups.
+     *
+     * <p>An event whose {@code eventId} was already applied to the trainer changes nothing and
+     * is counted in {@code workload.events.deduplicated}. The check and the write are one
+     * operation in every mode, so a redelivery racing the original is caught as well.
+     *
+     * <p>With the event log enabled, the event is appended to the {@link WorkloadEventLog} before
+     * it is applied, duplicates included; replay skips them by their event ID.
      *
      * No @Transactional — MongoDB guarantees atomicity at the single-document level.
      */
@@ -36,88 +111,429 @@ public class WorkloadService {
 
         log.info("[WORKLOAD-START] trainer={} action={} txId={}", req.getTrainerUsername(), req.getActionType(), txId);
 
+        WorkloadDelta delta = toDelta(req, year, month);
+        eventLog.appendDeltas(List.of(delta));
+
+        MonthChange change;
+        if (bucketStorage) {
+            change = bucketRepository.applyDelta(delta);
+        } else if (atomicWrites) {
+            change = repository.applyDelta(delta);
+        } else {
+            change = readModifyWrite(req, year, month, txId);
+        }
+        if (change.duplicate()) {
+            deduplicated.increment();
+            log.info("[WORKLOAD-DUPLICATE] trainer={} eventId={} already applied txId={}",
+                    req.getTrainerUsername(), req.getEventId(), txId);
+            return;
+        }
+        summaryCache.invalidate(req.getTrainerUsername());
+        rollups.record(change);
+
+        log.info("[WORKLOAD-END] trainer={} txId={}", req.getTrainerUsername(), txId);
+    }
+
+    /**
+     * Legacy {@code document} write mode: load or create, update in memory, versioned save.
+     * The event ID joins the document's ring in the same save, so {@code @Version} makes the
+     * duplicate check atomic with the write.
+     */
+    private MonthChange readModifyWrite(WorkloadRequest req, int year, int month, String txId) {
         log.debug("[WORKLOAD-LOOKUP] trainer={}", req.getTrainerUsername());
         TrainerWorkloadDocument doc = repository.findByTrainerUsername(req.getTrainerUsername())
                 .orElseGet(TrainerWorkloadDocument::new);
+        if (doc.isLegacyLayout()) {
+            doc.migrateToMapLayout();
+        }
+        String eventId = req.getEventId();
+        if (eventId != null && doc.getRecentEventIds() != null && doc.getRecentEventIds().contains(eventId)) {
+            int total = doc.getTotals()
+                    .getOrDefault(TrainerWorkloadDocument.yearKey(year), new TreeMap<>())
+                    .getOrDefault(TrainerWorkloadDocument.monthKey(month), 0);
+            return new MonthChange(req.getTrainerUsername(), year, month, total, total, true);
+        }
 
         updateProfileFields(doc, req);
-        applyDelta(doc, req, year, month, txId);
+        rememberEvent(doc, eventId);
+        MonthChange change = applyDelta(doc, req, year, month, txId);
+        doc.setUpdatedAt(Instant.now());
 
         log.debug("[WORKLOAD-SAVE] trainer={} txId={}", req.getTrainerUsername(), txId);
         repository.save(doc);
-        log.info("[WORKLOAD-END] trainer={} txId={}", req.getTrainerUsername(), txId);
+        return change;
+    }
+
+    /**
+     * Applies a batch of already-validated events with one bulk write per phase.
+     *
+     * <p>Events are folded into one net delta per (trainer, year, month) before writing;
+     * the latest event of each trainer supplies the profile fields. The folded delta carries
+     * the floor its events' own floors at 0 imply (see {@link WorkloadDelta}), so the month
+     * ends exactly where applying the events one by one, in batch order, would leave it —
+     * whatever the order of ADDs and DELETEs — and where replaying the event log does.
+     *
+     * <p>Events whose ID was already applied, or that occur twice in the batch, are dropped
+     * before folding; the remaining IDs travel with their folded delta and still guard its write.
+     * The remaining events are appended to the {@link WorkloadEventLog} unfolded, before the write.
+     */
+    public void processBatch(List<WorkloadRequest> requests) {
+        processBatch(requests, List.of());
+    }
+
+    /**
+     * Applies one {@code workloadDeltaBatch} message with a single bulk write, in every write
+     * mode. Its deltas are already net per (year, month) and are applied as they are; see
+     * {@link WorkloadDeltaBatchRequest} for how the batch is deduplicated.
+     */
+    public void processDeltaBatch(WorkloadDeltaBatchRequest batch) {
+        processBatch(List.of(), List.of(batch));
+    }
+
+    /**
+     * {@link #processBatch(List)} plus the deltas of {@code workloadDeltaBatch} messages, which
+     * are deduplicated by their per-month event IDs and folded together with the events.
+     * Delta batches supply the profile fields after the events.
+     */
+    public void processBatch(List<WorkloadRequest> requests, List<WorkloadDeltaBatchRequest> deltaBatches) {
+        String txId = MDC.get("transactionId");
+        List<WorkloadDelta> unfolded = new ArrayList<>(requests.size());
+        requests.forEach(req ->
+                unfolded.add(toDelta(req, req.getTrainingDate().getYear(), req.getTrainingDate().getMonthValue())));
+        deltaBatches.forEach(batch -> unfolded.addAll(toDeltas(batch)));
+        List<WorkloadDelta> fresh = dropAppliedEvents(unfolded);
+        eventLog.appendDeltas(fresh);
+        Collection<WorkloadDelta> deltas = foldDeltas(fresh);
+
+        log.info("[WORKLOAD-BATCH-START] events={} deltaBatches={} deltas={} txId={}",
+                requests.size(), deltaBatches.size(), deltas.size(), txId);
+        List<MonthChange> changes = bucketStorage
+                ? bucketRepository.applyDeltas(deltas)
+                : repository.applyDeltas(deltas);
+        List<MonthChange> applied = changes.stream().filter(change -> !change.duplicate()).toList();
+        deduplicated.increment(unfolded.size() - fresh.size() + changes.size() - applied.size());
+        summaryCache.invalidateAll(deltas.stream().map(WorkloadDelta::trainerUsername).distinct().toList());
+        rollups.record(applied);
+        log.info("[WORKLOAD-BATCH-END] events={} deltaBatches={} deltas={} txId={}",
+                requests.size(), deltaBatches.size(), deltas.size(), txId);
+    }
+
+    /**
+     * Applies a {@code trainerProfile} event: only the trainer's name and status are written,
+     * with one update, and the cached summary is invalidated. Totals are not touched, so
+     * the order relative to workload events of the same trainer does not matter for them.
+     */
+    public void processProfile(TrainerProfileRequest req) {
+        String txId = MDC.get("transactionId");
+        TrainerProfile profile = new TrainerProfile(req.getTrainerUsername(), req.getFirstName(),
+                req.getLastName(), req.getIsActive());
+        eventLog.appendProfile(profile);
+        if (bucketStorage) {
+            bucketRepository.updateProfile(profile);
+        } else {
+            repository.updateProfile(profile);
+        }
+        summaryCache.invalidate(req.getTrainerUsername());
+        log.info("[WORKLOAD-PROFILE] trainer={} active={} txId={}", req.getTrainerUsername(), req.getIsActive(), txId);
     }
 
     /**
      * Returns the nested year → month workload summary for a trainer.
      * Years and months are sorted ascending.
      * Returns an empty years list when no document exists yet.
+     * A v1 document is migrated on this read. In bucket storage the trainer's hot and
+     * archived buckets are read with one aggregation.
+     * Served from {@link WorkloadSummaryCache} when possible.
      */
     public WorkloadSummaryResponse getSummary(String trainerUsername) {
         String txId = MDC.get("transactionId");
         log.info("[SUMMARY-START] trainer={} txId={}", trainerUsername, txId);
 
-        WorkloadSummaryResponse response = repository.findByTrainerUsername(trainerUsername)
-                .map(WorkloadMapper::toSummaryResponse)
-                .orElseGet(() -> WorkloadMapper.emptyResponse(trainerUsername));
+        WorkloadSummaryResponse response = summaryCache.get(trainerUsername, this::loadSummary);
 
         log.info("[SUMMARY-END] trainer={} years={} txId={}", trainerUsername, response.getYears().size(), txId);
         return response;
     }
 
-    /** Refreshes all trainer profile fields from the incoming request, including on a new document. */
+    /**
+     * Summary restricted to {@code range}. A cached full summary is sliced in memory; otherwise
+     * only the requested years and months are read from MongoDB, and the slice is not cached.
+     * Year and range totals are computed from the slice.
+     */
+    public WorkloadSummaryResponse getSummary(String trainerUsername, WorkloadRange range) {
+        if (range.isUnbounded()) {
+            return getSummary(trainerUsername);
+        }
+        String txId = MDC.get("transactionId");
+        log.info("[SUMMARY-START] trainer={} range={} txId={}", trainerUsername, range, txId);
+
+        WorkloadSummaryResponse full = summaryCache.getIfPresent(trainerUsername);
+        WorkloadSummaryResponse response = WorkloadMapper.slice(
+                full != null ? full : loadSummary(trainerUsername, range), range);
+
+        log.info("[SUMMARY-END] trainer={} years={} cached={} txId={}",
+                trainerUsername, response.getYears().size(), full != null, txId);
+        return response;
+    }
+
+    /**
+     * Hands the summaries of {@code trainerUsernames} to {@code sink} one at a time, read with a
+     * single {@code $in} query through a cursor so only one trainer is held in memory at once.
+     * Trainers without data get an empty summary at the end; the order is otherwise the
+     * database's. Bypasses the summary cache.
+     */
+    public void streamSummaries(Collection<String> trainerUsernames, WorkloadRange range,
+                                Consumer<WorkloadSummaryResponse> sink) {
+        String txId = MDC.get("transactionId");
+        log.info("[SUMMARIES-START] trainers={} range={} txId={}", trainerUsernames.size(), range, txId);
+
+        Set<String> missing = new LinkedHashSet<>(trainerUsernames);
+        List<String> requested = List.copyOf(missing);
+        Consumer<WorkloadSummaryResponse> emit = summary -> {
+            missing.remove(summary.getTrainerUsername());
+            sink.accept(range.isUnbounded() ? summary : WorkloadMapper.slice(summary, range));
+        };
+        if (bucketStorage) {
+            try (Stream<TrainerWorkloadYearBucket> buckets = bucketRepository.streamBuckets(requested, range)) {
+                emitPerTrainer(buckets.iterator(), emit);
+            }
+        } else {
+            try (Stream<TrainerWorkloadDocument> docs = repository.streamSummarySlices(requested, range)) {
+                docs.map(doc -> doc.isLegacyLayout() ? repository.migrateLayout(doc) : doc)
+                        .map(WorkloadMapper::toSummaryResponse)
+                        .forEach(emit);
+            }
+        }
+        int found = requested.size() - missing.size();
+        missing.forEach(trainer -> sink.accept(WorkloadMapper.emptyResponse(trainer)));
+
+        log.info("[SUMMARIES-END] trainers={} found={} txId={}", requested.size(), found, txId);
+    }
+
+    /** Groups consecutive buckets of the same trainer (the stream is ordered by trainer) into one summary each. */
+    private static void emitPerTrainer(Iterator<TrainerWorkloadYearBucket> buckets, Consumer<WorkloadSummaryResponse> emit) {
+        List<TrainerWorkloadYearBucket> current = new ArrayList<>();
+        while (buckets.hasNext()) {
+            TrainerWorkloadYearBucket bucket = buckets.next();
+            if (!current.isEmpty() && !current.get(0).getTrainerUsername().equals(bucket.getTrainerUsername())) {
+                emit.accept(WorkloadMapper.fromBuckets(current.get(0).getTrainerUsername(), current));
+                current = new ArrayList<>();
+            }
+            current.add(bucket);
+        }
+        if (!current.isEmpty()) {
+            emit.accept(WorkloadMapper.fromBuckets(current.get(0).getTrainerUsername(), current));
+        }
+    }
+
+    /**
+     * One page of trainers whose names start with the given prefixes (case-insensitive),
+     * optionally filtered by status. {@code cursor} is the {@code nextCursor} of the previous
+     * page, or {@code null} for the first one. Searches the trainer documents, so it is only
+     * exposed with {@code document} storage (see {@code WorkloadSearchController}).
+     */
+    public TrainerSearchResponse searchTrainers(String firstNamePrefix, String lastNamePrefix, Boolean active,
+                                                int size, String cursor) {
+        TrainerSearch search = new TrainerSearch(blankToNull(firstNamePrefix), blankToNull(lastNamePrefix), active,
+                cursor == null ? null : TrainerSearch.Position.decode(cursor));
+
+        // One extra row tells whether another page exists without a count query.
+        List<TrainerWorkloadDocument> found = repository.searchByName(search, size + 1);
+        List<TrainerWorkloadDocument> page = found.size() > size ? found.subList(0, size) : found;
+
+        TrainerSearchResponse response = new TrainerSearchResponse();
+        response.setTrainers(page.stream()
+                .map(doc -> new TrainerSearchResponse.TrainerSummary(
+                        doc.getTrainerUsername(), doc.getFirstName(), doc.getLastName(), doc.getActive()))
+                .toList());
+        if (found.size() > size) {
+            TrainerWorkloadDocument last = page.get(page.size() - 1);
+            String primary = search.byLastName() ? last.getLastName() : last.getFirstName();
+            String secondary = search.byLastName() ? last.getFirstName() : last.getLastName();
+            response.setNextCursor(new TrainerSearch.Position(primary, secondary, last.getId()).encode());
+        }
+        log.debug("[SEARCH] first={} last={} active={} returned={} more={}",
+                search.firstNamePrefix(), search.lastNamePrefix(), active, page.size(), response.getNextCursor() != null);
+        return response;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Caches the summaries of the {@code limit} most recently updated trainers, read with a
+     * single query in document storage. Returns the number of summaries cached.
+     */
+    public int warmUpSummaries(int limit) {
+        if (bucketStorage) {
+            List<String> trainers = bucketRepository.findRecentlyActiveTrainers(limit);
+            trainers.forEach(trainer -> summaryCache.put(trainer, loadSummary(trainer)));
+            return trainers.size();
+        }
+        List<TrainerWorkloadDocument> docs = repository.findByOrderByUpdatedAtDesc(PageRequest.of(0, limit));
+        for (TrainerWorkloadDocument doc : docs) {
+            if (doc.isLegacyLayout()) {
+                doc.migrateToMapLayout();   // in memory only — startup does not write
+            }
+            summaryCache.put(doc.getTrainerUsername(), WorkloadMapper.toSummaryResponse(doc));
+        }
+        return docs.size();
+    }
+
+    private WorkloadSummaryResponse loadSummary(String trainerUsername) {
+        return bucketStorage
+                ? WorkloadMapper.fromBuckets(trainerUsername, bucketRepository.findBuckets(trainerUsername))
+                : documentSummary(trainerUsername);
+    }
+
+    private WorkloadSummaryResponse loadSummary(String trainerUsername, WorkloadRange range) {
+        if (bucketStorage) {
+            return WorkloadMapper.fromBuckets(trainerUsername, bucketRepository.findBuckets(trainerUsername, range));
+        }
+        return repository.findSummarySlice(trainerUsername, range)
+                .map(doc -> doc.isLegacyLayout() ? repository.migrateLayout(doc) : doc)
+                .map(WorkloadMapper::toSummaryResponse)
+                .orElseGet(() -> WorkloadMapper.emptyResponse(trainerUsername));
+    }
+
+    private WorkloadSummaryResponse documentSummary(String trainerUsername) {
+        return repository.findByTrainerUsername(trainerUsername)
+                .map(doc -> doc.isLegacyLayout() ? repository.migrateLayout(doc) : doc)
+                .map(WorkloadMapper::toSummaryResponse)
+                .orElseGet(() -> WorkloadMapper.emptyResponse(trainerUsername));
+    }
+
+    /**
+     * Removes deltas whose event was already applied to their trainer, or that repeat an event
+     * within the batch, with one read. Each delta carries at most one event ID here.
+     */
+    private List<WorkloadDelta> dropAppliedEvents(List<WorkloadDelta> deltas) {
+        if (deltas.stream().allMatch(delta -> delta.eventIds().isEmpty())) {
+            return deltas;
+        }
+        Set<String> trainers = new HashSet<>();
+        Set<Integer> years = new HashSet<>();
+        deltas.forEach(delta -> {
+            trainers.add(delta.trainerUsername());
+            years.add(delta.year());
+        });
+        Set<String> seen = bucketStorage
+                ? bucketRepository.findAppliedEventIds(trainers, years)
+                : repository.findAppliedEventIds(trainers);
+        return deltas.stream()
+                .filter(delta -> delta.eventIds().isEmpty() || seen.add(delta.eventIds().get(0)))
+                .toList();
+    }
+
+    /**
+     * Sums signed minutes per (trainer, year, month), keeping every event ID and the latest
+     * profile per trainer among the deltas that carry one; a trainer with only slim deltas
+     * keeps its stored profile.
+     *
+     * <p>Applying {@code max(0, total + m)} for each delta in turn is the same as applying
+     * {@code max(floor, total + sum)} once, where {@code floor} is carried along as
+     * {@code max(0, floor + m)}: a DELETE that empties the month and the ADD after it leave at
+     * least the ADD, however much was stored.
+     */
+    private Collection<WorkloadDelta> foldDeltas(List<WorkloadDelta> deltas) {
+        Map<String, WorkloadDelta> latestProfile = new HashMap<>();
+        Map<DeltaKey, Integer> minutes = new LinkedHashMap<>();
+        Map<DeltaKey, Integer> floors = new HashMap<>();
+        Map<DeltaKey, List<String>> eventIds = new HashMap<>();
+        for (WorkloadDelta delta : deltas) {
+            if (delta.hasProfile()) {
+                latestProfile.put(delta.trainerUsername(), delta);
+            }
+            DeltaKey key = new DeltaKey(delta.trainerUsername(), delta.year(), delta.month());
+            minutes.merge(key, delta.minutes(), Integer::sum);
+            floors.put(key, Math.max(delta.floor(), floors.getOrDefault(key, 0) + delta.minutes()));
+            if (!delta.eventIds().isEmpty()) {
+                eventIds.computeIfAbsent(key, k -> new ArrayList<>()).addAll(delta.eventIds());
+            }
+        }
+
+        List<WorkloadDelta> folded = new ArrayList<>(minutes.size());
+        minutes.forEach((key, sum) -> {
+            WorkloadDelta profile = latestProfile.get(key.trainerUsername());
+            // A floor not above the sum can never exceed total + sum; plain deltas keep 0.
+            int floor = floors.get(key) > sum ? floors.get(key) : 0;
+            folded.add(new WorkloadDelta(key.trainerUsername(),
+                    profile == null ? null : profile.firstName(),
+                    profile == null ? null : profile.lastName(),
+                    profile == null ? null : profile.active(),
+                    key.year(), key.month(), sum, eventIds.getOrDefault(key, List.of()), floor));
+        });
+        return folded;
+    }
+
+    private record DeltaKey(String trainerUsername, int year, int month) {}
+
+    /** One delta per month of the batch, each guarded by the event ID suffixed with its month. */
+    private static List<WorkloadDelta> toDeltas(WorkloadDeltaBatchRequest batch) {
+        return batch.getDeltas().stream()
+                .map(delta -> new WorkloadDelta(batch.getTrainerUsername(), batch.getFirstName(), batch.getLastName(),
+                        batch.getIsActive(), delta.getYear(), delta.getMonth(), delta.getMinutes(),
+                        batch.getEventId() == null
+                                ? List.of()
+                                : List.of(batch.getEventId() + ":" + delta.getYear() + "-" + delta.getMonth())))
+                .toList();
+    }
+
+    /** Converts an event into a signed delta: positive for ADD, negative for DELETE. */
+    private WorkloadDelta toDelta(WorkloadRequest req, int year, int month) {
+        int minutes = req.getActionType() == WorkloadRequest.ActionType.ADD
+                ? req.getTrainingDuration()
+                : -req.getTrainingDuration();
+        return new WorkloadDelta(req.getTrainerUsername(), req.getFirstName(), req.getLastName(),
+                req.getIsActive(), year, month, minutes,
+                req.getEventId() == null ? List.of() : List.of(req.getEventId()));
+    }
+
+    /** Appends the event ID to the document's ring, keeping the newest {@link TrainerWorkloadDocument#RECENT_EVENT_IDS}. */
+    private static void rememberEvent(TrainerWorkloadDocument doc, String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        List<String> ids = doc.getRecentEventIds() == null ? new ArrayList<>() : new ArrayList<>(doc.getRecentEventIds());
+        ids.add(eventId);
+        doc.setRecentEventIds(ids.size() > TrainerWorkloadDocument.RECENT_EVENT_IDS
+                ? new ArrayList<>(ids.subList(ids.size() - TrainerWorkloadDocument.RECENT_EVENT_IDS, ids.size()))
+                : ids);
+    }
+
+    /**
+     * Refreshes the trainer profile fields from the incoming request, including on a new document.
+     * A slim event only sets the username.
+     */
     private void updateProfileFields(TrainerWorkloadDocument doc, WorkloadRequest req) {
         doc.setTrainerUsername(req.getTrainerUsername());
+        if (req.getFirstName() == null && req.getLastName() == null && req.getIsActive() == null) {
+            return;
+        }
         doc.setFirstName(req.getFirstName());
         doc.setLastName(req.getLastName());
         doc.setActive(req.getIsActive());
     }
 
     /**
-     * Finds (or creates) the year/month subdocument and applies the ADD or DELETE delta.
+     * Applies the ADD or DELETE delta to the month total, addressed by its year and month keys.
      * DELETE is floored at 0 — duration can never go negative.
      */
-    private void applyDelta(TrainerWorkloadDocument doc, WorkloadRequest req, int year, int month, String txId) {
-        YearEntry  yearEntry  = findOrCreateYear(doc, year);
-        MonthEntry monthEntry = findOrCreateMonth(yearEntry, month);
+    private MonthChange applyDelta(TrainerWorkloadDocument doc, WorkloadRequest req, int year, int month, String txId) {
+        SortedMap<String, Integer> months =
+                doc.getTotals().computeIfAbsent(TrainerWorkloadDocument.yearKey(year), k -> new TreeMap<>());
+        String monthKey = TrainerWorkloadDocument.monthKey(month);
 
-        int before = monthEntry.getTrainingSummaryDuration();
+        int before = months.getOrDefault(monthKey, 0);
         int delta  = req.getTrainingDuration();
         int after  = req.getActionType() == WorkloadRequest.ActionType.ADD
                 ? before + delta
                 : Math.max(0, before - delta);
 
-        monthEntry.setTrainingSummaryDuration(after);
+        months.put(monthKey, after);
         log.debug("[WORKLOAD-DELTA] trainer={} year={} month={} action={} before={} after={} txId={}",
                 req.getTrainerUsername(), year, month, req.getActionType(), before, after, txId);
-    }
-
-    /**
-     * Returns the YearEntry for the given year, creating and adding it to the document if absent.
-     */
-    private YearEntry findOrCreateYear(TrainerWorkloadDocument doc, int year) {
-        return doc.getYears().stream()
-                .filter(y -> y.getYear().equals(year))
-                .findFirst()
-                .orElseGet(() -> {
-                    YearEntry newYear = new YearEntry(year);
-                    doc.getYears().add(newYear);
-                    return newYear;
-                });
-    }
-
-    /**
-     * Returns the MonthEntry for the given month within a year, creating and adding it if absent.
-     * New entries start at 0 so that the first ADD produces the correct total.
-     */
-    private MonthEntry findOrCreateMonth(YearEntry yearEntry, int month) {
-        return yearEntry.getMonths().stream()
-                .filter(m -> m.getMonth().equals(month))
-                .findFirst()
-                .orElseGet(() -> {
-                    MonthEntry newMonth = new MonthEntry(month, 0);
-                    yearEntry.getMonths().add(newMonth);
-                    return newMonth;
-                });
+        return new MonthChange(req.getTrainerUsername(), year, month, before, after);
     }
 }
@@ -0,0 +1,70 @@
+package com.gymcrm.workload.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gymcrm.workload.dto.WorkloadSummaryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * In-process cache of trainer summaries, bounded by size and by time since write.
+ *
+ * <p>{@link WorkloadService} invalidates a trainer after every event it applies, so on the
+ * consuming instance a cached summary is never older than the last write. Other instances
+ * learn about the write only when their entry expires, which bounds cross-instance staleness
+ * by {@code workload.cache.summary.ttl}. A {@code max-size} of 0 disables caching.
+ *
+ * <p>Cached responses are shared between requests and must not be modified by callers.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters with
+ * {@code cache=workloadSummaries}.
+ */
+@Component
+public class WorkloadSummaryCache {
+
+    static final String CACHE_NAME = "workloadSummaries";
+
+    private final Cache<String, WorkloadSummaryResponse> cache;
+
+    public WorkloadSummaryCache(MeterRegistry meterRegistry,
+                                @Value("${workload.cache.summary.max-size:10000}") long maxSize,
+                                @Value("${workload.cache.summary.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /** Returns the cached summary, loading it once per trainer on a miss. */
+    public WorkloadSummaryResponse get(String trainerUsername, Function<String, WorkloadSummaryResponse> loader) {
+        return cache.get(trainerUsername, loader);
+    }
+
+    /** Returns the cached summary, or {@code null} without loading it. */
+    public WorkloadSummaryResponse getIfPresent(String trainerUsername) {
+        return cache.getIfPresent(trainerUsername);
+    }
+
+    public void put(String trainerUsername, WorkloadSummaryResponse summary) {
+        cache.put(trainerUsername, summary);
+    }
+
+    public void invalidate(String trainerUsername) {
+        cache.invalidate(trainerUsername);
+    }
+
+    public void invalidateAll(Collection<String> trainerUsernames) {
+        cache.invalidateAll(trainerUsernames);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
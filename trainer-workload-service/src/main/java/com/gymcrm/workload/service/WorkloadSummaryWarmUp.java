@@ -0,0 +1,51 @@
+package com.gymcrm.workload.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@link WorkloadSummaryCache} with the most recently active trainers once the
+ * application is ready, so the first reads after a deploy do not all go to MongoDB.
+ *
+ * <p>Runs on a daemon thread and never fails startup; a {@code warm-up-size} of 0 disables it.
+ */
+@Component
+public class WorkloadSummaryWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkloadSummaryWarmUp.class);
+
+    private final WorkloadService workloadService;
+    private final int warmUpSize;
+
+    public WorkloadSummaryWarmUp(WorkloadService workloadService,
+                                 @Value("${workload.cache.summary.warm-up-size:1000}") int warmUpSize) {
+        this.workloadService = workloadService;
+        this.warmUpSize = warmUpSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (warmUpSize <= 0) {
+            return;
+        }
+        Thread worker = new Thread(this::warmUp, "workload-summary-warm-up");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Returns the number of summaries cached. */
+    int warmUp() {
+        try {
+            int cached = workloadService.warmUpSummaries(warmUpSize);
+            log.info("[WORKLOAD-CACHE] warmed up {} trainer summaries", cached);
+            return cached;
+        } catch (RuntimeException e) {
+            log.warn("[WORKLOAD-CACHE] warm-up failed — summaries are loaded on first read", e);
+            return 0;
+        }
+    }
+}
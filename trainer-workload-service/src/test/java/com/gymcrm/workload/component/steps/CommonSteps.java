@@ -48,6 +48,11 @@ public class CommonSteps {
         testContext.setJwtToken(jwtTestHelper.generateValidToken("test.user"));
     }
 
+    @Given("a valid admin JWT token")
+    public void validAdminJwtToken() {
+        testContext.setJwtToken(jwtTestHelper.generateAdminToken("test.admin"));
+    }
+
     @Given("an expired JWT token")
     public void expiredJwtToken() {
         testContext.setJwtToken(jwtTestHelper.generateExpiredToken("test.user"));
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -37,6 +38,22 @@ public class WorkloadRestSteps {
         testContext.setResponse(response);
     }
 
+    @When("{int} workload ADD events of {int} minutes on {string} are posted as one array for trainer {string}")
+    public void postWorkloadEventArray(int count, int duration, String date, String username) {
+        List<WorkloadRequest> requests = IntStream.range(0, count)
+                .mapToObj(i -> buildRequest(username, duration, date, "ADD"))
+                .toList();
+
+        Response response = given()
+                .header("Authorization", "Bearer " + testContext.getJwtToken())
+                .contentType(ContentType.JSON)
+                .body(requests)
+            .when()
+                .post("/api/workload");
+
+        testContext.setResponse(response);
+    }
+
     //GET workload summary
 
     @When("the workload summary is requested for {string}")
@@ -58,6 +75,20 @@ public class WorkloadRestSteps {
         testContext.setResponse(response);
     }
 
+    //Admin endpoints
+
+    @When("a replay of pending dead letters is requested")
+    public void replayPendingDeadLetters() {
+        Response response = given()
+                .header("Authorization", "Bearer " + testContext.getJwtToken())
+                .contentType(ContentType.JSON)
+                .body(Map.of())
+            .when()
+                .post("/api/workload/dead-letters/replay");
+
+        testContext.setResponse(response);
+    }
+
     //Summary assertions
 
     @Then("the summary should show {int} minutes for year {int} month {int}")
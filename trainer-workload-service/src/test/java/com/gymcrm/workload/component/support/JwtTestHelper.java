@@ -9,6 +9,7 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -38,6 +39,18 @@ public class JwtTestHelper {
                 .compact();
     }
 
+    public String generateAdminToken(String username) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .subject(username)
+                .id(UUID.randomUUID().toString())
+                .claim("roles", List.of("WORKLOAD_ADMIN"))
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(3600)))
+                .signWith(signingKey)
+                .compact();
+    }
+
     public String generateExpiredToken(String username) {
         Instant past = Instant.now().minusSeconds(7200);
         return Jwts.builder()
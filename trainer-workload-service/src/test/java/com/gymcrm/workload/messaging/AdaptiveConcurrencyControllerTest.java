@@ -0,0 +1,122 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.messaging.AdaptiveConcurrencyController.Decision;
+import com.gymcrm.workload.messaging.AdaptiveConcurrencyController.Sample;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.BrowserCallback;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AdaptiveConcurrencyController")
+class AdaptiveConcurrencyControllerTest {
+
+    private static final String QUEUE = "trainer.workload.queue";
+
+    @Mock
+    private JmsListenerEndpointRegistry registry;
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    @Mock
+    private DefaultMessageListenerContainer container;
+
+    private AdaptiveConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AdaptiveConcurrencyController(registry, jmsTemplate, new SimpleMeterRegistry(),
+                QUEUE, "1-8", 100, 5000, 250, 50);
+    }
+
+    @Test
+    @DisplayName("a backlog above the per-consumer threshold adds one consumer")
+    void decide_backlog_addsConsumer() {
+        Decision decision = controller.decide(2, new Sample(500, 20, 5));
+
+        assertThat(decision.target()).isEqualTo(3);
+        assertThat(decision.reason()).startsWith("backlog");
+    }
+
+    @Test
+    @DisplayName("growth stops at the upper bound of workload.jms.concurrency")
+    void decide_backlog_cappedAtMaximum() {
+        assertThat(controller.decide(8, new Sample(5000, 20, 5)).target()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("degraded MongoDB latency halves the consumers even with a backlog")
+    void decide_mongoLatency_halvesConsumers() {
+        Decision decision = controller.decide(8, new Sample(5000, 20, 120));
+
+        assertThat(decision.target()).isEqualTo(4);
+        assertThat(decision.reason()).startsWith("mongo latency");
+    }
+
+    @Test
+    @DisplayName("a slow processing p95 halves the consumers, never below the minimum")
+    void decide_processLatency_halvesDownToMinimum() {
+        assertThat(controller.decide(3, new Sample(0, 400, 5)).target()).isEqualTo(1);
+        assertThat(controller.decide(1, new Sample(0, 400, 5)).target()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("an empty queue removes one consumer; missing latency samples do not count as slow")
+    void decide_emptyQueue_removesConsumer() {
+        assertThat(controller.decide(4, new Sample(0, Double.NaN, Double.NaN)).target()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("an unknown backlog holds the current size")
+    void decide_unknownBacklog_holds() {
+        Decision decision = controller.decide(4, new Sample(-1, 20, 5));
+
+        assertThat(decision.target()).isEqualTo(4);
+        assertThat(decision.reason()).isEqualTo("backlog unknown");
+    }
+
+    @Test
+    @DisplayName("adjust resizes the running listener container and records the decision")
+    @SuppressWarnings("unchecked")
+    void adjust_resizesContainer() {
+        when(registry.getListenerContainer(WorkloadMessageListener.CONTAINER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(true);
+        when(container.getConcurrentConsumers()).thenReturn(2);
+        when(jmsTemplate.browse(eq(QUEUE), any(BrowserCallback.class))).thenReturn(1000);
+
+        controller.adjust();
+
+        verify(container).setConcurrentConsumers(3);
+        verify(container).setMaxConcurrentConsumers(3);
+        assertThat(controller.currentConsumers()).isEqualTo(3);
+        assertThat(controller.recentDecisions()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("adjust does nothing while the listener container is stopped (batch mode)")
+    void adjust_containerStopped_noop() {
+        when(registry.getListenerContainer(WorkloadMessageListener.CONTAINER_ID)).thenReturn(container);
+        when(container.isRunning()).thenReturn(false);
+
+        controller.adjust();
+
+        verify(container, never()).setConcurrentConsumers(anyInt());
+        assertThat(controller.recentDecisions()).isEmpty();
+    }
+}
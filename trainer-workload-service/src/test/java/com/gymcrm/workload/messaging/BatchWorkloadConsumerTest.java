@@ -0,0 +1,146 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.service.WorkloadService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchWorkloadConsumer")
+class BatchWorkloadConsumerTest {
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+    @Mock
+    private MessageConverter messageConverter;
+    @Mock
+    private WorkloadService workloadService;
+    @Mock
+    private Validator validator;
+    @Mock
+    private Session session;
+    @Mock
+    private MessageConsumer consumer;
+    @Mock
+    private MessageProducer dlqProducer;
+
+    private BatchWorkloadConsumer batchConsumer;
+
+    @BeforeEach
+    void setUp() {
+        batchConsumer = new BatchWorkloadConsumer(connectionFactory, messageConverter, workloadService, validator,
+                new SimpleMeterRegistry(), "trainer.workload.queue", "DLQ.trainer.workload.queue", 500, 50, 1);
+        lenient().when(validator.validate(any())).thenReturn(Set.of());
+    }
+
+    @Test
+    @DisplayName("a failed batch is rolled back and its messages are then consumed one per transaction")
+    void poll_failedBatch_isolatesItsMessages() throws JMSException {
+        Message first = message("tx-1", false);
+        Message second = message("tx-2", false);
+        when(consumer.receive(anyLong())).thenReturn(first, second, null);
+        List<String> transactionIds = new ArrayList<>();
+        doAnswer(inv -> {
+            transactionIds.add(MDC.get(WorkloadMessages.TRANSACTION_ID_MDC_KEY));
+            throw new DataAccessResourceFailureException("mongo down");
+        }).when(workloadService).processBatch(anyList(), anyList());
+
+        int isolated = batchConsumer.poll(session, consumer, dlqProducer, 0);
+
+        assertThat(isolated).isEqualTo(2);
+        assertThat(transactionIds).containsExactly("tx-1,tx-2");
+        verify(session).rollback();
+        verify(session, never()).commit();
+        assertThat(MDC.get(WorkloadMessages.TRANSACTION_ID_MDC_KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("while isolating, one message is received and committed per poll")
+    void poll_isolated_consumesSingleMessage() throws JMSException {
+        Message next = message("tx-1", false);
+        when(consumer.receive(anyLong())).thenReturn(next);
+
+        int isolated = batchConsumer.poll(session, consumer, dlqProducer, 2);
+
+        assertThat(isolated).isEqualTo(1);
+        verify(consumer).receive(anyLong());
+        verify(workloadService).processBatch(anyList(), anyList());
+        verify(session).commit();
+    }
+
+    @Test
+    @DisplayName("a redelivered message that arrives first is consumed alone, and failing alone isolates nothing more")
+    void poll_redeliveredFirst_consumedAlone() throws JMSException {
+        Message redelivered = message("tx-1", true);
+        when(consumer.receive(anyLong())).thenReturn(redelivered);
+        doThrow(new DataAccessResourceFailureException("mongo down"))
+                .when(workloadService).processBatch(anyList(), anyList());
+
+        int isolated = batchConsumer.poll(session, consumer, dlqProducer, 0);
+
+        assertThat(isolated).isZero();
+        verify(consumer).receive(anyLong());
+        verify(session).rollback();
+    }
+
+    @Test
+    @DisplayName("a message the converter fails on rolls the batch back instead of escaping the poll")
+    void poll_converterFailure_rolledBackAndIsolated() throws JMSException {
+        Message first = message("tx-1", false);
+        Message second = message("tx-2", false);
+        when(consumer.receive(anyLong())).thenReturn(first, second, null);
+        when(messageConverter.fromMessage(second)).thenThrow(new IllegalStateException("unreadable body"));
+
+        int isolated = batchConsumer.poll(session, consumer, dlqProducer, 0);
+
+        assertThat(isolated).isEqualTo(2);
+        verify(session).rollback();
+        verify(session, never()).commit();
+        verify(workloadService, never()).processBatch(anyList(), anyList());
+    }
+
+    private Message message(String transactionId, boolean redelivered) throws JMSException {
+        Message message = mock(Message.class);
+        lenient().when(message.getStringProperty(WorkloadMessages.TRANSACTION_ID_JMS_PROPERTY)).thenReturn(transactionId);
+        lenient().when(message.getJMSRedelivered()).thenReturn(redelivered);
+        WorkloadRequest request = new WorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setTrainingDate(LocalDate.of(2026, 6, 1));
+        request.setTrainingDuration(60);
+        request.setActionType(WorkloadRequest.ActionType.ADD);
+        lenient().when(messageConverter.fromMessage(message)).thenReturn(request);
+        return message;
+    }
+}
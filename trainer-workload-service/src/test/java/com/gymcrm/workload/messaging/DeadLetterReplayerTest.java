@@ -0,0 +1,164 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.document.DeadLetterDocument;
+import com.gymcrm.workload.document.DeadLetterDocument.Status;
+import com.gymcrm.workload.dto.DeadLetterReplayRequest;
+import com.gymcrm.workload.dto.DeadLetterReplayResponse;
+import com.gymcrm.workload.repository.DeadLetterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeadLetterReplayer")
+class DeadLetterReplayerTest {
+
+    private static final String QUEUE = "trainer.workload.queue";
+    private static final String BULK_QUEUE = "trainer.workload.bulk.queue";
+
+    @Mock
+    private DeadLetterRepository repository;
+
+    @Mock
+    private JmsTemplate jmsTemplate;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Queue queue;
+
+    @Mock
+    private Queue bulkQueue;
+
+    @Mock
+    private MessageProducer producer;
+
+    @Mock
+    private TextMessage message;
+
+    private DeadLetterReplayer replayer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws JMSException {
+        replayer = new DeadLetterReplayer(repository, jmsTemplate, new SimpleMeterRegistry(),
+                QUEUE, 1_000_000, 3, Duration.ofMinutes(5));
+        lenient().when(jmsTemplate.execute(any(SessionCallback.class), eq(true)))
+                .thenAnswer(invocation -> invocation.<SessionCallback<?>>getArgument(0).doInJms(session));
+        lenient().when(session.createQueue(QUEUE)).thenReturn(queue);
+        lenient().when(session.createQueue(BULK_QUEUE)).thenReturn(bulkQueue);
+        lenient().when(session.createProducer(null)).thenReturn(producer);
+        lenient().when(session.createTextMessage(anyString())).thenReturn(message);
+    }
+
+    @Test
+    @DisplayName("claimed entries are sent with their properties and marked replayed; unclaimable ones are skipped")
+    void replay_sendsClaimedEntries() throws JMSException {
+        when(repository.claim(eq("dl-1"), any())).thenReturn(deadLetter("dl-1"));
+        when(repository.claim(eq("dl-2"), any())).thenReturn(null);
+
+        DeadLetterReplayResponse response = replayer.replay(byIds("dl-1", "dl-2"));
+
+        assertThat(response).isEqualTo(new DeadLetterReplayResponse(1, 1, 0));
+        verify(session).createTextMessage("{\"trainerUsername\":\"john.doe\"}");
+        verify(message).setJMSType("workload");
+        verify(message).setObjectProperty("X-Transaction-Id", "tx-1");
+        verify(message).setStringProperty("JMSXGroupID", "trainer-17");
+        verify(message, never()).setObjectProperty(eq("JMSXDeliveryCount"), any());
+        verify(message, never()).setObjectProperty(eq(DeadLetterQueueListener.FAILURE_CAUSE_PROPERTY), any());
+        verify(message).setStringProperty(DeadLetterQueueListener.DEAD_LETTER_ID_PROPERTY, "dl-1");
+        verify(producer).send(queue, message);
+        verify(repository).markReplayed("dl-1");
+        verify(repository, never()).markReplayed("dl-2");
+    }
+
+    @Test
+    @DisplayName("a dead letter goes back to the queue it came from")
+    void replay_sendsToOriginalQueue() throws JMSException {
+        DeadLetterDocument bulk = deadLetter("dl-1");
+        bulk.setOriginalQueue(BULK_QUEUE);
+        when(repository.claim(eq("dl-1"), any())).thenReturn(bulk);
+        when(repository.claim(eq("dl-2"), any())).thenReturn(deadLetter("dl-2"));
+
+        replayer.replay(byIds("dl-1", "dl-2"));
+
+        verify(producer).send(bulkQueue, message);
+        verify(producer).send(queue, message);
+    }
+
+    @Test
+    @DisplayName("a failed send releases the entry and leaves the rest pending")
+    void replay_brokerDown_releasesAndStops() throws JMSException {
+        when(repository.claim(eq("dl-1"), any())).thenReturn(deadLetter("dl-1"));
+        doThrow(new JMSException("connection lost")).when(producer).send(queue, message);
+
+        DeadLetterReplayResponse response = replayer.replay(byIds("dl-1", "dl-2"));
+
+        assertThat(response).isEqualTo(new DeadLetterReplayResponse(0, 0, 2));
+        verify(repository).release("dl-1");
+        verify(repository, never()).claim(eq("dl-2"), any());
+        verify(repository, never()).markReplayed(anyString());
+    }
+
+    @Test
+    @DisplayName("without IDs the pending matches are replayed, capped at max-batch; more IDs are rejected")
+    void replay_byFilter_capped() {
+        DeadLetterReplayRequest request = new DeadLetterReplayRequest(null, "bulk", "john.doe", null, null, null, 50);
+        when(repository.findIds(request.filter(), 3)).thenReturn(List.of());
+
+        assertThat(replayer.replay(request)).isEqualTo(new DeadLetterReplayResponse(0, 0, 0));
+        assertThat(request.filter().status()).isEqualTo(Status.PENDING);
+        verifyNoInteractions(jmsTemplate);
+
+        assertThatThrownBy(() -> replayer.replay(byIds("a", "b", "c", "d")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DeadLetterReplayRequest byIds(String... ids) {
+        return new DeadLetterReplayRequest(List.of(ids), null, null, null, null, null, null);
+    }
+
+    private static DeadLetterDocument deadLetter(String id) {
+        Map<String, Object> headers = new LinkedHashMap<>();
+        headers.put("JMSType", "workload");
+        headers.put("JMSXDeliveryCount", 7);
+        headers.put("JMSXGroupID", "trainer-17");
+        headers.put("X-Transaction-Id", "tx-1");
+        headers.put(DeadLetterQueueListener.FAILURE_CAUSE_PROPERTY, "boom");
+        DeadLetterDocument deadLetter = new DeadLetterDocument();
+        deadLetter.setId(id);
+        deadLetter.setStatus(Status.REPLAYING);
+        deadLetter.setText("{\"trainerUsername\":\"john.doe\"}");
+        deadLetter.setHeaders(headers);
+        return deadLetter;
+    }
+}
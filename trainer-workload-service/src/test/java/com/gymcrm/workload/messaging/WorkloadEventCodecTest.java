@@ -0,0 +1,75 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WorkloadEventCodec")
+class WorkloadEventCodecTest {
+
+    @Test
+    @DisplayName("round-trips a full event with a UUID event ID")
+    void roundTrip_fullEvent() {
+        WorkloadRequest request = request(UUID.randomUUID().toString());
+
+        WorkloadRequest decoded = WorkloadEventCodec.decode(WorkloadEventCodec.encode(request));
+
+        assertEquals("john.doe", decoded.getTrainerUsername());
+        assertEquals("John", decoded.getFirstName());
+        assertEquals("Doe", decoded.getLastName());
+        assertEquals(Boolean.TRUE, decoded.getIsActive());
+        assertEquals(LocalDate.of(2026, 3, 1), decoded.getTrainingDate());
+        assertEquals(60, decoded.getTrainingDuration());
+        assertEquals(WorkloadRequest.ActionType.DELETE, decoded.getActionType());
+        assertEquals(request.getEventId(), decoded.getEventId());
+    }
+
+    @Test
+    @DisplayName("keeps null fields null and non-UUID event IDs as strings")
+    void roundTrip_nullsAndPlainEventId() {
+        WorkloadRequest request = new WorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setActionType(WorkloadRequest.ActionType.ADD);
+        request.setTrainingDuration(0);
+        request.setEventId("evt-1");
+
+        WorkloadRequest decoded = WorkloadEventCodec.decode(WorkloadEventCodec.encode(request));
+
+        assertNull(decoded.getFirstName());
+        assertNull(decoded.getIsActive());
+        assertNull(decoded.getTrainingDate());
+        assertEquals(0, decoded.getTrainingDuration());
+        assertEquals("evt-1", decoded.getEventId());
+    }
+
+    @Test
+    @DisplayName("rejects unknown versions and truncated payloads")
+    void decode_rejectsBadPayloads() {
+        byte[] payload = WorkloadEventCodec.encode(request(UUID.randomUUID().toString()));
+        byte[] truncated = Arrays.copyOf(payload, payload.length - 4);
+        byte[] nextVersion = payload.clone();
+        nextVersion[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> WorkloadEventCodec.decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadEventCodec.decode(nextVersion));
+    }
+
+    private static WorkloadRequest request(String eventId) {
+        WorkloadRequest request = new WorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setFirstName("John");
+        request.setLastName("Doe");
+        request.setIsActive(true);
+        request.setTrainingDate(LocalDate.of(2026, 3, 1));
+        request.setTrainingDuration(60);
+        request.setActionType(WorkloadRequest.ActionType.DELETE);
+        request.setEventId(eventId);
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package com.gymcrm.workload.messaging;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadMessageConverter")
+class WorkloadMessageConverterTest {
+
+    @Mock
+    private MessageConverter json;
+    @Mock
+    private BytesMessage bytesMessage;
+    @Mock
+    private TextMessage textMessage;
+
+    private WorkloadMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new WorkloadMessageConverter(json);
+    }
+
+    @Test
+    @DisplayName("decodes a binary-typed BytesMessage without the JSON converter")
+    void fromMessage_binary_decodedWithCodec() throws Exception {
+        WorkloadRequest request = new WorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setActionType(WorkloadRequest.ActionType.ADD);
+        byte[] payload = WorkloadEventCodec.encode(request);
+        stubBytes(payload);
+
+        WorkloadRequest decoded = (WorkloadRequest) converter.fromMessage(bytesMessage);
+
+        assertEquals("john.doe", decoded.getTrainerUsername());
+        verifyNoInteractions(json);
+    }
+
+    @Test
+    @DisplayName("hands JSON messages to the JSON converter")
+    void fromMessage_json_delegated() throws Exception {
+        WorkloadRequest request = new WorkloadRequest();
+        when(json.fromMessage(textMessage)).thenReturn(request);
+
+        assertSame(request, converter.fromMessage(textMessage));
+    }
+
+    @Test
+    @DisplayName("an undecodable binary payload is a conversion failure")
+    void fromMessage_badBinary_throwsConversionException() throws Exception {
+        stubBytes(new byte[] {9});
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(bytesMessage));
+    }
+
+    private void stubBytes(byte[] payload) throws Exception {
+        when(bytesMessage.getStringProperty(WorkloadMessageConverter.TYPE_ID_PROPERTY))
+                .thenReturn(WorkloadEventCodec.BINARY_TYPE_ID);
+        when(bytesMessage.getBodyLength()).thenReturn((long) payload.length);
+        when(bytesMessage.readBytes(any(byte[].class))).thenAnswer(inv -> {
+            byte[] target = inv.getArgument(0);
+            System.arraycopy(payload, 0, target, 0, payload.length);
+            return payload.length;
+        });
+    }
+}
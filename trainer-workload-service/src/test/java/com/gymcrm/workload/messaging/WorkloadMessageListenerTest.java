@@ -1,7 +1,10 @@
 package com.gymcrm.workload.messaging;
 
+import com.gymcrm.workload.dto.TrainerProfileRequest;
+import com.gymcrm.workload.dto.WorkloadDeltaBatchRequest;
 import com.gymcrm.workload.dto.WorkloadRequest;
 import com.gymcrm.workload.service.WorkloadService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.validation.ConstraintViolation;
@@ -14,9 +17,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,15 +40,48 @@ class WorkloadMessageListenerTest {
     @Mock
     private Message rawMessage;
 
+    private SimpleMeterRegistry meterRegistry;
     private WorkloadMessageListener listener;
 
     @BeforeEach
     void setUp() throws JMSException {
-        listener = new WorkloadMessageListener(workloadService, validator);
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new WorkloadMessageListener(workloadService, validator, meterRegistry);
         // default: no transaction ID in JMS property
         when(rawMessage.getStringProperty(anyString())).thenReturn(null);
     }
 
+    @Test
+    @DisplayName("a valid delta batch is applied as a whole")
+    void onMessage_deltaBatch_delegatesToProcessDeltaBatch() {
+        WorkloadDeltaBatchRequest batch = new WorkloadDeltaBatchRequest();
+        batch.setTrainerUsername("john.doe");
+        batch.setDeltas(List.of(new WorkloadDeltaBatchRequest.MonthDelta()));
+        when(validator.validate(batch)).thenReturn(Set.of());
+
+        listener.onMessage(batch, rawMessage);
+
+        verify(workloadService).processDeltaBatch(batch);
+        verify(workloadService, never()).processWorkload(any());
+        assertEquals(1, meterRegistry.get(EventLagMetrics.LAG_TIMER)
+                .tags("stage", "apply", "action", EventLagMetrics.DELTA_BATCH_ACTION).timer().count());
+    }
+
+    @Test
+    @DisplayName("a valid trainer profile only updates the profile")
+    void onMessage_profile_delegatesToProcessProfile() {
+        TrainerProfileRequest profile = new TrainerProfileRequest();
+        profile.setTrainerUsername("john.doe");
+        when(validator.validate(profile)).thenReturn(Set.of());
+
+        listener.onMessage(profile, rawMessage);
+
+        verify(workloadService).processProfile(profile);
+        verify(workloadService, never()).processWorkload(any());
+        assertEquals(1, meterRegistry.get(EventLagMetrics.LAG_TIMER)
+                .tags("stage", "apply", "action", EventLagMetrics.PROFILE_ACTION).timer().count());
+    }
+
     @Test
     @DisplayName("valid message is delegated to WorkloadService")
     void onMessage_validRequest_delegatesToWorkloadService() {
@@ -53,6 +92,21 @@ class WorkloadMessageListenerTest {
         verify(workloadService).processWorkload(any(WorkloadRequest.class));
     }
 
+    @Test
+    @DisplayName("a message of the bulk lane is timed and lag-tagged separately from interactive ones")
+    void onBulkMessage_recordsOnBulkLane() throws JMSException {
+        when(validator.validate(any(WorkloadRequest.class))).thenReturn(Set.of());
+        when(rawMessage.getStringProperty("X-Workload-Lane")).thenReturn("BULK");
+
+        listener.onBulkMessage(validRequest(), rawMessage);
+
+        verify(workloadService).processWorkload(any(WorkloadRequest.class));
+        assertEquals(1, meterRegistry.get(WorkloadMessageListener.PROCESS_TIMER).tags("lane", "bulk").timer().count());
+        assertEquals(0, meterRegistry.get(WorkloadMessageListener.PROCESS_TIMER).tags("lane", "interactive").timer().count());
+        assertEquals(1, meterRegistry.get(EventLagMetrics.LAG_TIMER)
+                .tags("stage", "apply", "lane", "bulk").timer().count());
+    }
+
     @Test
     @DisplayName("invalid message is discarded — WorkloadService is never called")
     void onMessage_invalidRequest_discardsWithoutProcessing() {
@@ -82,6 +136,36 @@ class WorkloadMessageListenerTest {
         assertThrows(RuntimeException.class, () -> listener.onMessage(validRequest(), rawMessage));
     }
 
+    @Test
+    @DisplayName("version conflict is counted by exception type before the rethrow")
+    void onMessage_versionConflict_countsFailureByType() {
+        when(validator.validate(any(WorkloadRequest.class))).thenReturn(Set.of());
+        doThrow(new OptimisticLockingFailureException("stale version")).when(workloadService).processWorkload(any());
+
+        assertThrows(RuntimeException.class, () -> listener.onMessage(validRequest(), rawMessage));
+
+        assertEquals(1.0, meterRegistry.get("workload.events.failed")
+                .tag("exception", "OptimisticLockingFailureException").counter().count());
+    }
+
+    @Test
+    @DisplayName("a persisted event records delivery, apply and end-to-end lag tagged by action")
+    void onMessage_persisted_recordsLagPerStage() throws JMSException {
+        long now = System.currentTimeMillis();
+        when(validator.validate(any(WorkloadRequest.class))).thenReturn(Set.of());
+        when(rawMessage.propertyExists(anyString())).thenReturn(true);
+        when(rawMessage.getLongProperty("X-Published-At")).thenReturn(now - 2_000);
+        when(rawMessage.getLongProperty("X-Occurred-At")).thenReturn(now - 3_000);
+
+        listener.onMessage(validRequest(), rawMessage);
+
+        assertTrue(meterRegistry.get("workload.events.lag").tags("stage", "delivery", "action", "ADD").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 2_000);
+        assertTrue(meterRegistry.get("workload.events.lag").tags("stage", "end_to_end", "action", "ADD").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 3_000);
+        assertEquals(1, meterRegistry.get("workload.events.lag").tags("stage", "apply").timer().count());
+    }
+
     @Test
     @DisplayName("X-Transaction-Id JMS property is put into MDC during processing")
     void onMessage_withTransactionId_setsMdcDuringProcessing() throws JMSException {
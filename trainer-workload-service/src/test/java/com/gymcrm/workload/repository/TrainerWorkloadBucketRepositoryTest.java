@@ -0,0 +1,104 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadYearBucket;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Year;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrainerWorkloadBucketRepository (archived years)")
+class TrainerWorkloadBucketRepositoryTest {
+
+    private static final int LAST_YEAR = Year.now().getValue() - 1;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TrainerWorkloadBucketRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TrainerWorkloadBucketRepository(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("an event for an archived year moves the bucket back before the write, so the floor sees its total")
+    void applyDelta_archivedYear_restoredFirst() {
+        Document archived = archivedBucket("b-1", 90);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION)))
+                .thenReturn(List.of(archived));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(TrainerWorkloadYearBucket.COLLECTION)))
+                .thenReturn(new Document("months", new Document("06", 90)));
+
+        MonthChange change = repository.applyDelta(new WorkloadDelta("john.doe", null, null, null, LAST_YEAR, 6, -40));
+
+        InOrder order = inOrder(mongoTemplate);
+        order.verify(mongoTemplate).insert(archived, TrainerWorkloadYearBucket.COLLECTION);
+        order.verify(mongoTemplate).remove(any(Query.class), eq(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION));
+        order.verify(mongoTemplate).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(TrainerWorkloadYearBucket.COLLECTION));
+        assertThat(change.before()).isEqualTo(90);
+        assertThat(change.after()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("an archived bucket is added to a hot bucket of the same year opened while it was archived")
+    void applyDelta_hotBucketWithOtherId_merged() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION)))
+                .thenReturn(List.of(archivedBucket("b-1", 90)));
+        when(mongoTemplate.insert(any(Document.class), eq(TrainerWorkloadYearBucket.COLLECTION)))
+                .thenThrow(new DuplicateKeyException("uk_trainer_year"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TrainerWorkloadYearBucket.COLLECTION)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        repository.applyDelta(new WorkloadDelta("john.doe", null, null, null, LAST_YEAR, 6, 30));
+
+        ArgumentCaptor<Update> merge = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), merge.capture(), eq(TrainerWorkloadYearBucket.COLLECTION));
+        assertThat(merge.getValue().getUpdateObject().get("$inc", Document.class))
+                .containsEntry("months.06", 90)
+                .containsEntry("version", 1);
+        verify(mongoTemplate).remove(any(Query.class), eq(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION));
+    }
+
+    @Test
+    @DisplayName("current-year events never look at the archive")
+    void applyDelta_currentYear_archiveNotRead() {
+        repository.applyDelta(new WorkloadDelta("john.doe", null, null, null, LAST_YEAR + 1, 6, 30));
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq(TrainerWorkloadYearBucket.ARCHIVE_COLLECTION));
+    }
+
+    private static Document archivedBucket(String id, int june) {
+        return new Document("_id", id)
+                .append("trainerUsername", "john.doe")
+                .append("year", LAST_YEAR)
+                .append("months", new Document("06", june))
+                .append("version", 3L);
+    }
+}
@@ -0,0 +1,371 @@
+package com.gymcrm.workload.repository;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.document.TrainerWorkloadDocument.MonthEntry;
+import com.gymcrm.workload.document.TrainerWorkloadDocument.YearEntry;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrainerWorkloadDocumentRepositoryImpl (atomic write path)")
+class TrainerWorkloadDocumentRepositoryImplTest {
+
+    private static final String COLLECTION = "trainer_workload";
+
+    private static final WorkloadDelta ADD_60 = new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 60);
+    private static final WorkloadDelta DELETE_40 = new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, -40);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TrainerWorkloadDocumentRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.getCollectionName(TrainerWorkloadDocument.class)).thenReturn(COLLECTION);
+        repository = new TrainerWorkloadDocumentRepositoryImpl(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("a slim delta writes the month total without touching the profile fields")
+    void applyDelta_slim_leavesProfileAlone() {
+        repository.applyDelta(new WorkloadDelta("john.doe", null, null, null, 2024, 6, 60));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION));
+        assertThat(setStage(update.getValue()))
+                .containsKey("totals.2024.06")
+                .doesNotContainKeys("firstName", "lastName", "isActive");
+    }
+
+    @Test
+    @DisplayName("updateProfile upserts only the profile fields by username, on either layout")
+    void updateProfile_setsProfileFieldsOnly() {
+        repository.updateProfile(new TrainerProfile("john.doe", "Johnny", "Doe", false));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(COLLECTION));
+        assertThat(query.getValue().getQueryObject()).containsOnlyKeys("trainerUsername");
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsEntry("firstName", "Johnny").containsEntry("isActive", false)
+                .doesNotContainKey("totals");
+        assertThat(update.getValue().getUpdateObject().get("$setOnInsert", Document.class))
+                .containsEntry("schemaVersion", TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+    }
+
+    @Test
+    @DisplayName("ADD is a single upsert on the v2 document addressing totals.<year>.<month>")
+    void applyDelta_add_singleUpsertOnMonthPath() {
+        repository.applyDelta(ADD_60);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate, times(1)).findAndModify(query.capture(), update.capture(), options.capture(),
+                eq(Document.class), eq(COLLECTION));
+        assertThat(query.getValue().getQueryObject())
+                .containsEntry("trainerUsername", "john.doe")
+                .containsEntry("schemaVersion", TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+        assertThat(query.getValue().getFieldsObject()).containsOnlyKeys("totals.2024.06", "recentEventIds");
+        assertThat(options.getValue().isUpsert()).isTrue();
+        assertThat(options.getValue().isReturnNew()).isFalse();
+
+        Document set = setStage(update.getValue());
+        assertThat(set).containsKey("totals.2024.06");
+        assertThat(set.get("totals.2024.06", Document.class).toJson()).contains("\"$add\"").contains("60");
+        assertThat(set).containsEntry("firstName", new Document("$literal", "John"));
+    }
+
+    @Test
+    @DisplayName("DELETE adds a negative amount and floors the month at 0 in the same update")
+    void applyDelta_delete_flooredOnServer() {
+        repository.applyDelta(DELETE_40);
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION));
+        Document total = setStage(update.getValue()).get("totals.2024.06", Document.class);
+        assertThat(total.getList("$max", Object.class)).first().isEqualTo(0);
+        assertThat(total.toJson()).contains("-40");
+    }
+
+    @Test
+    @DisplayName("the returned change is computed from the pre-image, floored like the server does")
+    void applyDelta_returnsChangeFromPreImage() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION)))
+                .thenReturn(new Document("totals", new Document("2024", new Document("06", 25))));
+
+        assertThat(repository.applyDelta(DELETE_40)).isEqualTo(new MonthChange("john.doe", 2024, 6, 25, 0));
+    }
+
+    @Test
+    @DisplayName("a new trainer (no pre-image) starts from 0")
+    void applyDelta_newTrainer_startsFromZero() {
+        assertThat(repository.applyDelta(ADD_60)).isEqualTo(new MonthChange("john.doe", 2024, 6, 0, 60));
+    }
+
+    @Test
+    @DisplayName("with an event ID every field keeps its value if the ID is in the ring, and the ID is appended otherwise")
+    void applyDelta_withEventId_guardsEveryField() {
+        repository.applyDelta(new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 60, List.of("evt-1")));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION));
+        Document set = setStage(update.getValue());
+        assertThat(set.get("totals.2024.06", Document.class).getList("$cond", Object.class).get(1))
+                .isEqualTo("$totals.2024.06");
+        assertThat(set.get("firstName", Document.class)).containsKey("$cond");
+        assertThat(set.get("recentEventIds", Document.class).toJson())
+                .contains("$setIntersection")
+                .contains("evt-1")
+                .contains(String.valueOf(-TrainerWorkloadDocument.RECENT_EVENT_IDS));
+    }
+
+    @Test
+    @DisplayName("an event ID found in the pre-image ring yields a duplicate change")
+    void applyDelta_eventIdInPreImage_returnsDuplicate() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION)))
+                .thenReturn(new Document("totals", new Document("2024", new Document("06", 60)))
+                        .append("recentEventIds", List.of("evt-0", "evt-1")));
+
+        MonthChange change = repository.applyDelta(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 60, List.of("evt-1")));
+
+        assertThat(change).isEqualTo(new MonthChange("john.doe", 2024, 6, 60, 60, true));
+        assertThat(change.minutesDelta()).isZero();
+    }
+
+    @Test
+    @DisplayName("collision with a v1 document migrates it, then retries the upsert")
+    void applyDelta_legacyDocument_migratesThenRetries() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(null);
+        when(mongoTemplate.findOne(any(Query.class), eq(TrainerWorkloadDocument.class)))
+                .thenReturn(legacyDocument(7L));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(COLLECTION)))
+                .thenReturn(matched(1));
+
+        repository.applyDelta(ADD_60);
+
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(COLLECTION));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(COLLECTION));
+    }
+
+    @Test
+    @DisplayName("lost insert race for a new trainer retries without migrating")
+    void applyDelta_insertRaceLost_retries() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(null);
+        TrainerWorkloadDocument current = legacyDocument(1L);
+        current.migrateToMapLayout();
+        when(mongoTemplate.findOne(any(Query.class), eq(TrainerWorkloadDocument.class))).thenReturn(current);
+
+        repository.applyDelta(ADD_60);
+
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(COLLECTION));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+
+    @Test
+    @DisplayName("gives up with OptimisticLockingFailureException when every attempt collides")
+    void applyDelta_collisionsExhausted_throws() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(COLLECTION)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThatThrownBy(() -> repository.applyDelta(ADD_60))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("migrateLayout moves v1 entries into totals, guarded by the version read")
+    void migrateLayout_convertsAndGuardsByVersion() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(COLLECTION)))
+                .thenReturn(matched(1));
+
+        TrainerWorkloadDocument migrated = repository.migrateLayout(legacyDocument(7L));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(COLLECTION));
+        assertThat(query.getValue().getQueryObject()).containsEntry("version", 7L);
+        assertThat((Document) update.getValue().getUpdateObject().get("$unset")).containsKey("years");
+
+        assertThat(migrated.isLegacyLayout()).isFalse();
+        assertThat(migrated.getTotals().get("2024")).containsEntry("03", 45).containsEntry("11", 30);
+        assertThat(migrated.getVersion()).isEqualTo(8L);
+    }
+
+    @Test
+    @DisplayName("migrateLayout keeps the stored version when the document changed concurrently")
+    void migrateLayout_concurrentChange_deferred() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(COLLECTION)))
+                .thenReturn(matched(0));
+
+        TrainerWorkloadDocument migrated = repository.migrateLayout(legacyDocument(7L));
+
+        assertThat(migrated.getVersion()).isEqualTo(7L);
+        assertThat(migrated.getTotals()).containsKey("2024");
+    }
+
+    @Test
+    @DisplayName("migrateLegacyLayouts returns null when no v1 documents remain")
+    void migrateLegacyLayouts_nothingLeft_returnsNull() {
+        when(mongoTemplate.find(any(Query.class), eq(TrainerWorkloadDocument.class))).thenReturn(List.of());
+
+        assertThat(repository.migrateLegacyLayouts(null, 100)).isNull();
+    }
+
+    @Test
+    @DisplayName("findSummarySlice filters totals by year and month key inside the aggregation")
+    void findSummarySlice_projectsOnlyRequestedKeys() {
+        TrainerWorkloadDocument slice = new TrainerWorkloadDocument();
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(COLLECTION), eq(TrainerWorkloadDocument.class)))
+                .thenReturn(new AggregationResults<>(List.of(slice), new Document()));
+
+        assertThat(repository.findSummarySlice("john.doe", new WorkloadRange(2025, 2026, 1, 3))).contains(slice);
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(COLLECTION), eq(TrainerWorkloadDocument.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline.get(0).toJson()).contains("john.doe");
+        Document project = pipeline.get(1).get("$project", Document.class);
+        assertThat(project).containsEntry("years", 1);
+        assertThat(project.get("totals", Document.class).toJson())
+                .contains("\"$gte\": [\"$$year.k\", \"2025\"]")
+                .contains("\"$lte\": [\"$$year.k\", \"2026\"]")
+                .contains("\"$gte\": [\"$$month.k\", \"01\"]")
+                .contains("\"$lte\": [\"$$month.k\", \"03\"]");
+    }
+
+    @Test
+    @DisplayName("searchByName turns prefixes into collated key ranges and continues after the cursor")
+    void searchByName_prefixRangeWithCollationAndKeyset() {
+        String id = "65f000000000000000000001";
+        repository.searchByName(new TrainerSearch("jo", null, true, new TrainerSearch.Position("John", "Doe", id)), 21);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(TrainerWorkloadDocument.class));
+        Query q = query.getValue();
+        assertThat(q.getCollation()).contains(TrainerWorkloadDocument.NAME_COLLATION);
+        assertThat(q.getSortObject()).isEqualTo(new Document("firstName", 1).append("lastName", 1).append("_id", 1));
+        assertThat(q.getLimit()).isEqualTo(21);
+        String json = q.getQueryObject().toJson();
+        assertThat(json).contains("\"$gte\": \"jo\"").contains("\"$lt\": \"jo")
+                .contains("\"isActive\": true")
+                .contains("\"$oid\": \"" + id + "\"");
+    }
+
+    @Test
+    @DisplayName("searchByName continues after a trainer without a first name with every named trainer")
+    void searchByName_cursorWithoutName_matchesNamedTrainers() {
+        String id = "65f000000000000000000001";
+        repository.searchByName(new TrainerSearch(null, null, null, new TrainerSearch.Position(null, "Doe", id)), 21);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(TrainerWorkloadDocument.class));
+        String json = query.getValue().getQueryObject().toJson();
+        assertThat(json).contains("{\"firstName\": {\"$ne\": null}}")
+                .contains("{\"firstName\": null}")
+                .contains("{\"lastName\": {\"$gt\": \"Doe\"}}")
+                .contains("\"$oid\": \"" + id + "\"");
+    }
+
+    @Test
+    @DisplayName("searchByName orders by last name first when only a last name prefix is given")
+    void searchByName_lastNameOnly_sortsByLastName() {
+        repository.searchByName(new TrainerSearch(null, "do", null, null), 10);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(TrainerWorkloadDocument.class));
+        assertThat(query.getValue().getSortObject().keySet()).containsExactly("lastName", "firstName", "_id");
+    }
+
+    @Test
+    @DisplayName("dropLegacyNameIndex drops idx_first_last_name only where it still exists")
+    void dropLegacyNameIndex_onlyWhenPresent() {
+        IndexOperations indexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(COLLECTION)).thenReturn(indexes);
+        when(indexes.getIndexInfo())
+                .thenReturn(List.of(index("_id_"), index("idx_first_last_name")))
+                .thenReturn(List.of(index("_id_")));
+
+        assertThat(repository.dropLegacyNameIndex()).isTrue();
+        assertThat(repository.dropLegacyNameIndex()).isFalse();
+
+        verify(indexes, times(1)).dropIndex("idx_first_last_name");
+    }
+
+    private static IndexInfo index(String name) {
+        return new IndexInfo(List.of(IndexField.create("firstName", Sort.Direction.ASC)), name, false, false, null);
+    }
+
+    private Document setStage(UpdateDefinition update) {
+        List<Document> pipeline = ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline).hasSize(1);
+        return pipeline.get(0).get("$set", Document.class);
+    }
+
+    private TrainerWorkloadDocument legacyDocument(Long version) {
+        YearEntry year = new YearEntry(2024);
+        year.getMonths().add(new MonthEntry(11, 30));
+        year.getMonths().add(new MonthEntry(3, 45));
+
+        TrainerWorkloadDocument doc = new TrainerWorkloadDocument();
+        doc.setTrainerUsername("john.doe");
+        doc.setVersion(version);
+        doc.setYears(new ArrayList<>(List.of(year)));
+        return doc;
+    }
+
+    private UpdateResult matched(long count) {
+        return UpdateResult.acknowledged(count, count, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.repository.ArchivePage;
+import com.gymcrm.workload.repository.TrainerWorkloadBucketRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadBucketArchiver")
+class WorkloadBucketArchiverTest {
+
+    private static final Clock JUNE_2026 = Clock.fixed(Instant.parse("2026-06-15T03:30:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private TrainerWorkloadBucketRepository bucketRepository;
+
+    @Test
+    @DisplayName("keeps retain-years hot and moves older buckets page by page until none are left")
+    void archiveOldYears_movesPagesBeforeCutoff() {
+        WorkloadBucketArchiver archiver = new WorkloadBucketArchiver(bucketRepository, JUNE_2026, 2, 100);
+        when(bucketRepository.archiveBefore(2025, 100))
+                .thenReturn(new ArchivePage(100, 100), new ArchivePage(37, 37), ArchivePage.EMPTY);
+
+        assertThat(archiver.archiveOldYears()).isEqualTo(137);
+
+        verify(bucketRepository, times(3)).archiveBefore(2025, 100);
+    }
+
+    @Test
+    @DisplayName("a page whose buckets all changed during the move does not end the run")
+    void archiveOldYears_pageLostEveryRace_readAgain() {
+        WorkloadBucketArchiver archiver = new WorkloadBucketArchiver(bucketRepository, JUNE_2026, 2, 100);
+        when(bucketRepository.archiveBefore(2025, 100))
+                .thenReturn(new ArchivePage(100, 0), new ArchivePage(100, 100), new ArchivePage(20, 20), ArchivePage.EMPTY);
+
+        assertThat(archiver.archiveOldYears()).isEqualTo(120);
+
+        verify(bucketRepository, times(4)).archiveBefore(2025, 100);
+    }
+
+    @Test
+    @DisplayName("the run gives up after several pages in a row move nothing")
+    void archiveOldYears_bucketsKeepChanging_stops() {
+        WorkloadBucketArchiver archiver = new WorkloadBucketArchiver(bucketRepository, JUNE_2026, 2, 100);
+        when(bucketRepository.archiveBefore(2025, 100)).thenReturn(new ArchivePage(5, 0));
+
+        assertThat(archiver.archiveOldYears()).isZero();
+
+        verify(bucketRepository, times(3)).archiveBefore(2025, 100);
+    }
+}
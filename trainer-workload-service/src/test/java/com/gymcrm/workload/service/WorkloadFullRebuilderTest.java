@@ -0,0 +1,153 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.client.GymCrmExportClient;
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.dto.TrainerMonthExportRow;
+import com.gymcrm.workload.repository.TrainerWorkloadShadowRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadFullRebuilder")
+class WorkloadFullRebuilderTest {
+
+    private static final String AUTHORIZATION = "Bearer token";
+
+    @Mock
+    private GymCrmExportClient exportClient;
+
+    @Mock
+    private TrainerWorkloadShadowRepository shadowRepository;
+
+    @Mock
+    private WorkloadRollupService rollups;
+
+    @Mock
+    private WorkloadEventLog eventLog;
+
+    @Mock
+    private WorkloadProjectionRebuilder projectionRebuilder;
+
+    private final List<TrainerWorkloadDocument> inserted = Collections.synchronizedList(new ArrayList<>());
+
+    private WorkloadFullRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> inserted.addAll(invocation.getArgument(0)))
+                .when(shadowRepository).insert(anyList());
+        rebuilder = rebuilder("document");
+    }
+
+    @Test
+    @DisplayName("folds each range's rows into one document per trainer and swaps the shadow in")
+    void run_loadsShadowAndSwaps() {
+        when(exportClient.fetchRangeBoundaries(32, AUTHORIZATION)).thenReturn(List.of("anna.lee", "mike.ross"));
+        stream("", "mike.ross",
+                row("anna.lee", 2026, 5, 60L), row("anna.lee", 2026, 6, 90L), row("bob.kent", null, null, null));
+        stream("mike.ross", null, row("mike.ross", 2025, 12, 45L));
+        when(eventLog.isEnabled()).thenReturn(true);
+
+        rebuilder.run(AUTHORIZATION);
+
+        assertThat(inserted).extracting(TrainerWorkloadDocument::getTrainerUsername)
+                .containsExactlyInAnyOrder("anna.lee", "bob.kent", "mike.ross");
+        TrainerWorkloadDocument anna = inserted.stream()
+                .filter(document -> document.getTrainerUsername().equals("anna.lee")).findFirst().orElseThrow();
+        assertThat(anna.getTotals()).isEqualTo(Map.of("2026", Map.of("05", 60, "06", 90)));
+        assertThat(anna.getFirstName()).isEqualTo("First");
+        assertThat(anna.isLegacyLayout()).isFalse();
+
+        InOrder order = inOrder(shadowRepository, rollups, projectionRebuilder);
+        order.verify(shadowRepository).recreate();
+        order.verify(shadowRepository).createIndexes();
+        order.verify(shadowRepository).copyRecentEventIds();
+        order.verify(shadowRepository).swap();
+        order.verify(rollups).rebuild();
+        order.verify(projectionRebuilder).seed();
+
+        WorkloadFullRebuilder.Status status = rebuilder.status();
+        assertThat(status.state()).isEqualTo(WorkloadFullRebuilder.State.COMPLETED);
+        assertThat(status.chunksDone()).isEqualTo(2);
+        assertThat(status.trainers()).isEqualTo(3);
+        assertThat(status.rows()).isEqualTo(4);
+        assertThat(rebuilder.isRunning()).isFalse();
+    }
+
+    @Test
+    @DisplayName("a failing range fails the rebuild without touching the live collection")
+    void run_chunkFails_noSwap() {
+        when(exportClient.fetchRangeBoundaries(32, AUTHORIZATION)).thenReturn(List.of());
+        doThrow(new IllegalStateException("gym-crm workload export failed with 503"))
+                .when(exportClient).streamMonthlyTotals(eq(""), isNull(), eq(AUTHORIZATION), any());
+
+        rebuilder.run(AUTHORIZATION);
+
+        verify(shadowRepository, never()).swap();
+        verify(rollups, never()).rebuild();
+        assertThat(rebuilder.status().state()).isEqualTo(WorkloadFullRebuilder.State.FAILED);
+        assertThat(rebuilder.status().error()).contains("503");
+    }
+
+    @Test
+    @DisplayName("the ranges cover every username and the last one is open-ended")
+    void ranges_coverEverything() {
+        assertThat(WorkloadFullRebuilder.ranges(List.of("b", "k", "t")))
+                .containsExactly(new String[] {"", "k"}, new String[] {"k", "t"}, new String[] {"t", null});
+        assertThat(WorkloadFullRebuilder.ranges(List.of()))
+                .containsExactly(new String[][] {{"", null}});
+    }
+
+    @Test
+    @DisplayName("full rebuilds need document storage")
+    void bucketStorage_rejected() {
+        assertThatThrownBy(() -> rebuilder("bucket").start(AUTHORIZATION))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stream(String from, String to, TrainerMonthExportRow... rows) {
+        doAnswer(invocation -> {
+            Consumer<TrainerMonthExportRow> sink = invocation.getArgument(3);
+            List.of(rows).forEach(sink);
+            return null;
+        }).when(exportClient).streamMonthlyTotals(eq(from), to == null ? isNull() : eq(to), eq(AUTHORIZATION), any());
+    }
+
+    private WorkloadFullRebuilder rebuilder(String storage) {
+        WorkloadSummaryCache cache = new WorkloadSummaryCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        return new WorkloadFullRebuilder(exportClient, shadowRepository, rollups, cache, eventLog,
+                projectionRebuilder, new SimpleMeterRegistry(), 32, 2, 2, storage);
+    }
+
+    private static TrainerMonthExportRow row(String trainer, Integer year, Integer month, Long minutes) {
+        return new TrainerMonthExportRow(trainer, "First", "Last", true, year, month, minutes);
+    }
+}
@@ -0,0 +1,181 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.dto.WorkloadRequest;
+import com.gymcrm.workload.service.WorkloadIngestBuffer.Admission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadIngestBuffer")
+class WorkloadIngestBufferTest {
+
+    @Mock
+    private WorkloadService workloadService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private WorkloadIngestBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null && buffer.isRunning()) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("accepted events are written together with one processBatch call")
+    void offer_accepted_flushedAsOneBatch() {
+        buffer = buffer(100, 200, Duration.ofMillis(50));
+        buffer.start();
+
+        assertThat(buffer.offer("ack-1", List.of(event(), event(), event()))).isEqualTo(Admission.ACCEPTED);
+
+        verify(workloadService, timeout(2_000)).processBatch(argThat(requests -> requests.size() == 3));
+        assertThat(meterRegistry.get("workload.ingest.events").tag("result", "accepted").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("a request that does not fit as a whole is rejected as FULL and nothing of it is buffered")
+    void offer_beyondCapacity_full() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(workloadService).processBatch(anyList());
+        buffer = buffer(2, 0, Duration.ofMillis(50));
+        buffer.start();
+
+        buffer.offer("ack-1", List.of(event()));
+        assertThat(writing.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(buffer.offer("ack-2", List.of(event(), event()))).isEqualTo(Admission.ACCEPTED);
+        assertThat(buffer.offer("ack-3", List.of(event()))).isEqualTo(Admission.FULL);
+
+        assertThat(buffer.depth()).isEqualTo(2);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("while a flush is failing new events are refused as UNAVAILABLE and the batch is retried")
+    void flushFailure_unavailableUntilRetrySucceeds() {
+        doThrow(new IllegalStateException("mongo down")).doNothing().when(workloadService).processBatch(anyList());
+        buffer = buffer(100, 0, Duration.ofMillis(300));
+        buffer.start();
+
+        buffer.offer("ack-1", List.of(event()));
+        await().atMost(Duration.ofSeconds(2)).until(() ->
+                meterRegistry.get("workload.ingest.flush.failures").counter().count() == 1.0);
+        assertThat(buffer.offer("ack-2", List.of(event()))).isEqualTo(Admission.UNAVAILABLE);
+
+        await().atMost(Duration.ofSeconds(2)).until(() ->
+                meterRegistry.get("workload.ingest.events").tag("result", "applied").counter().count() == 1.0);
+        verify(workloadService, times(2)).processBatch(argThat(requests -> requests.size() == 1));
+        assertThat(buffer.offer("ack-3", List.of(event()))).isEqualTo(Admission.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("a batch that keeps failing is applied event by event and only the failing event is dropped")
+    void flushFailure_poisonEvent_droppedAfterRetries() {
+        WorkloadRequest poison = event();
+        poison.setTrainerUsername("broken.trainer");
+        doThrow(new IllegalArgumentException("cannot be written"))
+                .when(workloadService).processBatch(argThat(requests -> requests.contains(poison)));
+        buffer = buffer(100, 200, Duration.ofMillis(20));
+        buffer.start();
+
+        buffer.offer("ack-1", List.of(event(), poison, event()));
+
+        await().atMost(Duration.ofSeconds(2)).until(() ->
+                meterRegistry.get("workload.ingest.events").tag("result", "poisoned").counter().count() == 1.0);
+        verify(workloadService, times(2)).processBatch(argThat(requests -> requests.size() == 3));
+        verify(workloadService, times(2)).processBatch(argThat(requests -> requests.size() == 1 && !requests.contains(poison)));
+        assertThat(meterRegistry.get("workload.ingest.events").tag("result", "applied").counter().count()).isEqualTo(2.0);
+        assertThat(buffer.offer("ack-2", List.of(event()))).isEqualTo(Admission.ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("an unreachable MongoDB is waited out without dropping events")
+    void flushFailure_outage_retriedBeyondMaxRetries() {
+        doThrow(new DataAccessResourceFailureException("mongo down"))
+                .doThrow(new DataAccessResourceFailureException("mongo down"))
+                .doThrow(new DataAccessResourceFailureException("mongo down"))
+                .doNothing()
+                .when(workloadService).processBatch(anyList());
+        buffer = buffer(100, 200, Duration.ofMillis(20));
+        buffer.start();
+
+        buffer.offer("ack-1", List.of(event(), event()));
+
+        await().atMost(Duration.ofSeconds(2)).until(() ->
+                meterRegistry.get("workload.ingest.events").tag("result", "applied").counter().count() == 2.0);
+        verify(workloadService, times(4)).processBatch(argThat(requests -> requests.size() == 2));
+        assertThat(meterRegistry.get("workload.ingest.events").tag("result", "poisoned").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("nothing is accepted before start or after stop")
+    void offer_notRunning_unavailable() {
+        buffer = buffer(100, 0, Duration.ofMillis(50));
+
+        assertThat(buffer.offer("ack-1", List.of(event()))).isEqualTo(Admission.UNAVAILABLE);
+
+        buffer.start();
+        buffer.stop();
+        assertThat(buffer.offer("ack-2", List.of(event()))).isEqualTo(Admission.UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("stop drains the events still buffered")
+    void stop_drainsBuffer() {
+        doNothing().when(workloadService).processBatch(anyList());
+        buffer = buffer(100, 0, Duration.ofMillis(50));
+        buffer.start();
+        buffer.offer("ack-1", List.of(event(), event()));
+
+        buffer.stop();
+
+        assertThat(meterRegistry.get("workload.ingest.events").tag("result", "applied").counter().count())
+                .isEqualTo(2.0);
+        assertThat(buffer.depth()).isZero();
+    }
+
+    private WorkloadIngestBuffer buffer(int capacity, long lingerMs, Duration retryBackoff) {
+        return new WorkloadIngestBuffer(workloadService, meterRegistry, capacity, 500, lingerMs,
+                retryBackoff, 2, Duration.ofSeconds(2));
+    }
+
+    private static WorkloadRequest event() {
+        WorkloadRequest request = new WorkloadRequest();
+        request.setTrainerUsername("john.doe");
+        request.setTrainingDate(LocalDate.of(2026, 6, 15));
+        request.setTrainingDuration(30);
+        request.setActionType(WorkloadRequest.ActionType.ADD);
+        return request;
+    }
+}
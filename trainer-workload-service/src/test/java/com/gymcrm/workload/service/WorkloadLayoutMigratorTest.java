@@ -0,0 +1,76 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadLayoutMigrator")
+class WorkloadLayoutMigratorTest {
+
+    @Mock
+    private TrainerWorkloadDocumentRepository repository;
+
+    private WorkloadLayoutMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        migrator = new WorkloadLayoutMigrator(repository, new SimpleMeterRegistry(), 2, 0);
+    }
+
+    @Test
+    @DisplayName("pages through the collection from the last id of each page until nothing is left")
+    void migrateAll_continuesFromLastIdUntilDone() {
+        when(repository.migrateLegacyLayouts(isNull(), eq(2))).thenReturn("id-2");
+        when(repository.migrateLegacyLayouts("id-2", 2)).thenReturn("id-4");
+        when(repository.migrateLegacyLayouts("id-4", 2)).thenReturn(null);
+
+        assertThat(migrator.migrateAll()).isEqualTo(2);
+
+        verify(repository).migrateLegacyLayouts("id-4", 2);
+    }
+
+    @Test
+    @DisplayName("a failing page stops the run without propagating the exception")
+    void migrateAll_failure_stopsQuietly() {
+        when(repository.migrateLegacyLayouts(isNull(), eq(2))).thenThrow(new IllegalStateException("mongo down"));
+
+        assertThat(migrator.migrateAll()).isZero();
+    }
+
+    @Test
+    @DisplayName("drops the legacy name index before the first page, and a failing drop does not stop the migration")
+    void migrateAll_dropsLegacyIndexFirst() {
+        when(repository.dropLegacyNameIndex()).thenThrow(new IllegalStateException("mongo down"));
+        when(repository.migrateLegacyLayouts(isNull(), eq(2))).thenReturn(null);
+
+        assertThat(migrator.migrateAll()).isZero();
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).dropLegacyNameIndex();
+        order.verify(repository).migrateLegacyLayouts(null, 2);
+    }
+
+    @Test
+    @DisplayName("a stopped migrator does not start another page")
+    void migrateAll_afterStop_doesNothing() {
+        migrator.stop();
+
+        assertThat(migrator.migrateAll()).isZero();
+        verifyNoMoreInteractions(repository);
+    }
+}
@@ -0,0 +1,225 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.document.WorkloadEventLogEntry;
+import com.gymcrm.workload.document.WorkloadEventLogEntry.Kind;
+import com.gymcrm.workload.dto.ProjectionRebuildResponse;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadEventLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadProjectionRebuilder")
+class WorkloadProjectionRebuilderTest {
+
+    @Mock
+    private WorkloadEventLogRepository logRepository;
+
+    @Mock
+    private TrainerWorkloadDocumentRepository repository;
+
+    @Mock
+    private WorkloadEventLog eventLog;
+
+    @Mock
+    private WorkloadRollupService rollups;
+
+    private WorkloadProjectionRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(eventLog.isEnabled()).thenReturn(true);
+        rebuilder = rebuilder("document");
+    }
+
+    @Test
+    @DisplayName("replay floors each DELETE at 0, skips logged redeliveries and keeps the latest profile")
+    @SuppressWarnings("unchecked")
+    void rebuildTrainer_replaysDeltasInOrder() {
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(document(7L, 2026, 6, 999)));
+        when(logRepository.streamTrainer("john.doe")).thenReturn(Stream.of(
+                delta("evt-1", 2026, 6, 60, "John"),
+                delta("evt-2", 2026, 6, -90, null),
+                delta("evt-3", 2026, 6, 30, null),
+                delta("evt-3", 2026, 6, 30, null),
+                profile("Johnny")));
+        when(repository.replaceProjection(eq("john.doe"), any(), any(), anyList(), eq(7L))).thenReturn(true);
+
+        ProjectionRebuildResponse response = rebuilder.rebuildTrainer("john.doe");
+
+        ArgumentCaptor<SortedMap<String, SortedMap<String, Integer>>> totals = ArgumentCaptor.forClass(SortedMap.class);
+        verify(repository).replaceProjection(eq("john.doe"), totals.capture(),
+                eq(new TrainerProfile("john.doe", "Johnny", "Doe", true)),
+                eq(List.of("evt-1", "evt-2", "evt-3")), eq(7L));
+        assertThat(totals.getValue()).isEqualTo(totals(2026, 6, 30));
+        verify(rollups).record(List.of(new MonthChange("john.doe", 2026, 6, 999, 30)));
+        assertThat(response).isEqualTo(new ProjectionRebuildResponse(1, 5, 0));
+    }
+
+    @Test
+    @DisplayName("a snapshot replaces the totals and ring replayed before it")
+    void rebuildTrainer_snapshotStartsOver() {
+        WorkloadEventLogEntry snapshot = entry(Kind.SNAPSHOT);
+        snapshot.setTotals(totals(2025, 1, 120));
+        snapshot.setRecentEventIds(List.of("old-1"));
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.empty());
+        when(logRepository.streamTrainer("john.doe")).thenReturn(Stream.of(
+                delta("evt-0", 2024, 3, 45, null),
+                snapshot,
+                delta("old-1", 2025, 1, 120, null),
+                delta("evt-1", 2025, 1, -20, null)));
+        when(repository.replaceProjection(any(), any(), any(), anyList(), any())).thenReturn(true);
+
+        rebuilder.rebuildTrainer("john.doe");
+
+        verify(repository).replaceProjection("john.doe", totals(2025, 1, 100), null, List.of("old-1", "evt-1"), null);
+    }
+
+    @Test
+    @DisplayName("a trainer written during replay is replayed again against the new version")
+    void rebuildTrainer_versionChanged_retried() {
+        when(repository.findByTrainerUsername("john.doe"))
+                .thenReturn(Optional.of(document(1L, 2026, 6, 10)))
+                .thenReturn(Optional.of(document(2L, 2026, 6, 40)));
+        when(logRepository.streamTrainer("john.doe"))
+                .thenReturn(Stream.of(delta("evt-1", 2026, 6, 10, null)))
+                .thenReturn(Stream.of(delta("evt-1", 2026, 6, 10, null), delta("evt-2", 2026, 6, 30, null)));
+        when(repository.replaceProjection(any(), any(), any(), anyList(), eq(1L))).thenReturn(false);
+        when(repository.replaceProjection(any(), any(), any(), anyList(), eq(2L))).thenReturn(true);
+
+        ProjectionRebuildResponse response = rebuilder.rebuildTrainer("john.doe");
+
+        verify(repository).replaceProjection("john.doe", totals(2026, 6, 40), null, List.of("evt-1", "evt-2"), 2L);
+        verify(rollups).record(List.of());
+        assertThat(response.entries()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a trainer without log entries is not written")
+    void rebuildTrainer_noEntries_leftAlone() {
+        when(logRepository.streamTrainer("john.doe")).thenReturn(Stream.empty());
+
+        ProjectionRebuildResponse response = rebuilder.rebuildTrainer("john.doe");
+
+        assertThat(response.trainers()).isZero();
+        verify(repository, never()).replaceProjection(any(), any(), any(), anyList(), any());
+    }
+
+    @Test
+    @DisplayName("rebuildAll replays every logged trainer and counts the ones that fail")
+    void rebuildAll_countsFailures() {
+        when(logRepository.findTrainerUsernames()).thenReturn(List.of("john.doe", "jane.roe"));
+        when(logRepository.streamTrainer("john.doe")).thenReturn(Stream.of(delta("evt-1", 2026, 6, 10, null)));
+        when(logRepository.streamTrainer("jane.roe")).thenThrow(new IllegalStateException("cursor killed"));
+        when(repository.replaceProjection(any(), any(), any(), anyList(), any())).thenReturn(true);
+
+        ProjectionRebuildResponse response = rebuilder.rebuildAll();
+
+        assertThat(response).isEqualTo(new ProjectionRebuildResponse(1, 1, 1));
+    }
+
+    @Test
+    @DisplayName("seed appends one snapshot per trainer document")
+    @SuppressWarnings("unchecked")
+    void seed_snapshotsEveryDocument() {
+        when(repository.streamAllBy()).thenReturn(Stream.of(document(1L, 2026, 6, 10), document(3L, 2026, 7, 20)));
+
+        ProjectionRebuildResponse response = rebuilder.seed();
+
+        ArgumentCaptor<List<TrainerWorkloadDocument>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventLog, times(1)).appendSnapshots(batch.capture());
+        assertThat(batch.getValue()).hasSize(2);
+        assertThat(response.trainers()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("rebuilds need document storage and an enabled event log")
+    void unsupportedConfigurations_rejected() {
+        assertThatThrownBy(() -> rebuilder("bucket").rebuildAll())
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        when(eventLog.isEnabled()).thenReturn(false);
+        assertThatThrownBy(() -> rebuilder.rebuildTrainer("john.doe"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        verify(logRepository, never()).streamTrainer(any());
+    }
+
+    private WorkloadProjectionRebuilder rebuilder(String storage) {
+        WorkloadSummaryCache cache = new WorkloadSummaryCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        return new WorkloadProjectionRebuilder(logRepository, repository, eventLog, cache, rollups, 2, storage);
+    }
+
+    private static WorkloadEventLogEntry delta(String eventId, int year, int month, int minutes, String firstName) {
+        WorkloadEventLogEntry entry = entry(Kind.DELTA);
+        entry.setEventId(eventId);
+        entry.setYear(year);
+        entry.setMonth(month);
+        entry.setMinutes(minutes);
+        if (firstName != null) {
+            entry.setFirstName(firstName);
+            entry.setLastName("Doe");
+            entry.setActive(true);
+        }
+        return entry;
+    }
+
+    private static WorkloadEventLogEntry profile(String firstName) {
+        WorkloadEventLogEntry entry = entry(Kind.PROFILE);
+        entry.setFirstName(firstName);
+        entry.setLastName("Doe");
+        entry.setActive(true);
+        return entry;
+    }
+
+    private static WorkloadEventLogEntry entry(Kind kind) {
+        WorkloadEventLogEntry entry = new WorkloadEventLogEntry();
+        entry.setTrainerUsername("john.doe");
+        entry.setKind(kind);
+        entry.setRecordedAt(Instant.parse("2026-06-01T10:00:00Z"));
+        return entry;
+    }
+
+    private static TrainerWorkloadDocument document(long version, int year, int month, int minutes) {
+        TrainerWorkloadDocument document = new TrainerWorkloadDocument();
+        document.setTrainerUsername("john.doe");
+        document.setSchemaVersion(TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+        document.setTotals(totals(year, month, minutes));
+        document.setVersion(version);
+        return document;
+    }
+
+    private static SortedMap<String, SortedMap<String, Integer>> totals(int year, int month, int minutes) {
+        SortedMap<String, SortedMap<String, Integer>> totals = new TreeMap<>();
+        totals.computeIfAbsent(TrainerWorkloadDocument.yearKey(year), k -> new TreeMap<>())
+                .put(TrainerWorkloadDocument.monthKey(month), minutes);
+        return totals;
+    }
+}
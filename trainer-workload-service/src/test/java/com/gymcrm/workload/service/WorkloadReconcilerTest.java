@@ -0,0 +1,171 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.client.GymCrmExportClient;
+import com.gymcrm.workload.document.TrainerWorkloadDocument;
+import com.gymcrm.workload.dto.RangeDigest;
+import com.gymcrm.workload.dto.ReconcileResponse;
+import com.gymcrm.workload.dto.TrainerDigest;
+import com.gymcrm.workload.dto.TrainerMonthExportRow;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadDigestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadReconciler")
+class WorkloadReconcilerTest {
+
+    private static final String AUTHORIZATION = "Bearer token";
+    private static final String JOHN_ONLY = "john.doe\u0001";
+    private static final String JANE_ONLY = "jane.roe\u0001";
+
+    @Mock
+    private GymCrmExportClient exportClient;
+
+    @Mock
+    private WorkloadDigestRepository digestRepository;
+
+    @Mock
+    private TrainerWorkloadDocumentRepository repository;
+
+    @Mock
+    private WorkloadRollupService rollups;
+
+    @Mock
+    private WorkloadEventLog eventLog;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WorkloadReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = reconciler("document");
+    }
+
+    @Test
+    @DisplayName("matching overall digests end the run without comparing ranges")
+    void reconcile_rootMatches_nothingElseCompared() {
+        when(exportClient.fetchRangeDigest("", null, AUTHORIZATION)).thenReturn(new RangeDigest("", null, 10, 777));
+        when(digestRepository.rangeDigest("", null)).thenReturn(new RangeDigest("", null, 10, 777));
+
+        ReconcileResponse response = reconciler.reconcile(AUTHORIZATION);
+
+        assertThat(response).isEqualTo(new ReconcileResponse(1, 0, 0, 0, 0));
+        verify(exportClient, never()).fetchRangeBoundaries(anyInt(), anyString());
+        verify(repository, never()).replaceProjection(any(), any(), any(), anyList(), any());
+    }
+
+    @Test
+    @DisplayName("only trainers still differing after the settle delay are re-synced from gym-crm")
+    void reconcile_rangeMismatch_repairsDriftedTrainer() {
+        when(exportClient.fetchRangeDigest("", null, AUTHORIZATION)).thenReturn(new RangeDigest("", null, 3, 100));
+        when(digestRepository.rangeDigest("", null)).thenReturn(new RangeDigest("", null, 3, 90));
+        when(exportClient.fetchRangeBoundaries(8, AUTHORIZATION)).thenReturn(List.of("anna.lee", "mike.ross"));
+        when(exportClient.fetchRangeDigest("", "mike.ross", AUTHORIZATION)).thenReturn(new RangeDigest("", "mike.ross", 2, 60));
+        when(digestRepository.rangeDigest("", "mike.ross")).thenReturn(new RangeDigest("", "mike.ross", 2, 50));
+        when(exportClient.fetchRangeDigest("mike.ross", null, AUTHORIZATION)).thenReturn(new RangeDigest("mike.ross", null, 1, 40));
+        when(digestRepository.rangeDigest("mike.ross", null)).thenReturn(new RangeDigest("mike.ross", null, 1, 40));
+        when(exportClient.fetchTrainerDigests("", "mike.ross", AUTHORIZATION))
+                .thenReturn(List.of(new TrainerDigest("jane.roe", 20), new TrainerDigest("john.doe", 40)));
+        when(digestRepository.trainerDigests("", "mike.ross"))
+                .thenReturn(List.of(new TrainerDigest("jane.roe", 15), new TrainerDigest("john.doe", 35)));
+        // jane.roe's missing event arrives during the settle delay; john.doe stays drifted
+        when(exportClient.fetchTrainerDigests("jane.roe", JANE_ONLY, AUTHORIZATION)).thenReturn(List.of(new TrainerDigest("jane.roe", 20)));
+        when(digestRepository.trainerDigests("jane.roe", JANE_ONLY)).thenReturn(List.of(new TrainerDigest("jane.roe", 20)));
+        when(exportClient.fetchTrainerDigests("john.doe", JOHN_ONLY, AUTHORIZATION)).thenReturn(List.of(new TrainerDigest("john.doe", 40)));
+        when(digestRepository.trainerDigests("john.doe", JOHN_ONLY)).thenReturn(List.of(new TrainerDigest("john.doe", 35)));
+        doAnswer(invocation -> {
+            Consumer<TrainerMonthExportRow> sink = invocation.getArgument(2);
+            sink.accept(new TrainerMonthExportRow("john.doe", "John", "Doe", true, 2026, 6, 90L));
+            return null;
+        }).when(exportClient).streamTrainerTotals(eq("john.doe"), eq(AUTHORIZATION), any());
+        TrainerWorkloadDocument current = document(4L, 60, List.of("evt-1"));
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(current));
+        when(repository.replaceProjection(any(), any(), any(), anyList(), eq(4L))).thenReturn(true);
+
+        ReconcileResponse response = reconciler.reconcile(AUTHORIZATION);
+
+        assertThat(response).isEqualTo(new ReconcileResponse(2, 1, 1, 1, 0));
+        verify(repository).replaceProjection("john.doe", totals(90), new TrainerProfile("john.doe", "John", "Doe", true),
+                List.of("evt-1"), 4L);
+        verify(rollups).record(List.of(new MonthChange("john.doe", 2026, 6, 60, 90)));
+        verify(eventLog).appendSnapshots(anyList());
+        assertThat(meterRegistry.get("workload.reconcile.mismatches").tag("level", "trainer").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("workload.reconcile.repair").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("differing covers changed digests and trainers known to one side only")
+    void differing_includesOneSidedTrainers() {
+        assertThat(WorkloadReconciler.differing(
+                List.of(new TrainerDigest("a", 1), new TrainerDigest("b", 2), new TrainerDigest("c", 3)),
+                List.of(new TrainerDigest("b", 2), new TrainerDigest("c", 4), new TrainerDigest("d", 5))))
+                .containsExactly("a", "c", "d");
+    }
+
+    @Test
+    @DisplayName("reconciliation needs document storage")
+    void bucketStorage_rejected() {
+        assertThatThrownBy(() -> reconciler("bucket").reconcile(AUTHORIZATION))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("the nightly run cannot be enabled without a gym-crm account")
+    void enabledWithoutCredentials_failsAtStartup() {
+        WorkloadSummaryCache cache = new WorkloadSummaryCache(meterRegistry, 100, Duration.ofMinutes(1));
+        assertThatThrownBy(() -> new WorkloadReconciler(exportClient, digestRepository, repository, cache, rollups,
+                eventLog, meterRegistry, true, 8, Duration.ZERO, "", "", "document"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private WorkloadReconciler reconciler(String storage) {
+        WorkloadSummaryCache cache = new WorkloadSummaryCache(meterRegistry, 100, Duration.ofMinutes(1));
+        return new WorkloadReconciler(exportClient, digestRepository, repository, cache, rollups, eventLog, meterRegistry,
+                true, 8, Duration.ZERO, "reconcile.bot", "secret", storage);
+    }
+
+    private static TrainerWorkloadDocument document(long version, int minutes, List<String> ring) {
+        TrainerWorkloadDocument document = new TrainerWorkloadDocument();
+        document.setTrainerUsername("john.doe");
+        document.setSchemaVersion(TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+        document.setTotals(totals(minutes));
+        document.setRecentEventIds(ring);
+        document.setVersion(version);
+        return document;
+    }
+
+    private static SortedMap<String, SortedMap<String, Integer>> totals(int minutes) {
+        SortedMap<String, SortedMap<String, Integer>> totals = new TreeMap<>();
+        totals.put("2026", new TreeMap<>(Map.of("06", minutes)));
+        return totals;
+    }
+}
@@ -0,0 +1,117 @@
+package com.gymcrm.workload.service;
+
+import com.gymcrm.workload.document.WorkloadMonthRollup;
+import com.gymcrm.workload.dto.MonthRollupResponse;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadRollupService")
+class WorkloadRollupServiceTest {
+
+    private static final MonthChange ADD_60 = new MonthChange("john.doe", 2024, 6, 0, 60);
+
+    @Mock
+    private WorkloadRollupRepository rollupRepository;
+
+    @Mock
+    private TrainerWorkloadDocumentRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WorkloadRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new WorkloadRollupService(rollupRepository, repository, meterRegistry, true, 50, "document");
+    }
+
+    @Test
+    @DisplayName("record applies the changes with the configured leaderboard capacity")
+    void record_appliesChanges() {
+        service.record(ADD_60);
+
+        verify(rollupRepository).apply(List.of(ADD_60), 50);
+    }
+
+    @Test
+    @DisplayName("A failed rollup update is counted and never propagates to the event")
+    void record_failure_countedNotThrown() {
+        doThrow(new IllegalStateException("mongo down")).when(rollupRepository).apply(any(), anyInt());
+
+        service.record(ADD_60);
+
+        assertThat(meterRegistry.counter("workload.rollup.failures").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Disabled rollups are not written")
+    void record_disabled_noWrite() {
+        new WorkloadRollupService(rollupRepository, repository, meterRegistry, false, 50, "document").record(ADD_60);
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("getMonth of a month without data returns zero totals")
+    void getMonth_missing_returnsZeros() {
+        MonthRollupResponse response = service.getMonth(2024, 6, 10);
+
+        assertThat(response).isEqualTo(new MonthRollupResponse(2024, 6, 0L, 0, List.of()));
+    }
+
+    @Test
+    @DisplayName("getMonth serves the leaderboard cut to the requested size")
+    void getMonth_limitsLeaderboard() {
+        WorkloadMonthRollup rollup = new WorkloadMonthRollup();
+        rollup.setYear(2024);
+        rollup.setMonth(6);
+        rollup.setTotalMinutes(150L);
+        rollup.setActiveTrainers(2);
+        rollup.setTop(List.of(new WorkloadMonthRollup.TopTrainer("jane.roe", 90),
+                new WorkloadMonthRollup.TopTrainer("john.doe", 60)));
+        when(rollupRepository.find(2024, 6)).thenReturn(rollup);
+
+        MonthRollupResponse response = service.getMonth(2024, 6, 1);
+
+        assertThat(response.totalMinutes()).isEqualTo(150L);
+        assertThat(response.top()).containsExactly(new MonthRollupResponse.TopTrainer("jane.roe", 90));
+    }
+
+    @Test
+    @DisplayName("rebuild migrates remaining v1 documents before recomputing")
+    void rebuild_migratesLegacyFirst() {
+        when(repository.migrateLegacyLayouts(isNull(), anyInt())).thenReturn("id-1");
+        when(repository.migrateLegacyLayouts("id-1", 500)).thenReturn(null);
+
+        service.rebuild();
+
+        InOrder order = inOrder(repository, rollupRepository);
+        order.verify(repository).migrateLegacyLayouts("id-1", 500);
+        order.verify(rollupRepository).rebuildFromDocuments(50);
+        verify(rollupRepository, never()).rebuildFromBuckets(anyInt());
+    }
+}
@@ -3,29 +3,59 @@ package com.gymcrm.workload.service;
 import com.gymcrm.workload.document.TrainerWorkloadDocument;
 import com.gymcrm.workload.document.TrainerWorkloadDocument.MonthEntry;
 import com.gymcrm.workload.document.TrainerWorkloadDocument.YearEntry;
+import com.gymcrm.workload.document.TrainerWorkloadYearBucket;
+import com.gymcrm.workload.dto.TrainerProfileRequest;
+import com.gymcrm.workload.dto.TrainerSearchResponse;
+import com.gymcrm.workload.dto.WorkloadDeltaBatchRequest;
 import com.gymcrm.workload.dto.WorkloadRequest;
 import com.gymcrm.workload.dto.WorkloadSummaryResponse;
+import com.gymcrm.workload.repository.MonthChange;
+import com.gymcrm.workload.repository.TrainerProfile;
+import com.gymcrm.workload.repository.TrainerSearch;
+import com.gymcrm.workload.repository.TrainerWorkloadBucketRepository;
 import com.gymcrm.workload.repository.TrainerWorkloadDocumentRepository;
+import com.gymcrm.workload.repository.WorkloadDelta;
+import com.gymcrm.workload.repository.WorkloadRange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 import static com.gymcrm.workload.dto.WorkloadRequest.ActionType.ADD;
 import static com.gymcrm.workload.dto.WorkloadRequest.ActionType.DELETE;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,12 +65,43 @@ class WorkloadServiceTest {
     @Mock
     private TrainerWorkloadDocumentRepository repository;
 
-    @InjectMocks
+    @Mock
+    private TrainerWorkloadBucketRepository bucketRepository;
+
+    @Mock
+    private WorkloadRollupService rollups;
+
+    @Mock
+    private WorkloadEventLog eventLog;
+
+    /** Legacy read-modify-write mode — most tests below assert on the saved document. */
     private WorkloadService service;
 
+    private WorkloadService atomicService;
+
+    private WorkloadService bucketService;
+
     @Captor
     private ArgumentCaptor<TrainerWorkloadDocument> docCaptor;
 
+    @Captor
+    private ArgumentCaptor<WorkloadDelta> deltaCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new WorkloadService(repository, bucketRepository, newCache(), rollups, eventLog, meterRegistry,
+                WorkloadService.DOCUMENT_WRITE_MODE, "document");
+        atomicService = new WorkloadService(repository, bucketRepository, newCache(), rollups, eventLog, meterRegistry,
+                "atomic", "document");
+        bucketService = new WorkloadService(repository, bucketRepository, newCache(), rollups, eventLog, meterRegistry,
+                "atomic", WorkloadService.BUCKET_STORAGE);
+        lenient().when(repository.applyDelta(any())).thenAnswer(inv -> applied(inv.getArgument(0)));
+        lenient().when(bucketRepository.applyDelta(any())).thenAnswer(inv -> applied(inv.getArgument(0)));
+    }
+
     @AfterEach
     void clearMdc() {
         MDC.clear();
@@ -57,11 +118,10 @@ class WorkloadServiceTest {
 
         verify(repository).save(docCaptor.capture());
         TrainerWorkloadDocument saved = docCaptor.getValue();
-        assertThat(saved.getYears()).hasSize(1);
-        assertThat(saved.getYears().get(0).getYear()).isEqualTo(2024);
-        assertThat(saved.getYears().get(0).getMonths()).hasSize(1);
-        assertThat(saved.getYears().get(0).getMonths().get(0).getMonth()).isEqualTo(6);
-        assertThat(saved.getYears().get(0).getMonths().get(0).getTrainingSummaryDuration()).isEqualTo(90);
+        assertThat(saved.getTotals()).containsOnlyKeys("2024");
+        assertThat(saved.getTotals().get("2024")).containsExactly(entry("06", 90));
+        assertThat(saved.getSchemaVersion()).isEqualTo(TrainerWorkloadDocument.CURRENT_SCHEMA_VERSION);
+        assertThat(saved.getYears()).isNull();
     }
 
     @Test
@@ -129,36 +189,42 @@ class WorkloadServiceTest {
     }
 
     @Test
-    @DisplayName("Training in a new year adds a YearEntry alongside the existing one")
-    void processWorkload_existingTrainer_newYear_createsYearEntry() {
+    @DisplayName("Training in a new year adds a year key alongside the existing one")
+    void processWorkload_existingTrainer_newYear_createsYearKey() {
         when(repository.findByTrainerUsername("john.doe"))
                 .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 60)));
 
         service.processWorkload(buildRequest("john.doe", ADD, LocalDate.of(2025, 3, 1), 30));
 
         verify(repository).save(docCaptor.capture());
-        assertThat(docCaptor.getValue().getYears())
-                .hasSize(2)
-                .extracting(YearEntry::getYear)
-                .containsExactlyInAnyOrder(2024, 2025);
+        assertThat(docCaptor.getValue().getTotals()).containsOnlyKeys("2024", "2025");
     }
 
     @Test
-    @DisplayName("Training in a new month of an existing year adds a MonthEntry")
-    void processWorkload_existingTrainer_newMonthInExistingYear_createsMonthEntry() {
+    @DisplayName("Training in a new month of an existing year adds a month key")
+    void processWorkload_existingTrainer_newMonthInExistingYear_createsMonthKey() {
         when(repository.findByTrainerUsername("john.doe"))
                 .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 60)));
 
         service.processWorkload(buildRequest("john.doe", ADD, LocalDate.of(2024, 9, 1), 30));
 
         verify(repository).save(docCaptor.capture());
-        YearEntry year2024 = docCaptor.getValue().getYears().stream()
-                .filter(y -> y.getYear().equals(2024))
-                .findFirst().orElseThrow();
-        assertThat(year2024.getMonths())
-                .hasSize(2)
-                .extracting(MonthEntry::getMonth)
-                .containsExactlyInAnyOrder(6, 9);
+        assertThat(docCaptor.getValue().getTotals().get("2024")).containsOnlyKeys("06", "09");
+    }
+
+    @Test
+    @DisplayName("A v1 document is converted to the map-keyed layout by the write that touches it")
+    void processWorkload_legacyDocument_migratedOnWrite() {
+        when(repository.findByTrainerUsername("john.doe"))
+                .thenReturn(Optional.of(buildLegacyDocument("john.doe", 2024, 6, 60)));
+
+        service.processWorkload(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30));
+
+        verify(repository).save(docCaptor.capture());
+        TrainerWorkloadDocument saved = docCaptor.getValue();
+        assertThat(saved.isLegacyLayout()).isFalse();
+        assertThat(saved.getYears()).isNull();
+        assertThat(monthDuration(saved, 2024, 6)).isEqualTo(90);
     }
 
     @Test
@@ -189,6 +255,369 @@ class WorkloadServiceTest {
         verify(repository).save(any(TrainerWorkloadDocument.class));
     }
 
+    // Atomic write mode ────────────────────────────────────────────
+
+    @Test
+    @DisplayName("Atomic mode: ADD is applied as a positive delta without reading or saving the document")
+    void processWorkload_atomic_ADD_appliesPositiveDelta() {
+        atomicService.processWorkload(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 90));
+
+        verify(repository).applyDelta(deltaCaptor.capture());
+        assertThat(deltaCaptor.getValue())
+                .isEqualTo(new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 90));
+        verify(repository, never()).findByTrainerUsername(any());
+        verify(repository, never()).save(any(TrainerWorkloadDocument.class));
+    }
+
+    @Test
+    @DisplayName("Atomic mode: DELETE is applied as a negative delta (flooring happens server-side)")
+    void processWorkload_atomic_DELETE_appliesNegativeDelta() {
+        atomicService.processWorkload(buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 1), 40));
+
+        verify(repository).applyDelta(deltaCaptor.capture());
+        assertThat(deltaCaptor.getValue().minutes()).isEqualTo(-40);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Atomic mode: the month change returned by the write is passed to the rollups")
+    void processWorkload_atomic_recordsMonthChange() {
+        MonthChange change = new MonthChange("john.doe", 2024, 6, 30, 0);
+        doReturn(change).when(repository).applyDelta(any());
+
+        atomicService.processWorkload(buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 1), 40));
+
+        verify(rollups).record(change);
+    }
+
+    @Test
+    @DisplayName("Document mode: the floored in-memory change is passed to the rollups")
+    void processWorkload_document_recordsFlooredChange() {
+        when(repository.findByTrainerUsername("john.doe"))
+                .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 30)));
+
+        service.processWorkload(buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 1), 40));
+
+        verify(rollups).record(new MonthChange("john.doe", 2024, 6, 30, 0));
+    }
+
+    @Test
+    @DisplayName("processBatch passes the changes of the bulk write to the rollups")
+    void processBatch_recordsMonthChanges() {
+        List<MonthChange> changes = List.of(new MonthChange("john.doe", 2024, 6, 0, 60));
+        when(repository.applyDeltas(any())).thenReturn(changes);
+
+        atomicService.processBatch(List.of(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 60)));
+
+        verify(rollups).record(changes);
+    }
+
+    // Event deduplication ──────────────────────────────────────────
+
+    @Test
+    @DisplayName("The event is appended to the event log before it is applied")
+    void processWorkload_appendsToEventLogBeforeWrite() {
+        WorkloadRequest req = buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 1), 30);
+        req.setEventId("evt-1");
+
+        atomicService.processWorkload(req);
+
+        WorkloadDelta expected = new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, -30, List.of("evt-1"));
+        InOrder order = inOrder(eventLog, repository);
+        order.verify(eventLog).appendDeltas(List.of(expected));
+        order.verify(repository).applyDelta(expected);
+    }
+
+    @Test
+    @DisplayName("The event ID is passed to the atomic write with the delta")
+    void processWorkload_atomic_passesEventId() {
+        WorkloadRequest req = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 90);
+        req.setEventId("evt-1");
+
+        atomicService.processWorkload(req);
+
+        verify(repository).applyDelta(deltaCaptor.capture());
+        assertThat(deltaCaptor.getValue().eventIds()).containsExactly("evt-1");
+    }
+
+    @Test
+    @DisplayName("Atomic mode: a duplicate change is counted and neither invalidates the cache nor reaches the rollups")
+    void processWorkload_atomic_duplicate_countedAndSkipped() {
+        doReturn(new MonthChange("john.doe", 2024, 6, 90, 90, true)).when(repository).applyDelta(any());
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 90)));
+        atomicService.getSummary("john.doe");
+
+        WorkloadRequest req = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 90);
+        req.setEventId("evt-1");
+        atomicService.processWorkload(req);
+        atomicService.getSummary("john.doe");
+
+        assertThat(meterRegistry.counter("workload.events.deduplicated").count()).isEqualTo(1.0);
+        verify(rollups, never()).record(any(MonthChange.class));
+        verify(repository, times(1)).findByTrainerUsername("john.doe");
+    }
+
+    @Test
+    @DisplayName("Document mode: an event already in the ring is not saved again")
+    void processWorkload_document_duplicate_notSaved() {
+        TrainerWorkloadDocument doc = buildDocument("john.doe", 2024, 6, 90);
+        doc.setRecentEventIds(List.of("evt-1"));
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(doc));
+
+        WorkloadRequest req = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 90);
+        req.setEventId("evt-1");
+        service.processWorkload(req);
+
+        verify(repository, never()).save(any(TrainerWorkloadDocument.class));
+        assertThat(meterRegistry.counter("workload.events.deduplicated").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Document mode: the event ID joins the ring, which keeps only the newest IDs")
+    void processWorkload_document_appendsEventIdToBoundedRing() {
+        TrainerWorkloadDocument doc = buildDocument("john.doe", 2024, 6, 90);
+        List<String> full = new ArrayList<>();
+        for (int i = 0; i < TrainerWorkloadDocument.RECENT_EVENT_IDS; i++) {
+            full.add("old-" + i);
+        }
+        doc.setRecentEventIds(full);
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(doc));
+
+        WorkloadRequest req = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30);
+        req.setEventId("evt-new");
+        service.processWorkload(req);
+
+        verify(repository).save(docCaptor.capture());
+        List<String> ring = docCaptor.getValue().getRecentEventIds();
+        assertThat(ring).hasSize(TrainerWorkloadDocument.RECENT_EVENT_IDS);
+        assertThat(ring.get(0)).isEqualTo("old-1");
+        assertThat(ring.get(ring.size() - 1)).isEqualTo("evt-new");
+        assertThat(monthDuration(docCaptor.getValue(), 2024, 6)).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("processBatch drops applied and repeated events before folding and keeps the remaining IDs")
+    @SuppressWarnings("unchecked")
+    void processBatch_dropsDuplicateEvents() {
+        when(repository.findAppliedEventIds(any())).thenReturn(new HashSet<>(List.of("evt-1")));
+        WorkloadRequest applied = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 60);
+        applied.setEventId("evt-1");
+        WorkloadRequest fresh = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 2), 30);
+        fresh.setEventId("evt-2");
+        WorkloadRequest repeated = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 2), 30);
+        repeated.setEventId("evt-2");
+
+        atomicService.processBatch(List.of(applied, fresh, repeated));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 30, List.of("evt-2")));
+        assertThat(meterRegistry.counter("workload.events.deduplicated").count()).isEqualTo(2.0);
+        verify(eventLog).appendDeltas(List.of(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 30, List.of("evt-2"))));
+    }
+
+    @Test
+    @DisplayName("processBatch without event IDs does not read the applied IDs")
+    void processBatch_withoutEventIds_skipsDedupRead() {
+        atomicService.processBatch(List.of(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 60)));
+
+        verify(repository, never()).findAppliedEventIds(any());
+    }
+
+    @Test
+    @DisplayName("processDeltaBatch bulk-writes one delta per month, each guarded by its month's event ID")
+    @SuppressWarnings("unchecked")
+    void processDeltaBatch_appliesMonthDeltas() {
+        when(repository.findAppliedEventIds(any())).thenReturn(new HashSet<>(List.of("batch-1:2024-5")));
+
+        atomicService.processDeltaBatch(deltaBatch("batch-1", monthDelta(2024, 5, -60), monthDelta(2024, 6, -90)));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, -90, List.of("batch-1:2024-6")));
+        assertThat(meterRegistry.counter("workload.events.deduplicated").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("processBatch folds delta batches with single events of the same month")
+    @SuppressWarnings("unchecked")
+    void processBatch_foldsDeltaBatchesWithEvents() {
+        WorkloadRequest event = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30);
+
+        atomicService.processBatch(List.of(event), List.of(deltaBatch(null, monthDelta(2024, 6, -90))));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, -60));
+    }
+
+    @Test
+    @DisplayName("processBatch folds DELETE then ADD with the floor the single events imply")
+    @SuppressWarnings("unchecked")
+    void processBatch_deleteThenAdd_foldKeepsPerEventFloor() {
+        WorkloadRequest delete = buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 1), 50);
+        WorkloadRequest add = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 2), 20);
+
+        atomicService.processBatch(List.of(delete, add));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        WorkloadDelta folded = captor.getValue().iterator().next();
+        assertThat(folded.minutes()).isEqualTo(-30);
+        assertThat(folded.floor()).isEqualTo(20);
+        // Stored 30: one by one 30 → 0 → 20; folded max(20, 30 - 30) = 20. Stored 100: 50 → 70 either way.
+        assertThat(Math.max(folded.floor(), 30 + folded.minutes())).isEqualTo(20);
+        assertThat(Math.max(folded.floor(), 100 + folded.minutes())).isEqualTo(70);
+    }
+
+    // Slim events and profile changes ─────────────────────────────
+
+    @Test
+    @DisplayName("a slim event keeps the stored profile in document mode")
+    void processWorkload_slimEvent_keepsStoredProfile() {
+        TrainerWorkloadDocument existing = new TrainerWorkloadDocument();
+        existing.migrateToMapLayout();
+        existing.setTrainerUsername("john.doe");
+        existing.setFirstName("John");
+        existing.setLastName("Doe");
+        existing.setActive(true);
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(existing));
+
+        service.processWorkload(slim(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30)));
+
+        verify(repository).save(docCaptor.capture());
+        assertThat(docCaptor.getValue().getFirstName()).isEqualTo("John");
+        assertThat(docCaptor.getValue().getActive()).isTrue();
+    }
+
+    @Test
+    @DisplayName("processBatch takes the profile from the deltas that carry one")
+    @SuppressWarnings("unchecked")
+    void processBatch_slimEvents_profileFromFullEventOnly() {
+        WorkloadRequest full = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30);
+        WorkloadRequest slim = slim(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 2), 15));
+        WorkloadRequest otherSlim = slim(buildRequest("jane.roe", ADD, LocalDate.of(2024, 6, 2), 45));
+
+        atomicService.processBatch(List.of(full, slim, otherSlim));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 45),
+                new WorkloadDelta("jane.roe", null, null, null, 2024, 6, 45));
+    }
+
+    @Test
+    @DisplayName("processProfile writes only the profile and drops the cached summary")
+    void processProfile_updatesProfileOnly() {
+        TrainerProfileRequest profile = new TrainerProfileRequest();
+        profile.setTrainerUsername("john.doe");
+        profile.setFirstName("Johnny");
+        profile.setLastName("Doe");
+        profile.setIsActive(false);
+
+        atomicService.processProfile(profile);
+        bucketService.processProfile(profile);
+
+        TrainerProfile expected = new TrainerProfile("john.doe", "Johnny", "Doe", false);
+        verify(eventLog, times(2)).appendProfile(expected);
+        verify(repository).updateProfile(expected);
+        verify(bucketRepository).updateProfile(expected);
+        verify(repository, never()).applyDelta(any());
+        verifyNoMoreInteractions(rollups);
+    }
+
+    // Bucket storage ───────────────────────────────────────────────
+
+    @Test
+    @DisplayName("Bucket storage: the delta goes to the year bucket, the trainer document is never touched")
+    void processWorkload_bucket_appliesDeltaToBucket() {
+        bucketService.processWorkload(buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 1), 40));
+
+        verify(bucketRepository).applyDelta(new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, -40));
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Bucket storage: processBatch bulk-writes the folded deltas to buckets")
+    void processBatch_bucket_appliesDeltasToBuckets() {
+        bucketService.processBatch(List.of(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 60)));
+
+        verify(bucketRepository).applyDeltas(List.of(new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 60)));
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Bucket storage: summary merges buckets, counting a hot/archived copy once and summing late buckets")
+    void getSummary_bucket_mergesHotAndArchivedBuckets() {
+        TrainerWorkloadYearBucket archived2022 = bucket("b1", 2022, "03", 60, true, Instant.parse("2023-01-01T00:00:00Z"));
+        TrainerWorkloadYearBucket late2022 = bucket("b2", 2022, "03", 15, false, Instant.parse("2024-02-01T00:00:00Z"));
+        TrainerWorkloadYearBucket hot2024 = bucket("b3", 2024, "06", 90, false, Instant.parse("2024-06-01T00:00:00Z"));
+        TrainerWorkloadYearBucket archivedCopy2024 = bucket("b3", 2024, "06", 30, true, Instant.parse("2024-05-01T00:00:00Z"));
+        hot2024.setLastName("Smith");
+        when(bucketRepository.findBuckets("john.doe"))
+                .thenReturn(List.of(archived2022, late2022, archivedCopy2024, hot2024));
+
+        WorkloadSummaryResponse response = bucketService.getSummary("john.doe");
+
+        assertThat(response.getYears()).containsExactly(
+                new WorkloadSummaryResponse.YearSummary(2022, List.of(new WorkloadSummaryResponse.MonthSummary(3, 75))),
+                new WorkloadSummaryResponse.YearSummary(2024, List.of(new WorkloadSummaryResponse.MonthSummary(6, 90))));
+        assertThat(response.getLastName()).isEqualTo("Smith");
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Bucket storage: summary of a trainer without buckets has an empty years list")
+    void getSummary_bucket_noBuckets_returnsEmptyYears() {
+        when(bucketRepository.findBuckets("john.doe")).thenReturn(List.of());
+
+        assertThat(bucketService.getSummary("john.doe").getYears()).isEmpty();
+    }
+
+    // Batch mode ───────────────────────────────────────────────────
+
+    @Test
+    @DisplayName("processBatch folds events into one net delta per (trainer, year, month)")
+    @SuppressWarnings("unchecked")
+    void processBatch_foldsDeltasPerTrainerYearMonth() {
+        service.processBatch(List.of(
+                buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 60),
+                buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 15), 30),
+                buildRequest("john.doe", DELETE, LocalDate.of(2024, 6, 20), 20),
+                buildRequest("john.doe", ADD, LocalDate.of(2024, 7, 1), 45),
+                buildRequest("jane.roe", DELETE, LocalDate.of(2024, 6, 1), 10)));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder(
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 6, 70),
+                new WorkloadDelta("john.doe", "John", "Doe", true, 2024, 7, 45),
+                new WorkloadDelta("jane.roe", "John", "Doe", true, 2024, 6, -10));
+    }
+
+    @Test
+    @DisplayName("processBatch takes profile fields from the latest event of each trainer")
+    @SuppressWarnings("unchecked")
+    void processBatch_usesLatestProfilePerTrainer() {
+        WorkloadRequest renamed = buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 2), 15);
+        renamed.setLastName("Smith");
+        renamed.setIsActive(false);
+
+        service.processBatch(List.of(
+                buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 60),
+                renamed));
+
+        ArgumentCaptor<Collection<WorkloadDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).applyDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactly(
+                new WorkloadDelta("john.doe", "John", "Smith", false, 2024, 6, 75));
+    }
+
     // getSummary ───────────────────────────────────────────────────
 
     @Test
@@ -205,22 +634,11 @@ class WorkloadServiceTest {
     @Test
     @DisplayName("getSummary returns years and months sorted ascending with correct durations")
     void getSummary_documentExists_returnsNestedStructureSortedAscending() {
-        // Document with years and months intentionally out of order — proves sorting is applied
-        TrainerWorkloadDocument doc = new TrainerWorkloadDocument();
-        doc.setTrainerUsername("john.doe");
-        doc.setFirstName("John");
-        doc.setLastName("Doe");
-        doc.setActive(true);
-
-        YearEntry year2024 = new YearEntry(2024);
-        year2024.getMonths().add(new MonthEntry(1, 45));
-
-        YearEntry year2023 = new YearEntry(2023);
-        year2023.getMonths().add(new MonthEntry(12, 30));  // month 12 added before month 3
-        year2023.getMonths().add(new MonthEntry(3, 60));
-
-        doc.getYears().add(year2024);                      // year 2024 added before year 2023
-        doc.getYears().add(year2023);
+        // Keys intentionally inserted out of order — the sorted maps return calendar order
+        TrainerWorkloadDocument doc = buildDocument("john.doe", 2024, 1, 45);
+        doc.getTotals().put("2023", new TreeMap<>());
+        doc.getTotals().get("2023").put("12", 30);          // month 12 added before month 3
+        doc.getTotals().get("2023").put("03", 60);
 
         when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(doc));
 
@@ -249,6 +667,242 @@ class WorkloadServiceTest {
         assertThat(years.get(1).months().get(0).trainingSummaryDuration()).isEqualTo(45);
     }
 
+    @Test
+    @DisplayName("getSummary migrates a v1 document and answers from the converted layout")
+    void getSummary_legacyDocument_migratedOnRead() {
+        TrainerWorkloadDocument legacy = buildLegacyDocument("john.doe", 2023, 3, 60);
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(legacy));
+        when(repository.migrateLayout(legacy)).thenAnswer(inv -> {
+            TrainerWorkloadDocument doc = inv.getArgument(0);
+            doc.migrateToMapLayout();
+            return doc;
+        });
+
+        WorkloadSummaryResponse response = service.getSummary("john.doe");
+
+        verify(repository).migrateLayout(legacy);
+        assertThat(response.getYears()).containsExactly(new WorkloadSummaryResponse.YearSummary(
+                2023, List.of(new WorkloadSummaryResponse.MonthSummary(3, 60))));
+    }
+
+    @Test
+    @DisplayName("getSummary does not touch the repository's migration for a current document")
+    void getSummary_currentDocument_notMigrated() {
+        when(repository.findByTrainerUsername("john.doe"))
+                .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 60)));
+
+        service.getSummary("john.doe");
+
+        verify(repository, never()).migrateLayout(any());
+    }
+
+    // Range reads ──────────────────────────────────────────────────
+
+    @Test
+    @DisplayName("Range read asks the repository for the slice and totals what comes back")
+    void getSummary_range_readsSliceAndComputesTotals() {
+        WorkloadRange q1 = new WorkloadRange(2026, 2026, 1, 3);
+        TrainerWorkloadDocument slice = buildDocument("john.doe", 2026, 1, 45);
+        slice.getTotals().get("2026").put("03", 30);
+        when(repository.findSummarySlice("john.doe", q1)).thenReturn(Optional.of(slice));
+
+        WorkloadSummaryResponse response = atomicService.getSummary("john.doe", q1);
+
+        assertThat(response.getYears()).containsExactly(new WorkloadSummaryResponse.YearSummary(2026, List.of(
+                new WorkloadSummaryResponse.MonthSummary(1, 45),
+                new WorkloadSummaryResponse.MonthSummary(3, 30))));
+        assertThat(response.getYears().get(0).totalDuration()).isEqualTo(75);
+        assertThat(response.getTotalDuration()).isEqualTo(75);
+        verify(repository, never()).findByTrainerUsername(any());
+    }
+
+    @Test
+    @DisplayName("Range read slices a cached full summary in memory and drops years left empty")
+    void getSummary_range_cachedSummary_slicedInMemory() {
+        TrainerWorkloadDocument doc = buildDocument("john.doe", 2025, 6, 60);
+        doc.getTotals().put("2026", new TreeMap<>(Map.of("02", 20, "05", 50)));
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.of(doc));
+        atomicService.getSummary("john.doe");
+
+        WorkloadSummaryResponse response = atomicService.getSummary("john.doe", new WorkloadRange(null, null, 1, 3));
+
+        assertThat(response.getYears()).containsExactly(new WorkloadSummaryResponse.YearSummary(
+                2026, List.of(new WorkloadSummaryResponse.MonthSummary(2, 20))));
+        assertThat(response.getTotalDuration()).isEqualTo(20);
+        verify(repository, never()).findSummarySlice(any(), any());
+    }
+
+    @Test
+    @DisplayName("Bucket storage: range read only fetches the buckets of the requested years")
+    void getSummary_bucket_range_readsBucketsInRange() {
+        WorkloadRange range = new WorkloadRange(2024, 2024, null, null);
+        when(bucketRepository.findBuckets("john.doe", range))
+                .thenReturn(List.of(bucket("b1", 2024, "06", 90, false, Instant.parse("2024-06-01T00:00:00Z"))));
+
+        WorkloadSummaryResponse response = bucketService.getSummary("john.doe", range);
+
+        assertThat(response.getTotalDuration()).isEqualTo(90);
+        verify(bucketRepository, never()).findBuckets("john.doe");
+    }
+
+    // Bulk summaries ───────────────────────────────────────────────
+
+    @Test
+    @DisplayName("streamSummaries reads all trainers with one query and emits empty summaries for unknown ones")
+    void streamSummaries_document_oneQueryPlusMissingTrainers() {
+        when(repository.streamSummarySlices(List.of("john.doe", "ghost"), WorkloadRange.ALL))
+                .thenReturn(Stream.of(buildDocument("john.doe", 2024, 6, 60)));
+        List<WorkloadSummaryResponse> emitted = new ArrayList<>();
+
+        atomicService.streamSummaries(List.of("john.doe", "ghost", "john.doe"), WorkloadRange.ALL, emitted::add);
+
+        assertThat(emitted).extracting(WorkloadSummaryResponse::getTrainerUsername).containsExactly("john.doe", "ghost");
+        assertThat(emitted.get(0).getTotalDuration()).isEqualTo(60);
+        assertThat(emitted.get(1).getYears()).isEmpty();
+        verify(repository, never()).findByTrainerUsername(any());
+    }
+
+    @Test
+    @DisplayName("Bucket storage: streamSummaries groups consecutive buckets into one summary per trainer")
+    void streamSummaries_bucket_groupsPerTrainer() {
+        TrainerWorkloadYearBucket jane = bucket("b3", 2024, "01", 15, false, Instant.parse("2024-01-10T00:00:00Z"));
+        jane.setTrainerUsername("jane.roe");
+        when(bucketRepository.streamBuckets(List.of("jane.roe", "john.doe"), WorkloadRange.ALL)).thenReturn(Stream.of(
+                jane,
+                bucket("b1", 2023, "03", 60, false, Instant.parse("2023-03-01T00:00:00Z")),
+                bucket("b2", 2024, "06", 90, false, Instant.parse("2024-06-01T00:00:00Z"))));
+        List<WorkloadSummaryResponse> emitted = new ArrayList<>();
+
+        bucketService.streamSummaries(List.of("jane.roe", "john.doe"), WorkloadRange.ALL, emitted::add);
+
+        assertThat(emitted).extracting(WorkloadSummaryResponse::getTrainerUsername).containsExactly("jane.roe", "john.doe");
+        assertThat(emitted.get(1).getYears()).hasSize(2);
+        assertThat(emitted.get(1).getTotalDuration()).isEqualTo(150);
+    }
+
+    // Trainer search ───────────────────────────────────────────────
+
+    @Test
+    @DisplayName("searchTrainers fetches one extra row and returns a cursor positioned on the last trainer of the page")
+    void searchTrainers_morePages_returnsCursorOfLastRow() {
+        TrainerWorkloadDocument first = buildDocument("john.doe", 2024, 6, 60);
+        first.setId("65f000000000000000000001");
+        TrainerWorkloadDocument extra = buildDocument("john.dole", 2024, 6, 60);
+        when(repository.searchByName(new TrainerSearch("jo", null, null, null), 2)).thenReturn(List.of(first, extra));
+
+        TrainerSearchResponse response = atomicService.searchTrainers("jo", " ", null, 1, null);
+
+        assertThat(response.getTrainers()).extracting(TrainerSearchResponse.TrainerSummary::trainerUsername)
+                .containsExactly("john.doe");
+        assertThat(TrainerSearch.Position.decode(response.getNextCursor()))
+                .isEqualTo(new TrainerSearch.Position("John", "Doe", "65f000000000000000000001"));
+    }
+
+    @Test
+    @DisplayName("searchTrainers keeps a missing name as null in the cursor")
+    void searchTrainers_trainerWithoutNames_cursorKeepsNull() {
+        TrainerWorkloadDocument first = buildDocument("slim.trainer", 2024, 6, 60);
+        first.setId("65f000000000000000000001");
+        first.setFirstName(null);
+        first.setLastName(null);
+        when(repository.searchByName(any(), eq(2)))
+                .thenReturn(List.of(first, buildDocument("john.doe", 2024, 6, 60)));
+
+        TrainerSearchResponse response = atomicService.searchTrainers(null, null, null, 1, null);
+
+        assertThat(TrainerSearch.Position.decode(response.getNextCursor()))
+                .isEqualTo(new TrainerSearch.Position(null, null, "65f000000000000000000001"));
+    }
+
+    @Test
+    @DisplayName("searchTrainers returns no cursor on the last page")
+    void searchTrainers_lastPage_noCursor() {
+        when(repository.searchByName(any(), eq(21)))
+                .thenReturn(List.of(buildDocument("john.doe", 2024, 6, 60)));
+
+        TrainerSearchResponse response = atomicService.searchTrainers(null, "do", true, 20, null);
+
+        assertThat(response.getTrainers()).hasSize(1);
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("searchTrainers rejects a cursor it did not issue")
+    void searchTrainers_invalidCursor_rejected() {
+        assertThatThrownBy(() -> atomicService.searchTrainers("jo", null, null, 20, "not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Summary cache ────────────────────────────────────────────────
+
+    @Test
+    @DisplayName("getSummary serves repeated reads from the cache")
+    void getSummary_repeatedRead_servedFromCache() {
+        when(repository.findByTrainerUsername("john.doe"))
+                .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 60)));
+
+        atomicService.getSummary("john.doe");
+        WorkloadSummaryResponse second = atomicService.getSummary("john.doe");
+
+        verify(repository, times(1)).findByTrainerUsername("john.doe");
+        assertThat(second.getYears()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A processed event invalidates the trainer's cached summary")
+    void processWorkload_invalidatesCachedSummary() {
+        when(repository.findByTrainerUsername("john.doe"))
+                .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 60)))
+                .thenReturn(Optional.of(buildDocument("john.doe", 2024, 6, 90)));
+
+        atomicService.getSummary("john.doe");
+        atomicService.processWorkload(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30));
+        WorkloadSummaryResponse after = atomicService.getSummary("john.doe");
+
+        assertThat(after.getYears().get(0).months().get(0).trainingSummaryDuration()).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("processBatch invalidates every trainer in the batch")
+    void processBatch_invalidatesCachedSummaries() {
+        when(repository.findByTrainerUsername("john.doe")).thenReturn(Optional.empty());
+
+        atomicService.getSummary("john.doe");
+        atomicService.processBatch(List.of(buildRequest("john.doe", ADD, LocalDate.of(2024, 6, 1), 30)));
+        atomicService.getSummary("john.doe");
+
+        verify(repository, times(2)).findByTrainerUsername("john.doe");
+    }
+
+    @Test
+    @DisplayName("warmUpSummaries caches the most recently updated documents without writing legacy ones")
+    void warmUpSummaries_cachesRecentDocuments() {
+        when(repository.findByOrderByUpdatedAtDesc(PageRequest.of(0, 2))).thenReturn(List.of(
+                buildDocument("john.doe", 2024, 6, 60),
+                buildLegacyDocument("jane.roe", 2023, 3, 45)));
+
+        assertThat(atomicService.warmUpSummaries(2)).isEqualTo(2);
+
+        assertThat(atomicService.getSummary("jane.roe").getYears()).containsExactly(new WorkloadSummaryResponse.YearSummary(
+                2023, List.of(new WorkloadSummaryResponse.MonthSummary(3, 45))));
+        atomicService.getSummary("john.doe");
+        verify(repository, never()).findByTrainerUsername(any());
+        verify(repository, never()).migrateLayout(any());
+    }
+
+    @Test
+    @DisplayName("Bucket storage: warmUpSummaries loads the most recently active trainers")
+    void warmUpSummaries_bucket_loadsRecentTrainers() {
+        when(bucketRepository.findRecentlyActiveTrainers(10)).thenReturn(List.of("john.doe"));
+        when(bucketRepository.findBuckets("john.doe"))
+                .thenReturn(List.of(bucket("b1", 2024, "06", 90, false, Instant.parse("2024-06-01T00:00:00Z"))));
+
+        assertThat(bucketService.warmUpSummaries(10)).isEqualTo(1);
+        bucketService.getSummary("john.doe");
+
+        verify(bucketRepository, times(1)).findBuckets("john.doe");
+    }
+
     // MDC ──────────────────────────────────────────────────────────
 
     @Test
@@ -262,6 +916,40 @@ class WorkloadServiceTest {
         assertThat(MDC.get("transactionId")).isEqualTo("tx-abc");
     }
 
+    private static MonthChange applied(WorkloadDelta delta) {
+        return new MonthChange(delta.trainerUsername(), delta.year(), delta.month(), 0, Math.max(0, delta.minutes()));
+    }
+
+    private static WorkloadSummaryCache newCache() {
+        return new WorkloadSummaryCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    private WorkloadDeltaBatchRequest deltaBatch(String eventId, WorkloadDeltaBatchRequest.MonthDelta... deltas) {
+        WorkloadDeltaBatchRequest batch = new WorkloadDeltaBatchRequest();
+        batch.setTrainerUsername("john.doe");
+        batch.setFirstName("John");
+        batch.setLastName("Doe");
+        batch.setIsActive(true);
+        batch.setEventId(eventId);
+        batch.setDeltas(List.of(deltas));
+        return batch;
+    }
+
+    private WorkloadDeltaBatchRequest.MonthDelta monthDelta(int year, int month, int minutes) {
+        WorkloadDeltaBatchRequest.MonthDelta delta = new WorkloadDeltaBatchRequest.MonthDelta();
+        delta.setYear(year);
+        delta.setMonth(month);
+        delta.setMinutes(minutes);
+        return delta;
+    }
+
+    private static WorkloadRequest slim(WorkloadRequest req) {
+        req.setFirstName(null);
+        req.setLastName(null);
+        req.setIsActive(null);
+        return req;
+    }
+
     private WorkloadRequest buildRequest(String username, WorkloadRequest.ActionType action,
                                          LocalDate date, int duration) {
         WorkloadRequest req = new WorkloadRequest();
@@ -276,36 +964,55 @@ class WorkloadServiceTest {
     }
 
     /**
-     * Builds a document with a single year/month entry and a fixed profile.
+     * Builds a map-keyed document with a single year/month total and a fixed profile.
      * The profile values ("John", "Doe", active=true) are intentionally different from
      * the ones used in updatesProfileFields test, where the document is mutated before the call.
      */
     private TrainerWorkloadDocument buildDocument(String username, int year, int month, int duration) {
-        MonthEntry monthEntry = new MonthEntry(month, duration);
-        YearEntry  yearEntry  = new YearEntry(year);
-        yearEntry.getMonths().add(monthEntry);
+        TrainerWorkloadDocument doc = buildLegacyDocument(username, year, month, duration);
+        doc.migrateToMapLayout();
+        return doc;
+    }
+
+    private TrainerWorkloadYearBucket bucket(String id, int year, String month, int minutes,
+                                             boolean archived, Instant updatedAt) {
+        TrainerWorkloadYearBucket bucket = new TrainerWorkloadYearBucket();
+        bucket.setId(id);
+        bucket.setTrainerUsername("john.doe");
+        bucket.setFirstName("John");
+        bucket.setLastName("Doe");
+        bucket.setActive(true);
+        bucket.setYear(year);
+        bucket.getMonths().put(month, minutes);
+        bucket.setArchived(archived);
+        bucket.setUpdatedAt(updatedAt);
+        return bucket;
+    }
+
+    /** Builds a v1 document (years → months lists, no schema version). */
+    private TrainerWorkloadDocument buildLegacyDocument(String username, int year, int month, int duration) {
+        YearEntry yearEntry = new YearEntry(year);
+        yearEntry.getMonths().add(new MonthEntry(month, duration));
 
         TrainerWorkloadDocument doc = new TrainerWorkloadDocument();
         doc.setTrainerUsername(username);
         doc.setFirstName("John");
         doc.setLastName("Doe");
         doc.setActive(true);
-        doc.getYears().add(yearEntry);
+        doc.setYears(new ArrayList<>(List.of(yearEntry)));
         return doc;
     }
 
     /**
-     * Navigates to the specific year/month in the captured document and returns its duration.
+     * Looks up the year/month total in the captured document.
      * Throws AssertionError if the entry doesn't exist, giving a clear failure message.
      */
     private int monthDuration(TrainerWorkloadDocument doc, int year, int month) {
-        return doc.getYears().stream()
-                .filter(y -> y.getYear().equals(year))
-                .flatMap(y -> y.getMonths().stream())
-                .filter(m -> m.getMonth().equals(month))
-                .findFirst()
-                .map(MonthEntry::getTrainingSummaryDuration)
-                .orElseThrow(() -> new AssertionError(
-                        "No entry found for year=" + year + ", month=" + month));
+        Map<String, Integer> months = doc.getTotals().getOrDefault(TrainerWorkloadDocument.yearKey(year), new TreeMap<>());
+        Integer duration = months.get(TrainerWorkloadDocument.monthKey(month));
+        if (duration == null) {
+            throw new AssertionError("No entry found for year=" + year + ", month=" + month);
+        }
+        return duration;
     }
 }
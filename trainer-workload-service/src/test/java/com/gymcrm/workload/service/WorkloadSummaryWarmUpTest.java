@@ -0,0 +1,43 @@
+package com.gymcrm.workload.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkloadSummaryWarmUp")
+class WorkloadSummaryWarmUpTest {
+
+    @Mock
+    private WorkloadService workloadService;
+
+    @Test
+    @DisplayName("Warm-up loads the configured number of summaries")
+    void warmUp_delegatesWithConfiguredSize() {
+        when(workloadService.warmUpSummaries(50)).thenReturn(42);
+
+        assertThat(new WorkloadSummaryWarmUp(workloadService, 50).warmUp()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("A failing warm-up is logged and does not propagate")
+    void warmUp_failure_isSwallowed() {
+        when(workloadService.warmUpSummaries(50)).thenThrow(new IllegalStateException("mongo down"));
+
+        assertThat(new WorkloadSummaryWarmUp(workloadService, 50).warmUp()).isZero();
+    }
+
+    @Test
+    @DisplayName("A warm-up size of 0 disables the warm-up")
+    void start_sizeZero_doesNothing() {
+        new WorkloadSummaryWarmUp(workloadService, 0).start();
+
+        verifyNoInteractions(workloadService);
+    }
+}
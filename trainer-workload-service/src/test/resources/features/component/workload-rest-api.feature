@@ -22,6 +22,14 @@ Feature: Workload REST API
     When the workload summary is requested for "john.doe"
     Then the summary should show 60 minutes for year 2026 month 6
 
+  @positive
+  Scenario: Add several workload events posted as one JSON array
+    Given a valid JWT token
+    When 3 workload ADD events of 20 minutes on "2026-06-15" are posted as one array for trainer "john.doe"
+    Then the response status should be 200
+    When the workload summary is requested for "john.doe"
+    Then the summary should show 60 minutes for year 2026 month 6
+
   @edge-case
   Scenario: Unknown trainer returns empty summary
     Given a valid JWT token
@@ -58,3 +66,15 @@ Feature: Workload REST API
     Given an expired JWT token
     When a workload ADD event is posted for trainer "john.doe" with 60 minutes on "2026-06-15"
     Then the response status should be 401
+
+  @negative @security
+  Scenario: Dead-letter replay without the admin role returns 403
+    Given a valid JWT token
+    When a replay of pending dead letters is requested
+    Then the response status should be 403
+
+  @positive @security
+  Scenario: Dead-letter replay with the admin role is allowed
+    Given a valid admin JWT token
+    When a replay of pending dead letters is requested
+    Then the response status should be 200